@@ -12,9 +12,12 @@ import org.slf4j.LoggerFactory;
 
 import de.jplag.JPlag;
 import de.jplag.JPlagResult;
+import de.jplag.calibration.CalibrationResult;
+import de.jplag.calibration.MinimumMatchCalibration;
 import de.jplag.cli.logger.CliProgressBarProvider;
 import de.jplag.cli.logger.CollectedLogger;
 import de.jplag.cli.logger.CollectedLoggerFactory;
+import de.jplag.cli.options.CliOptions;
 import de.jplag.cli.picocli.CliInputHandler;
 import de.jplag.exceptions.ExitException;
 import de.jplag.logging.ProgressBarLogger;
@@ -33,8 +36,14 @@ public final class CLI {
 
     private static final String OUTPUT_FILE_EXISTS = "The output file already exists. You can use --overwrite to overwrite the file.";
     private static final String OUTPUT_FILE_NOT_WRITABLE = "The output file (%s) cannot be written to.";
+    private static final String INVALID_CALIBRATION_VALUES = "Invalid --calibration-values %s. Usage: --calibration-values=<value>[,<value>...] "
+            + "with positive minimum token matches, e.g. --calibration-values=6,9,12.";
+    private static final String INVALID_CALIBRATION_PAIRS = "Invalid --calibration-pairs %d. Usage: --calibration-pairs=<count> "
+            + "with a positive count.";
 
     private static final String ZIP_FILE_EXTENSION = ".zip";
+    private static final String CALIBRATION_FILE_SUFFIX = "-calibration.csv";
+    private static final String USAGE_HELP_REQUESTED = "The usage help cannot be requested from the server.";
 
     private final CliInputHandler inputHandler;
 
@@ -67,6 +76,8 @@ public final class CLI {
                 case VIEW -> runViewer(this.inputHandler.getFileForViewMode());
                 case RUN_AND_VIEW -> runAndView();
                 case AUTO -> selectModeAutomatically();
+                case SERVER -> runServer();
+                case CALIBRATE -> runCalibration();
             }
         }
     }
@@ -105,11 +116,45 @@ public final class CLI {
 
         JPlagOptionsBuilder optionsBuilder = new JPlagOptionsBuilder(this.inputHandler);
         JPlagOptions options = optionsBuilder.buildOptions();
-        JPlagResult result = JPlagRunner.runJPlag(options);
+        try (JPlagResult result = JPlagRunner.runJPlag(options)) {
+            OutputFileGenerator.generateJPlagResultFile(result, target);
+            OutputFileGenerator.generateCsvOutput(result, new File(getResultFileBaseName()), this.inputHandler.getCliOptions());
+            if (this.inputHandler.getCliOptions().advanced.printMetrics) {
+                logger.info(result.getMetrics().summary());
+            }
+        }
+
+        return target;
+    }
+
+    /**
+     * Calibrates the minimum token match and writes the similarity distributions of the sampled pairs next to the result
+     * file.
+     * @return The file containing the calibration results
+     * @throws ExitException If JPlag threw an exception
+     * @throws IOException If the file could not be written
+     */
+    public File runCalibration() throws ExitException, IOException {
+        File target = new File(getResultFileBaseName() + CALIBRATION_FILE_SUFFIX);
+        CliOptions.Advanced advanced = this.inputHandler.getCliOptions().advanced;
+        if (!advanced.overwrite && target.exists()) {
+            throw new CliException(OUTPUT_FILE_EXISTS);
+        }
+        List<Integer> calibrationValues = advanced.calibrationValues;
+        if (calibrationValues != null && (calibrationValues.isEmpty() || calibrationValues.stream().anyMatch(value -> value < 1))) {
+            throw new CliException(String.format(INVALID_CALIBRATION_VALUES, calibrationValues));
+        }
+        if (advanced.calibrationPairs < 1) {
+            throw new CliException(String.format(INVALID_CALIBRATION_PAIRS, advanced.calibrationPairs));
+        }
 
-        OutputFileGenerator.generateJPlagResultFile(result, target);
-        OutputFileGenerator.generateCsvOutput(result, new File(getResultFileBaseName()), this.inputHandler.getCliOptions());
+        JPlagOptions options = new JPlagOptionsBuilder(this.inputHandler).buildOptions();
+        List<Integer> values = calibrationValues != null ? calibrationValues
+                : MinimumMatchCalibration.defaultValuesFor(options.minimumTokenMatch());
+        List<CalibrationResult> results = JPlagRunner.runCalibration(options, values, advanced.calibrationPairs);
 
+        logger.info(MinimumMatchCalibration.formatResults(results));
+        OutputFileGenerator.generateCalibrationFile(results, target);
         return target;
     }
 
@@ -132,6 +177,32 @@ public final class CLI {
         JPlagRunner.runInternalServer(resultFile, this.inputHandler.getCliOptions().advanced.port);
     }
 
+    /**
+     * Runs the server mode. Blocks until the server has stopped.
+     * @throws IOException If the server cannot be started
+     */
+    public void runServer() throws IOException {
+        finalizeLogger();
+        CliOptions.Advanced advanced = this.inputHandler.getCliOptions().advanced;
+        JPlagRunner.runServer(CLI::runRequestedJPlag, advanced.port, advanced.serverRuns);
+    }
+
+    /**
+     * Runs JPlag for a run requested from the server. The log level, the progress bars and the charset override are
+     * settings of the whole server, so the requested arguments do not change them.
+     */
+    private static File runRequestedJPlag(String[] arguments) throws ExitException, FileNotFoundException {
+        CLI cli = new CLI(arguments);
+        if (cli.inputHandler.parse()) {
+            throw new CliException(USAGE_HELP_REQUESTED);
+        }
+        try {
+            return cli.runJPlag();
+        } finally {
+            cli.finalizeLogger();
+        }
+    }
+
     private void selectModeAutomatically() throws IOException, ExitException {
         List<File> inputs = this.getAllInputs();
 
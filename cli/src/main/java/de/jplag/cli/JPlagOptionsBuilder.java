@@ -13,6 +13,7 @@ import de.jplag.cli.picocli.CliInputHandler;
 import de.jplag.clustering.ClusteringOptions;
 import de.jplag.clustering.Preprocessing;
 import de.jplag.merging.MergingOptions;
+import de.jplag.options.BudgetOptions;
 import de.jplag.options.JPlagOptions;
 
 /**
@@ -20,6 +21,7 @@ import de.jplag.options.JPlagOptions;
  */
 public class JPlagOptionsBuilder {
     private static final Logger logger = LoggerFactory.getLogger(JPlagOptionsBuilder.class);
+    private static final String CLUSTERING_ALGORITHM_OPTION = "--cluster-alg";
 
     private final CliInputHandler cliInputHandler;
     private final CliOptions cliOptions;
@@ -59,23 +61,35 @@ public class JPlagOptionsBuilder {
             throws CliException {
         ClusteringOptions clusteringOptions = getClusteringOptions();
         MergingOptions mergingOptions = getMergingOptions();
+        BudgetOptions budgetOptions = getBudgetOptions();
 
         return new JPlagOptions(this.cliInputHandler.getSelectedLanguage(), this.cliOptions.minTokenMatch, submissionDirectories,
                 oldSubmissionDirectories, null, this.cliOptions.advanced.subdirectory, suffixes, this.cliOptions.advanced.exclusionFileName,
                 JPlagOptions.DEFAULT_SIMILARITY_METRIC, this.cliOptions.advanced.similarityThreshold, this.cliOptions.shownComparisons,
                 clusteringOptions, this.cliOptions.advanced.debug, mergingOptions, this.cliOptions.normalize,
-                this.cliOptions.advanced.analyzeComments);
+                this.cliOptions.advanced.analyzeComments, budgetOptions);
+    }
+
+    private BudgetOptions getBudgetOptions() {
+        return new BudgetOptions(this.cliOptions.advanced.costAccounting, this.cliOptions.advanced.tokenBudget,
+                this.cliOptions.advanced.truncateOverBudget, this.cliOptions.advanced.parseTimeBudget, this.cliOptions.advanced.fileSizeBudget);
     }
 
     private ClusteringOptions getClusteringOptions() {
         ClusteringOptions clusteringOptions = new ClusteringOptions().withEnabled(!this.cliOptions.clustering.disable)
-                .withAlgorithm(this.cliOptions.clustering.enabled.algorithm).withSimilarityMetric(this.cliOptions.clustering.enabled.metric)
+                .withSimilarityMetric(this.cliOptions.clustering.enabled.metric)
                 .withSpectralKernelBandwidth(this.cliOptions.clusterSpectralBandwidth)
                 .withSpectralGaussianProcessVariance(this.cliOptions.clusterSpectralNoise).withSpectralMinRuns(this.cliOptions.clusterSpectralMinRuns)
                 .withSpectralMaxRuns(this.cliOptions.clusterSpectralMaxRuns)
                 .withSpectralMaxKMeansIterationPerRun(this.cliOptions.clusterSpectralKMeansIterations)
                 .withAgglomerativeThreshold(this.cliOptions.clusterAgglomerativeThreshold)
-                .withAgglomerativeInterClusterSimilarity(this.cliOptions.clusterAgglomerativeInterClusterSimilarity);
+                .withAgglomerativeInterClusterSimilarity(this.cliOptions.clusterAgglomerativeInterClusterSimilarity)
+                .withSparseSubmissionThreshold(this.cliOptions.clusterSparseThreshold).withSparseSimilarityFloor(this.cliOptions.clusterSparseFloor);
+
+        // only an explicit choice of the algorithm prevents the sparse clustering of large cohorts
+        if (this.cliInputHandler.hasMatchedOption(CLUSTERING_ALGORITHM_OPTION)) {
+            clusteringOptions = clusteringOptions.withAlgorithm(this.cliOptions.clustering.enabled.algorithm);
+        }
 
         if (this.cliOptions.clusterPreprocessingNone) {
             clusteringOptions = clusteringOptions.withPreprocessor(Preprocessing.NONE);
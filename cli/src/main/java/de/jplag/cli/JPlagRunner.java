@@ -4,13 +4,18 @@ import java.awt.Desktop;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.jplag.JPlag;
 import de.jplag.JPlagResult;
+import de.jplag.calibration.CalibrationResult;
+import de.jplag.calibration.MinimumMatchCalibration;
+import de.jplag.cli.server.JPlagServer;
 import de.jplag.cli.server.ReportViewer;
+import de.jplag.cli.server.RunExecutor;
 import de.jplag.exceptions.ExitException;
 import de.jplag.options.JPlagOptions;
 
@@ -33,6 +38,19 @@ public final class JPlagRunner {
         return JPlag.run(options);
     }
 
+    /**
+     * Calibrates the minimum token match.
+     * @param options The options of the run to calibrate
+     * @param minimumTokenMatches The minimum token matches to compare
+     * @param sampleSize The maximum number of pairs compared per minimum token match
+     * @return The calibration results, one per minimum token match
+     * @throws ExitException If JPlag throws an error
+     */
+    public static List<CalibrationResult> runCalibration(JPlagOptions options, List<Integer> minimumTokenMatches, int sampleSize)
+            throws ExitException {
+        return new MinimumMatchCalibration(options, sampleSize).calibrate(minimumTokenMatches);
+    }
+
     /**
      * Runs the internal server. Blocks until the server has stopped.
      * @param resultFile is the result file to pass to the server. May be null.
@@ -57,4 +75,25 @@ public final class JPlagRunner {
         System.in.read();
         reportViewer.stop();
     }
+
+    /**
+     * Runs the server mode, which executes the runs requested over HTTP. Blocks until the JVM shuts down.
+     * @param runExecutor executes the requested runs.
+     * @param port is the port to open the server on.
+     * @param maximumConcurrentRuns is the maximum number of runs executed at the same time.
+     * @throws IOException if the server cannot be started
+     */
+    public static void runServer(RunExecutor runExecutor, int port, int maximumConcurrentRuns) throws IOException {
+        JPlagServer server = new JPlagServer(runExecutor, port, maximumConcurrentRuns);
+        int actualPort = server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        logger.info("JPlag server started on http://localhost:{}/ with at most {} concurrent runs", actualPort, maximumConcurrentRuns);
+        logger.info("Run requests have to send the header {}: {}", JPlagServer.TOKEN_HEADER, server.getToken());
+        try {
+            server.awaitStop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.stop();
+        }
+    }
 }
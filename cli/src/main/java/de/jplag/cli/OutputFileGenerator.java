@@ -3,12 +3,15 @@ package de.jplag.cli;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.jplag.JPlagResult;
+import de.jplag.calibration.CalibrationResult;
 import de.jplag.cli.options.CliOptions;
+import de.jplag.csv.calibration.CsvCalibrationOutput;
 import de.jplag.csv.comparisons.CsvComparisonOutput;
 import de.jplag.reporting.reportobject.ReportObjectFactory;
 
@@ -51,4 +54,15 @@ public final class OutputFileGenerator {
         logger.info("Successfully written the result: {}", outputFile.getPath());
         logger.info("View the result using --mode");
     }
+
+    /**
+     * Writes the results of a minimum token match calibration as a csv.
+     * @param results The calibration results
+     * @param outputFile The csv file to write
+     * @throws IOException If the file could not be written
+     */
+    public static void generateCalibrationFile(List<CalibrationResult> results, File outputFile) throws IOException {
+        CsvCalibrationOutput.writeCsvResults(results, outputFile);
+        logger.info("Successfully written the calibration: {}", outputFile.getPath());
+    }
 }
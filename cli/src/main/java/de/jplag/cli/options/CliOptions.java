@@ -2,15 +2,18 @@ package de.jplag.cli.options;
 
 import java.io.File;
 import java.nio.charset.Charset;
+import java.util.List;
 
 import org.slf4j.event.Level;
 
 import de.jplag.Language;
+import de.jplag.calibration.MinimumMatchCalibration;
 import de.jplag.clustering.ClusteringAlgorithm;
 import de.jplag.clustering.ClusteringOptions;
 import de.jplag.clustering.algorithm.InterClusterSimilarity;
 import de.jplag.java.JavaLanguage;
 import de.jplag.merging.MergingOptions;
+import de.jplag.options.BudgetOptions;
 import de.jplag.options.JPlagOptions;
 import de.jplag.options.SimilarityMetric;
 
@@ -55,7 +58,7 @@ public class CliOptions implements Runnable {
     public String resultFile = "results";
 
     @Option(names = {"-M",
-            "--mode"}, description = "The mode of JPlag. One of: ${COMPLETION-CANDIDATES} (default: ${DEFAULT_VALUE}). If VIEW is chosen, you can optionally specify a path to an existing report.")
+            "--mode"}, description = "The mode of JPlag. One of: ${COMPLETION-CANDIDATES} (default: ${DEFAULT_VALUE}). If VIEW is chosen, you can optionally specify a path to an existing report. If SERVER is chosen, runs are requested over HTTP on the given port. If CALIBRATE is chosen, the similarities of sampled pairs are written per minimum token match.")
     public JPlagMode mode = JPlagMode.AUTO;
 
     @Option(names = {"--normalize"}, description = "Activate the normalization of tokens. Supported for languages: Java, C++.")
@@ -97,9 +100,18 @@ public class CliOptions implements Runnable {
                         + "be saved (default: ${DEFAULT-VALUE}).")
         public double similarityThreshold = JPlagOptions.DEFAULT_SIMILARITY_THRESHOLD;
 
-        @Option(names = {"-P", "--port"}, description = "The port used for the internal report viewer (default: ${DEFAULT-VALUE}).")
+        @Option(names = {"-P", "--port"}, description = "The port used for the internal report viewer and the server mode (default: ${DEFAULT-VALUE}).")
         public int port = 1996;
 
+        @Option(names = "--server-runs", description = "The maximum number of runs executed concurrently in SERVER mode, further runs are queued (default: the number of cores).")
+        public int serverRuns = Runtime.getRuntime().availableProcessors();
+
+        @Option(names = "--calibration-values", split = ",", description = "Comma-separated minimum token matches to compare in CALIBRATE mode (default: half to twice the minimum token match).")
+        public List<Integer> calibrationValues = null;
+
+        @Option(names = "--calibration-pairs", description = "The number of sampled pairs compared per minimum token match in CALIBRATE mode (default: ${DEFAULT-VALUE}).")
+        public int calibrationPairs = MinimumMatchCalibration.DEFAULT_SAMPLE_SIZE;
+
         @Option(names = "--csv-export", description = "Export pairwise similarity values as a CSV file.")
         public boolean csvExport = false;
 
@@ -109,6 +121,25 @@ public class CliOptions implements Runnable {
         @Option(names = "--log-level", description = "Set the log level for the cli.")
         public Level logLevel = Level.INFO;
 
+        @Option(names = "--cost-accounting", description = "Account the parse and comparison costs per submission and report the most expensive submissions.")
+        public boolean costAccounting = false;
+
+        @Option(names = "--token-budget", description = "Skip submissions with more tokens than this budget (default: unlimited).")
+        public int tokenBudget = BudgetOptions.UNLIMITED;
+
+        @Option(names = "--truncate-over-budget", description = "Truncate submissions to the token budget instead of skipping them.")
+        public boolean truncateOverBudget = false;
+
+        @Option(names = {"--parse-time-budget",
+                "--parse-timeout"}, description = "Cancel parsing submissions that take longer than this many seconds and skip them (default: unlimited).")
+        public double parseTimeBudget = BudgetOptions.UNLIMITED;
+
+        @Option(names = "--file-size-budget", description = "Skip submissions with a file larger than this many bytes (default: unlimited).")
+        public long fileSizeBudget = BudgetOptions.UNLIMITED;
+
+        @Option(names = "--print-metrics", description = "Print the time spent in each stage of the run. The metrics are also part of the result file.")
+        public boolean printMetrics = false;
+
         @Option(names = "--comments", description = "Analyze similarity of comments. Increases the similarity of submissions if similar comments are found, but never decreases it.", hidden = true)
         public boolean analyzeComments = false;
 
@@ -173,6 +204,12 @@ public class CliOptions implements Runnable {
     @Option(names = {"--cluster-agglomerative-inter-cluster-similarity"}, hidden = true)
     public InterClusterSimilarity clusterAgglomerativeInterClusterSimilarity = new ClusteringOptions().agglomerativeInterClusterSimilarity();
 
+    @Option(names = {"--cluster-sparse-threshold"}, hidden = true)
+    public int clusterSparseThreshold = new ClusteringOptions().sparseSubmissionThreshold();
+
+    @Option(names = {"--cluster-sparse-floor"}, hidden = true)
+    public double clusterSparseFloor = new ClusteringOptions().sparseSimilarityFloor();
+
     @Option(names = {"--cluster-pp-none"}, hidden = true)
     public boolean clusterPreprocessingNone;
 
@@ -20,4 +20,12 @@ public enum JPlagMode {
      * Choose the mode automatically from the given input files
      */
     AUTO,
+    /**
+     * Run a server that accepts runs over HTTP and keeps the language modules warm between them
+     */
+    SERVER,
+    /**
+     * Calibrate the minimum token match on a sample of pairs and write the similarity distributions as a csv
+     */
+    CALIBRATE,
 }
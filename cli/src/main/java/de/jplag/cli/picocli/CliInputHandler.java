@@ -11,7 +11,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import de.jplag.Language;
@@ -46,6 +48,7 @@ public class CliInputHandler {
     private static final String PARAMETER_SHORT_ADDITIONAL_INDENT = "    ";
 
     private static final char RESULT_FILE_OPTION_NAME = 'r';
+    private static final Set<String> HELP_OPTIONS = Set.of("-h", "--help");
 
     private static final Random RANDOM = new SecureRandom();
 
@@ -87,7 +90,7 @@ public class CliInputHandler {
     }
 
     private List<CommandLine.Model.CommandSpec> buildSubcommands() {
-        return LanguageLoader.getAllAvailableLanguages().values().stream().map(language -> {
+        return getSubcommandLanguages().stream().map(language -> {
             CommandLine.Model.CommandSpec command = CommandLine.Model.CommandSpec.create().name(language.getIdentifier());
 
             for (LanguageOption<?> option : language.getOptions().getOptionsAsList()) {
@@ -102,6 +105,19 @@ public class CliInputHandler {
         }).toList();
     }
 
+    /**
+     * Loading a language initializes its parser, so only the languages that are used as subcommand are loaded, unless the
+     * usage help is requested, which lists all languages.
+     */
+    private List<Language> getSubcommandLanguages() {
+        List<String> arguments = List.of(args);
+        if (arguments.stream().anyMatch(HELP_OPTIONS::contains)) {
+            return List.copyOf(LanguageLoader.getAllAvailableLanguages().values());
+        }
+        return LanguageLoader.getAllAvailableLanguageIdentifiers().stream().filter(arguments::contains).map(LanguageLoader::getLanguage)
+                .flatMap(Optional::stream).toList();
+    }
+
     /**
      * Parses the cli parameters and prints the usage help if requested.
      * @return true, if the usage help has been requested. In this case the program should stop.
@@ -142,13 +158,14 @@ public class CliInputHandler {
      * @throws CliException In the event the language cannot be resolved. Should not happen under normal circumstances.
      */
     public Language getSelectedLanguage() throws CliException {
+        // each run gets its own language instance, so options and parser state do not carry over to other runs
         if (this.parseResult.subcommand() == null) {
-            return this.options.language;
+            return LanguageLoader.createLanguage(this.options.language.getIdentifier()).orElseThrow(() -> new CliException(IMPOSSIBLE_EXCEPTION));
         }
 
         ParseResult subcommand = this.parseResult.subcommand();
 
-        Language language = LanguageLoader.getLanguage(subcommand.commandSpec().name()).orElseThrow(() -> new CliException(IMPOSSIBLE_EXCEPTION));
+        Language language = LanguageLoader.createLanguage(subcommand.commandSpec().name()).orElseThrow(() -> new CliException(IMPOSSIBLE_EXCEPTION));
 
         LanguageOptions languageOptions = language.getOptions();
         languageOptions.getOptionsAsList().forEach(option -> {
@@ -159,6 +176,14 @@ public class CliInputHandler {
         return language;
     }
 
+    /**
+     * @param name is one of the names of the option.
+     * @return true, if the option was given in the cli arguments, even if it was given with its default value.
+     */
+    public boolean hasMatchedOption(String name) {
+        return this.parseResult.hasMatchedOption(name);
+    }
+
     /**
      * @return The submission directories configured for the subcommand, if one has been given.
      */
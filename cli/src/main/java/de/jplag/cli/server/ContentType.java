@@ -9,6 +9,8 @@ public enum ContentType {
     CSS("text/css; charset=utf-8", ".css"),
     PNG("image/png", ".png"),
     PLAIN("text/plain; charset=utf-8", null),
+    JSON("application/json; charset=utf-8", ".json"),
+    NDJSON("application/x-ndjson; charset=utf-8", ".ndjson"),
     ZIP("application/zip", ".zip"),
     RESULT_FILE("application/zip", ".jplag");
 
@@ -0,0 +1,255 @@
+package de.jplag.cli.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.logging.ProgressBarLogger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Long-running server that executes runs requested over HTTP in a single JVM. The language modules, the parsers and the
+ * JIT-compiled code stay warm between runs, so small runs do not pay the startup costs of the cli. A run is requested by
+ * posting a {@link RunRequest} as JSON to {@value #RUN_PATH}. The response streams one {@link ServerEvent} per line
+ * until the run has finished or failed. As any website opened in a browser can send requests to localhost, a run request
+ * has to carry the token of the server in the {@value #TOKEN_HEADER} header and has to be sent as JSON. Its result file
+ * has to be inside the working directory of the server. The number of concurrent runs is limited, further runs are
+ * queued. The parallel work of all runs shares the same virtual thread scheduler and common fork-join pool, which are
+ * both sized to the available cores.
+ */
+public class JPlagServer {
+    static final String RUN_PATH = "/run";
+    static final String STATUS_PATH = "/status";
+    public static final String TOKEN_HEADER = "X-JPlag-Token";
+
+    private static final Logger logger = LoggerFactory.getLogger(JPlagServer.class);
+    private static final int SUCCESS_RESPONSE = 200;
+    private static final int BAD_REQUEST_RESPONSE = 400;
+    private static final int UNAUTHORIZED_RESPONSE = 401;
+    private static final int FORBIDDEN_RESPONSE = 403;
+    private static final int METHOD_NOT_ALLOWED_RESPONSE = 405;
+    private static final int UNSUPPORTED_MEDIA_TYPE_RESPONSE = 415;
+    private static final int TOKEN_BYTES = 32;
+    private static final String CONTENT_TYPE_HEADER = "Content-Type";
+    private static final String JSON_MEDIA_TYPE = "application/json";
+    private static final int CHUNKED_RESPONSE_LENGTH = 0;
+    private static final int NO_RESPONSE_BODY = -1;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ServerProgressBarProvider progressBarProvider = new ServerProgressBarProvider();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final RunExecutor runExecutor;
+    private final int port;
+    private final int maximumConcurrentRuns;
+    private final Semaphore runPermits;
+    private final AtomicInteger queuedRuns = new AtomicInteger();
+    private final AtomicInteger finishedRuns = new AtomicInteger();
+    private final String token;
+    private final Path workingDirectory = Path.of("").toAbsolutePath();
+
+    private HttpServer server;
+    private ExecutorService requestExecutor;
+
+    /**
+     * Creates a server, which is not started yet.
+     * @param runExecutor The executor for the requested runs
+     * @param port The port to use for the server. You can use 0 to use any free port.
+     * @param maximumConcurrentRuns The maximum number of runs that are executed at the same time
+     */
+    public JPlagServer(RunExecutor runExecutor, int port, int maximumConcurrentRuns) {
+        if (maximumConcurrentRuns < 1) {
+            throw new IllegalArgumentException("At least one concurrent run is required, got " + maximumConcurrentRuns);
+        }
+        this.runExecutor = runExecutor;
+        this.port = port;
+        this.maximumConcurrentRuns = maximumConcurrentRuns;
+        this.runPermits = new Semaphore(maximumConcurrentRuns, true);
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(tokenBytes);
+        this.token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+    }
+
+    /**
+     * @return The token that run requests have to send in the {@value #TOKEN_HEADER} header. It is generated randomly for
+     * each server.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Starts the server. Progress bars of runs are only shown to the client that requested the run from then on.
+     * @return The port the server runs at
+     * @throws IOException If the server cannot be started
+     */
+    public int start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getByAddress(new byte[] {127, 0, 0, 1}), port), 0);
+        server.createContext(RUN_PATH, this::handleRun);
+        server.createContext(STATUS_PATH, this::handleStatus);
+        requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(requestExecutor);
+        ProgressBarLogger.setProgressBarProvider(progressBarProvider);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server. Runs that are still executing are not awaited.
+     */
+    public synchronized void stop() {
+        if (stopped.getCount() == 0) {
+            return;
+        }
+        server.stop(0);
+        requestExecutor.shutdownNow();
+        stopped.countDown();
+    }
+
+    /**
+     * Blocks until the server has been stopped.
+     * @throws InterruptedException If the waiting thread was interrupted
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    private void handleRun(HttpExchange exchange) throws IOException {
+        if (!HttpRequestMethod.POST.getName().equals(exchange.getRequestMethod())) {
+            respondWithError(exchange, METHOD_NOT_ALLOWED_RESPONSE);
+            return;
+        }
+        if (!hasToken(exchange)) {
+            respondWithError(exchange, UNAUTHORIZED_RESPONSE);
+            return;
+        }
+        if (!isJson(exchange.getRequestHeaders().getFirst(CONTENT_TYPE_HEADER))) {
+            respondWithError(exchange, UNSUPPORTED_MEDIA_TYPE_RESPONSE);
+            return;
+        }
+        RunRequest request;
+        try {
+            request = objectMapper.readValue(exchange.getRequestBody(), RunRequest.class);
+        } catch (JsonProcessingException exception) {
+            logger.debug("Invalid run request", exception);
+            respondWithError(exchange, BAD_REQUEST_RESPONSE);
+            return;
+        }
+        if (!request.writesResultInside(workingDirectory)) {
+            respondWithError(exchange, FORBIDDEN_RESPONSE);
+            return;
+        }
+
+        exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, ContentType.NDJSON.getValue());
+        exchange.sendResponseHeaders(SUCCESS_RESPONSE, CHUNKED_RESPONSE_LENGTH);
+        try (OutputStream response = exchange.getResponseBody()) {
+            EventStream events = new EventStream(response);
+            queuedRuns.incrementAndGet();
+            events.send(ServerEvent.of(ServerEvent.QUEUED, null));
+            runPermits.acquire();
+            queuedRuns.decrementAndGet();
+            try {
+                execute(request, events);
+            } finally {
+                runPermits.release();
+                finishedRuns.incrementAndGet();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt(); // the server has been stopped
+        }
+    }
+
+    private void execute(RunRequest request, EventStream events) {
+        events.send(ServerEvent.of(ServerEvent.STARTED, null));
+        progressBarProvider.setEventConsumer(events::send);
+        try {
+            String resultFile = runExecutor.run(request.toArguments()).getAbsolutePath();
+            events.send(ServerEvent.of(ServerEvent.FINISHED, resultFile));
+        } catch (ExitException | IOException | RuntimeException exception) {
+            logger.warn("Requested run failed: {}", exception.getMessage());
+            events.send(ServerEvent.of(ServerEvent.FAILED, exception.getMessage()));
+        } finally {
+            progressBarProvider.setEventConsumer(null);
+        }
+    }
+
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        if (!HttpRequestMethod.GET.getName().equals(exchange.getRequestMethod())) {
+            respondWithError(exchange, METHOD_NOT_ALLOWED_RESPONSE);
+            return;
+        }
+        int runningRuns = maximumConcurrentRuns - runPermits.availablePermits();
+        byte[] status = objectMapper.writeValueAsBytes(Map.of("runningRuns", runningRuns, "queuedRuns", queuedRuns.get(), "finishedRuns",
+                finishedRuns.get(), "maximumConcurrentRuns", maximumConcurrentRuns));
+        exchange.getResponseHeaders().set(CONTENT_TYPE_HEADER, ContentType.JSON.getValue());
+        exchange.sendResponseHeaders(SUCCESS_RESPONSE, status.length);
+        try (OutputStream response = exchange.getResponseBody()) {
+            response.write(status);
+        }
+    }
+
+    private boolean hasToken(HttpExchange exchange) {
+        String requestToken = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        return requestToken != null
+                && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), requestToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isJson(String contentType) {
+        return contentType != null && JSON_MEDIA_TYPE.equals(contentType.split(";")[0].strip().toLowerCase(Locale.ROOT));
+    }
+
+    private static void respondWithError(HttpExchange exchange, int responseCode) throws IOException {
+        exchange.sendResponseHeaders(responseCode, NO_RESPONSE_BODY);
+        exchange.close();
+    }
+
+    /**
+     * Writes the events of a run to its response. The events of a run can be sent from multiple threads. If the client
+     * has disconnected, the run continues, but its events are dropped.
+     */
+    private final class EventStream {
+        private final OutputStream response;
+        private boolean disconnected;
+
+        private EventStream(OutputStream response) {
+            this.response = response;
+        }
+
+        private synchronized void send(ServerEvent event) {
+            if (disconnected) {
+                return;
+            }
+            try {
+                response.write(objectMapper.writeValueAsString(event).getBytes(StandardCharsets.UTF_8));
+                response.write('\n');
+                response.flush();
+            } catch (IOException exception) {
+                logger.debug("Client disconnected, dropping the progress of its run", exception);
+                disconnected = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package de.jplag.cli.server;
+
+import java.io.File;
+import java.io.IOException;
+
+import de.jplag.exceptions.ExitException;
+
+/**
+ * Executes the runs requested from the {@link JPlagServer}.
+ */
+@FunctionalInterface
+public interface RunExecutor {
+    /**
+     * Runs JPlag with the given arguments and writes the result file.
+     * @param arguments The command line arguments of the run
+     * @return The file containing the result
+     * @throws ExitException If the arguments are invalid or JPlag threw an exception
+     * @throws IOException If the result could not be written
+     */
+    File run(String[] arguments) throws ExitException, IOException;
+}
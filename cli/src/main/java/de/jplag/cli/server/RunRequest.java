@@ -0,0 +1,89 @@
+package de.jplag.cli.server;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request to run JPlag, as sent to the {@link JPlagServer}.
+ * @param options The cli options of the run, mapping option names (e.g. "--min-tokens") to their values. Flags are
+ * enabled with true, lists are passed as comma-separated values.
+ * @param submissions The root directories with the submissions to check
+ * @param resultFile The file to write the result to. May be null, in which case the default result file is used. The
+ * result file is only accepted here, not in the options.
+ */
+public record RunRequest(Map<String, Object> options, List<String> submissions, String resultFile) {
+    private static final String RESULT_FILE_OPTION = "--result-file";
+    private static final String SHORT_OPTION_PREFIX = "-";
+    private static final String LONG_OPTION_PREFIX = "--";
+    private static final char RESULT_FILE_SHORT_OPTION = 'r';
+
+    /**
+     * Checks whether the result of the requested run is written inside the given directory, so that requests cannot
+     * overwrite arbitrary files.
+     * @param directory The absolute directory the result has to be written to, which is also the working directory of the
+     * run
+     * @return true, if the result file is a relative path inside the directory and no other argument sets a result file
+     */
+    public boolean writesResultInside(Path directory) {
+        String[] otherArguments = new RunRequest(options, submissions, null).toArguments();
+        if (Arrays.stream(otherArguments).anyMatch(RunRequest::mayBeResultFileOption)) {
+            return false;
+        }
+        if (resultFile == null) {
+            return true;
+        }
+        try {
+            Path path = Path.of(resultFile);
+            return !path.isAbsolute() && directory.resolve(path).normalize().startsWith(directory);
+        } catch (InvalidPathException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Short options can be clustered (e.g. "-dr file"), so any short option containing the result file option is
+     * rejected.
+     */
+    private static boolean mayBeResultFileOption(String argument) {
+        if (argument.startsWith(LONG_OPTION_PREFIX)) {
+            return argument.startsWith(RESULT_FILE_OPTION);
+        }
+        return argument.startsWith(SHORT_OPTION_PREFIX) && argument.indexOf(RESULT_FILE_SHORT_OPTION) >= 0;
+    }
+
+    /**
+     * Converts the request into the equivalent command line arguments.
+     * @return The command line arguments
+     */
+    public String[] toArguments() {
+        List<String> arguments = new ArrayList<>();
+        if (options != null) {
+            options.forEach((name, value) -> {
+                if (value instanceof Boolean enabled) {
+                    if (enabled) {
+                        arguments.add(name);
+                    }
+                } else if (value instanceof Collection<?> values) {
+                    arguments.add(name);
+                    arguments.add(String.join(",", values.stream().map(String::valueOf).toList()));
+                } else if (value != null) {
+                    arguments.add(name);
+                    arguments.add(String.valueOf(value));
+                }
+            });
+        }
+        if (resultFile != null) {
+            arguments.add(RESULT_FILE_OPTION);
+            arguments.add(resultFile);
+        }
+        if (submissions != null) {
+            arguments.addAll(submissions);
+        }
+        return arguments.toArray(String[]::new);
+    }
+}
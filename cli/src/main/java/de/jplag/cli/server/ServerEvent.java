@@ -0,0 +1,41 @@
+package de.jplag.cli.server;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * An event of a run, streamed back to the client of the {@link JPlagServer} as a line of JSON.
+ * @param event The kind of event, see the constants
+ * @param stage The stage of the run a progress event belongs to
+ * @param step The number of completed steps of the stage
+ * @param total The total number of steps of the stage, or 0 if unknown
+ * @param message The result file of a finished run or the error message of a failed run
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ServerEvent(String event, String stage, Integer step, Integer total, String message) {
+    public static final String QUEUED = "queued";
+    public static final String STARTED = "started";
+    public static final String PROGRESS = "progress";
+    public static final String FINISHED = "finished";
+    public static final String FAILED = "failed";
+
+    /**
+     * Creates an event without progress information.
+     * @param event The kind of event
+     * @param message The message of the event, may be null
+     * @return The event
+     */
+    public static ServerEvent of(String event, String message) {
+        return new ServerEvent(event, null, null, null, message);
+    }
+
+    /**
+     * Creates a progress event.
+     * @param stage The stage of the run
+     * @param step The number of completed steps
+     * @param total The total number of steps
+     * @return The event
+     */
+    public static ServerEvent progress(String stage, int step, int total) {
+        return new ServerEvent(PROGRESS, stage, step, total, null);
+    }
+}
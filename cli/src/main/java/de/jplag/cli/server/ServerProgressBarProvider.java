@@ -0,0 +1,76 @@
+package de.jplag.cli.server;
+
+import java.util.function.Consumer;
+
+import de.jplag.cli.logger.VoidProgressBar;
+import de.jplag.logging.ProgressBar;
+import de.jplag.logging.ProgressBarProvider;
+import de.jplag.logging.ProgressBarType;
+
+/**
+ * Routes the progress bars of concurrent runs to the client of their run. JPlag creates its progress bars on the thread
+ * that runs it, so each run registers its event consumer for its thread. Progress bars of other threads are not shown.
+ */
+public class ServerProgressBarProvider implements ProgressBarProvider {
+    private static final int PROGRESS_EVENTS_PER_STAGE = 100;
+
+    private final ThreadLocal<Consumer<ServerEvent>> eventConsumer = new ThreadLocal<>();
+
+    /**
+     * Sends the progress of the runs on the current thread to the given consumer.
+     * @param consumer The consumer of the progress events, or null to stop sending them
+     */
+    public void setEventConsumer(Consumer<ServerEvent> consumer) {
+        if (consumer == null) {
+            eventConsumer.remove();
+        } else {
+            eventConsumer.set(consumer);
+        }
+    }
+
+    @Override
+    public ProgressBar initProgressBar(ProgressBarType type, int totalSteps) {
+        Consumer<ServerEvent> consumer = eventConsumer.get();
+        if (consumer == null) {
+            return new VoidProgressBar();
+        }
+        int total = type.isIdleBar() ? 0 : totalSteps;
+        consumer.accept(ServerEvent.progress(type.getDefaultText(), 0, total));
+        return new EventProgressBar(type.getDefaultText(), total, consumer);
+    }
+
+    /**
+     * Progress bar that sends at most {@value #PROGRESS_EVENTS_PER_STAGE} events, as some stages have millions of steps.
+     * Its steps may be called concurrently.
+     */
+    private static final class EventProgressBar implements ProgressBar {
+        private final String stage;
+        private final int total;
+        private final Consumer<ServerEvent> consumer;
+        private int currentStep;
+        private int lastReportedPercentage;
+
+        private EventProgressBar(String stage, int total, Consumer<ServerEvent> consumer) {
+            this.stage = stage;
+            this.total = total;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public synchronized void step(int number) {
+            currentStep += number;
+            if (total > 0) {
+                int percentage = (int) ((long) currentStep * PROGRESS_EVENTS_PER_STAGE / total);
+                if (percentage > lastReportedPercentage) {
+                    lastReportedPercentage = percentage;
+                    consumer.accept(ServerEvent.progress(stage, currentStep, total));
+                }
+            }
+        }
+
+        @Override
+        public synchronized void dispose() {
+            consumer.accept(ServerEvent.progress(stage, total > 0 ? total : currentStep, total));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package de.jplag.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.calibration.MinimumMatchCalibration;
+import de.jplag.cli.options.CliOptions;
+import de.jplag.cli.options.JPlagMode;
+import de.jplag.cli.test.CliArgument;
+import de.jplag.cli.test.CliTest;
+import de.jplag.exceptions.ExitException;
+
+class CalibrationModeTest extends CliTest {
+    private static final String CALIBRATE_MODE = "calibrate";
+
+    @Test
+    void testCalibrationDefaults() throws IOException, ExitException {
+        CliOptions options = runCli(args -> args.with(CliArgument.MODE, CALIBRATE_MODE)).inputHandler().getCliOptions();
+
+        assertEquals(JPlagMode.CALIBRATE, options.mode);
+        assertNull(options.advanced.calibrationValues);
+        assertEquals(MinimumMatchCalibration.DEFAULT_SAMPLE_SIZE, options.advanced.calibrationPairs);
+    }
+
+    @Test
+    void testCustomCalibrationValuesAndPairs() throws IOException, ExitException {
+        CliOptions options = runCli(args -> args.with(CliArgument.MODE, CALIBRATE_MODE).with(CliArgument.CALIBRATION_VALUES, new String[] {"6", "9"})
+                .with(CliArgument.CALIBRATION_PAIRS, 50)).inputHandler().getCliOptions();
+
+        assertEquals(List.of(6, 9), options.advanced.calibrationValues);
+        assertEquals(50, options.advanced.calibrationPairs);
+    }
+
+    @Test
+    void testNonPositiveCalibrationValuesAreRejected() {
+        CliException exception = assertThrows(CliException.class,
+                () -> runCli(args -> args.with(CliArgument.MODE, CALIBRATE_MODE).with(CliArgument.CALIBRATION_VALUES, new String[] {"0", "9"})));
+
+        assertTrue(exception.getMessage().contains("--calibration-values"));
+    }
+
+    @Test
+    void testNonPositiveCalibrationPairsAreRejected() {
+        assertThrows(CliException.class, () -> runCli(args -> args.with(CliArgument.MODE, CALIBRATE_MODE).with(CliArgument.CALIBRATION_PAIRS, 0)));
+    }
+}
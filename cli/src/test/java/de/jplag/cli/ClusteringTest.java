@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 
 import de.jplag.cli.test.CliArgument;
 import de.jplag.cli.test.CliTest;
+import de.jplag.clustering.ClusteringAlgorithm;
 import de.jplag.clustering.Preprocessing;
 import de.jplag.exceptions.ExitException;
 import de.jplag.options.JPlagOptions;
@@ -29,6 +30,20 @@ class ClusteringTest extends CliTest {
         assertTrue(options.clusteringOptions().enabled());
     }
 
+    @Test
+    void parseDefaultAlgorithmIsNotExplicit() throws ExitException, IOException {
+        JPlagOptions options = runCliForOptions();
+        assertEquals(ClusteringAlgorithm.SPECTRAL, options.clusteringOptions().algorithm());
+        assertFalse(options.clusteringOptions().explicitAlgorithm());
+    }
+
+    @Test
+    void parseExplicitDefaultAlgorithm() throws ExitException, IOException {
+        JPlagOptions options = runCliForOptions(args -> args.with(CliArgument.CLUSTER_ALGORITHM, ClusteringAlgorithm.SPECTRAL.name()));
+        assertEquals(ClusteringAlgorithm.SPECTRAL, options.clusteringOptions().algorithm());
+        assertTrue(options.clusteringOptions().explicitAlgorithm());
+    }
+
     @Test
     void parsePercentilePreProcessor() throws ExitException, IOException {
         JPlagOptions options = runCliForOptions(args -> args.with(CliArgument.CLUSTER_PP_PERCENTILE, CLUSTERING_TEST_PERCENTILE));
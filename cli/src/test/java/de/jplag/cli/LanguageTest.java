@@ -1,10 +1,16 @@
 package de.jplag.cli;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -13,6 +19,8 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 import de.jplag.Language;
 import de.jplag.LanguageLoader;
+import de.jplag.c.CLanguage;
+import de.jplag.cli.picocli.CliInputHandler;
 import de.jplag.cli.options.CliOptions;
 import de.jplag.cli.test.CliArgument;
 import de.jplag.cli.test.CliTest;
@@ -29,6 +37,23 @@ class LanguageTest extends CliTest {
         assertEquals(CliOptions.defaultLanguage.getIdentifier(), options.language().getIdentifier());
     }
 
+    @Test
+    void testEachRunHasItsOwnLanguage() throws ExitException, IOException {
+        JPlagOptions first = runCliForOptions();
+        JPlagOptions second = runCliForOptions();
+        assertNotSame(first.language(), second.language());
+        assertNotSame(LanguageLoader.getLanguage(first.language().getIdentifier()).orElseThrow(), first.language());
+    }
+
+    @Test
+    void testLanguageOptionsDoNotCarryOverToOtherRuns() throws CliException {
+        CLanguage withOption = (CLanguage) selectLanguage("c", "--removeUnusedVariables", CURRENT_DIRECTORY);
+        CLanguage withoutOption = (CLanguage) selectLanguage("c", CURRENT_DIRECTORY);
+
+        assertTrue(withOption.getOptions().removeUnusedVariables());
+        assertFalse(withoutOption.getOptions().removeUnusedVariables());
+    }
+
     @Test
     void testInvalidLanguage() {
         Assertions.assertThrowsExactly(CliException.class, () -> {
@@ -42,6 +67,21 @@ class LanguageTest extends CliTest {
         assertEquals(20, languages.size(), "Loaded Languages: " + languages.keySet());
     }
 
+    @Test
+    void testDescriptorsMatchLanguages() {
+        LanguageLoader.clearCache();
+        Map<String, Language> individuallyLoaded = new HashMap<>();
+        for (String identifier : LanguageLoader.getAllAvailableLanguageIdentifiers()) {
+            Language language = LanguageLoader.getLanguage(identifier).orElseThrow();
+            assertEquals(identifier, language.getIdentifier());
+            individuallyLoaded.put(identifier, language);
+        }
+
+        Map<String, Language> languages = LanguageLoader.getAllAvailableLanguages();
+        assertEquals(languages.keySet(), individuallyLoaded.keySet());
+        languages.forEach((identifier, language) -> assertSame(language, individuallyLoaded.get(identifier)));
+    }
+
     @ParameterizedTest
     @MethodSource("getAllLanguages")
     void testValidLanguages(Language language) throws ExitException, IOException {
@@ -62,4 +102,10 @@ class LanguageTest extends CliTest {
         return LanguageLoader.getAllAvailableLanguages().values().stream().filter(language -> !ignoredLanguages.contains(language.getClass()))
                 .toList();
     }
+
+    private static Language selectLanguage(String... arguments) throws CliException {
+        CliInputHandler inputHandler = new CliInputHandler(arguments);
+        inputHandler.parse();
+        return inputHandler.getSelectedLanguage();
+    }
 }
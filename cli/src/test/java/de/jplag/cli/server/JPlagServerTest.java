@@ -0,0 +1,198 @@
+package de.jplag.cli.server;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import de.jplag.cli.CliException;
+import de.jplag.logging.ProgressBar;
+import de.jplag.logging.ProgressBarLogger;
+import de.jplag.logging.ProgressBarType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class JPlagServerTest {
+    private static final File RESULT_FILE = new File("result.jplag");
+    private static final int PARSING_STEPS = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private JPlagServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testRequestIsConvertedToArguments() {
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("--min-tokens", 9);
+        options.put("--match-merging", true);
+        options.put("--csv-export", false);
+        options.put("--suffixes", List.of(".java", ".jav"));
+        RunRequest request = new RunRequest(options, List.of("submissions"), "result");
+
+        String[] expected = {"--min-tokens", "9", "--match-merging", "--suffixes", ".java,.jav", "--result-file", "result", "submissions"};
+        assertArrayEquals(expected, request.toArguments());
+    }
+
+    @Test
+    void testRunStreamsProgress() throws IOException, InterruptedException {
+        int port = startServer(arguments -> {
+            ProgressBar progressBar = ProgressBarLogger.createProgressBar(ProgressBarType.PARSING, PARSING_STEPS);
+            progressBar.step(PARSING_STEPS);
+            progressBar.dispose();
+            return RESULT_FILE;
+        }, 1);
+
+        List<ServerEvent> events = requestRun(port, "{\"submissions\": [\"submissions\"]}");
+
+        assertEquals(List.of(ServerEvent.QUEUED, ServerEvent.STARTED, ServerEvent.PROGRESS, ServerEvent.PROGRESS, ServerEvent.PROGRESS,
+                ServerEvent.FINISHED), events.stream().map(ServerEvent::event).toList());
+        assertEquals(ServerEvent.progress(ProgressBarType.PARSING.getDefaultText(), PARSING_STEPS, PARSING_STEPS), events.get(3));
+        assertEquals(RESULT_FILE.getAbsolutePath(), events.getLast().message());
+    }
+
+    @Test
+    void testFailedRunIsReported() throws IOException, InterruptedException {
+        int port = startServer(arguments -> {
+            throw new CliException("invalid arguments");
+        }, 1);
+
+        List<ServerEvent> events = requestRun(port, "{}");
+
+        assertEquals(ServerEvent.of(ServerEvent.FAILED, "invalid arguments"), events.getLast());
+    }
+
+    @Test
+    void testInvalidRequestIsRejected() throws IOException, InterruptedException {
+        int port = startServer(arguments -> RESULT_FILE, 1);
+
+        HttpResponse<String> response = client.send(runRequest(port, "not json"), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    void testRequestWithoutTokenIsRejected() throws IOException, InterruptedException {
+        int port = startServer(arguments -> RESULT_FILE, 1);
+
+        HttpRequest request = runRequestBuilder(port, "{}").header(JPlagServer.TOKEN_HEADER, "guessed").build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(401, response.statusCode());
+    }
+
+    @Test
+    void testRequestWithoutJsonIsRejected() throws IOException, InterruptedException {
+        int port = startServer(arguments -> RESULT_FILE, 1);
+
+        HttpRequest request = runRequestBuilder(port, "{}").header(JPlagServer.TOKEN_HEADER, server.getToken())
+                .header("Content-Type", "text/plain").build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(415, response.statusCode());
+    }
+
+    @Test
+    void testResultOutsideOfWorkingDirectoryIsRejected() throws IOException, InterruptedException {
+        int port = startServer(arguments -> RESULT_FILE, 1);
+
+        String body = "{\"resultFile\": \"../result\"}";
+        HttpResponse<String> response = client.send(runRequest(port, body), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(403, response.statusCode());
+    }
+
+    @Test
+    void testResultFileIsRestrictedToDirectory() {
+        Path directory = Path.of("server").toAbsolutePath();
+        assertTrue(new RunRequest(null, List.of("submissions"), null).writesResultInside(directory));
+        assertTrue(new RunRequest(null, null, "results/result").writesResultInside(directory));
+        assertFalse(new RunRequest(null, null, "results/../../result").writesResultInside(directory));
+        assertFalse(new RunRequest(null, null, directory.resolve("result").toString()).writesResultInside(directory));
+        assertFalse(new RunRequest(Map.of("--result-file", "result"), null, null).writesResultInside(directory));
+        assertFalse(new RunRequest(Map.of("--result-file=/result", true), null, null).writesResultInside(directory));
+        assertFalse(new RunRequest(Map.of("-dr", "/result"), null, null).writesResultInside(directory));
+        assertFalse(new RunRequest(null, List.of("-r", "/result"), null).writesResultInside(directory));
+    }
+
+    @Test
+    void testRunsAreQueuedBeyondLimit() throws Exception {
+        CountDownLatch firstRunStarted = new CountDownLatch(1);
+        CountDownLatch firstRunReleased = new CountDownLatch(1);
+        int port = startServer(arguments -> {
+            firstRunStarted.countDown();
+            try {
+                firstRunReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return RESULT_FILE;
+        }, 1);
+
+        CompletableFuture<HttpResponse<String>> first = client.sendAsync(runRequest(port, "{}"), HttpResponse.BodyHandlers.ofString());
+        firstRunStarted.await();
+        CompletableFuture<HttpResponse<String>> second = client.sendAsync(runRequest(port, "{}"), HttpResponse.BodyHandlers.ofString());
+        while (status(port).get("queuedRuns") == 0) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, status(port).get("runningRuns"));
+
+        firstRunReleased.countDown();
+        assertTrue(first.get().body().contains(ServerEvent.FINISHED));
+        assertTrue(second.get().body().contains(ServerEvent.FINISHED));
+        assertEquals(2, status(port).get("finishedRuns"));
+    }
+
+    private int startServer(RunExecutor executor, int maximumConcurrentRuns) throws IOException {
+        server = new JPlagServer(executor, 0, maximumConcurrentRuns);
+        return server.start();
+    }
+
+    private List<ServerEvent> requestRun(int port, String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(runRequest(port, body), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        List<ServerEvent> events = new ArrayList<>();
+        for (String line : response.body().lines().toList()) {
+            events.add(objectMapper.readValue(line, ServerEvent.class));
+        }
+        return events;
+    }
+
+    private Map<String, Integer> status(int port) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + JPlagServer.STATUS_PATH)).GET().build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        return objectMapper.readValue(body, objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Integer.class));
+    }
+
+    private HttpRequest runRequest(int port, String body) {
+        return runRequestBuilder(port, body).header(JPlagServer.TOKEN_HEADER, server.getToken()).header("Content-Type", "application/json")
+                .build();
+    }
+
+    private static HttpRequest.Builder runRequestBuilder(int port, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + JPlagServer.RUN_PATH)).POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+}
@@ -20,6 +20,7 @@ public record CliArgument<T>(String name, boolean isPositional) {
     public static CliArgument<String> BASE_CODE = new CliArgument<>("base-code", false);
 
     public static CliArgument<Boolean> SKIP_CLUSTERING = new CliArgument<>("cluster-skip", false);
+    public static CliArgument<String> CLUSTER_ALGORITHM = new CliArgument<>("cluster-alg", false);
     public static CliArgument<Double> CLUSTER_PP_PERCENTILE = new CliArgument<>("cluster-pp-percentile", false);
     public static CliArgument<Boolean> CLUSTER_PP_CDF = new CliArgument<>("cluster-pp-cdf", false);
     public static CliArgument<Boolean> CLUSTER_PP_NONE = new CliArgument<>("cluster-pp-none", false);
@@ -36,6 +37,8 @@ public record CliArgument<T>(String name, boolean isPositional) {
     public static CliArgument<String> EXCLUDE_FILES = new CliArgument<>("x", false);
 
     public static CliArgument<String> MODE = new CliArgument<>("mode", false);
+    public static CliArgument<String[]> CALIBRATION_VALUES = new CliArgument<>("calibration-values", false);
+    public static CliArgument<Integer> CALIBRATION_PAIRS = new CliArgument<>("calibration-pairs", false);
 
     public static CliArgument<Boolean> MERGING_ENABLED = new CliArgument<>("match-merging", false);
     public static CliArgument<Integer> NEIGHBOR_LENGTH = new CliArgument<>("neighbor-length", false);
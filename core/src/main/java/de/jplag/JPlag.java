@@ -16,8 +16,13 @@ import de.jplag.exceptions.ExitException;
 import de.jplag.exceptions.RootDirectoryException;
 import de.jplag.exceptions.SubmissionException;
 import de.jplag.merging.MatchMerging;
+import de.jplag.metrics.JPlagMetrics;
+import de.jplag.metrics.PipelineStage;
+import de.jplag.metrics.StageTimer;
+import de.jplag.metrics.SubmissionCost;
 import de.jplag.options.JPlagOptions;
 import de.jplag.reporting.reportobject.model.Version;
+import de.jplag.util.FileUtils;
 
 /**
  * This class coordinates the whole errorConsumer flow.
@@ -65,16 +70,52 @@ public class JPlag {
      * @throws SubmissionException of not enough valid submissions are present.
      */
     public static JPlagResult run(JPlagOptions options) throws ExitException {
+        return run(options, new JPlagMetrics());
+    }
+
+    /**
+     * Main procedure, executes the comparison of source code submissions.
+     * @param options determines the parameterization.
+     * @param metrics records the metrics of the pipeline stages. Listeners can be added to observe the stages as they
+     * complete.
+     * @return the results of the comparison, specifically the submissions whose similarity exceeds a set threshold. It
+     * should be closed once it is no longer needed, see {@link JPlagResult#close()}.
+     * @throws ExitException if JPlag exits preemptively.
+     * @throws SubmissionException of not enough valid submissions are present.
+     */
+    public static JPlagResult run(JPlagOptions options, JPlagMetrics metrics) throws ExitException {
+        try {
+            return runPipeline(options, metrics);
+        } finally {
+            FileUtils.clearCharsetCache(); // the charsets are only reused within a run
+        }
+    }
+
+    private static JPlagResult runPipeline(JPlagOptions options, JPlagMetrics metrics) throws ExitException {
         checkForConfigurationConsistency(options);
+        if (options.budgetOptions().costAccounting()) {
+            metrics.enableCostAccounting();
+        }
 
         // Parse and validate submissions.
-        SubmissionSetBuilder builder = new SubmissionSetBuilder(options);
+        SubmissionSetBuilder builder = new SubmissionSetBuilder(options, metrics);
         SubmissionSet submissionSet = builder.buildSubmissionSet();
+        try {
+            return compareSubmissions(submissionSet, options, metrics);
+        } catch (ExitException | RuntimeException exception) {
+            submissionSet.close(); // otherwise, the result owns the submissions
+            throw exception;
+        }
+    }
 
-        LongestCommonSubsequenceSearch comparisonStrategy = new LongestCommonSubsequenceSearch(options);
+    private static JPlagResult compareSubmissions(SubmissionSet submissionSet, JPlagOptions options, JPlagMetrics metrics) throws ExitException {
+        LongestCommonSubsequenceSearch comparisonStrategy = new LongestCommonSubsequenceSearch(options, metrics);
 
         if (options.normalize() && options.language().supportsNormalization() && options.language().requiresCoreNormalization()) {
-            submissionSet.normalizeSubmissions();
+            try (StageTimer timer = metrics.startStage(PipelineStage.NORMALIZATION)) {
+                submissionSet.normalizeSubmissions();
+                timer.addItems(submissionSet.numberOfSubmissions());
+            }
         }
         int submissionCount = submissionSet.numberOfSubmissions();
         if (submissionCount < 2) {
@@ -83,22 +124,37 @@ public class JPlag {
 
         // Compare valid submissions.
         JPlagResult result = comparisonStrategy.compareSubmissions(submissionSet);
+        logMostExpensiveSubmissions(metrics);
 
         // Use Match Merging against obfuscation
         if (options.mergingOptions().enabled()) {
-            result = new MatchMerging(options).mergeMatchesOf(result);
+            try (StageTimer timer = metrics.startStage(PipelineStage.MERGING)) {
+                result = new MatchMerging(options).mergeMatchesOf(result);
+                timer.addItems(result.getAllComparisons().size());
+            }
         }
 
         if (logger.isInfoEnabled()) {
             logger.info("Total time for comparing submissions: {}", TimeUtil.formatDuration(result.getDuration()));
         }
-        result.setClusteringResult(ClusteringFactory.getClusterings(result.getAllComparisons(), options.clusteringOptions()));
+        try (StageTimer timer = metrics.startStage(PipelineStage.CLUSTERING)) {
+            result.setClusteringResult(ClusteringFactory.getClusterings(result.getAllComparisons(), options.clusteringOptions()));
+            timer.addItems(result.getAllComparisons().size());
+        }
+        result.setMetrics(metrics);
 
         logSkippedSubmissions(submissionSet, options);
 
         return result;
     }
 
+    private static void logMostExpensiveSubmissions(JPlagMetrics metrics) {
+        List<SubmissionCost> costs = metrics.getMostExpensiveSubmissions();
+        if (!costs.isEmpty() && logger.isInfoEnabled()) {
+            logger.info(JPlagMetrics.formatMostExpensiveSubmissions(costs));
+        }
+    }
+
     private static void logSkippedSubmissions(SubmissionSet submissionSet, JPlagOptions options) {
         List<Submission> skippedSubmissions = submissionSet.getInvalidSubmissions();
         if (!skippedSubmissions.isEmpty()) {
@@ -10,8 +10,11 @@ import java.util.List;
  * @param matches is the unmodifiable list of all subsequence matches between the two submissions.
  * @param ignoredMatches is the unmodifiable list of ignored matches whose length is below the minimum token match
  * threshold.
+ * @param commentSimilarity is the similarity of the comments of the two submissions in interval [0, 1]. Zero if comments
+ * are not analyzed.
  */
-public record JPlagComparison(Submission firstSubmission, Submission secondSubmission, List<Match> matches, List<Match> ignoredMatches) {
+public record JPlagComparison(Submission firstSubmission, Submission secondSubmission, List<Match> matches, List<Match> ignoredMatches,
+        double commentSimilarity) {
 
     /**
      * Constructs a new comparison between two submissions. The match lists are wrapped as unmodifiable to preserve
@@ -19,12 +22,35 @@ public record JPlagComparison(Submission firstSubmission, Submission secondSubmi
      * @param firstSubmission is the first of the two submissions.
      * @param secondSubmission is the second of the two submissions.
      * @param matches is the list of all matches between the two submissions.
+     * @param ignoredMatches is the list of ignored matches whose length is below the minimum token match threshold.
+     * @param commentSimilarity is the similarity of the comments of the two submissions.
      */
-    public JPlagComparison(Submission firstSubmission, Submission secondSubmission, List<Match> matches, List<Match> ignoredMatches) {
+    public JPlagComparison(Submission firstSubmission, Submission secondSubmission, List<Match> matches, List<Match> ignoredMatches,
+            double commentSimilarity) {
         this.firstSubmission = firstSubmission;
         this.secondSubmission = secondSubmission;
         this.matches = Collections.unmodifiableList(matches);
         this.ignoredMatches = Collections.unmodifiableList(ignoredMatches);
+        this.commentSimilarity = commentSimilarity;
+    }
+
+    /**
+     * Constructs a new comparison between two submissions without comment similarity.
+     * @param firstSubmission is the first of the two submissions.
+     * @param secondSubmission is the second of the two submissions.
+     * @param matches is the list of all matches between the two submissions.
+     * @param ignoredMatches is the list of ignored matches whose length is below the minimum token match threshold.
+     */
+    public JPlagComparison(Submission firstSubmission, Submission secondSubmission, List<Match> matches, List<Match> ignoredMatches) {
+        this(firstSubmission, secondSubmission, matches, ignoredMatches, 0.0);
+    }
+
+    /**
+     * @param commentSimilarity is the similarity of the comments of the two submissions.
+     * @return a copy of this comparison with the given comment similarity.
+     */
+    public JPlagComparison withCommentSimilarity(double commentSimilarity) {
+        return new JPlagComparison(firstSubmission, secondSubmission, matches, ignoredMatches, commentSimilarity);
     }
 
     /**
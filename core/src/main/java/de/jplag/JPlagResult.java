@@ -6,16 +6,18 @@ import java.util.List;
 import java.util.function.ToDoubleFunction;
 
 import de.jplag.clustering.ClusteringResult;
+import de.jplag.metrics.JPlagMetrics;
 import de.jplag.options.JPlagOptions;
 import de.jplag.options.SimilarityMetric;
 
 /**
  * Encapsulates the results of a pairwise comparison of program structure among a set of source code submissions.
  * Provides access to pairwise comparison results sorted by similarity, similarity distribution data, clustering results
- * over submissions, execution duration, and configuration options.
+ * over submissions, execution duration, and configuration options. Closing the result deletes the temporary files of
+ * submissions that were given as archives, thus it should be closed once the report is written.
  */
 
-public class JPlagResult {
+public class JPlagResult implements AutoCloseable {
 
     private List<JPlagComparison> comparisons; // comparisons whose similarity was about the specified threshold
 
@@ -29,6 +31,8 @@ public class JPlagResult {
 
     private List<ClusteringResult<Submission>> clusteringResult;
 
+    private JPlagMetrics metrics;
+
     private static final int SIMILARITY_DISTRIBUTION_SIZE = 100;
 
     public JPlagResult(List<JPlagComparison> comparisons, SubmissionSet submissions, long durationInMillis, JPlagOptions options) {
@@ -37,9 +41,20 @@ public class JPlagResult {
         this.submissions = submissions;
         this.durationInMillis = durationInMillis;
         this.options = options;
+        this.metrics = new JPlagMetrics();
         similarityDistribution = calculateSimilarityDistribution(comparisons);
     }
 
+    /**
+     * Deletes the temporary files of the submissions that were given as archives, see {@link SubmissionSet#close()}.
+     */
+    @Override
+    public void close() {
+        if (submissions != null) {
+            submissions.close();
+        }
+    }
+
     /**
      * Drops elements from the comparison list to free memory. Note, that this affects the similarity distribution and is
      * only meant to be used if you don't need the information about comparisons with lower match similarity anymore.
@@ -58,6 +73,22 @@ public class JPlagResult {
         this.clusteringResult = clustering;
     }
 
+    /**
+     * Sets the metrics that were recorded while computing this result.
+     * @param metrics are the metrics of the pipeline stages.
+     */
+    /* package-private */ void setMetrics(JPlagMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the metrics of the pipeline stages, e.g. the time spent in each stage. Further stages like report writing
+     * may add to them.
+     */
+    public JPlagMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Returns all comparisons.
      * @return a list of all comparisons sorted by similarity (descending).
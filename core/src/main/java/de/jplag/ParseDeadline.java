@@ -0,0 +1,115 @@
+package de.jplag;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deadline for parsing a single submission. A watchdog interrupts the parsing thread once the deadline has expired.
+ * Parsers cooperate by checking the interrupt flag, e.g. in their token streams, or by waiting interruptibly. Parsers
+ * that ignore the interrupt run to completion, but their submission is still treated as timed out. While the deadline
+ * is the {@link ParseClock} of the parsing thread, parsers can pause it, e.g. while the submission waits in a queue, so
+ * the deadline is postponed by the paused time.
+ */
+final class ParseDeadline extends ParseClock implements AutoCloseable {
+    private static final ScheduledExecutorService watchdog = Executors
+            .newSingleThreadScheduledExecutor(Thread.ofPlatform().name("jplag-parse-watchdog").daemon().factory());
+
+    private static final int RUNNING = 0;
+    private static final int EXPIRED = 1;
+    private static final int CLOSED = 2;
+    private static final AtomicLong lastActivityNanos = new AtomicLong(System.nanoTime());
+
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+    private final Thread parsingThread = Thread.currentThread();
+    private final boolean bounded;
+    private long remainingNanos; // guarded by this
+    private long resumedAtNanos; // guarded by this
+    private ScheduledFuture<?> interruption; // guarded by this, null while paused
+    private int resumptions; // guarded by this, so that an interruption scheduled before a pause is ignored
+
+    /**
+     * Starts the deadline for the current thread and makes it the {@link ParseClock} of the thread.
+     * @param seconds is the time until the deadline expires, or a non-positive value for no deadline.
+     */
+    ParseDeadline(double seconds) {
+        bounded = seconds > 0;
+        if (bounded) {
+            remainingNanos = (long) (seconds * 1e9);
+            bindToCurrentThread();
+            resume();
+        }
+    }
+
+    /**
+     * @return the last time any deadline was started, paused or resumed, as returned by {@link System#nanoTime()}. Parsers
+     * that pause and resume deadlines, e.g. while working through a queue of submissions, thereby show that they make
+     * progress.
+     */
+    static long lastActivityNanos() {
+        return lastActivityNanos.get();
+    }
+
+    @Override
+    public synchronized void pause() {
+        if (state.get() == RUNNING && interruption != null) {
+            interruption.cancel(false);
+            interruption = null;
+            long now = System.nanoTime();
+            remainingNanos -= now - resumedAtNanos;
+            lastActivityNanos.set(now);
+            if (remainingNanos <= 0 && state.compareAndSet(RUNNING, EXPIRED)) {
+                parsingThread.interrupt(); // the interruption was cancelled before the watchdog ran it
+            }
+        }
+    }
+
+    @Override
+    public synchronized void resume() {
+        if (bounded && state.get() == RUNNING && interruption == null) {
+            resumedAtNanos = System.nanoTime();
+            lastActivityNanos.set(resumedAtNanos);
+            int resumption = ++resumptions;
+            interruption = watchdog.schedule(() -> expire(resumption), Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Interrupts the parsing thread, unless the deadline was paused since the interruption was scheduled. Synchronized
+     * with {@link #close()}, so the interrupt cannot arrive after it.
+     */
+    private synchronized void expire(int resumption) {
+        if (resumption == resumptions && interruption != null && state.compareAndSet(RUNNING, EXPIRED)) {
+            parsingThread.interrupt();
+        }
+    }
+
+    /**
+     * @return whether the deadline has expired before it was closed.
+     */
+    boolean hasExpired() {
+        return state.get() == EXPIRED;
+    }
+
+    /**
+     * Stops the deadline. Must be called by the parsing thread, as it clears the interrupt caused by the deadline. A
+     * deadline whose time is used up counts as expired, even if the watchdog has not interrupted the thread yet.
+     */
+    @Override
+    public synchronized void close() {
+        unbindFromCurrentThread();
+        if (state.get() == RUNNING && interruption != null) {
+            interruption.cancel(false);
+            if (System.nanoTime() - resumedAtNanos >= remainingNanos) {
+                state.set(EXPIRED); // the budget is used up, even if the watchdog has not interrupted the thread yet
+                return;
+            }
+        }
+        if (!state.compareAndSet(RUNNING, CLOSED) && state.get() == EXPIRED) {
+            Thread.interrupted(); // the interrupt was caused by the deadline, not by the caller
+        }
+    }
+}
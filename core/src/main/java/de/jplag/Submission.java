@@ -2,6 +2,8 @@ package de.jplag;
 
 import static de.jplag.SubmissionState.CANNOT_PARSE;
 import static de.jplag.SubmissionState.NOTHING_TO_PARSE;
+import static de.jplag.SubmissionState.OVER_BUDGET;
+import static de.jplag.SubmissionState.TIMED_OUT;
 import static de.jplag.SubmissionState.TOO_SMALL;
 import static de.jplag.SubmissionState.UNPARSED;
 import static de.jplag.SubmissionState.VALID;
@@ -20,6 +22,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +33,7 @@ import de.jplag.commentextraction.CommentExtractor;
 import de.jplag.commentextraction.CommentExtractorSettings;
 import de.jplag.exceptions.LanguageException;
 import de.jplag.normalization.TokenSequenceNormalizer;
+import de.jplag.options.BudgetOptions;
 import de.jplag.options.JPlagOptions;
 
 /**
@@ -45,11 +50,14 @@ public class Submission implements Comparable<Submission> {
     private final Collection<File> files;
     private final Language language;
 
-    private SubmissionState state; // whether an error occurred during parsing or not
+    private volatile SubmissionState state; // whether an error occurred during parsing or not
+    private final ReentrantLock parseLock = new ReentrantLock(); // not synchronized, which would pin virtual threads while parsing
     private List<Token> tokenList; // list of tokens from all files, used for comparison
     private JPlagComparison baseCodeComparison; // Comparison of thus submission with the base code
     private Map<File, Integer> fileTokenCount;
     private List<Comment> comments; // list of comments from all files
+    private Map<File, String> views; // views of the files if the language uses views, kept in memory for the report
+    private long parseDurationNanos; // time spent in the language parser
 
     /**
      * Creates a submission.
@@ -68,6 +76,7 @@ public class Submission implements Comparable<Submission> {
         this.language = language;
         tokenList = Collections.emptyList(); // Placeholder, will be replaced when submission is parsed
         comments = new ArrayList<>();
+        views = new ConcurrentHashMap<>();
         state = UNPARSED;
     }
 
@@ -144,6 +153,13 @@ public class Submission implements Comparable<Submission> {
         return divisor;
     }
 
+    /**
+     * @return unmodifiable list of comments extracted from the submission files, empty if comments are not analyzed.
+     */
+    public List<Comment> getComments() {
+        return Collections.unmodifiableList(comments);
+    }
+
     /**
      * @return unmodifiable list of tokens generated by parsing the submission.
      */
@@ -233,30 +249,97 @@ public class Submission implements Comparable<Submission> {
         return subdirectory;
     }
 
+    /**
+     * Parses the files of the submission, unless it was already parsed. Concurrent calls parse the submission only once,
+     * the later calls wait for the first one.
+     * @param debugParser specifies if the submission should be copied upon parsing errors.
+     * @param normalize specifies if the token sequences should be normalized.
+     * @param minimalTokens specifies the minimum number of tokens required of a valid submission.
+     * @param analyzeComments specifies if comments should be extracted and analyzed.
+     * @param budget specifies the file size, parse time, and token budgets of the submission.
+     * @return Whether the submission is valid.
+     * @throws LanguageException if the language parser is not able to parse at all.
+     */
+    /* package-private */ boolean parseIfUnparsed(boolean debugParser, boolean normalize, int minimalTokens, boolean analyzeComments,
+            BudgetOptions budget) throws LanguageException {
+        if (state != UNPARSED) {
+            return state == VALID;
+        }
+        parseLock.lock();
+        try {
+            if (state != UNPARSED) {
+                return state == VALID;
+            }
+            return parse(debugParser, normalize, minimalTokens, analyzeComments, budget);
+        } finally {
+            parseLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the submission as timed out if its parser did not stop at the parse deadline. Does not take the parse lock, as
+     * the hung parsing thread still holds it.
+     */
+    /* package-private */ void abandonParsing() {
+        if (state == UNPARSED) {
+            state = TIMED_OUT;
+        }
+    }
+
     /**
      * Parse files of the submission.
      * @param debugParser specifies if the submission should be copied upon parsing errors.
      * @param normalize specifies if the token sequences should be normalized.
      * @param minimalTokens specifies the minimum number of tokens required of a valid submission.
      * @param analyzeComments specifies if comments should be extracted and analyzed.
+     * @param budget specifies the file size, parse time, and token budgets of the submission.
      * @return Whether parsing was successful.
      * @throws LanguageException if the language parser is not able to parse at all.
      */
-    /* package-private */ boolean parse(boolean debugParser, boolean normalize, int minimalTokens, boolean analyzeComments) throws LanguageException {
+    /* package-private */ boolean parse(boolean debugParser, boolean normalize, int minimalTokens, boolean analyzeComments, BudgetOptions budget)
+            throws LanguageException {
         if (files == null || files.isEmpty()) {
             logger.error("Nothing to parse for submission \"{}\"", name);
             state = NOTHING_TO_PARSE;
             return false;
         }
 
+        if (!checkFileSizeBudget(budget)) {
+            state = OVER_BUDGET;
+            return false;
+        }
+
+        long startNanos = System.nanoTime();
+        ParsingException parsingException = null;
+        ParseDeadline deadline = new ParseDeadline(budget.parseTimeBudget());
         try {
-            tokenList = language.parse(new HashSet<>(files), normalize);
+            if (language.useViewFiles()) {
+                tokenList = language.parse(new HashSet<>(files), normalize, views::put);
+            } else {
+                tokenList = language.parse(new HashSet<>(files), normalize);
+            }
         } catch (CriticalParsingException e) {
             throw new LanguageException(e.getMessage(), e.getCause());
         } catch (ParsingException e) {
-            String shortenedMessage = e.getMessage().replace(submissionRootFile.toString(), name);
+            parsingException = e;
+        } finally {
+            deadline.close();
+            parseDurationNanos = System.nanoTime() - startNanos;
+        }
+
+        if (deadline.hasExpired()) {
+            logger.error("Parsing submission {} was cancelled after the budget of {} seconds!", name, budget.parseTimeBudget());
+            state = TIMED_OUT;
+            tokenList = Collections.emptyList();
+            views.clear();
+            return false;
+        }
+
+        if (parsingException != null) {
+            String shortenedMessage = parsingException.getMessage().replace(submissionRootFile.toString(), name);
             logger.warn("Failed to parse submission {}:{}{}", name, System.lineSeparator(), shortenedMessage);
             state = CANNOT_PARSE;
+            views.clear();
             if (debugParser) {
                 copySubmission();
             }
@@ -267,6 +350,13 @@ public class Submission implements Comparable<Submission> {
             // print the number of tokens without the file-end token to help users choose the right parameters:
             logger.error("Submission {} contains {} tokens, which is below the minimum match length {}!", name, tokenList.size() - 1, minimalTokens);
             state = TOO_SMALL;
+            views.clear();
+            return false;
+        }
+
+        if (!checkTokenBudget(budget)) {
+            state = OVER_BUDGET;
+            views.clear();
             return false;
         }
 
@@ -279,6 +369,43 @@ public class Submission implements Comparable<Submission> {
         return true;
     }
 
+    /**
+     * Checks the files of the submission against the file size budget before they are parsed.
+     * @return whether all files are within the budget.
+     */
+    private boolean checkFileSizeBudget(BudgetOptions budget) {
+        if (budget.hasFileSizeBudget()) {
+            for (File file : files) {
+                if (file.length() > budget.fileSizeBudget()) {
+                    logger.error("File {} of submission {} has {} bytes, which is over the budget of {} bytes!", file.getName(), name, file.length(),
+                            budget.fileSizeBudget());
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the parsed submission against the token budget. Submissions over the budget are truncated if configured so.
+     * @return whether the submission is within the budget.
+     */
+    private boolean checkTokenBudget(BudgetOptions budget) {
+        if (budget.hasTokenBudget() && tokenList.size() > budget.tokenBudget()) {
+            if (!budget.truncateOverBudget()) {
+                logger.error("Submission {} contains {} tokens, which is over the budget of {} tokens!", name, tokenList.size(),
+                        budget.tokenBudget());
+                return false;
+            }
+            logger.warn("Submission {} contains {} tokens and is truncated to the budget of {} tokens", name, tokenList.size(), budget.tokenBudget());
+            // the last token stays the file end token, which the comparison uses as pivot
+            List<Token> truncatedTokens = new ArrayList<>(tokenList.subList(0, budget.tokenBudget() - 1));
+            truncatedTokens.add(tokenList.getLast());
+            tokenList = truncatedTokens;
+        }
+        return true;
+    }
+
     private void extractAndParseComments() {
         Optional<CommentExtractorSettings> commentExtractorSettings = language.getCommentExtractorSettings();
         if (commentExtractorSettings.isPresent()) {
@@ -326,10 +453,29 @@ public class Submission implements Comparable<Submission> {
         Submission copy = new Submission(name, submissionRootFile, isNew, files, language);
         copy.setTokenList(tokenList);
         copy.setBaseCodeComparison(baseCodeComparison);
+        copy.comments.addAll(comments);
+        copy.views = views;
+        copy.parseDurationNanos = parseDurationNanos;
         copy.state = state;
         return copy;
     }
 
+    /**
+     * @return the time spent parsing the files of this submission in nanoseconds, or zero if it was not parsed.
+     */
+    /* package-private */ long getParseDuration() {
+        return parseDurationNanos;
+    }
+
+    /**
+     * @param file is a file of the submission.
+     * @return the view of the file that was created during parsing, or an empty optional if the language did not provide
+     * the view in memory.
+     */
+    public Optional<String> getView(File file) {
+        return Optional.ofNullable(views.get(file));
+    }
+
     /**
      * @return A mapping of each file in the submission to the number of tokens in the file
      */
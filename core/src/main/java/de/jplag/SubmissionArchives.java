@@ -0,0 +1,302 @@
+package de.jplag;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Support for submissions and root directories that are zip or tar archives. As the language modules parse files, the
+ * relevant entries of an archive are expanded into a temporary directory. Each instance owns the directories of the
+ * archives it expanded and deletes them when closed, i.e. when the run no longer needs the submission files. Directories
+ * that were not deleted that way are deleted when the JVM exits. Entries that are rejected by the entry filter (e.g.
+ * files with invalid suffixes) are never written.
+ */
+final class SubmissionArchives implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionArchives.class);
+
+    private static final List<String> ARCHIVE_EXTENSIONS = List.of(".tar.gz", ".tgz", ".tar", ".zip"); // longest first
+    private static final String TEMPORARY_DIRECTORY_PREFIX = "jplag-archive-";
+    private static final int TAR_BLOCK_SIZE = 512;
+    private static final int MAXIMUM_HEADER_CONTENT_SIZE = 1 << 20; // long names and pax records
+    private static final String PAX_PATH = "path";
+    private static final String PAX_SIZE = "size";
+    private static final Set<Path> undeletedDirectories = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteTemporaryDirectories(undeletedDirectories)));
+    }
+
+    private final Set<Path> temporaryDirectories = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param file is the file to check.
+     * @return true if the file is a supported archive, based on its name.
+     */
+    static boolean isArchive(File file) {
+        return file.isFile() && isArchiveName(file.getName());
+    }
+
+    /**
+     * @param fileName is the file name to check.
+     * @return true if the name has the extension of a supported archive.
+     */
+    static boolean isArchiveName(String fileName) {
+        return archiveExtension(fileName) != null;
+    }
+
+    /**
+     * @param archiveName is the file name of an archive.
+     * @return the name without the archive extension, e.g. "alice" for "alice.tar.gz".
+     */
+    static String nameWithoutExtension(String archiveName) {
+        String extension = archiveExtension(archiveName);
+        return extension == null ? archiveName : archiveName.substring(0, archiveName.length() - extension.length());
+    }
+
+    /**
+     * Expands the accepted entries of an archive into a new temporary directory.
+     * @param archive is the zip or tar archive.
+     * @param entryFilter decides which entries are expanded, based on their slash-separated path in the archive.
+     * @return the directory that contains the expanded entries, named like the archive without extension.
+     * @throws IOException if the archive cannot be read or is malformed.
+     */
+    File expand(File archive, Predicate<String> entryFilter) throws IOException {
+        Path temporaryDirectory = Files.createTempDirectory(TEMPORARY_DIRECTORY_PREFIX);
+        temporaryDirectories.add(temporaryDirectory);
+        undeletedDirectories.add(temporaryDirectory);
+        Path target = Files.createDirectory(temporaryDirectory.resolve(nameWithoutExtension(archive.getName())));
+
+        String extension = archiveExtension(archive.getName());
+        if (".zip".equals(extension)) {
+            expandZip(archive, target, entryFilter);
+        } else {
+            try (InputStream input = openTar(archive, extension)) {
+                expandTar(input, target, entryFilter);
+            }
+        }
+        logger.debug("Expanded archive {} into {}", archive, target);
+        return target.toFile();
+    }
+
+    private static void expandZip(File archive, Path target, Predicate<String> entryFilter) throws IOException {
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && entryFilter.test(entry.getName())) {
+                    try (InputStream input = zipFile.getInputStream(entry)) {
+                        write(input, target, entry.getName());
+                    }
+                }
+            }
+        }
+    }
+
+    private static InputStream openTar(File archive, String extension) throws IOException {
+        InputStream input = new BufferedInputStream(Files.newInputStream(archive.toPath()));
+        return ".tar".equals(extension) ? input : new GZIPInputStream(input);
+    }
+
+    /**
+     * Reads a POSIX (ustar or pax) or GNU tar stream. Only regular files are expanded.
+     */
+    private static void expandTar(InputStream input, Path target, Predicate<String> entryFilter) throws IOException {
+        byte[] header = new byte[TAR_BLOCK_SIZE];
+        String longName = null;
+        Long longSize = null;
+        while (input.readNBytes(header, 0, TAR_BLOCK_SIZE) == TAR_BLOCK_SIZE && header[0] != 0) {
+            long size = longSize != null ? longSize : parseOctal(header, 124, 12);
+            char type = (char) header[156];
+            String name = longName != null ? longName : tarName(header);
+            longName = null;
+            longSize = null;
+            long paddedSize = (size + TAR_BLOCK_SIZE - 1) / TAR_BLOCK_SIZE * TAR_BLOCK_SIZE;
+
+            if (type == 'L') { // GNU long name, stored as the content of this entry
+                longName = trimNull(new String(readTarContent(input, size), StandardCharsets.UTF_8));
+                input.skipNBytes(paddedSize - size);
+            } else if (type == 'x' || type == 'g') { // pax extended header for the next entry or all following entries
+                Map<String, String> records = parsePaxRecords(readTarContent(input, size));
+                input.skipNBytes(paddedSize - size);
+                if (type == 'g' && (records.containsKey(PAX_PATH) || records.containsKey(PAX_SIZE))) {
+                    throw new IOException("Unsupported global pax header in tar archive: " + records.keySet());
+                }
+                longName = records.get(PAX_PATH);
+                longSize = records.containsKey(PAX_SIZE) ? parsePaxSize(records.get(PAX_SIZE)) : null;
+            } else if ((type == '0' || type == 0) && entryFilter.test(name)) {
+                write(new BoundedInputStream(input, size), target, name);
+                input.skipNBytes(paddedSize - size);
+            } else {
+                input.skipNBytes(paddedSize);
+            }
+        }
+    }
+
+    private static byte[] readTarContent(InputStream input, long size) throws IOException {
+        if (size > MAXIMUM_HEADER_CONTENT_SIZE) {
+            throw new IOException("Malformed tar header");
+        }
+        return input.readNBytes((int) size);
+    }
+
+    /**
+     * Parses the records of a pax extended header, each of the form "length key=value\n".
+     */
+    private static Map<String, String> parsePaxRecords(byte[] content) throws IOException {
+        Map<String, String> records = new HashMap<>();
+        int offset = 0;
+        while (offset < content.length && content[offset] != 0) {
+            int space = offset;
+            while (space < content.length && content[space] != ' ') {
+                space++;
+            }
+            int length;
+            try {
+                length = Integer.parseInt(new String(content, offset, space - offset, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException exception) {
+                throw new IOException("Malformed pax header", exception);
+            }
+            if (length < space - offset + 2 || offset + length > content.length || content[offset + length - 1] != '\n') {
+                throw new IOException("Malformed pax header");
+            }
+            String keyValue = new String(content, space + 1, offset + length - space - 2, StandardCharsets.UTF_8);
+            int separator = keyValue.indexOf('=');
+            if (separator < 0) {
+                throw new IOException("Malformed pax header");
+            }
+            records.put(keyValue.substring(0, separator), keyValue.substring(separator + 1));
+            offset += length;
+        }
+        return records;
+    }
+
+    private static long parsePaxSize(String size) throws IOException {
+        try {
+            long value = Long.parseLong(size);
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException exception) {
+            throw new IOException("Malformed pax header", exception);
+        }
+        throw new IOException("Malformed pax header");
+    }
+
+    private static String tarName(byte[] header) {
+        String name = trimNull(new String(header, 0, 100, StandardCharsets.UTF_8));
+        boolean ustar = new String(header, 257, 5, StandardCharsets.US_ASCII).equals("ustar");
+        String prefix = ustar ? trimNull(new String(header, 345, 155, StandardCharsets.UTF_8)) : "";
+        return prefix.isEmpty() ? name : prefix + "/" + name;
+    }
+
+    private static long parseOctal(byte[] header, int offset, int length) throws IOException {
+        long value = 0;
+        for (int i = offset; i < offset + length && header[i] != 0 && header[i] != ' '; i++) {
+            if (header[i] < '0' || header[i] > '7') {
+                throw new IOException("Malformed tar header");
+            }
+            value = value * 8 + header[i] - '0';
+        }
+        return value;
+    }
+
+    private static String trimNull(String value) {
+        int end = value.indexOf('\0');
+        return end < 0 ? value : value.substring(0, end);
+    }
+
+    /**
+     * Writes an entry below the target directory, rejecting entries that would escape it.
+     */
+    private static void write(InputStream input, Path target, String entryName) throws IOException {
+        Path file = target.resolve(entryName).normalize();
+        if (!file.startsWith(target)) {
+            throw new IOException("Archive entry outside of the archive: " + entryName);
+        }
+        Files.createDirectories(file.getParent());
+        Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String archiveExtension(String fileName) {
+        String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+        return ARCHIVE_EXTENSIONS.stream().filter(lowerCaseName::endsWith).findFirst().orElse(null);
+    }
+
+    /**
+     * Deletes the directories of all archives expanded by this instance.
+     */
+    @Override
+    public void close() {
+        deleteTemporaryDirectories(temporaryDirectories);
+        undeletedDirectories.removeAll(temporaryDirectories);
+        temporaryDirectories.clear();
+    }
+
+    private static void deleteTemporaryDirectories(Set<Path> directories) {
+        for (Path directory : directories) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            } catch (IOException exception) {
+                logger.warn("Could not delete temporary directory {}", directory);
+            }
+        }
+    }
+
+    /**
+     * Limits a stream to the content of a single tar entry, without closing the underlying stream.
+     */
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream input;
+        private long remaining;
+
+        BoundedInputStream(InputStream input, long size) {
+            this.input = input;
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = input.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = input.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+}
@@ -2,12 +2,17 @@ package de.jplag;
 
 import static de.jplag.SubmissionState.VALID;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -20,6 +25,9 @@ import de.jplag.exceptions.SubmissionException;
 import de.jplag.logging.ProgressBar;
 import de.jplag.logging.ProgressBarLogger;
 import de.jplag.logging.ProgressBarType;
+import de.jplag.metrics.JPlagMetrics;
+import de.jplag.metrics.PipelineStage;
+import de.jplag.metrics.StageTimer;
 import de.jplag.options.JPlagOptions;
 
 /**
@@ -27,8 +35,9 @@ import de.jplag.options.JPlagOptions;
  * submissions, as well as an optional base code submission. Instances of this class are responsible for parsing
  * submissions, filtering them based on their validity, and providing access to the valid and invalid submissions.
  */
-public class SubmissionSet {
+public class SubmissionSet implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(SubmissionSet.class);
+    private static final long DEADLINE_GRACE_NANOS = TimeUnit.SECONDS.toNanos(1); // for parsers to stop at their deadline
 
     /**
      * Submissions to check for plagiarism.
@@ -43,6 +52,8 @@ public class SubmissionSet {
     private final Submission baseCodeSubmission;
 
     private final JPlagOptions options;
+    private final SubmissionArchives archives;
+    private final JPlagMetrics metrics;
     private final AtomicInteger errors = new AtomicInteger(0);
 
     /**
@@ -53,17 +64,45 @@ public class SubmissionSet {
      * @throws ExitException if the submissions cannot be parsed.
      */
     public SubmissionSet(List<Submission> submissions, Submission baseCode, JPlagOptions options) throws ExitException {
+        this(submissions, baseCode, options, new SubmissionArchives(), new JPlagMetrics());
+    }
+
+    /**
+     * Creates a submissions set and parses all submissions.
+     * @param submissions list of submissions to check for plagiarism.
+     * @param baseCode Base code submission if it exists or {@code null}.
+     * @param options The JPlag options
+     * @param archives are the expanded archives of the submissions, which are deleted when the set is closed.
+     * @param metrics records the parsing stage.
+     * @throws ExitException if the submissions cannot be parsed.
+     */
+    SubmissionSet(List<Submission> submissions, Submission baseCode, JPlagOptions options, SubmissionArchives archives, JPlagMetrics metrics)
+            throws ExitException {
         this.allSubmissions = submissions;
         this.baseCodeSubmission = baseCode;
         this.options = options;
-        parseSubmissions(allSubmissions);
-        if (baseCodeSubmission != null) {
-            parseBaseCodeSubmission(baseCodeSubmission);
+        this.archives = archives;
+        this.metrics = metrics;
+        try (StageTimer timer = metrics.startStage(PipelineStage.PARSING)) {
+            parseSubmissions(allSubmissions);
+            if (baseCodeSubmission != null) {
+                parseBaseCodeSubmission(baseCodeSubmission);
+            }
+            recordParsing(timer);
         }
         this.submissions = filterValidSubmissions();
         invalidSubmissions = filterInvalidSubmissions();
     }
 
+    /**
+     * Deletes the temporary files of submissions that were given as archives. Afterward, the files of these submissions
+     * can no longer be read.
+     */
+    @Override
+    public void close() {
+        archives.close();
+    }
+
     /**
      * @return true if the submission set has a basecode submission.
      */
@@ -137,9 +176,25 @@ public class SubmissionSet {
     /**
      * Parse the given base code submission.
      */
+    /**
+     * Records the parse time and size of each parsed submission, including the base code.
+     */
+    private void recordParsing(StageTimer timer) {
+        List<Submission> parsedSubmissions = new ArrayList<>(allSubmissions);
+        if (baseCodeSubmission != null) {
+            parsedSubmissions.add(baseCodeSubmission);
+        }
+        String language = options.language().getIdentifier();
+        for (Submission submission : parsedSubmissions) {
+            metrics.recordParseTime(language, submission.getName(), submission.getParseDuration());
+            timer.addItems(1).addBytesRead(submission.getFiles().stream().mapToLong(File::length).sum());
+        }
+    }
+
     private void parseBaseCodeSubmission(Submission baseCode) throws BasecodeException, LanguageException {
         logger.trace("----- Parsing basecode submission: {}", baseCode.getName());
-        if (!baseCode.parse(options.debugParser(), options.normalize(), options.minimumTokenMatch(), options.analyzeComments())) {
+        if (!baseCode.parse(options.debugParser(), options.normalize(), options.minimumTokenMatch(), options.analyzeComments(),
+                options.budgetOptions())) {
             if (baseCode.getState() == SubmissionState.TOO_SMALL) {
                 throw new BasecodeException("Basecode contains %d token(s), which is below the minimum match length (%d)!"
                         .formatted(baseCode.getNumberOfTokens(), options.minimumTokenMatch()));
@@ -162,9 +217,21 @@ public class SubmissionSet {
         ProgressBar progressBar = ProgressBarLogger.createProgressBar(ProgressBarType.PARSING, submissions.size());
 
         if (options.language().expectsSubmissionOrder()) {
+            // prerequisites are parsed in order, the submissions that may depend on them in parallel afterwards
+            List<Submission> prerequisiteSubmissions = new ArrayList<>();
+            List<Submission> dependentSubmissions = new ArrayList<>();
             for (Submission submission : submissions) {
+                if (options.language().isPrerequisiteSubmission(submission.getRoot())) {
+                    prerequisiteSubmissions.add(submission);
+                } else {
+                    dependentSubmissions.add(submission);
+                }
+            }
+            options.language().prepareParsing(prerequisiteSubmissions.stream().map(Submission::getRoot).toList());
+            for (Submission submission : prerequisiteSubmissions) {
                 parseSingleSubmission(progressBar, submission);
             }
+            parseSubmissionsInParallel(dependentSubmissions, progressBar);
         } else {
             parseSubmissionsInParallel(submissions, progressBar);
         }
@@ -177,25 +244,77 @@ public class SubmissionSet {
     }
 
     private void parseSubmissionsInParallel(List<Submission> submissions, ProgressBar progressBar) throws SubmissionException {
-        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            for (Submission submission : submissions) {
-                executor.submit(() -> {
-                    parseSingleSubmission(progressBar, submission);
-                    return null; // Ensure the lambda is a Callable for exception handling
-                });
+        Set<Submission> unfinishedSubmissions = ConcurrentHashMap.newKeySet();
+        unfinishedSubmissions.addAll(submissions);
+        AtomicLong lastProgressNanos = new AtomicLong(System.nanoTime());
+        AtomicBoolean abandoned = new AtomicBoolean();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (Submission submission : submissions) {
+            executor.submit(() -> {
+                if (!abandoned.get()) {
+                    lastProgressNanos.set(System.nanoTime());
+                    try {
+                        parseSingleSubmission(progressBar, submission);
+                    } finally {
+                        unfinishedSubmissions.remove(submission);
+                        lastProgressNanos.set(System.nanoTime());
+                    }
+                }
+                return null; // Ensure the lambda is a Callable for exception handling
+            });
+        }
+        executor.shutdown();
+        try {
+            if (awaitParsing(executor, lastProgressNanos)) {
+                return;
             }
-            executor.shutdown();
-            executor.awaitTermination(24, TimeUnit.HOURS); // Maximum time all processing can take.
         } catch (InterruptedException exception) {
+            executor.shutdownNow();
             throw new SubmissionException("Error while parsing the submissions.", exception);
         }
+
+        // the remaining parsers ignore their deadline, they are left behind and their submissions are skipped:
+        abandoned.set(true);
+        executor.shutdownNow();
+        for (Submission submission : unfinishedSubmissions) {
+            logger.error("Parsing submission {} did not stop after the budget of {} seconds and was abandoned!", submission.getName(),
+                    options.budgetOptions().parseTimeBudget());
+            submission.abandonParsing();
+            errors.incrementAndGet();
+            progressBar.step();
+        }
+    }
+
+    /**
+     * Waits until all submissions are parsed. With a parse time budget, the waiting ends once no submission has started or
+     * finished parsing, and no parser has paused or resumed a parse deadline, for longer than the budget. Each parser that
+     * respects its deadline finishes within it, and parsers that queue submissions pause their deadlines while they wait.
+     * @return whether all submissions are parsed.
+     */
+    private boolean awaitParsing(ExecutorService executor, AtomicLong lastProgressNanos) throws InterruptedException {
+        if (!options.budgetOptions().hasParseTimeBudget()) {
+            return executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        long timeoutNanos = (long) (options.budgetOptions().parseTimeBudget() * 1e9) + DEADLINE_GRACE_NANOS;
+        while (true) {
+            long lastActivityNanos = Math.max(lastProgressNanos.get(), ParseDeadline.lastActivityNanos());
+            long remainingNanos = lastActivityNanos + timeoutNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return executor.isTerminated();
+            }
+            if (executor.awaitTermination(remainingNanos, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        }
     }
 
     /**
      * Parses a single submission (thread safe).
      */
     private void parseSingleSubmission(ProgressBar progressBar, Submission submission) throws LanguageException {
-        boolean successful = submission.parse(options.debugParser(), options.normalize(), options.minimumTokenMatch(), options.analyzeComments());
+        // submissions may already be parsed during their discovery, see SubmissionSetBuilder
+        boolean successful = submission.parseIfUnparsed(options.debugParser(), options.normalize(), options.minimumTokenMatch(),
+                options.analyzeComments(), options.budgetOptions());
         if (!successful) {
             errors.incrementAndGet();
             logger.debug("ERROR -> Submission {} removed with reason {}", submission.getName(), submission.getState());
@@ -2,17 +2,28 @@ package de.jplag;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.function.Function;
 
 import org.slf4j.Logger;
@@ -20,11 +31,15 @@ import org.slf4j.LoggerFactory;
 
 import de.jplag.exceptions.BasecodeException;
 import de.jplag.exceptions.ExitException;
+import de.jplag.exceptions.LanguageException;
 import de.jplag.exceptions.RootDirectoryException;
 import de.jplag.exceptions.SubmissionException;
 import de.jplag.logging.ProgressBar;
 import de.jplag.logging.ProgressBarLogger;
 import de.jplag.logging.ProgressBarType;
+import de.jplag.metrics.JPlagMetrics;
+import de.jplag.metrics.PipelineStage;
+import de.jplag.metrics.StageTimer;
 import de.jplag.options.JPlagOptions;
 
 /**
@@ -37,6 +52,10 @@ public class SubmissionSetBuilder {
     private static final Logger logger = LoggerFactory.getLogger(SubmissionSetBuilder.class);
 
     private final JPlagOptions options;
+    private final JPlagMetrics metrics;
+    private final SuffixMatcher validSuffixes;
+    private final SuffixMatcher excludedNames;
+    private SubmissionArchives archives; // of the submission set that is currently built
 
     /**
      * Creates a builder for submission sets.
@@ -54,7 +73,20 @@ public class SubmissionSetBuilder {
      * @param options are the configured options.
      */
     public SubmissionSetBuilder(JPlagOptions options) {
+        this(options, new JPlagMetrics());
+    }
+
+    /**
+     * Creates a builder for submission sets that records the loading and parsing stages.
+     * @param options are the configured options.
+     * @param metrics records the stages of building a submission set.
+     */
+    public SubmissionSetBuilder(JPlagOptions options, JPlagMetrics metrics) {
         this.options = options;
+        this.metrics = metrics;
+        List<String> suffixes = options.fileSuffixes();
+        this.validSuffixes = new SuffixMatcher(suffixes == null ? List.of() : suffixes, true);
+        this.excludedNames = new SuffixMatcher(options.excludedFiles(), false);
     }
 
     /**
@@ -63,6 +95,34 @@ public class SubmissionSetBuilder {
      * @throws ExitException if the directory cannot be read.
      */
     public SubmissionSet buildSubmissionSet() throws ExitException {
+        archives = new SubmissionArchives();
+        try {
+            return buildSubmissionSetWithArchives();
+        } catch (ExitException | RuntimeException exception) {
+            archives.close();
+            throw exception;
+        }
+    }
+
+    private SubmissionSet buildSubmissionSetWithArchives() throws ExitException {
+        List<Submission> submissions;
+        Optional<Submission> baseCodeSubmission;
+        // the loading stage ends once all submissions are known, submissions that are parsed early may still be parsing
+        try (StageTimer timer = metrics.startStage(PipelineStage.LOADING)) {
+            Map<File, Submission> foundSubmissions = findSubmissions();
+            baseCodeSubmission = loadBaseCode();
+            baseCodeSubmission.ifPresent(baseSubmission -> foundSubmissions.remove(baseSubmission.getRoot()));
+            submissions = orderSubmissions(foundSubmissions);
+            timer.addItems(submissions.size());
+        }
+        return new SubmissionSet(submissions, baseCodeSubmission.orElse(null), options, archives, metrics);
+    }
+
+    /**
+     * Discovers the submissions in the root directories, without parsing them.
+     * @return the submissions by their root.
+     */
+    private Map<File, Submission> findSubmissions() throws ExitException {
         Set<File> submissionDirectories = verifyRootDirectories(options.submissionDirectories(), true);
         Set<File> oldSubmissionDirectories = verifyRootDirectories(options.oldSubmissionDirectories(), false);
         checkForNonOverlappingRootDirectories(submissionDirectories, oldSubmissionDirectories);
@@ -80,18 +140,14 @@ public class SubmissionSetBuilder {
             submissionFiles.addAll(listSubmissionFiles(submissionDirectory, false));
         }
 
-        ProgressBar progressBar = ProgressBarLogger.createProgressBar(ProgressBarType.LOADING, submissionFiles.size());
         Map<File, Submission> foundSubmissions = new HashMap<>();
-        for (SubmissionFileData submissionFile : submissionFiles) {
-            processSubmissionFile(submissionFile, multipleRoots, foundSubmissions);
-            progressBar.step();
+        for (Submission submission : discoverSubmissions(submissionFiles, multipleRoots)) {
+            foundSubmissions.put(submission.getRoot(), submission);
         }
-        progressBar.dispose();
-
-        Optional<Submission> baseCodeSubmission = loadBaseCode();
-        baseCodeSubmission.ifPresent(baseSubmission -> foundSubmissions.remove(baseSubmission.getRoot()));
+        return foundSubmissions;
+    }
 
-        // Merge everything in a submission set.
+    private List<Submission> orderSubmissions(Map<File, Submission> foundSubmissions) {
         List<Submission> submissions = new ArrayList<>(foundSubmissions.values());
 
         // Some languages expect a certain order, which is ensured here:
@@ -100,7 +156,7 @@ public class SubmissionSetBuilder {
             rootFiles = options.language().customizeSubmissionOrder(rootFiles);
             submissions = new ArrayList<>(rootFiles.stream().map(foundSubmissions::get).toList());
         }
-        return new SubmissionSet(submissions, baseCodeSubmission.orElse(null), options);
+        return submissions;
     }
 
     /**
@@ -116,11 +172,14 @@ public class SubmissionSetBuilder {
             if (!rootDirectory.exists()) {
                 throw new RootDirectoryException(String.format("Root directory \"%s\" does not exist!", rootDirectory));
             }
-            if (!rootDirectory.isDirectory()) {
+            File directory = rootDirectory;
+            if (SubmissionArchives.isArchive(rootDirectory)) {
+                directory = expandArchive(rootDirectory, true, it -> new RootDirectoryException("Cannot read root archive: " + rootDirectory, it));
+            } else if (!rootDirectory.isDirectory()) {
                 throw new RootDirectoryException(String.format("Root directory \"%s\" is not a directory!", rootDirectory));
             }
 
-            File canonicalRootDirectory = makeCanonical(rootDirectory,
+            File canonicalRootDirectory = makeCanonical(directory,
                     it -> new RootDirectoryException("Cannot read root directory: " + rootDirectory, it));
             if (!canonicalRootDirectories.add(canonicalRootDirectory)) {
                 // Root directory was already added, report a warning.
@@ -166,11 +225,16 @@ public class SubmissionSetBuilder {
         if (isFileExcluded(baseCodeSubmissionDirectory)) { // Stating an excluded path as basecode isn't very useful.
             throw new BasecodeException("Exclude submission: " + baseCodeSubmissionDirectory.getName());
         }
-        if (baseCodeSubmissionDirectory.isFile() && !hasValidSuffix(baseCodeSubmissionDirectory)) {
+        String baseCodeName = baseCodeSubmissionDirectory.getName();
+        if (SubmissionArchives.isArchive(baseCodeSubmissionDirectory)) {
+            baseCodeName = SubmissionArchives.nameWithoutExtension(baseCodeName);
+            baseCodeSubmissionDirectory = expandArchive(baseCodeSubmissionDirectory, false,
+                    it -> new BasecodeException("Cannot read basecode archive: " + options.baseCodeSubmissionDirectory(), it));
+        } else if (baseCodeSubmissionDirectory.isFile() && !hasValidSuffix(baseCodeSubmissionDirectory)) {
             throw new BasecodeException("Ignore submission with invalid extension or suffix: " + baseCodeSubmissionDirectory.getName());
         }
 
-        Submission baseCodeSubmission = processSubmission(baseCodeSubmissionDirectory.getName(), baseCodeSubmissionDirectory, false);
+        Submission baseCodeSubmission = processSubmission(baseCodeName, baseCodeSubmissionDirectory, false);
         logger.info("Basecode directory \"{}\" will be used.", baseCodeSubmission.getName());
         return Optional.of(baseCodeSubmission);
     }
@@ -229,16 +293,131 @@ public class SubmissionSetBuilder {
         return new Submission(submissionName, file, isNew, parseFilesRecursively(file), options.language());
     }
 
-    private void processSubmissionFile(SubmissionFileData file, boolean multipleRoots, Map<File, Submission> foundSubmissions) throws ExitException {
+    /**
+     * Discovers the files of all submissions in parallel. If the language does not expect a submission order, each
+     * submission is parsed as soon as its files are known, so parsing overlaps with the discovery of other submissions.
+     * The early parsing is not awaited, the {@link SubmissionSet} waits for it and reports the parsing progress.
+     * @return the discovered submissions in the order of the submission files.
+     */
+    private List<Submission> discoverSubmissions(List<SubmissionFileData> submissionFiles, boolean multipleRoots) throws ExitException {
+        boolean parseEarly = !options.language().expectsSubmissionOrder();
+        Optional<File> baseCodeRoot = baseCodeRoot();
+        ExecutorService parseExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        Semaphore parsePermits = new Semaphore(Runtime.getRuntime().availableProcessors());
+        ProgressBar progressBar = ProgressBarLogger.createProgressBar(ProgressBarType.LOADING, submissionFiles.size());
+        List<Future<Optional<Submission>>> futures = new ArrayList<>(submissionFiles.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (SubmissionFileData submissionFile : submissionFiles) {
+                futures.add(executor.submit(() -> {
+                    Optional<Submission> submission = processSubmissionFile(submissionFile, multipleRoots);
+                    progressBar.step();
+                    // the base code is removed from the submissions and parsed separately:
+                    submission.filter(it -> parseEarly && !baseCodeRoot.equals(Optional.of(it.getRoot())))
+                            .ifPresent(it -> parseExecutor.submit(() -> parseEarly(it, parsePermits)));
+                    return submission;
+                }));
+            }
+        } finally {
+            progressBar.dispose();
+            parseExecutor.shutdown();
+        }
+
+        List<Submission> submissions = new ArrayList<>(futures.size());
+        try {
+            for (Future<Optional<Submission>> future : futures) {
+                future.get().ifPresent(submissions::add);
+            }
+        } catch (ExecutionException exception) {
+            parseExecutor.shutdownNow();
+            if (exception.getCause() instanceof ExitException exitException) {
+                throw exitException;
+            }
+            throw new SubmissionException("Error while discovering the submissions.", exception.getCause());
+        } catch (InterruptedException exception) {
+            parseExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new SubmissionException("Error while discovering the submissions.", exception);
+        }
+        return submissions;
+    }
+
+    /**
+     * Parses a submission during discovery. At most one submission per processor is parsed at a time. The
+     * {@link SubmissionSet} skips submissions that are already parsed. If parsing fails critically, the submission stays
+     * unparsed and is parsed again by the submission set.
+     */
+    private void parseEarly(Submission submission, Semaphore parsePermits) {
+        try {
+            parsePermits.acquire();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return; // the submission set parses the submission
+        }
+        try {
+            submission.parseIfUnparsed(options.debugParser(), options.normalize(), options.minimumTokenMatch(), options.analyzeComments(),
+                    options.budgetOptions());
+        } catch (LanguageException exception) {
+            logger.debug("Parsing submission {} during discovery failed: {}", submission.getName(), exception.getMessage());
+        } finally {
+            parsePermits.release();
+        }
+    }
+
+    /**
+     * @return the canonical root of the base code as a submission, if the base code is a directory or file in place.
+     */
+    private Optional<File> baseCodeRoot() {
+        if (!options.hasBaseCode()) {
+            return Optional.empty();
+        }
+        File file = options.baseCodeSubmissionDirectory();
+        if (file.isDirectory() && options.subdirectoryName() != null) {
+            file = new File(file, options.subdirectoryName());
+        }
+        try {
+            return Optional.of(file.getCanonicalFile());
+        } catch (IOException exception) {
+            return Optional.empty(); // reported when the base code is loaded
+        }
+    }
+
+    private Optional<Submission> processSubmissionFile(SubmissionFileData file, boolean multipleRoots) throws ExitException {
+        String rootDirectoryPrefix = multipleRoots ? file.rootDirectory().getName() + File.separator : "";
         if (isFileExcluded(file.submissionFile())) {
             logger.error("Exclude submission: {}", file.submissionFile().getName());
+        } else if (SubmissionArchives.isArchive(file.submissionFile())) {
+            String submissionName = rootDirectoryPrefix + SubmissionArchives.nameWithoutExtension(file.submissionFile().getName());
+            File expandedArchive = expandArchive(file.submissionFile(), false,
+                    it -> new SubmissionException("Cannot read submission archive: " + submissionName, it));
+            return Optional.of(processSubmission(submissionName, expandedArchive, file.isNew()));
         } else if (file.submissionFile().isFile() && !hasValidSuffix(file.submissionFile())) {
             logger.error("Ignore submission with invalid extension or suffix: {}", file.submissionFile().getName());
         } else {
-            String rootDirectoryPrefix = multipleRoots ? file.rootDirectory().getName() + File.separator : "";
             String submissionName = rootDirectoryPrefix + file.submissionFile().getName();
-            Submission submission = processSubmission(submissionName, file.submissionFile(), file.isNew());
-            foundSubmissions.put(submission.getRoot(), submission);
+            return Optional.of(processSubmission(submissionName, file.submissionFile(), file.isNew()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Expands the entries of an archive that are relevant for the submissions into a temporary directory.
+     * @param archive is the zip or tar archive.
+     * @param keepNestedArchives specifies whether archives inside the archive are kept, e.g. for root archives that contain
+     * one archive per submission.
+     * @param exceptionWrapper wraps I/O errors into the exception type of the caller.
+     */
+    private File expandArchive(File archive, boolean keepNestedArchives, Function<Exception, ExitException> exceptionWrapper) throws ExitException {
+        try {
+            return archives.expand(archive, entryName -> {
+                String[] segments = entryName.split("/");
+                if (Arrays.stream(segments).anyMatch(this::isFileExcluded)) {
+                    return false;
+                }
+                String fileName = segments[segments.length - 1];
+                return hasValidSuffix(fileName) || keepNestedArchives && SubmissionArchives.isArchiveName(fileName);
+            });
+        } catch (IOException exception) {
+            throw exceptionWrapper.apply(exception);
         }
     }
 
@@ -248,54 +427,67 @@ public class SubmissionSetBuilder {
      * @return true if the file matches the file extension or suffix.
      */
     private boolean hasValidSuffix(File file) {
-        List<String> validSuffixes = options.fileSuffixes();
+        return hasValidSuffix(file.getName());
+    }
 
+    private boolean hasValidSuffix(String fileName) {
         // This is the case if either the language modules or the CLI did not set the valid suffixes array in options
-        if (validSuffixes == null || validSuffixes.isEmpty()) {
-            return true;
-        }
-        return validSuffixes.stream().anyMatch(suffix -> file.getName().toLowerCase().endsWith(suffix.toLowerCase()));
+        return validSuffixes.isEmpty() || validSuffixes.matches(fileName);
     }
 
     /**
      * Checks if a file is excluded or not.
      */
     private boolean isFileExcluded(File file) {
-        return options.excludedFiles().stream().anyMatch(excludedName -> file.getName().endsWith(excludedName));
+        return isFileExcluded(file.getName());
+    }
+
+    private boolean isFileExcluded(String fileName) {
+        return excludedNames.matches(fileName);
     }
 
     /**
      * Recursively scan the given directory for nested files. Excluded files and files with an invalid extension or suffix
-     * are ignored.
+     * are ignored. Symbolic links are followed, the attributes of each file are read only once.
      * <p>
      * If the given file is not a directory, the input will be returned as a singleton list.
      * @param file - File to start the scan from.
      * @return a list of nested files.
      */
     private Collection<File> parseFilesRecursively(File file) {
-        if (isFileExcluded(file)) {
-            return Collections.emptyList();
-        }
-
-        if (file.isFile() && hasValidSuffix(file)) {
-            return Collections.singletonList(file);
-        }
-
-        String[] nestedFileNames = file.list();
-
-        if (nestedFileNames == null) {
-            return Collections.emptyList();
-        }
-
         Collection<File> files = new ArrayList<>();
-
-        for (String fileName : nestedFileNames) {
-            files.addAll(parseFilesRecursively(new File(file, fileName)));
+        try {
+            Files.walkFileTree(file.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                    return isFileExcluded(fileNameOf(directory)) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+                    String fileName = fileNameOf(path);
+                    if (attributes.isRegularFile() && !isFileExcluded(fileName) && hasValidSuffix(fileName)) {
+                        files.add(path.toFile());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path path, IOException exception) {
+                    return FileVisitResult.CONTINUE; // unreadable files and directories are ignored
+                }
+            });
+        } catch (IOException exception) {
+            logger.error("Cannot list files of {}: {}", file, exception.getMessage());
         }
-
         return files;
     }
 
+    private static String fileNameOf(Path path) {
+        Path fileName = path.getFileName();
+        return fileName == null ? path.toString() : fileName.toString();
+    }
+
     /**
      * Computes the canonical file of a file, if an exception is thrown it is wrapped accordingly and re-thrown.
      */
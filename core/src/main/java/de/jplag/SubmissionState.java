@@ -9,5 +9,7 @@ public enum SubmissionState {
     NOTHING_TO_PARSE,
     CANNOT_PARSE,
     TOO_SMALL,
+    OVER_BUDGET,
+    TIMED_OUT,
     UNPARSED;
 }
@@ -0,0 +1,56 @@
+package de.jplag;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks file names against a fixed set of suffixes. The suffixes are grouped by length, so each check needs one set
+ * lookup per distinct suffix length instead of one comparison per suffix.
+ */
+final class SuffixMatcher {
+    private final Map<Integer, Set<String>> suffixesByLength;
+    private final boolean ignoreCase;
+
+    /**
+     * @param suffixes are the suffixes to match.
+     * @param ignoreCase specifies whether the case of suffixes and names is ignored.
+     */
+    SuffixMatcher(Collection<String> suffixes, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        this.suffixesByLength = new HashMap<>();
+        for (String suffix : suffixes) {
+            String normalizedSuffix = normalize(suffix);
+            suffixesByLength.computeIfAbsent(normalizedSuffix.length(), key -> new HashSet<>()).add(normalizedSuffix);
+        }
+    }
+
+    /**
+     * @return true if there are no suffixes to match.
+     */
+    boolean isEmpty() {
+        return suffixesByLength.isEmpty();
+    }
+
+    /**
+     * @param name is the file name.
+     * @return true if the name ends with any of the suffixes.
+     */
+    boolean matches(String name) {
+        String normalizedName = normalize(name);
+        for (Map.Entry<Integer, Set<String>> entry : suffixesByLength.entrySet()) {
+            int length = entry.getKey();
+            if (length <= normalizedName.length() && entry.getValue().contains(normalizedName.substring(normalizedName.length() - length))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String normalize(String value) {
+        return ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+    }
+}
@@ -0,0 +1,49 @@
+package de.jplag.calibration;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The similarities of the sampled pairs for one minimum token match.
+ * @param minimumTokenMatch is the calibrated minimum token match.
+ * @param comparedPairs is the number of compared pairs. Pairs with a submission that has fewer tokens than the minimum
+ * token match are skipped, as the submission would be invalid in a regular run.
+ * @param similarityDistribution is the absolute frequency of the similarities in 100 intervals, see
+ * {@link de.jplag.JPlagResult#calculateDistributionFor(java.util.function.ToDoubleFunction)}.
+ * @param meanSimilarity is the mean similarity of the compared pairs.
+ * @param medianSimilarity is the median similarity of the compared pairs.
+ * @param percentile90Similarity is the 90th percentile of the similarities.
+ * @param percentile99Similarity is the 99th percentile of the similarities.
+ * @param maximumSimilarity is the maximum similarity of the compared pairs.
+ * @param durationMillis is the time spent building the hash tables and comparing the pairs.
+ */
+public record CalibrationResult(int minimumTokenMatch, int comparedPairs, List<Integer> similarityDistribution, double meanSimilarity,
+        double medianSimilarity, double percentile90Similarity, double percentile99Similarity, double maximumSimilarity, long durationMillis) {
+
+    /**
+     * Computes the statistics of the similarities.
+     * @param minimumTokenMatch is the calibrated minimum token match.
+     * @param similarities are the similarities of the compared pairs.
+     * @param similarityDistribution is the distribution of the similarities.
+     * @param durationMillis is the time spent building the hash tables and comparing the pairs.
+     * @return the calibration result.
+     */
+    static CalibrationResult of(int minimumTokenMatch, double[] similarities, List<Integer> similarityDistribution, long durationMillis) {
+        double[] sorted = similarities.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0);
+        return new CalibrationResult(minimumTokenMatch, sorted.length, similarityDistribution, mean, percentile(sorted, 0.5), percentile(sorted, 0.9),
+                percentile(sorted, 0.99), percentile(sorted, 1), durationMillis);
+    }
+
+    /**
+     * @return the nearest-rank percentile of the sorted values, or zero if there are none.
+     */
+    private static double percentile(double[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
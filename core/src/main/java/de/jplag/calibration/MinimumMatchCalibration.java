@@ -0,0 +1,190 @@
+package de.jplag.calibration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.Submission;
+import de.jplag.SubmissionSet;
+import de.jplag.SubmissionSetBuilder;
+import de.jplag.comparison.GreedyStringTiling;
+import de.jplag.comparison.SubmissionTuple;
+import de.jplag.comparison.TokenSequenceMapper;
+import de.jplag.exceptions.ComparisonException;
+import de.jplag.exceptions.ExitException;
+import de.jplag.exceptions.SubmissionException;
+import de.jplag.logging.ProgressBar;
+import de.jplag.logging.ProgressBarLogger;
+import de.jplag.logging.ProgressBarType;
+import de.jplag.merging.MatchMerging;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.SimilarityMetric;
+
+/**
+ * Calibrates the minimum token match for a cohort of submissions. The submissions are parsed once, and a stratified
+ * sample of pairs is compared for each minimum token match. Only the hash tables of the Greedy String Tiling are rebuilt
+ * for each value, the token sequences are shared. The similarity distributions show which value separates the
+ * suspicious pairs from the coincidental matches of the cohort.
+ */
+public class MinimumMatchCalibration {
+    /**
+     * The default number of sampled pairs.
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 1000;
+    private static final long SAMPLE_SEED = 0; // fixed, so that repeated calibrations of a cohort are comparable
+
+    private static final Logger logger = LoggerFactory.getLogger(MinimumMatchCalibration.class);
+
+    private final JPlagOptions options;
+    private final int sampleSize;
+
+    /**
+     * Creates a calibration.
+     * @param options are the options of the run to calibrate. Its minimum token match is ignored.
+     * @param sampleSize is the maximum number of compared pairs per minimum token match.
+     */
+    public MinimumMatchCalibration(JPlagOptions options, int sampleSize) {
+        if (sampleSize < 1) {
+            throw new IllegalArgumentException("At least one pair is required, got " + sampleSize);
+        }
+        this.options = options;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Suggests the values to calibrate, which range from half to twice the default of the language.
+     * @param languageDefault is the default minimum token match of the language.
+     * @return the values in ascending order.
+     */
+    public static List<Integer> defaultValuesFor(int languageDefault) {
+        int step = Math.max(1, languageDefault / 4);
+        int smallest = Math.max(1, languageDefault / 2);
+        return IntStream.iterate(smallest, value -> value <= 2 * languageDefault, value -> value + step).boxed().toList();
+    }
+
+    /**
+     * Calibrates the given values.
+     * @param minimumTokenMatches are the values to calibrate.
+     * @return one result per distinct value, in the given order.
+     * @throws ExitException if the submissions cannot be parsed or compared.
+     * @throws SubmissionException if not enough valid submissions are present.
+     */
+    public List<CalibrationResult> calibrate(List<Integer> minimumTokenMatches) throws ExitException {
+        Set<Integer> values = new LinkedHashSet<>(minimumTokenMatches);
+        if (values.isEmpty() || values.stream().anyMatch(value -> value < 1)) {
+            throw new IllegalArgumentException("Minimum token matches must be positive, got " + minimumTokenMatches);
+        }
+
+        // Parse once with the smallest value, so that no submission is invalid for any of the values:
+        JPlagOptions parseOptions = options.withMinimumTokenMatch(values.stream().min(Integer::compare).orElseThrow());
+        try (SubmissionSet submissionSet = new SubmissionSetBuilder(parseOptions).buildSubmissionSet()) {
+            return calibrate(values, submissionSet);
+        }
+    }
+
+    private List<CalibrationResult> calibrate(Set<Integer> values, SubmissionSet submissionSet) throws ExitException {
+        if (options.normalize() && options.language().supportsNormalization() && options.language().requiresCoreNormalization()) {
+            submissionSet.normalizeSubmissions();
+        }
+        int submissionCount = submissionSet.numberOfSubmissions();
+        if (submissionCount < 2) {
+            throw new SubmissionException("Not enough valid submissions! (found " + submissionCount + " valid submissions)");
+        }
+
+        TokenSequenceMapper tokenSequenceMapper = new TokenSequenceMapper(submissionSet);
+        List<SubmissionTuple> sample = new StratifiedPairSampler(SAMPLE_SEED).sample(submissionSet.getSubmissions(), sampleSize);
+        logger.info("Calibrating {} minimum token matches with {} sampled pairs of {} submissions", values.size(), sample.size(), submissionCount);
+
+        List<CalibrationResult> results = new ArrayList<>();
+        ProgressBar progressBar = ProgressBarLogger.createProgressBar(ProgressBarType.CALIBRATING, values.size());
+        try {
+            for (int value : values) {
+                results.add(calibrate(value, submissionSet, tokenSequenceMapper, sample));
+                progressBar.step();
+            }
+        } finally {
+            progressBar.dispose();
+        }
+        return results;
+    }
+
+    private CalibrationResult calibrate(int minimumTokenMatch, SubmissionSet submissionSet, TokenSequenceMapper tokenSequenceMapper,
+            List<SubmissionTuple> sample) throws ComparisonException {
+        long startTimeMillis = System.currentTimeMillis();
+        JPlagOptions valueOptions = options.withMinimumTokenMatch(minimumTokenMatch);
+        GreedyStringTiling algorithm = new GreedyStringTiling(valueOptions, tokenSequenceMapper); // builds new hash tables
+
+        List<SubmissionTuple> pairs = sample.stream().filter(pair -> pair.left().getNumberOfTokens() >= minimumTokenMatch)
+                .filter(pair -> pair.right().getNumberOfTokens() >= minimumTokenMatch).toList();
+        if (submissionSet.hasBaseCode()) {
+            Submission baseCode = submissionSet.getBaseCode();
+            pairs.stream().flatMap(pair -> Stream.of(pair.left(), pair.right())).distinct()
+                    .forEach(submission -> submission.setBaseCodeComparison(algorithm.generateBaseCodeMarking(submission, baseCode)));
+        }
+
+        List<JPlagComparison> comparisons = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<JPlagComparison>> futures = pairs.stream()
+                    .map(pair -> executor.submit(() -> algorithm.compare(pair.left(), pair.right()))).toList();
+            try {
+                for (Future<JPlagComparison> future : futures) {
+                    comparisons.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new ComparisonException("Comparison was interrupted.", e);
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                throw new ComparisonException("Error during comparison algorithm.", e.getCause());
+            }
+        }
+
+        JPlagResult result = new JPlagResult(comparisons, submissionSet, 0, valueOptions);
+        if (valueOptions.mergingOptions().enabled()) {
+            result = new MatchMerging(valueOptions).mergeMatchesOf(result);
+        }
+        SimilarityMetric metric = similarityMetric();
+        double[] similarities = result.getAllComparisons().stream().mapToDouble(metric).toArray();
+        long durationMillis = System.currentTimeMillis() - startTimeMillis;
+        return CalibrationResult.of(minimumTokenMatch, similarities, result.calculateDistributionFor(metric), durationMillis);
+    }
+
+    /**
+     * @return the similarity metric of the options. The comment similarity does not depend on the minimum token match, so
+     * the average similarity is used instead.
+     */
+    private SimilarityMetric similarityMetric() {
+        return options.similarityMetric() == SimilarityMetric.COMMENTS ? SimilarityMetric.AVG : options.similarityMetric();
+    }
+
+    /**
+     * Formats the results as a table for the log.
+     * @param results are the calibration results.
+     * @return the formatted table.
+     */
+    public static String formatResults(List<CalibrationResult> results) {
+        StringBuilder table = new StringBuilder("Similarities per minimum token match:");
+        table.append(System.lineSeparator()).append(String.format("%8s %8s %8s %8s %8s %8s %8s %10s", "min", "pairs", "mean", "median", "p90",
+                "p99", "max", "time"));
+        for (CalibrationResult result : results) {
+            table.append(System.lineSeparator())
+                    .append(String.format("%8d %8d %7.1f%% %7.1f%% %7.1f%% %7.1f%% %7.1f%% %8dms", result.minimumTokenMatch(), result.comparedPairs(),
+                            100 * result.meanSimilarity(), 100 * result.medianSimilarity(), 100 * result.percentile90Similarity(),
+                            100 * result.percentile99Similarity(), 100 * result.maximumSimilarity(), result.durationMillis()));
+        }
+        return table.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package de.jplag.calibration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import de.jplag.Submission;
+import de.jplag.comparison.SubmissionTuple;
+
+/**
+ * Samples submission pairs stratified by submission size. The submissions are split into strata of similar token counts,
+ * and each combination of two strata contributes the same number of pairs. Thus, pairs of small submissions, for which
+ * the minimum token match matters most, are represented even if most submissions are large. Like in a regular run,
+ * only pairs with at least one new submission are sampled.
+ */
+class StratifiedPairSampler {
+    static final int NUMBER_OF_STRATA = 4;
+    private static final int ATTEMPTS_PER_PAIR = 20; // bounds the rejection sampling of strata with few eligible pairs
+
+    private final Random random;
+
+    /**
+     * @param seed is the seed of the sampling, the same seed yields the same sample.
+     */
+    StratifiedPairSampler(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Samples submission pairs.
+     * @param submissions are the submissions to sample the pairs from.
+     * @param sampleSize is the maximum number of pairs. If there are not more eligible pairs, all of them are returned.
+     * @return the sampled pairs.
+     */
+    List<SubmissionTuple> sample(List<Submission> submissions, int sampleSize) {
+        List<Submission> sorted = submissions.stream()
+                .sorted(Comparator.comparingInt(Submission::getNumberOfTokens).thenComparing(Submission::getName)).toList();
+        long newSubmissions = sorted.stream().filter(Submission::isNew).count();
+        long eligiblePairs = newSubmissions * (newSubmissions - 1) / 2 + newSubmissions * (sorted.size() - newSubmissions);
+        if (eligiblePairs <= sampleSize) {
+            return allPairs(sorted, 0, sorted.size(), 0, sorted.size()).stream()
+                    .map(pair -> new SubmissionTuple(sorted.get(pair[0]), sorted.get(pair[1]))).toList();
+        }
+
+        int strata = Math.min(NUMBER_OF_STRATA, sorted.size());
+        int cells = strata * (strata + 1) / 2;
+        int pairsPerCell = Math.ceilDiv(sampleSize, cells);
+        List<SubmissionTuple> sample = new ArrayList<>();
+        Set<Long> sampledPairs = new HashSet<>();
+        for (int first = 0; first < strata; first++) {
+            for (int second = first; second < strata; second++) {
+                int firstStart = first * sorted.size() / strata;
+                int firstEnd = (first + 1) * sorted.size() / strata;
+                int secondStart = second * sorted.size() / strata;
+                int secondEnd = (second + 1) * sorted.size() / strata;
+                sample.addAll(sampleCell(sorted, firstStart, firstEnd, secondStart, secondEnd, pairsPerCell, sampledPairs));
+            }
+        }
+        if (sample.size() < sampleSize) { // strata with too few pairs leave a remainder, which is sampled from all pairs
+            sample.addAll(sampleCell(sorted, 0, sorted.size(), 0, sorted.size(), sampleSize - sample.size(), sampledPairs));
+        }
+        Collections.shuffle(sample, random);
+        return sample.size() > sampleSize ? List.copyOf(sample.subList(0, sampleSize)) : sample;
+    }
+
+    /**
+     * Samples pairs of a submission from the first and one from the second range, which have not been sampled yet. Small
+     * ranges are enumerated, large ranges are sampled by rejection.
+     */
+    private List<SubmissionTuple> sampleCell(List<Submission> sorted, int firstStart, int firstEnd, int secondStart, int secondEnd, int pairs,
+            Set<Long> sampledPairs) {
+        long firstSize = firstEnd - firstStart;
+        long secondSize = secondEnd - secondStart;
+        long candidates = firstStart == secondStart ? firstSize * (firstSize - 1) / 2 : firstSize * secondSize;
+        List<int[]> cell = new ArrayList<>();
+        if (candidates <= 2L * pairs) {
+            List<int[]> allPairs = allPairs(sorted, firstStart, firstEnd, secondStart, secondEnd);
+            Collections.shuffle(allPairs, random);
+            allPairs.stream().filter(pair -> !sampledPairs.contains(key(sorted, pair[0], pair[1]))).limit(pairs).forEach(cell::add);
+            cell.forEach(pair -> sampledPairs.add(key(sorted, pair[0], pair[1])));
+        } else {
+            for (int attempt = 0; attempt < pairs * ATTEMPTS_PER_PAIR && cell.size() < pairs; attempt++) {
+                int left = firstStart + random.nextInt((int) firstSize);
+                int right = secondStart + random.nextInt((int) secondSize);
+                if (left != right && isEligible(sorted.get(left), sorted.get(right)) && sampledPairs.add(key(sorted, left, right))) {
+                    cell.add(new int[] {Math.min(left, right), Math.max(left, right)});
+                }
+            }
+        }
+        return cell.stream().map(pair -> new SubmissionTuple(sorted.get(pair[0]), sorted.get(pair[1]))).toList();
+    }
+
+    /**
+     * @return the indices of all eligible pairs of a submission from the first and one from the second range, each pair
+     * once.
+     */
+    private static List<int[]> allPairs(List<Submission> sorted, int firstStart, int firstEnd, int secondStart, int secondEnd) {
+        List<int[]> pairs = new ArrayList<>();
+        for (int left = firstStart; left < firstEnd; left++) {
+            for (int right = Math.max(secondStart, left + 1); right < secondEnd; right++) {
+                if (isEligible(sorted.get(left), sorted.get(right))) {
+                    pairs.add(new int[] {left, right});
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static long key(List<Submission> sorted, int first, int second) {
+        return (long) Math.min(first, second) * sorted.size() + Math.max(first, second);
+    }
+
+    private static boolean isEligible(Submission first, Submission second) {
+        return first.isNew() || second.isNew();
+    }
+}
@@ -11,6 +11,7 @@ import org.apache.commons.math3.linear.RealMatrix;
 import de.jplag.JPlagComparison;
 import de.jplag.Submission;
 import de.jplag.clustering.algorithm.GenericClusteringAlgorithm;
+import de.jplag.clustering.algorithm.LouvainClustering;
 
 /**
  * This class acts as an adapter between
@@ -21,7 +22,8 @@ import de.jplag.clustering.algorithm.GenericClusteringAlgorithm;
  */
 public class ClusteringAdapter {
 
-    private final RealMatrix similarityMatrix;
+    private final Collection<JPlagComparison> comparisons;
+    private final ToDoubleFunction<JPlagComparison> metric;
     private final IntegerMapping<Submission> mapping;
 
     /**
@@ -31,21 +33,20 @@ public class ClusteringAdapter {
      * @param metric function that assigns a similarity to each comparison
      */
     public ClusteringAdapter(Collection<JPlagComparison> comparisons, ToDoubleFunction<JPlagComparison> metric) {
+        this.comparisons = comparisons;
+        this.metric = metric;
         mapping = new IntegerMapping<>(comparisons.size());
         for (JPlagComparison comparison : comparisons) {
             mapping.map(comparison.firstSubmission());
             mapping.map(comparison.secondSubmission());
         }
-        int size = mapping.size();
+    }
 
-        similarityMatrix = new Array2DRowRealMatrix(size, size);
-        for (JPlagComparison comparison : comparisons) {
-            int firstIndex = mapping.map(comparison.firstSubmission());
-            int secondIndex = mapping.map(comparison.secondSubmission());
-            double similarity = metric.applyAsDouble(comparison);
-            similarityMatrix.setEntry(firstIndex, secondIndex, similarity);
-            similarityMatrix.setEntry(secondIndex, firstIndex, similarity);
-        }
+    /**
+     * @return the number of submissions that take part in the clustering.
+     */
+    public int numberOfSubmissions() {
+        return mapping.size();
     }
 
     /**
@@ -55,8 +56,54 @@ public class ClusteringAdapter {
      * @return the clustered submissions
      */
     public ClusteringResult<Submission> doClustering(GenericClusteringAlgorithm algorithm) {
+        RealMatrix similarityMatrix = createDenseSimilarityMatrix();
+        Collection<Collection<Integer>> intResult = algorithm.cluster(similarityMatrix);
+        return mapResult(ClusteringResult.fromIntegerCollections(new ArrayList<>(intResult), similarityMatrix));
+    }
+
+    /**
+     * Clusters the submissions on a sparse similarity graph. Never allocates a dense matrix, thus suitable for large
+     * numbers of submissions.
+     * @param algorithm that is used for clustering
+     * @param similarityFloor similarities below this value are not part of the graph
+     * @return the clustered submissions
+     */
+    public ClusteringResult<Submission> doClustering(LouvainClustering algorithm, double similarityFloor) {
+        SparseSimilarityMatrix similarityMatrix = createSparseSimilarityMatrix(similarityFloor);
         Collection<Collection<Integer>> intResult = algorithm.cluster(similarityMatrix);
-        ClusteringResult<Integer> modularityClusterResult = ClusteringResult.fromIntegerCollections(new ArrayList<>(intResult), similarityMatrix);
+        return mapResult(ClusteringResult.fromIntegerCollections(new ArrayList<>(intResult), similarityMatrix));
+    }
+
+    private RealMatrix createDenseSimilarityMatrix() {
+        int size = mapping.size();
+        RealMatrix similarityMatrix = new Array2DRowRealMatrix(size, size);
+        for (JPlagComparison comparison : comparisons) {
+            int firstIndex = mapping.map(comparison.firstSubmission());
+            int secondIndex = mapping.map(comparison.secondSubmission());
+            double similarity = metric.applyAsDouble(comparison);
+            similarityMatrix.setEntry(firstIndex, secondIndex, similarity);
+            similarityMatrix.setEntry(secondIndex, firstIndex, similarity);
+        }
+        return similarityMatrix;
+    }
+
+    private SparseSimilarityMatrix createSparseSimilarityMatrix(double similarityFloor) {
+        int[] firstIndices = new int[comparisons.size()];
+        int[] secondIndices = new int[comparisons.size()];
+        double[] similarities = new double[comparisons.size()];
+        int edgeCount = 0;
+        for (JPlagComparison comparison : comparisons) {
+            double similarity = metric.applyAsDouble(comparison);
+            if (similarity >= similarityFloor && similarity > 0) {
+                firstIndices[edgeCount] = mapping.map(comparison.firstSubmission());
+                secondIndices[edgeCount] = mapping.map(comparison.secondSubmission());
+                similarities[edgeCount++] = similarity;
+            }
+        }
+        return SparseSimilarityMatrix.fromEdges(mapping.size(), firstIndices, secondIndices, similarities, edgeCount);
+    }
+
+    private ClusteringResult<Submission> mapResult(ClusteringResult<Integer> modularityClusterResult) {
         List<Cluster<Submission>> mappedClusters = modularityClusterResult.getClusters().stream()
                 .map(unmappedCluster -> new Cluster<>(unmappedCluster.getMembers().stream().map(mapping::unmap).toList(),
                         unmappedCluster.getCommunityStrength(), unmappedCluster.getAverageSimilarity()))
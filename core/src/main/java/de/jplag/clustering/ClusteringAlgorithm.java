@@ -4,6 +4,7 @@ import java.util.Objects;
 
 import de.jplag.clustering.algorithm.AgglomerativeClustering;
 import de.jplag.clustering.algorithm.GenericClusteringAlgorithm;
+import de.jplag.clustering.algorithm.LouvainClustering;
 import de.jplag.clustering.algorithm.SpectralClustering;
 
 /**
@@ -17,7 +18,11 @@ public enum ClusteringAlgorithm {
     /**
      * {@link SpectralClustering}
      */
-    SPECTRAL(SpectralClustering::new);
+    SPECTRAL(SpectralClustering::new),
+    /**
+     * {@link LouvainClustering}
+     */
+    LOUVAIN(LouvainClustering::new);
 
     private final ClusteringAlgorithmSupplier constructor;
 
@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import de.jplag.JPlagComparison;
 import de.jplag.Submission;
 import de.jplag.clustering.algorithm.GenericClusteringAlgorithm;
+import de.jplag.clustering.algorithm.LouvainClustering;
 import de.jplag.logging.ProgressBar;
 import de.jplag.logging.ProgressBarLogger;
 import de.jplag.logging.ProgressBarType;
@@ -30,7 +31,10 @@ public class ClusteringFactory {
     private static final String CLUSTER_PATTERN = "avg similarity: {}, strength: {}, {} members: {}";
     private static final String CLUSTERING_RESULT = "{} clusters were found:";
     private static final String CLUSTERING_PARAMETERS = "Calculating clusters via {} clustering with {} pre-processing...";
+    private static final String SPARSE_CLUSTERING = "Calculating clusters of {} submissions via louvain clustering on similarities of at least {}...";
     private static final String CLUSTERING_DISABLED = "Cluster calculation disabled (as requested)!";
+    private static final String DENSE_CLUSTERING_OF_LARGE_COHORT = "Clustering {} submissions via {} clustering with {} pre-processing as "
+            + "requested, which needs quadratic memory. Keep the default algorithm and pre-processing to use louvain clustering instead.";
 
     private static final Logger logger = LoggerFactory.getLogger(ClusteringFactory.class);
 
@@ -47,26 +51,21 @@ public class ClusteringFactory {
             logger.warn(CLUSTERING_DISABLED);
             return Collections.emptyList();
         }
-        logger.info(CLUSTERING_PARAMETERS, options.algorithm(), options.preprocessor());
-
-        ProgressBar progressBar = ProgressBarLogger.createProgressBar(ProgressBarType.CLUSTERING, 0);
-
-        // init algorithm
-        GenericClusteringAlgorithm clusteringAlgorithm = options.algorithm().create(options);
-
-        // init preprocessor
-        Optional<ClusteringPreprocessor> preprocessor = options.preprocessor().constructPreprocessor(options);
-
-        if (preprocessor.isPresent()) {
-            // Package preprocessor into a clustering algorithm
-            clusteringAlgorithm = new PreprocessedClusteringAlgorithm(clusteringAlgorithm, preprocessor.orElseThrow());
-        }
 
         // init adapter
         ClusteringAdapter adapter = new ClusteringAdapter(comparisons, options.similarityMetric());
 
+        ProgressBar progressBar = ProgressBarLogger.createProgressBar(ProgressBarType.CLUSTERING, 0);
+
         // run clustering
-        ClusteringResult<Submission> result = adapter.doClustering(clusteringAlgorithm);
+        ClusteringResult<Submission> result;
+        if (useSparseClustering(adapter.numberOfSubmissions(), options)) {
+            logger.info(SPARSE_CLUSTERING, adapter.numberOfSubmissions(), options.sparseSimilarityFloor());
+            result = adapter.doClustering(new LouvainClustering(options), options.sparseSimilarityFloor());
+        } else {
+            logger.info(CLUSTERING_PARAMETERS, options.algorithm(), options.preprocessor());
+            result = adapter.doClustering(createDenseAlgorithm(options));
+        }
 
         // remove bad clusters
         result = removeBadClusters(result);
@@ -77,6 +76,30 @@ public class ClusteringFactory {
         return List.of(result);
     }
 
+    /**
+     * Large cohorts are clustered on a sparse graph, unless the algorithm or pre-processing was chosen explicitly.
+     */
+    static boolean useSparseClustering(int numberOfSubmissions, ClusteringOptions options) {
+        if (numberOfSubmissions < options.sparseSubmissionThreshold()) {
+            return false;
+        }
+        if (!options.explicitAlgorithm()) {
+            return true;
+        }
+        logger.warn(DENSE_CLUSTERING_OF_LARGE_COHORT, numberOfSubmissions, options.algorithm(), options.preprocessor());
+        return false;
+    }
+
+    private static GenericClusteringAlgorithm createDenseAlgorithm(ClusteringOptions options) {
+        GenericClusteringAlgorithm clusteringAlgorithm = options.algorithm().create(options);
+        Optional<ClusteringPreprocessor> preprocessor = options.preprocessor().constructPreprocessor(options);
+        if (preprocessor.isPresent()) {
+            // Package preprocessor into a clustering algorithm
+            clusteringAlgorithm = new PreprocessedClusteringAlgorithm(clusteringAlgorithm, preprocessor.orElseThrow());
+        }
+        return clusteringAlgorithm;
+    }
+
     private static ClusteringResult<Submission> removeBadClusters(final ClusteringResult<Submission> clustering) {
         List<Cluster<Submission>> filtered = clustering.getClusters().stream().filter(cluster -> !cluster.isBadCluster()).toList();
         return new ClusteringResult<>(filtered, clustering.getCommunityStrength());
@@ -33,16 +33,22 @@ import de.jplag.options.SimilarityMetric;
  * @param preprocessorThreshold up to which similarity the threshold-preprocessor zeroes out the similarities
  * @param preprocessorPercentile up to which percentile of similarities the percentile-preprocessor zeroes out the
  * similarities
+ * @param sparseSubmissionThreshold from which number of submissions on the clustering operates on a sparse similarity
+ * graph with the Louvain algorithm instead of a dense similarity matrix. Dense clustering needs quadratic memory and up
+ * to cubic time, which is infeasible for large cohorts.
+ * @param sparseSimilarityFloor similarities below this value are dropped from the sparse similarity graph.
+ * @param explicitAlgorithm whether the algorithm or the preprocessor was chosen explicitly, even if it is the default.
+ * Only large cohorts without an explicit choice are clustered on the sparse similarity graph.
  */
 public record ClusteringOptions(SimilarityMetric similarityMetric, double spectralKernelBandwidth, double spectralGaussianProcessVariance,
         int spectralMinRuns, int spectralMaxRuns, int spectralMaxKMeansIterationPerRun, double agglomerativeThreshold, Preprocessing preprocessor,
         boolean enabled, ClusteringAlgorithm algorithm, InterClusterSimilarity agglomerativeInterClusterSimilarity, double preprocessorThreshold,
-        double preprocessorPercentile) {
+        double preprocessorPercentile, int sparseSubmissionThreshold, double sparseSimilarityFloor, boolean explicitAlgorithm) {
 
     public ClusteringOptions(SimilarityMetric similarityMetric, double spectralKernelBandwidth, double spectralGaussianProcessVariance,
             int spectralMinRuns, int spectralMaxRuns, int spectralMaxKMeansIterationPerRun, double agglomerativeThreshold, Preprocessing preprocessor,
             boolean enabled, ClusteringAlgorithm algorithm, InterClusterSimilarity agglomerativeInterClusterSimilarity, double preprocessorThreshold,
-            double preprocessorPercentile) {
+            double preprocessorPercentile, int sparseSubmissionThreshold, double sparseSimilarityFloor, boolean explicitAlgorithm) {
         this.similarityMetric = Objects.requireNonNull(similarityMetric);
         this.spectralKernelBandwidth = spectralKernelBandwidth;
         this.spectralGaussianProcessVariance = spectralGaussianProcessVariance;
@@ -56,88 +62,103 @@ public record ClusteringOptions(SimilarityMetric similarityMetric, double spectr
         this.agglomerativeInterClusterSimilarity = Objects.requireNonNull(agglomerativeInterClusterSimilarity);
         this.preprocessorThreshold = preprocessorThreshold;
         this.preprocessorPercentile = preprocessorPercentile;
+        this.sparseSubmissionThreshold = sparseSubmissionThreshold;
+        this.sparseSimilarityFloor = sparseSimilarityFloor;
+        this.explicitAlgorithm = explicitAlgorithm;
     }
 
     public ClusteringOptions() {
         this(SimilarityMetric.AVG, 20.f, 0.05 * 0.05, 5, 50, 200, 0.2, Preprocessing.CUMULATIVE_DISTRIBUTION_FUNCTION, true,
-                ClusteringAlgorithm.SPECTRAL, InterClusterSimilarity.AVERAGE, 0.2, 0.5);
+                ClusteringAlgorithm.SPECTRAL, InterClusterSimilarity.AVERAGE, 0.2, 0.5, 1000, 0.2, false);
     }
 
     public ClusteringOptions withSimilarityMetric(SimilarityMetric similarityMetric) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
     }
 
     public ClusteringOptions withSpectralKernelBandwidth(double spectralKernelBandwidth) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
     }
 
     public ClusteringOptions withSpectralGaussianProcessVariance(double spectralGaussianProcessVariance) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
     }
 
     public ClusteringOptions withSpectralMinRuns(int spectralMinRuns) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
     }
 
     public ClusteringOptions withSpectralMaxRuns(int spectralMaxRuns) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
     }
 
     public ClusteringOptions withSpectralMaxKMeansIterationPerRun(int spectralMaxKMeansIterationPerRun) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
     }
 
     public ClusteringOptions withAgglomerativeThreshold(double agglomerativeThreshold) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
     }
 
     public ClusteringOptions withPreprocessor(Preprocessing preprocessor) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, true);
     }
 
     public ClusteringOptions withEnabled(boolean enabled) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
     }
 
     public ClusteringOptions withAlgorithm(ClusteringAlgorithm algorithm) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, true);
     }
 
     public ClusteringOptions withAgglomerativeInterClusterSimilarity(InterClusterSimilarity agglomerativeInterClusterSimilarity) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
     }
 
     public ClusteringOptions withPreprocessorThreshold(double preprocessorThreshold) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
     }
 
     public ClusteringOptions withPreprocessorPercentile(double preprocessorPercentile) {
         return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
                 spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
-                preprocessorThreshold, preprocessorPercentile);
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
+    }
+
+    public ClusteringOptions withSparseSubmissionThreshold(int sparseSubmissionThreshold) {
+        return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
+                spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
+    }
+
+    public ClusteringOptions withSparseSimilarityFloor(double sparseSimilarityFloor) {
+        return new ClusteringOptions(similarityMetric, spectralKernelBandwidth, spectralGaussianProcessVariance, spectralMinRuns, spectralMaxRuns,
+                spectralMaxKMeansIterationPerRun, agglomerativeThreshold, preprocessor, enabled, algorithm, agglomerativeInterClusterSimilarity,
+                preprocessorThreshold, preprocessorPercentile, sparseSubmissionThreshold, sparseSimilarityFloor, explicitAlgorithm);
     }
 }
@@ -4,13 +4,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.function.BiFunction;
-import java.util.stream.DoubleStream;
 
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.RealMatrix;
 
 /**
@@ -61,55 +57,80 @@ public class ClusteringResult<T> {
      * it's clusters.
      */
     public static ClusteringResult<Integer> fromIntegerCollections(List<Collection<Integer>> clustering, RealMatrix similarity) {
-        int numberOfSubmissions = similarity.getRowDimension();
-        Map<Integer, Integer> clusterIndicesOfSubmissionIndices = new HashMap<>();
-        int clusterIdx = 0;
-        for (Collection<Integer> cluster : clustering) {
-            for (Integer submissionIdx : cluster) {
-                clusterIndicesOfSubmissionIndices.put(submissionIdx, clusterIdx);
-            }
-            clusterIdx++;
-        }
+        return fromIntegerCollections(clustering, new ModularityEvaluator(similarity));
+    }
+
+    /**
+     * Variant of {@link #fromIntegerCollections(List, RealMatrix)} that reuses an evaluator over the similarity matrix
+     * instead of extracting the similarities again.
+     */
+    public static ClusteringResult<Integer> fromIntegerCollections(List<Collection<Integer>> clustering, ModularityEvaluator similarity) {
+        ModularityEvaluator.Assignment assignment = similarity.assign(clustering);
         List<Cluster<Integer>> clusters = new ArrayList<>(clustering.size());
         double communityStrength = 0;
-        if (!clustering.isEmpty()) {
-            RealMatrix percentagesOfSimilaritySums = new Array2DRowRealMatrix(clustering.size(), clustering.size());
-            percentagesOfSimilaritySums = percentagesOfSimilaritySums.scalarMultiply(0);
-            for (int i = 0; i < numberOfSubmissions; i++) {
-                if (!clusterIndicesOfSubmissionIndices.containsKey(i)) {
+        for (int i = 0; i < clustering.size(); i++) {
+            double clusterCommunityStrength = assignment.getCommunityStrength(i);
+            double averageSimilarity = calculateAverageSimilarityFor(clustering.get(i), similarity);
+            clusters.add(new Cluster<>(clustering.get(i), clusterCommunityStrength, averageSimilarity));
+            communityStrength += clusterCommunityStrength;
+        }
+        return new ClusteringResult<>(clusters, communityStrength);
+    }
+
+    /**
+     * Sparse variant of {@link #fromIntegerCollections(List, RealMatrix)}. Only visits the stored entries of the matrix, so
+     * the runtime is linear in the number of non-zero similarities.
+     */
+    public static ClusteringResult<Integer> fromIntegerCollections(List<Collection<Integer>> clustering, SparseSimilarityMatrix similarity) {
+        int[] clusterIndices = new int[similarity.size()];
+        Arrays.fill(clusterIndices, -1);
+        for (int clusterIdx = 0; clusterIdx < clustering.size(); clusterIdx++) {
+            for (int submissionIdx : clustering.get(clusterIdx)) {
+                clusterIndices[submissionIdx] = clusterIdx;
+            }
+        }
+        double[] internalWeights = new double[clustering.size()];
+        double[] outWeightSums = new double[clustering.size()];
+        for (int row = 0; row < similarity.size(); row++) {
+            int clusterA = clusterIndices[row];
+            if (clusterA < 0) {
+                continue;
+            }
+            for (int entry = similarity.rowStart(row); entry < similarity.rowEnd(row); entry++) {
+                int column = similarity.columnOf(entry);
+                int clusterB = column == row ? -1 : clusterIndices[column];
+                if (clusterB < 0) {
                     continue;
                 }
-                int clusterA = clusterIndicesOfSubmissionIndices.get(i);
-                for (int j = i + 1; j < numberOfSubmissions; j++) {
-                    if (!clusterIndicesOfSubmissionIndices.containsKey(j)) {
-                        continue;
-                    }
-                    int clusterB = clusterIndicesOfSubmissionIndices.get(j);
-                    percentagesOfSimilaritySums.addToEntry(clusterA, clusterB, similarity.getEntry(i, j));
-                    percentagesOfSimilaritySums.addToEntry(clusterB, clusterA, similarity.getEntry(i, j));
+                outWeightSums[clusterA] += similarity.valueOf(entry);
+                if (clusterA == clusterB) {
+                    internalWeights[clusterA] += similarity.valueOf(entry);
                 }
             }
-            percentagesOfSimilaritySums = percentagesOfSimilaritySums
-                    .scalarMultiply(1 / Arrays.stream(similarity.getData()).flatMapToDouble(DoubleStream::of).sum());
-            for (int i = 0; i < clustering.size(); i++) {
-                double outWeightSum = percentagesOfSimilaritySums.getRowVector(i).getL1Norm();
-                double clusterCommunityStrength = percentagesOfSimilaritySums.getEntry(i, i) - outWeightSum * outWeightSum;
-                double averageSimilarity = calculateAverageSimilarityFor(clustering.get(i), similarity);
-                clusters.add(new Cluster<>(clustering.get(i), clusterCommunityStrength, averageSimilarity));
-                communityStrength += clusterCommunityStrength;
-            }
+        }
+
+        List<Cluster<Integer>> clusters = new ArrayList<>(clustering.size());
+        double communityStrength = 0;
+        double totalWeight = similarity.getTotalWeight();
+        for (int i = 0; i < clustering.size(); i++) {
+            double outWeightSum = outWeightSums[i] / totalWeight;
+            double clusterCommunityStrength = internalWeights[i] / totalWeight - outWeightSum * outWeightSum;
+            int nMinusOne = clustering.get(i).size() - 1;
+            double averageSimilarity = internalWeights[i] / 2 / (nMinusOne * (nMinusOne + 1) / 2.0);
+            clusters.add(new Cluster<>(clustering.get(i), clusterCommunityStrength, averageSimilarity));
+            communityStrength += clusterCommunityStrength;
         }
         return new ClusteringResult<>(clusters, communityStrength);
     }
 
-    private static double calculateAverageSimilarityFor(Collection<Integer> cluster, RealMatrix similarityMatrix) {
+    private static double calculateAverageSimilarityFor(Collection<Integer> cluster, ModularityEvaluator similarity) {
         double sumOfSimilarities = 0;
         List<Integer> indices = List.copyOf(cluster);
         for (int i = 1; i < cluster.size(); i++) {
             int indexOfSubmission1 = indices.get(i);
             for (int j = 0; j < i; j++) { // as the similarity matrix is symmetrical we need only iterate over one half of it
                 int indexOfSubmission2 = indices.get(j);
-                sumOfSimilarities += similarityMatrix.getEntry(indexOfSubmission1, indexOfSubmission2);
+                sumOfSimilarities += similarity.similarity(indexOfSubmission1, indexOfSubmission2);
             }
         }
         int nMinusOne = cluster.size() - 1;
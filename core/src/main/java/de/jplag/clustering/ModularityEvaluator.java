@@ -0,0 +1,225 @@
+package de.jplag.clustering;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+
+/**
+ * Evaluates the {@link ClusteringResult#getCommunityStrength() community strength} (modularity) of clusterings over a
+ * fixed similarity matrix. The similarities, their row sums and the total weight are extracted once, so that many
+ * candidate clusterings can be evaluated cheaply. The evaluator itself is immutable and thread-safe, each
+ * {@link Assignment} is not.
+ */
+public class ModularityEvaluator {
+
+    private static final int UNASSIGNED = -1;
+
+    private final double[][] similarities;
+    private final double[] rowSums; // without the diagonal
+    private final double totalWeight; // with the diagonal
+
+    /**
+     * @param similarity is the symmetric similarity matrix. Array-backed matrices are read in place instead of copied, so
+     * they must not be modified while the evaluator is in use.
+     */
+    public ModularityEvaluator(RealMatrix similarity) {
+        this.similarities = similarity instanceof Array2DRowRealMatrix arrayMatrix ? arrayMatrix.getDataRef() : similarity.getData();
+        int size = similarities.length;
+        this.rowSums = new double[size];
+        double sum = 0;
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                sum += similarities[row][column];
+                if (row != column) {
+                    rowSums[row] += similarities[row][column];
+                }
+            }
+        }
+        this.totalWeight = sum;
+    }
+
+    /**
+     * @return the number of rows (and columns) of the similarity matrix.
+     */
+    public int size() {
+        return similarities.length;
+    }
+
+    /**
+     * @param row is the row index.
+     * @param column is the column index.
+     * @return the similarity of the given row and column.
+     */
+    public double similarity(int row, int column) {
+        return similarities[row][column];
+    }
+
+    /**
+     * Creates an assignment for a clustering. Submissions that are not part of any cluster are ignored for the community
+     * strength, like in {@link ClusteringResult#fromIntegerCollections(List, RealMatrix)}.
+     * @param clustering are the clusters as collections of row indices.
+     * @return the assignment, which can be modified via {@link Assignment#move(int, int)}.
+     */
+    public Assignment assign(List<? extends Collection<Integer>> clustering) {
+        return new Assignment(clustering);
+    }
+
+    /**
+     * Assignment of submissions to clusters with cached per-cluster weights. Moving a single submission updates these
+     * weights in linear time instead of recomputing them from scratch.
+     */
+    public final class Assignment {
+        private final int[] clusterOf;
+        private final int[] clusterSizes;
+        private final double[] internalWeights; // sum of similarities inside a cluster, both directions
+        private final double[] degrees; // sum of similarities of cluster members to all assigned submissions
+
+        private Assignment(List<? extends Collection<Integer>> clustering) {
+            int numberOfClusters = clustering.size();
+            clusterOf = new int[similarities.length];
+            Arrays.fill(clusterOf, UNASSIGNED);
+            clusterSizes = new int[numberOfClusters];
+            internalWeights = new double[numberOfClusters];
+            degrees = new double[numberOfClusters];
+
+            for (int cluster = 0; cluster < numberOfClusters; cluster++) {
+                for (int submission : clustering.get(cluster)) {
+                    clusterOf[submission] = cluster;
+                }
+            }
+            int[][] members = new int[numberOfClusters][];
+            for (int cluster = 0; cluster < numberOfClusters; cluster++) {
+                int clusterIndex = cluster;
+                members[cluster] = clustering.get(cluster).stream().mapToInt(Integer::intValue).filter(it -> clusterOf[it] == clusterIndex).toArray();
+            }
+            for (int submission = 0; submission < similarities.length; submission++) {
+                int cluster = clusterOf[submission];
+                if (cluster != UNASSIGNED) {
+                    clusterSizes[cluster]++;
+                    degrees[cluster] += rowSums[submission];
+                }
+            }
+            // the row sums contain similarities to unassigned submissions, which do not count
+            for (int unassigned = 0; unassigned < similarities.length; unassigned++) {
+                if (clusterOf[unassigned] == UNASSIGNED) {
+                    for (int submission = 0; submission < similarities.length; submission++) {
+                        if (clusterOf[submission] != UNASSIGNED) {
+                            degrees[clusterOf[submission]] -= similarities[submission][unassigned];
+                        }
+                    }
+                }
+            }
+            for (int cluster = 0; cluster < numberOfClusters; cluster++) {
+                int[] clusterMembers = members[cluster];
+                for (int i = 0; i < clusterMembers.length; i++) {
+                    for (int j = i + 1; j < clusterMembers.length; j++) {
+                        if (clusterMembers[i] != clusterMembers[j]) {
+                            internalWeights[cluster] += 2 * similarities[clusterMembers[i]][clusterMembers[j]];
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Moves a submission to another cluster and updates the cached weights.
+         * @param submission is the row index of the submission.
+         * @param targetCluster is the new cluster, or -1 to remove the submission from all clusters.
+         */
+        public void move(int submission, int targetCluster) {
+            int sourceCluster = clusterOf[submission];
+            if (sourceCluster == targetCluster) {
+                return;
+            }
+            for (int other = 0; other < similarities.length; other++) {
+                int otherCluster = clusterOf[other];
+                if (other == submission || otherCluster == UNASSIGNED) {
+                    continue;
+                }
+                double similarity = similarities[submission][other];
+                if (sourceCluster != UNASSIGNED) {
+                    degrees[sourceCluster] -= similarity;
+                    if (otherCluster == sourceCluster) {
+                        internalWeights[sourceCluster] -= 2 * similarity;
+                    }
+                } else {
+                    degrees[otherCluster] += similarity; // the other submission gains an assigned neighbor
+                }
+                if (targetCluster != UNASSIGNED) {
+                    degrees[targetCluster] += similarity;
+                    if (otherCluster == targetCluster) {
+                        internalWeights[targetCluster] += 2 * similarity;
+                    }
+                } else {
+                    degrees[otherCluster] -= similarity; // the other submission loses an assigned neighbor
+                }
+            }
+            if (sourceCluster != UNASSIGNED) {
+                clusterSizes[sourceCluster]--;
+            }
+            if (targetCluster != UNASSIGNED) {
+                clusterSizes[targetCluster]++;
+            }
+            clusterOf[submission] = targetCluster;
+        }
+
+        /**
+         * @return the number of clusters, including empty ones.
+         */
+        public int numberOfClusters() {
+            return clusterSizes.length;
+        }
+
+        /**
+         * @param cluster is the cluster index.
+         * @return the community strength of the cluster, see {@link Cluster#getCommunityStrength()}.
+         */
+        public double getCommunityStrength(int cluster) {
+            double degree = degrees[cluster] / totalWeight;
+            return internalWeights[cluster] / totalWeight - degree * degree;
+        }
+
+        /**
+         * @return the community strength of the whole clustering, see {@link ClusteringResult#getCommunityStrength()}.
+         */
+        public double getCommunityStrength() {
+            double communityStrength = 0;
+            for (int cluster = 0; cluster < clusterSizes.length; cluster++) {
+                communityStrength += getCommunityStrength(cluster);
+            }
+            return communityStrength;
+        }
+
+        /**
+         * @param cluster is the cluster index.
+         * @return the average similarity between the members of the cluster, see {@link Cluster#getAverageSimilarity()}.
+         */
+        public double getAverageSimilarity(int cluster) {
+            return internalWeights[cluster] / 2 / connections(cluster);
+        }
+
+        /**
+         * Equivalent to {@link ClusteringResult#getWorth} with the similarity matrix of this evaluator, without boxing.
+         * @return how much this clustering is worth during optimization.
+         */
+        public double getWorth() {
+            double worthSum = 0;
+            for (int cluster = 0; cluster < clusterSizes.length; cluster++) {
+                double worth = getCommunityStrength(cluster);
+                if (clusterSizes[cluster] > 1) {
+                    worth = worth / connections(cluster) * getAverageSimilarity(cluster);
+                }
+                worthSum += Double.isFinite(worth) ? worth : 0;
+            }
+            return worthSum / clusterSizes.length;
+        }
+
+        private double connections(int cluster) {
+            int size = clusterSizes[cluster];
+            return (size - 1) * size / 2.0;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package de.jplag.clustering;
+
+import java.util.Arrays;
+
+/**
+ * Symmetric similarity matrix in compressed sparse row (CSR) format. Only stores non-zero entries, thus the memory
+ * footprint scales with the number of relevant similarities instead of quadratically with the number of submissions.
+ * The column indices of each row are sorted ascending.
+ */
+public final class SparseSimilarityMatrix {
+
+    private final int size;
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final double[] values;
+    private final double[] rowSums;
+    private final double totalWeight;
+
+    private SparseSimilarityMatrix(int size, int[] rowPointers, int[] columnIndices, double[] values) {
+        this.size = size;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+        this.rowSums = new double[size];
+        double sum = 0;
+        for (int row = 0; row < size; row++) {
+            for (int entry = rowPointers[row]; entry < rowPointers[row + 1]; entry++) {
+                rowSums[row] += values[entry];
+            }
+            sum += rowSums[row];
+        }
+        this.totalWeight = sum;
+    }
+
+    /**
+     * Builds a symmetric matrix from a list of undirected edges. Each edge is stored in both directions, except for
+     * self-loops which are stored once. Duplicate edges are summed up. Edges with a weight of zero are dropped.
+     * @param size is the number of rows and columns.
+     * @param firstIndices are the first endpoints of the edges.
+     * @param secondIndices are the second endpoints of the edges.
+     * @param weights are the weights of the edges.
+     * @param edgeCount is the number of valid entries in the edge arrays.
+     * @return the sparse matrix.
+     */
+    public static SparseSimilarityMatrix fromEdges(int size, int[] firstIndices, int[] secondIndices, double[] weights, int edgeCount) {
+        int[] rowPointers = new int[size + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (weights[edge] == 0) {
+                continue;
+            }
+            rowPointers[firstIndices[edge] + 1]++;
+            if (firstIndices[edge] != secondIndices[edge]) {
+                rowPointers[secondIndices[edge] + 1]++;
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            rowPointers[row + 1] += rowPointers[row];
+        }
+
+        int[] columnIndices = new int[rowPointers[size]];
+        double[] values = new double[rowPointers[size]];
+        int[] nextEntry = Arrays.copyOf(rowPointers, size);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (weights[edge] == 0) {
+                continue;
+            }
+            int first = firstIndices[edge];
+            int second = secondIndices[edge];
+            columnIndices[nextEntry[first]] = second;
+            values[nextEntry[first]++] = weights[edge];
+            if (first != second) {
+                columnIndices[nextEntry[second]] = first;
+                values[nextEntry[second]++] = weights[edge];
+            }
+        }
+        return compact(size, rowPointers, columnIndices, values);
+    }
+
+    /**
+     * Sorts the columns of each row and merges duplicate entries. As the matrix is symmetric, it is its own transpose.
+     * Transposing via counting sort visits the source rows in ascending order, which yields sorted columns in linear time.
+     */
+    private static SparseSimilarityMatrix compact(int size, int[] rowPointers, int[] columnIndices, double[] values) {
+        int[] sortedColumns = new int[columnIndices.length];
+        double[] sortedValues = new double[values.length];
+        int[] nextEntry = Arrays.copyOf(rowPointers, size);
+        for (int row = 0; row < size; row++) {
+            for (int entry = rowPointers[row]; entry < rowPointers[row + 1]; entry++) {
+                int target = nextEntry[columnIndices[entry]]++;
+                sortedColumns[target] = row;
+                sortedValues[target] = values[entry];
+            }
+        }
+
+        int[] compactedPointers = new int[size + 1];
+        int written = 0;
+        for (int row = 0; row < size; row++) {
+            compactedPointers[row] = written;
+            for (int entry = rowPointers[row]; entry < rowPointers[row + 1]; entry++) {
+                if (written > compactedPointers[row] && sortedColumns[written - 1] == sortedColumns[entry]) {
+                    sortedValues[written - 1] += sortedValues[entry];
+                } else {
+                    sortedColumns[written] = sortedColumns[entry];
+                    sortedValues[written++] = sortedValues[entry];
+                }
+            }
+        }
+        compactedPointers[size] = written;
+        return new SparseSimilarityMatrix(size, compactedPointers, Arrays.copyOf(sortedColumns, written), Arrays.copyOf(sortedValues, written));
+    }
+
+    /**
+     * @return the number of rows (and columns).
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of stored entries.
+     */
+    public int nonZeroEntries() {
+        return columnIndices.length;
+    }
+
+    /**
+     * Looks up a single entry via binary search in its row.
+     * @param row is the row index.
+     * @param column is the column index.
+     * @return the similarity or zero if not stored.
+     */
+    public double getEntry(int row, int column) {
+        int index = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], column);
+        return index >= 0 ? values[index] : 0;
+    }
+
+    /**
+     * @param row is the row index.
+     * @return the index of the first stored entry of the row.
+     */
+    public int rowStart(int row) {
+        return rowPointers[row];
+    }
+
+    /**
+     * @param row is the row index.
+     * @return the index after the last stored entry of the row.
+     */
+    public int rowEnd(int row) {
+        return rowPointers[row + 1];
+    }
+
+    /**
+     * @param entry is the index of a stored entry, see {@link #rowStart(int)}.
+     * @return the column of the entry.
+     */
+    public int columnOf(int entry) {
+        return columnIndices[entry];
+    }
+
+    /**
+     * @param entry is the index of a stored entry, see {@link #rowStart(int)}.
+     * @return the value of the entry.
+     */
+    public double valueOf(int entry) {
+        return values[entry];
+    }
+
+    /**
+     * @param row is the row index.
+     * @return the sum of all entries in the row.
+     */
+    public double getRowSum(int row) {
+        return rowSums[row];
+    }
+
+    /**
+     * @return the sum of all entries of the matrix.
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+}
@@ -2,21 +2,23 @@ package de.jplag.clustering.algorithm;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.apache.commons.math3.linear.RealMatrix;
 
 import de.jplag.clustering.ClusteringOptions;
 
 /**
- * Begin by assigning a cluster to each entity and then successively merge similar clusters.
+ * Begin by assigning a cluster to each entity and then successively merge similar clusters. Uses the nearest-neighbor
+ * chain algorithm: Starting from any cluster, the chain is extended by the most similar cluster of its last element
+ * until two clusters are mutual nearest neighbors, which are then merged. As all {@link InterClusterSimilarity} options
+ * are reducible, this yields the same clustering as always merging the globally most similar pair, but in O(n²) time.
+ * Similarities of merged clusters are updated in place via {@link InterClusterSimilarity#mergedSimilarity}.
  */
 public class AgglomerativeClustering implements GenericClusteringAlgorithm {
 
+    private static final int NONE = -1;
+
     private final ClusteringOptions options;
 
     public AgglomerativeClustering(ClusteringOptions options) {
@@ -26,73 +28,87 @@ public class AgglomerativeClustering implements GenericClusteringAlgorithm {
     @Override
     public Collection<Collection<Integer>> cluster(RealMatrix similarityMatrix) {
         int size = similarityMatrix.getRowDimension();
-        // all clusters that do not have a parent yet
-        Set<Cluster> clusters = HashSet.newHashSet(size);
-        // calculated similarities. Might contain connections to already visited
-        // clusters, those need to be ignored.
-        PriorityQueue<ClusterConnection> similarities;
-
-        // initialization
-
-        List<Cluster> initialClusters = new ArrayList<>(size);
+        double[][] similarities = similarityMatrix.getData();
+        InterClusterSimilarity linkage = options.agglomerativeInterClusterSimilarity();
+        double threshold = options.agglomerativeThreshold();
+
+        // clusters are identified by the index of one of their members, the members form a linked list
+        int[] clusterSizes = new int[size];
+        int[] nextMember = new int[size];
+        int[] lastMember = new int[size];
+        boolean[] active = new boolean[size]; // clusters that may still be merged
+        boolean[] merged = new boolean[size]; // clusters that are part of another cluster
         for (int i = 0; i < size; i++) {
-            List<Integer> members = new ArrayList<>();
-            members.add(i);
-            Cluster cluster = new Cluster(members);
-            initialClusters.add(cluster);
-            clusters.add(cluster);
+            clusterSizes[i] = 1;
+            nextMember[i] = NONE;
+            lastMember[i] = i;
+            active[i] = true;
         }
 
-        List<ClusterConnection> initialSimilarities = new ArrayList<>(size * (size - 1) / 2);
-
-        for (int leftIndex = 0; leftIndex < initialClusters.size(); leftIndex++) {
-            Cluster leftCluster = initialClusters.get(leftIndex);
-            for (int rightIndex = leftIndex + 1; rightIndex < initialClusters.size(); rightIndex++) {
-                Cluster rightCluster = initialClusters.get(rightIndex);
-                initialSimilarities.add(new ClusterConnection(leftCluster, rightCluster, similarityMatrix.getEntry(leftIndex, rightIndex)));
+        int[] chain = new int[size];
+        int chainLength = 0;
+        int activeClusters = size;
+        int searchStart = 0;
+        while (activeClusters > 1) {
+            if (chainLength == 0) {
+                while (!active[searchStart]) {
+                    searchStart++;
+                }
+                chain[chainLength++] = searchStart;
+            }
+            int current = chain[chainLength - 1];
+            int previous = chainLength > 1 ? chain[chainLength - 2] : NONE;
+
+            // find the nearest neighbor, prefer the previous chain element on ties to guarantee termination
+            int nearest = previous;
+            double nearestSimilarity = previous == NONE ? Double.NEGATIVE_INFINITY : similarities[current][previous];
+            for (int other = 0; other < size; other++) {
+                if (active[other] && other != current && similarities[current][other] > nearestSimilarity) {
+                    nearest = other;
+                    nearestSimilarity = similarities[current][other];
+                }
             }
-        }
-
-        similarities = new PriorityQueue<>(initialSimilarities);
 
-        while (clusters.size() > 1) {
-            ClusterConnection nearest = similarities.poll();
-            // TODO Check that nearest is never null
-            if (!(clusters.contains(nearest.left) && clusters.contains(nearest.right))) {
-                // One cluster already part of another cluster
+            if (nearest != previous) {
+                chain[chainLength++] = nearest;
                 continue;
             }
-            if (nearest.similarity < options.agglomerativeThreshold()) {
-                break;
+            chainLength -= 2; // current and previous are mutual nearest neighbors
+
+            if (nearestSimilarity < threshold) {
+                // neither cluster has any neighbor above the threshold, and merging others can not change that
+                active[current] = false;
+                active[previous] = false;
+                activeClusters -= 2;
+                continue;
             }
-            clusters.remove(nearest.left);
-            clusters.remove(nearest.right);
-            nearest.left.submissions().addAll(nearest.right.submissions());
-            Cluster combined = new Cluster(nearest.left.submissions());
-            for (Cluster otherCluster : clusters) {
-                double similarity = options.agglomerativeInterClusterSimilarity().clusterSimilarity(combined.submissions, otherCluster.submissions,
-                        similarityMatrix);
-                similarities.add(new ClusterConnection(combined, otherCluster, similarity));
+
+            for (int other = 0; other < size; other++) {
+                if (active[other] && other != current && other != previous) {
+                    double mergedSimilarity = linkage.mergedSimilarity(similarities[current][other], clusterSizes[current],
+                            similarities[previous][other], clusterSizes[previous]);
+                    similarities[current][other] = mergedSimilarity;
+                    similarities[other][current] = mergedSimilarity;
+                }
             }
-            clusters.add(combined);
+            nextMember[lastMember[current]] = previous;
+            lastMember[current] = lastMember[previous];
+            clusterSizes[current] += clusterSizes[previous];
+            active[previous] = false;
+            merged[previous] = true;
+            activeClusters--;
         }
 
-        return clusters.stream().map(Cluster::submissions).collect(Collectors.toList());
-    }
-
-    private record ClusterConnection(Cluster left, Cluster right, double similarity) implements Comparable<ClusterConnection> {
-        @Override
-        public int compareTo(ClusterConnection other) {
-            return (int) Math.signum(other.similarity - similarity);
+        List<Collection<Integer>> clusters = new ArrayList<>();
+        for (int cluster = 0; cluster < size; cluster++) {
+            if (!merged[cluster]) {
+                List<Integer> members = new ArrayList<>(clusterSizes[cluster]);
+                for (int member = cluster; member != NONE; member = nextMember[member]) {
+                    members.add(member);
+                }
+                clusters.add(members);
+            }
         }
-
-    }
-
-    /**
-     * Encapsulate a list in a class because we do not want hashing based on the members but on identity only. Also a
-     * cluster need a different identity than the list because the lists are reused.
-     */
-    private record Cluster(List<Integer> submissions) {
+        return clusters;
     }
-
 }
@@ -18,7 +18,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Maximizes a function using bayesian optimization.
+ * Maximizes a function using bayesian optimization. Optionally evaluates the function on batches of points in parallel.
+ * The points of a batch are acquired one after another with the constant liar heuristic: Each acquired point is added to
+ * the gaussian process with the best observation so far as pretended result, which approximates the multi-point
+ * expected improvement (q-EI).
  */
 public class BayesianOptimizer {
 
@@ -34,6 +37,7 @@ public class BayesianOptimizer {
     private final int initialPoints;
     private final double noise;
     private final RealVector lengthScale;
+    private final int batchSize;
 
     private double consecutiveRandomPicks; // consecutive rounds where the acquisition function yielded no useful improvement
 
@@ -47,6 +51,21 @@ public class BayesianOptimizer {
      * @param lengthScale width parameter for the matern kernel
      */
     public BayesianOptimizer(RealVector minima, RealVector maxima, int initPoints, int maxEvaluations, double noise, RealVector lengthScale) {
+        this(minima, maxima, initPoints, maxEvaluations, noise, lengthScale, 1);
+    }
+
+    /**
+     * Sets up a bayesian optimization that evaluates multiple points concurrently.
+     * @param minima of the explored parameters
+     * @param maxima of the explored parameters
+     * @param initPoints points that are initially sampled for exploration
+     * @param maxEvaluations maximal evaluations of the fitted function
+     * @param noise of the explored function
+     * @param lengthScale width parameter for the matern kernel
+     * @param batchSize number of points that are evaluated concurrently, must be thread-safe if greater than one
+     */
+    public BayesianOptimizer(RealVector minima, RealVector maxima, int initPoints, int maxEvaluations, double noise, RealVector lengthScale,
+            int batchSize) {
         if (minima.getDimension() == 0) {
             throw new IllegalArgumentException("explored parameters must at least have one dimension");
         }
@@ -56,12 +75,16 @@ public class BayesianOptimizer {
         if (initPoints < 1 || initPoints > maxEvaluations) {
             throw new OutOfRangeException(initPoints, 1, maxEvaluations);
         }
+        if (batchSize < 1) {
+            throw new OutOfRangeException(batchSize, 1, maxEvaluations);
+        }
         this.maxima = maxima;
         this.minima = minima;
         this.initialPoints = initPoints;
         this.maxEvaluations = maxEvaluations;
         this.noise = noise;
         this.lengthScale = lengthScale;
+        this.batchSize = batchSize;
     }
 
     private Stream<RealVector> sampleSolutionSpace() {
@@ -155,29 +178,56 @@ public class BayesianOptimizer {
 
         while (observations.size() < maxEvaluations && consecutiveRandomPicks < MAXIMUM_CONSECUTIVE_RANDOM_PICKS) {
             int idx = observations.size();
-            RealVector coordinates;
+            int pointsInBatch = Math.min(batchSize, maxEvaluations - idx);
+            List<RealVector> batch;
             if (idx < evaluatedPoints.size()) {
                 // hard coded exploration
-                coordinates = evaluatedPoints.get(idx);
+                batch = evaluatedPoints.subList(idx, Math.min(evaluatedPoints.size(), idx + pointsInBatch));
             } else {
                 // GPR
-                GaussianProcess gaussianProcess = fit(evaluatedPoints, observations);
-                if (logger.isDebugEnabled()) {
-                    logger.debug(gaussianProcess.toString(minima, maxima, 100, 25, 0));
-                }
-                coordinates = maximizeAcquisitionFunction(gaussianProcess, best.score, candidatePointSampler);
-                evaluatedPoints.add(coordinates);
+                batch = acquireBatch(evaluatedPoints, observations, best.score, pointsInBatch, candidatePointSampler);
+                evaluatedPoints.addAll(batch);
             }
-            OptimizationResult<T> result = objectiveFunction.apply(coordinates);
-            result.params = coordinates;
-            observations.add(result.getScore());
-            if (best == null || result.score > best.score) {
-                best = result;
+            List<OptimizationResult<T>> results = evaluate(batch, objectiveFunction);
+            for (OptimizationResult<T> result : results) {
+                observations.add(result.getScore());
+                if (best == null || result.score > best.score) {
+                    best = result;
+                }
             }
         }
         return best;
     }
 
+    private List<RealVector> acquireBatch(List<RealVector> evaluatedPoints, List<Double> observations, double yMax, int pointsInBatch,
+            Spliterator<RealVector> candidatePointSampler) {
+        List<RealVector> points = new ArrayList<>(evaluatedPoints);
+        List<Double> pretendedObservations = new ArrayList<>(observations);
+        List<RealVector> batch = new ArrayList<>(pointsInBatch);
+        for (int i = 0; i < pointsInBatch; i++) {
+            GaussianProcess gaussianProcess = fit(points, pretendedObservations);
+            if (logger.isDebugEnabled()) {
+                logger.debug(gaussianProcess.toString(minima, maxima, 100, 25, 0));
+            }
+            RealVector coordinates = maximizeAcquisitionFunction(gaussianProcess, yMax, candidatePointSampler);
+            batch.add(coordinates);
+            points.add(coordinates);
+            pretendedObservations.add(yMax);
+        }
+        return batch;
+    }
+
+    private <T> List<OptimizationResult<T>> evaluate(List<RealVector> batch, Function<RealVector, OptimizationResult<T>> objectiveFunction) {
+        Stream<RealVector> points = batch.size() > 1 ? batch.parallelStream() : batch.stream();
+        return points.map(coordinates -> {
+            // copy, as the objective function may return the same result object for different coordinates
+            OptimizationResult<T> evaluation = objectiveFunction.apply(coordinates);
+            OptimizationResult<T> result = new OptimizationResult<>(evaluation.score, evaluation.value);
+            result.params = coordinates;
+            return result;
+        }).toList();
+    }
+
     public static final class OptimizationResult<T> {
 
         private final double score;
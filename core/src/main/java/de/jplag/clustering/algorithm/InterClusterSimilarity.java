@@ -6,9 +6,24 @@ import java.util.function.BinaryOperator;
 import org.apache.commons.math3.linear.RealMatrix;
 
 public enum InterClusterSimilarity {
-    MIN(Double.MAX_VALUE, Math::min),
-    MAX(Double.MIN_VALUE, Math::max),
-    AVERAGE(0, Double::sum);
+    MIN(Double.MAX_VALUE, Math::min) {
+        @Override
+        public double mergedSimilarity(double leftSimilarity, int leftSize, double rightSimilarity, int rightSize) {
+            return Math.min(leftSimilarity, rightSimilarity);
+        }
+    },
+    MAX(Double.MIN_VALUE, Math::max) {
+        @Override
+        public double mergedSimilarity(double leftSimilarity, int leftSize, double rightSimilarity, int rightSize) {
+            return Math.max(leftSimilarity, rightSimilarity);
+        }
+    },
+    AVERAGE(0, Double::sum) {
+        @Override
+        public double mergedSimilarity(double leftSimilarity, int leftSize, double rightSimilarity, int rightSize) {
+            return (leftSize * leftSimilarity + rightSize * rightSimilarity) / (leftSize + rightSize);
+        }
+    };
 
     private final double neutralElement;
     private final BinaryOperator<Double> accumulator;
@@ -18,6 +33,17 @@ public enum InterClusterSimilarity {
         this.accumulator = accumulator;
     }
 
+    /**
+     * Lance-Williams update: Calculates the similarity of another cluster to the union of two clusters, only based on the
+     * similarities to the two merged clusters. Yields the same value as {@link #clusterSimilarity} on the union.
+     * @param leftSimilarity similarity of the other cluster to the left cluster
+     * @param leftSize number of members of the left cluster
+     * @param rightSimilarity similarity of the other cluster to the right cluster
+     * @param rightSize number of members of the right cluster
+     * @return similarity between the other cluster and the union of left and right
+     */
+    public abstract double mergedSimilarity(double leftSimilarity, int leftSize, double rightSimilarity, int rightSize);
+
     /**
      * Calculates the distance between two clusters.
      * @param leftCluster list of cluster indices in left cluster
@@ -0,0 +1,207 @@
+package de.jplag.clustering.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.math3.linear.RealMatrix;
+
+import de.jplag.clustering.ClusteringOptions;
+import de.jplag.clustering.SparseSimilarityMatrix;
+
+/**
+ * Louvain community detection on a sparse similarity graph, see "Fast unfolding of communities in large networks" by
+ * Blondel, Guillaume, Lambiotte and Lefebvre 2008. Each level greedily moves nodes into the neighboring community with
+ * the highest modularity gain and afterwards aggregates each community into a single node. In contrast to
+ * {@link SpectralClustering}, no dense matrix and no eigen decomposition is required, so the runtime and memory scale
+ * with the number of non-zero similarities.
+ */
+public class LouvainClustering implements GenericClusteringAlgorithm {
+
+    private static final int MAX_LEVELS = 32;
+    private static final int MAX_PASSES_PER_LEVEL = 100;
+    private static final double MINIMAL_GAIN = 1e-12;
+    private static final int UNSEEN = -1;
+    private static final int MAXIMUM_EDGES = Integer.MAX_VALUE - 8; // maximum array length
+
+    /**
+     * @param options are the clustering options. Louvain clustering has no parameters of its own.
+     */
+    public LouvainClustering(ClusteringOptions options) {
+        // the algorithm is parameter-free, the signature matches the other algorithms for the ClusteringAlgorithm enum
+    }
+
+    /**
+     * Converts the dense matrix into a sparse graph (ignoring the diagonal) and clusters it.
+     */
+    @Override
+    public Collection<Collection<Integer>> cluster(RealMatrix similarityMatrix) {
+        int size = similarityMatrix.getRowDimension();
+        long positiveEntries = 0;
+        for (int row = 0; row < size; row++) {
+            for (int column = row + 1; column < size; column++) {
+                if (similarityMatrix.getEntry(row, column) > 0) {
+                    positiveEntries++;
+                }
+            }
+        }
+        if (positiveEntries > MAXIMUM_EDGES) {
+            throw new IllegalArgumentException("The similarity graph has too many edges: " + positiveEntries);
+        }
+        int[] firstIndices = new int[(int) positiveEntries];
+        int[] secondIndices = new int[(int) positiveEntries];
+        double[] weights = new double[(int) positiveEntries];
+        int edgeCount = 0;
+        for (int row = 0; row < size; row++) {
+            for (int column = row + 1; column < size; column++) {
+                double similarity = similarityMatrix.getEntry(row, column);
+                if (similarity > 0) {
+                    firstIndices[edgeCount] = row;
+                    secondIndices[edgeCount] = column;
+                    weights[edgeCount++] = similarity;
+                }
+            }
+        }
+        return cluster(SparseSimilarityMatrix.fromEdges(size, firstIndices, secondIndices, weights, edgeCount));
+    }
+
+    /**
+     * Clusters the nodes of a sparse similarity graph.
+     * @param similarityMatrix is the symmetric, non-negative similarity graph.
+     * @return the clusters as collections of row indices. Every row is part of exactly one cluster.
+     */
+    public Collection<Collection<Integer>> cluster(SparseSimilarityMatrix similarityMatrix) {
+        int size = similarityMatrix.size();
+        int[] membership = new int[size];
+        Arrays.setAll(membership, i -> i);
+
+        SparseSimilarityMatrix graph = similarityMatrix;
+        for (int level = 0; level < MAX_LEVELS; level++) {
+            int[] communities = moveNodes(graph);
+            int numberOfCommunities = renumber(communities);
+            if (numberOfCommunities == graph.size()) {
+                break; // no node changed its community, the partition is stable
+            }
+            for (int node = 0; node < size; node++) {
+                membership[node] = communities[membership[node]];
+            }
+            graph = aggregate(graph, communities, numberOfCommunities);
+        }
+
+        int numberOfClusters = renumber(membership);
+        List<Collection<Integer>> clusters = new ArrayList<>(numberOfClusters);
+        for (int i = 0; i < numberOfClusters; i++) {
+            clusters.add(new ArrayList<>());
+        }
+        for (int node = 0; node < size; node++) {
+            clusters.get(membership[node]).add(node);
+        }
+        return clusters;
+    }
+
+    /**
+     * Local moving phase: Repeatedly moves single nodes to the neighboring community with the highest modularity gain
+     * until no move improves the modularity.
+     * @return the community of each node. Community ids are node ids of the graph.
+     */
+    private static int[] moveNodes(SparseSimilarityMatrix graph) {
+        int size = graph.size();
+        int[] community = new int[size];
+        Arrays.setAll(community, i -> i);
+        double totalWeight = graph.getTotalWeight();
+        if (totalWeight <= 0) {
+            return community;
+        }
+
+        double[] communityWeight = new double[size];
+        Arrays.setAll(communityWeight, graph::getRowSum);
+        double[] weightToCommunity = new double[size];
+        Arrays.fill(weightToCommunity, UNSEEN);
+        int[] neighborCommunities = new int[size];
+
+        boolean moved = true;
+        for (int pass = 0; moved && pass < MAX_PASSES_PER_LEVEL; pass++) {
+            moved = false;
+            for (int node = 0; node < size; node++) {
+                int ownCommunity = community[node];
+                double nodeWeight = graph.getRowSum(node);
+
+                int numberOfNeighbors = 0;
+                weightToCommunity[ownCommunity] = 0;
+                neighborCommunities[numberOfNeighbors++] = ownCommunity;
+                for (int entry = graph.rowStart(node); entry < graph.rowEnd(node); entry++) {
+                    int neighbor = graph.columnOf(entry);
+                    if (neighbor == node) {
+                        continue;
+                    }
+                    int neighborCommunity = community[neighbor];
+                    if (weightToCommunity[neighborCommunity] == UNSEEN) {
+                        weightToCommunity[neighborCommunity] = 0;
+                        neighborCommunities[numberOfNeighbors++] = neighborCommunity;
+                    }
+                    weightToCommunity[neighborCommunity] += graph.valueOf(entry);
+                }
+
+                communityWeight[ownCommunity] -= nodeWeight; // remove the node from its community
+                int bestCommunity = ownCommunity;
+                double bestGain = weightToCommunity[ownCommunity] - communityWeight[ownCommunity] * nodeWeight / totalWeight;
+                for (int i = 0; i < numberOfNeighbors; i++) {
+                    int candidate = neighborCommunities[i];
+                    double gain = weightToCommunity[candidate] - communityWeight[candidate] * nodeWeight / totalWeight;
+                    if (gain > bestGain + MINIMAL_GAIN) {
+                        bestGain = gain;
+                        bestCommunity = candidate;
+                    }
+                    weightToCommunity[candidate] = UNSEEN;
+                }
+                communityWeight[bestCommunity] += nodeWeight;
+                community[node] = bestCommunity;
+                moved |= bestCommunity != ownCommunity;
+            }
+        }
+        return community;
+    }
+
+    /**
+     * Renumbers the community ids in place to the range [0, number of communities).
+     * @return the number of communities.
+     */
+    private static int renumber(int[] communities) {
+        int[] newIds = new int[communities.length];
+        Arrays.fill(newIds, UNSEEN);
+        int numberOfCommunities = 0;
+        for (int node = 0; node < communities.length; node++) {
+            if (newIds[communities[node]] == UNSEEN) {
+                newIds[communities[node]] = numberOfCommunities++;
+            }
+            communities[node] = newIds[communities[node]];
+        }
+        return numberOfCommunities;
+    }
+
+    /**
+     * Aggregation phase: Builds the graph whose nodes are the communities. Edges inside a community become self-loops
+     * which keep the weight of both directions, so the modularity of the aggregated graph equals the original one.
+     */
+    private static SparseSimilarityMatrix aggregate(SparseSimilarityMatrix graph, int[] communities, int numberOfCommunities) {
+        int maximalEdges = graph.nonZeroEntries();
+        int[] firstIndices = new int[maximalEdges];
+        int[] secondIndices = new int[maximalEdges];
+        double[] weights = new double[maximalEdges];
+        int edgeCount = 0;
+        for (int node = 0; node < graph.size(); node++) {
+            for (int entry = graph.rowStart(node); entry < graph.rowEnd(node); entry++) {
+                int neighbor = graph.columnOf(entry);
+                if (neighbor < node) {
+                    continue; // each undirected edge is visited once
+                }
+                firstIndices[edgeCount] = communities[node];
+                secondIndices[edgeCount] = communities[neighbor];
+                boolean internalEdge = neighbor != node && communities[node] == communities[neighbor];
+                weights[edgeCount++] = internalEdge ? 2 * graph.valueOf(entry) : graph.valueOf(entry);
+            }
+        }
+        return SparseSimilarityMatrix.fromEdges(numberOfCommunities, firstIndices, secondIndices, weights, edgeCount);
+    }
+}
@@ -1,12 +1,15 @@
 package de.jplag.clustering.algorithm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
-import java.util.stream.IntStream;
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.ArrayRealVector;
@@ -21,16 +24,18 @@ import org.apache.commons.math3.ml.clustering.Clusterer;
 import org.apache.commons.math3.ml.clustering.KMeansPlusPlusClusterer;
 
 import de.jplag.clustering.ClusteringOptions;
-import de.jplag.clustering.ClusteringResult;
+import de.jplag.clustering.ModularityEvaluator;
 
 /**
  * Spectral clustering is a clustering algorithm for graph data. Each node is represented as k-dimensional vector,
  * afterwards k-Means is used to generate a clustering with k on that representation. This implementation uses Bayesian
- * Optimization to find an appropriate number for k.
+ * Optimization to find an appropriate number for k. Multiple candidate values for k are evaluated concurrently, each
+ * value is evaluated at most once.
  */
 public class SpectralClustering implements GenericClusteringAlgorithm {
 
     private static final double MULTIPLICITY_EPSILON = 0.05;
+    private static final int MAXIMUM_BATCH_SIZE = 4;
     private final ClusteringOptions options;
 
     public SpectralClustering(ClusteringOptions options) {
@@ -86,37 +91,71 @@ public class SpectralClustering implements GenericClusteringAlgorithm {
         // find number of clusters as the multiplicity of eigenvalue 0
         int minClusters = Math.max(2, (int) DoubleStream.of(eigenDecomposition.getRealEigenvalues()).filter(x -> x < MULTIPLICITY_EPSILON).count());
         int maxClusters = (int) Math.ceil(dimension / 2.0);
+        double[][] sortedEigenVectors = getSortedEigenVectors(eigenDecomposition, eigenValueIds, dimension, Math.max(minClusters, maxClusters));
 
-        // Find number of clusters using bayesian optimization
+        // Find number of clusters using bayesian optimization, cluster counts are evaluated at most once
+        ModularityEvaluator modularityEvaluator = new ModularityEvaluator(similarityMatrix);
+        Map<Integer, CompletableFuture<BayesianOptimizer.OptimizationResult<Collection<Collection<Integer>>>>> evaluatedClusterCounts =
+                new ConcurrentHashMap<>();
+        int batchSize = Math.max(1, Math.min(MAXIMUM_BATCH_SIZE, Runtime.getRuntime().availableProcessors()));
         RealVector lengthScale = new ArrayRealVector(1, options.spectralKernelBandwidth());
         BayesianOptimizer optimizer = new BayesianOptimizer(new ArrayRealVector(1, minClusters), new ArrayRealVector(1, maxClusters),
-                options.spectralMinRuns(), options.spectralMaxRuns(), options.spectralGaussianProcessVariance(), lengthScale);
+                options.spectralMinRuns(), options.spectralMaxRuns(), options.spectralGaussianProcessVariance(), lengthScale, batchSize);
         BayesianOptimizer.OptimizationResult<Collection<Collection<Integer>>> bayesianOptimizationResult = optimizer.maximize(r -> {
             int clusters = (int) Math.round(r.getEntry(0));
             clusters = Math.max(minClusters, clusters);
             clusters = Math.min(maxClusters, clusters);
-            Collection<Collection<Integer>> clustering = cluster(clusters, dimension, eigenValueIds, eigenDecomposition);
-            ClusteringResult<Integer> modularityRes = ClusteringResult.fromIntegerCollections(new ArrayList<>(clustering), similarityMatrix);
-            return new BayesianOptimizer.OptimizationResult<>(modularityRes.getWorth(similarityMatrix::getEntry), clustering);
+            // k-means runs outside the map, so that the batch does not block on the lock of a map bin:
+            CompletableFuture<BayesianOptimizer.OptimizationResult<Collection<Collection<Integer>>>> evaluation = new CompletableFuture<>();
+            CompletableFuture<BayesianOptimizer.OptimizationResult<Collection<Collection<Integer>>>> previousEvaluation = evaluatedClusterCounts
+                    .putIfAbsent(clusters, evaluation);
+            if (previousEvaluation != null) {
+                return previousEvaluation.join();
+            }
+            try {
+                Collection<Collection<Integer>> clustering = cluster(clusters, sortedEigenVectors);
+                double worth = modularityEvaluator.assign(new ArrayList<>(clustering)).getWorth();
+                BayesianOptimizer.OptimizationResult<Collection<Collection<Integer>>> result = new BayesianOptimizer.OptimizationResult<>(worth,
+                        clustering);
+                evaluation.complete(result);
+                return result;
+            } catch (RuntimeException exception) {
+                evaluation.completeExceptionally(exception); // releases evaluations of the same cluster count waiting on this one
+                throw exception;
+            }
         });
 
         return bayesianOptimizationResult.getValue();
     }
 
-    private Collection<Collection<Integer>> cluster(int numberOfClusters, int dimension, List<Integer> eigenValueIds,
-            EigenDecomposition decomposition) {
-        RealMatrix concatenatedEigenVectors = new Array2DRowRealMatrix(dimension, numberOfClusters);
-        concatenatedEigenVectors.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
-            @Override
-            public double visit(int row, int column, double value) {
-                int eigenVectorId = eigenValueIds.get(column);
-                RealVector eigenVector = decomposition.getEigenvector(eigenVectorId);
-                return eigenVector.getEntry(row);
+    /**
+     * Copies the eigenvectors once into a primitive row-major array, so each k-means run only needs to slice the columns.
+     * @return array where row i contains the i-th entries of the eigenvectors ordered by ascending eigenvalue.
+     */
+    private static double[][] getSortedEigenVectors(EigenDecomposition decomposition, List<Integer> eigenValueIds, int dimension, int columns) {
+        int numberOfColumns = Math.min(columns, dimension);
+        double[][] eigenVectors = new double[dimension][numberOfColumns];
+        for (int column = 0; column < numberOfColumns; column++) {
+            RealVector eigenVector = decomposition.getEigenvector(eigenValueIds.get(column));
+            for (int row = 0; row < dimension; row++) {
+                eigenVectors[row][column] = eigenVector.getEntry(row);
             }
-        });
+        }
+        return eigenVectors;
+    }
 
-        List<ClusterableEigenVector> normRows = IntStream.range(0, dimension).filter(i -> concatenatedEigenVectors.getRowVector(i).getNorm() > 0)
-                .mapToObj(row -> new ClusterableEigenVector(row, concatenatedEigenVectors.getRowVector(row).unitVector())).toList();
+    private Collection<Collection<Integer>> cluster(int numberOfClusters, double[][] sortedEigenVectors) {
+        List<ClusterableEigenVector> normRows = new ArrayList<>(sortedEigenVectors.length);
+        for (int row = 0; row < sortedEigenVectors.length; row++) {
+            double[] point = Arrays.copyOf(sortedEigenVectors[row], numberOfClusters);
+            double norm = Math.sqrt(Arrays.stream(point).map(value -> value * value).sum());
+            if (norm > 0) {
+                for (int column = 0; column < point.length; column++) {
+                    point[column] /= norm;
+                }
+                normRows.add(new ClusterableEigenVector(row, point));
+            }
+        }
 
         Clusterer<ClusterableEigenVector> clusterer = new KMeansPlusPlusClusterer<>(numberOfClusters, options.spectralMaxKMeansIterationPerRun());
         List<? extends Cluster<ClusterableEigenVector>> clusters = clusterer.cluster(normRows);
@@ -128,9 +167,9 @@ public class SpectralClustering implements GenericClusteringAlgorithm {
         private final int id;
         private final double[] eigenVector;
 
-        public ClusterableEigenVector(int id, RealVector eigenVector) {
+        public ClusterableEigenVector(int id, double[] eigenVector) {
             this.id = id;
-            this.eigenVector = eigenVector.toArray();
+            this.eigenVector = eigenVector;
         }
 
         @Override
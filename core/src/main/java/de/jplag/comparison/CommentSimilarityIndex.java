@@ -0,0 +1,173 @@
+package de.jplag.comparison;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import de.jplag.Submission;
+import de.jplag.commentextraction.Comment;
+
+/**
+ * Computes the similarity of the extracted comments between all pairs of submissions. Comments are normalized and split
+ * into overlapping word shingles, which are represented by 64-bit hashes. An inverted index from shingles to submissions
+ * yields the number of shared shingles for exactly the pairs that share any, so the runtime depends on the actual
+ * overlap instead of the number of pairs. Shingles that occur in too many submissions, like license headers or phrases
+ * of the assignment, are ignored like the shingles of the base code, as they carry no evidence and their postings would
+ * expand quadratically. The similarity of a pair is the Jaccard index of their shingle sets.
+ */
+public final class CommentSimilarityIndex {
+    private static final int SHINGLE_SIZE = 3; // words per shingle
+    private static final Pattern NON_WORD_CHARACTERS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long WORD_SEPARATOR = ' ';
+    private static final double MAXIMUM_DOCUMENT_FREQUENCY = 0.1; // fraction of the submissions
+    private static final int MINIMUM_DOCUMENT_FREQUENCY_CAP = 10; // small cohorts keep all shingles
+
+    private final Map<Submission, Integer> submissionIndices;
+    private final int[] shingleCounts;
+    private final int[][] sharedPartners; // per submission, the ascending indices of higher submissions with shared shingles
+    private final int[][] sharedShingles; // number of shared shingles, parallel to the partners
+
+    private CommentSimilarityIndex(Map<Submission, Integer> submissionIndices, int[] shingleCounts, int[][] sharedPartners,
+            int[][] sharedShingles) {
+        this.submissionIndices = submissionIndices;
+        this.shingleCounts = shingleCounts;
+        this.sharedPartners = sharedPartners;
+        this.sharedShingles = sharedShingles;
+    }
+
+    /**
+     * Builds the index for a set of submissions.
+     * @param submissions are the submissions with extracted comments.
+     * @param baseCode is the optional base code submission, its shingles are ignored in all other submissions. May be null.
+     * @return the index.
+     */
+    public static CommentSimilarityIndex build(List<Submission> submissions, Submission baseCode) {
+        Set<Long> baseCodeShingles = new HashSet<>();
+        if (baseCode != null) {
+            Arrays.stream(shinglesOf(baseCode.getComments())).forEach(baseCodeShingles::add);
+        }
+
+        Map<Submission, Integer> submissionIndices = new IdentityHashMap<>();
+        long[][] shingles = new long[submissions.size()][];
+        Map<Long, Integer> documentFrequencies = new HashMap<>();
+        for (int index = 0; index < submissions.size(); index++) {
+            submissionIndices.put(submissions.get(index), index);
+            shingles[index] = Arrays.stream(shinglesOf(submissions.get(index).getComments())).filter(it -> !baseCodeShingles.contains(it))
+                    .toArray();
+            for (long shingle : shingles[index]) {
+                documentFrequencies.merge(shingle, 1, Integer::sum);
+            }
+        }
+
+        // Number the shingles that are shared by few enough submissions, and index the submissions for each of them:
+        int frequencyCap = Math.max(MINIMUM_DOCUMENT_FREQUENCY_CAP, (int) (MAXIMUM_DOCUMENT_FREQUENCY * submissions.size()));
+        Map<Long, Integer> shingleIds = new HashMap<>();
+        int[] shingleCounts = new int[submissions.size()];
+        int[][] shingleIdsOfSubmissions = new int[submissions.size()][];
+        for (int index = 0; index < submissions.size(); index++) {
+            shingleIdsOfSubmissions[index] = Arrays.stream(shingles[index]).filter(it -> documentFrequencies.get(it) <= frequencyCap)
+                    .mapToInt(it -> shingleIds.computeIfAbsent(it, key -> shingleIds.size())).toArray();
+            shingleCounts[index] = shingleIdsOfSubmissions[index].length;
+        }
+        int[][] postings = new int[shingleIds.size()][];
+        int[] postingSizes = new int[shingleIds.size()];
+        for (int[] ids : shingleIdsOfSubmissions) {
+            for (int id : ids) {
+                postingSizes[id]++;
+            }
+        }
+        for (int id = 0; id < postings.length; id++) {
+            postings[id] = new int[postingSizes[id]];
+            postingSizes[id] = 0;
+        }
+        for (int index = 0; index < submissions.size(); index++) { // ascending, so the postings are sorted
+            for (int id : shingleIdsOfSubmissions[index]) {
+                postings[id][postingSizes[id]++] = index;
+            }
+        }
+
+        // Accumulate the shared shingles of each submission with all higher submissions in a reused counter array:
+        int[][] sharedPartners = new int[submissions.size()][];
+        int[][] sharedShingles = new int[submissions.size()][];
+        int[] counters = new int[submissions.size()];
+        int[] touched = new int[submissions.size()];
+        for (int index = 0; index < submissions.size(); index++) {
+            int touchedCount = 0;
+            for (int id : shingleIdsOfSubmissions[index]) {
+                int[] posting = postings[id];
+                for (int position = Arrays.binarySearch(posting, index) + 1; position < posting.length; position++) {
+                    if (counters[posting[position]]++ == 0) {
+                        touched[touchedCount++] = posting[position];
+                    }
+                }
+            }
+            int[] partners = Arrays.copyOf(touched, touchedCount);
+            Arrays.sort(partners);
+            int[] counts = new int[touchedCount];
+            for (int partner = 0; partner < touchedCount; partner++) {
+                counts[partner] = counters[partners[partner]];
+                counters[partners[partner]] = 0;
+            }
+            sharedPartners[index] = partners;
+            sharedShingles[index] = counts;
+        }
+        return new CommentSimilarityIndex(submissionIndices, shingleCounts, sharedPartners, sharedShingles);
+    }
+
+    /**
+     * @param first is the first submission.
+     * @param second is the second submission.
+     * @return the Jaccard similarity of the comment shingles of both submissions in interval [0, 1], zero if either
+     * submission is not part of the index.
+     */
+    public double similarity(Submission first, Submission second) {
+        Integer firstIndex = submissionIndices.get(first);
+        Integer secondIndex = submissionIndices.get(second);
+        if (firstIndex == null || secondIndex == null || firstIndex.equals(secondIndex)) {
+            return 0.0;
+        }
+        int lower = Math.min(firstIndex, secondIndex);
+        int partner = Arrays.binarySearch(sharedPartners[lower], Math.max(firstIndex, secondIndex));
+        int shared = partner < 0 ? 0 : sharedShingles[lower][partner];
+        int union = shingleCounts[firstIndex] + shingleCounts[secondIndex] - shared;
+        return union == 0 ? 0.0 : shared / (double) union;
+    }
+
+    /**
+     * @return the distinct shingle hashes of the comments.
+     */
+    private static long[] shinglesOf(List<Comment> comments) {
+        Set<Long> shingles = new HashSet<>();
+        for (Comment comment : comments) {
+            String[] words = Arrays.stream(NON_WORD_CHARACTERS.split(comment.content().toLowerCase(Locale.ROOT))).filter(it -> !it.isEmpty())
+                    .toArray(String[]::new);
+            if (words.length == 0) {
+                continue;
+            }
+            int shingleSize = Math.min(SHINGLE_SIZE, words.length); // short comments form a single shingle
+            for (int start = 0; start + shingleSize <= words.length; start++) {
+                shingles.add(hash(words, start, shingleSize));
+            }
+        }
+        return shingles.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long hash(String[] words, int start, int length) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int word = start; word < start + length; word++) {
+            for (int i = 0; i < words[word].length(); i++) {
+                hash = (hash ^ words[word].charAt(i)) * FNV_PRIME;
+            }
+            hash = (hash ^ WORD_SEPARATOR) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
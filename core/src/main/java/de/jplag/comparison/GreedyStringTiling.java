@@ -13,6 +13,8 @@ import de.jplag.JPlagComparison;
 import de.jplag.Match;
 import de.jplag.Submission;
 import de.jplag.Token;
+import de.jplag.metrics.JPlagMetrics;
+import de.jplag.metrics.PipelineStage;
 import de.jplag.options.JPlagOptions;
 
 /**
@@ -31,9 +33,20 @@ public class GreedyStringTiling {
     private final Map<Submission, RollingTokenHashTable> cachedHashLookupTables = Collections.synchronizedMap(new IdentityHashMap<>());
 
     private final TokenSequenceMapper tokenSequenceMapper;
+    private final JPlagMetrics metrics;
 
     public GreedyStringTiling(JPlagOptions options, TokenSequenceMapper tokenValueMapper) {
+        this(options, tokenValueMapper, new JPlagMetrics());
+    }
+
+    /**
+     * @param options specifies relevant parameters for the comparison.
+     * @param tokenValueMapper provides the token sequences of the submissions.
+     * @param metrics records the time spent building the hash tables of the submissions and comparing them.
+     */
+    public GreedyStringTiling(JPlagOptions options, TokenSequenceMapper tokenValueMapper, JPlagMetrics metrics) {
         this.options = options;
+        this.metrics = metrics;
         // Ensures 1 <= neighborLength <= minimumTokenMatch
         int minimumNeighborLength = Math.clamp(options.mergingOptions().minimumNeighborLength(), 1, options.minimumTokenMatch());
 
@@ -101,6 +114,8 @@ public class GreedyStringTiling {
      */
     private JPlagComparison compareOrdered(Submission leftSubmission, Submission rightSubmission) {
         assert leftSubmission.getNumberOfTokens() <= rightSubmission.getNumberOfTokens();
+        long startNanos = System.nanoTime();
+        long candidateVerifications = 0;
         int[] leftTokens = this.tokenSequenceMapper.getTokenSequenceFor(leftSubmission);
         int[] rightTokens = this.tokenSequenceMapper.getTokenSequenceFor(rightSubmission);
 
@@ -128,6 +143,7 @@ public class GreedyStringTiling {
                         continue;
                     }
 
+                    candidateVerifications++;
                     int subsequenceMatchLength = findLongestUnmarkedMatch(leftTokens, leftStartIndex, leftExcludedTokens, rightTokens,
                             rightStartIndex, rightExcludedTokens, maximumMatchLength);
                     if (subsequenceMatchLength >= maximumMatchLength) {
@@ -154,6 +170,7 @@ public class GreedyStringTiling {
                 }
             }
         } while (maximumMatchLength != minimumMatchLength);
+        metrics.recordComparison(leftSubmission.getName(), rightSubmission.getName(), System.nanoTime() - startNanos, candidateVerifications);
         return new JPlagComparison(leftSubmission, rightSubmission, globalMatches, ignoredMatches);
     }
 
@@ -212,7 +229,13 @@ public class GreedyStringTiling {
     }
 
     private RollingTokenHashTable getSubsequenceHashTableFor(Submission submission, boolean[] excludedTokens) {
-        return cachedHashLookupTables.computeIfAbsent(submission,
-                key -> new RollingTokenHashTable(minimumMatchLength, this.tokenSequenceMapper.getTokenSequenceFor(submission), excludedTokens));
+        return cachedHashLookupTables.computeIfAbsent(submission, key -> {
+            long startNanos = System.nanoTime();
+            RollingTokenHashTable table = new RollingTokenHashTable(minimumMatchLength, this.tokenSequenceMapper.getTokenSequenceFor(submission),
+                    excludedTokens);
+            metrics.addTaskTime(PipelineStage.HASH_TABLE_BUILD, System.nanoTime() - startNanos);
+            metrics.addItems(PipelineStage.HASH_TABLE_BUILD, 1);
+            return table;
+        });
     }
 }
@@ -3,6 +3,7 @@ package de.jplag.comparison;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -20,7 +21,11 @@ import de.jplag.exceptions.ComparisonException;
 import de.jplag.logging.ProgressBar;
 import de.jplag.logging.ProgressBarLogger;
 import de.jplag.logging.ProgressBarType;
+import de.jplag.metrics.JPlagMetrics;
+import de.jplag.metrics.PipelineStage;
+import de.jplag.metrics.StageTimer;
 import de.jplag.options.JPlagOptions;
+import de.jplag.options.SimilarityMetric;
 
 /**
  * Implements a parallelized token-based longest common subsequence search for all pairs of programs in a given set of
@@ -31,13 +36,24 @@ public class LongestCommonSubsequenceSearch {
     private final Logger logger = LoggerFactory.getLogger(LongestCommonSubsequenceSearch.class);
 
     private final JPlagOptions options;
+    private final JPlagMetrics metrics;
 
     /**
      * Creates an instance of the subsequence search algorithm.
      * @param options specifies relevant parameters for the comparison.
      */
     public LongestCommonSubsequenceSearch(JPlagOptions options) {
+        this(options, new JPlagMetrics());
+    }
+
+    /**
+     * Creates an instance of the subsequence search algorithm that records the metrics of its stages.
+     * @param options specifies relevant parameters for the comparison.
+     * @param metrics records the token mapping, hash table build, and comparing stages.
+     */
+    public LongestCommonSubsequenceSearch(JPlagOptions options, JPlagMetrics metrics) {
         this.options = options;
+        this.metrics = metrics;
     }
 
     /**
@@ -67,12 +83,27 @@ public class LongestCommonSubsequenceSearch {
         JPlagComparison comparison = comparisonAlgorithm.compare(first, second);
         logger.trace("Comparing {}-{}: {}", first.getName(), second.getName(), comparison.similarity());
 
+        if (options.similarityMetric() == SimilarityMetric.COMMENTS) {
+            return Optional.of(comparison); // threshold is checked once the comment similarity is known
+        }
         if (options.similarityMetric().isAboveThreshold(comparison, options.similarityThreshold())) {
             return Optional.of(comparison);
         }
         return Optional.empty();
     }
 
+    /**
+     * Adds the comment similarity to the comparisons and filters them if the comment similarity is the threshold metric.
+     */
+    private List<JPlagComparison> addCommentSimilarity(List<JPlagComparison> comparisons, CommentSimilarityIndex commentIndex) {
+        return comparisons.stream()
+                .map(comparison -> comparison
+                        .withCommentSimilarity(commentIndex.similarity(comparison.firstSubmission(), comparison.secondSubmission())))
+                .filter(comparison -> options.similarityMetric() != SimilarityMetric.COMMENTS
+                        || options.similarityMetric().isAboveThreshold(comparison, options.similarityThreshold()))
+                .toList();
+    }
+
     /**
      * @return a list of all submission tuples to be processed.
      */
@@ -101,8 +132,20 @@ public class LongestCommonSubsequenceSearch {
         long startTimeMillis = System.currentTimeMillis();
 
         // Set up data structures:
-        TokenSequenceMapper tokenSequenceMapper = new TokenSequenceMapper(submissionSet);
-        GreedyStringTiling coreAlgorithm = new GreedyStringTiling(options, tokenSequenceMapper);
+        TokenSequenceMapper tokenSequenceMapper;
+        try (StageTimer timer = metrics.startStage(PipelineStage.TOKEN_MAPPING)) {
+            tokenSequenceMapper = new TokenSequenceMapper(submissionSet);
+            timer.addItems(submissionSet.numberOfSubmissions() + (submissionSet.hasBaseCode() ? 1 : 0));
+        }
+        GreedyStringTiling coreAlgorithm = new GreedyStringTiling(options, tokenSequenceMapper, metrics);
+        StageTimer comparingTimer = metrics.startStage(PipelineStage.COMPARING);
+
+        // Index comments in parallel to the token-based comparison:
+        CompletableFuture<CommentSimilarityIndex> commentIndex = null;
+        if (options.analyzeComments() || options.similarityMetric() == SimilarityMetric.COMMENTS) {
+            commentIndex = CompletableFuture.supplyAsync(
+                    () -> CommentSimilarityIndex.build(submissionSet.getSubmissions(), submissionSet.hasBaseCode() ? submissionSet.getBaseCode() : null));
+        }
 
         // Prepare base code comparisons:
         if (submissionSet.hasBaseCode()) {
@@ -135,6 +178,12 @@ public class LongestCommonSubsequenceSearch {
             progressBar.dispose();
         }
 
+        if (commentIndex != null) {
+            comparisons = addCommentSimilarity(comparisons, commentIndex.join());
+        }
+        metrics.completeStage(PipelineStage.HASH_TABLE_BUILD);
+        comparingTimer.addItems(tuples.size()).addPairsPruned(tuples.size() - comparisons.size()).close();
+
         long durationInMilliseconds = System.currentTimeMillis() - startTimeMillis;
         return new JPlagResult(comparisons, submissionSet, durationInMilliseconds, options);
     }
@@ -63,4 +63,13 @@ public class TokenSequenceMapper {
     public int[] getTokenSequenceFor(Submission submission) {
         return submissionToTokenSequence.get(submission);
     }
+
+    /**
+     * Queries the ID of a single token type.
+     * @param tokenType The token type to query.
+     * @return the ID of the token type, or -1 if it does not occur in any submission.
+     */
+    public int getTokenIdFor(TokenType tokenType) {
+        return tokenTypeToId.getOrDefault(tokenType, -1);
+    }
 }
@@ -0,0 +1,49 @@
+package de.jplag.csv.calibration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import de.jplag.calibration.CalibrationResult;
+import de.jplag.csv.CsvPrinter;
+import de.jplag.csv.HardcodedCsvDataMapper;
+
+/**
+ * Frontend for writing the results of a minimum token match calibration as a csv. Besides the statistics, each row
+ * contains the similarity distribution in ten intervals.
+ */
+public class CsvCalibrationOutput {
+    private static final int DISTRIBUTION_COLUMNS = 10;
+    private static final String[] statisticTitles = {"minimumTokenMatch", "comparedPairs", "meanSimilarity", "medianSimilarity",
+            "percentile90Similarity", "percentile99Similarity", "maxSimilarity", "durationMillis"};
+
+    private CsvCalibrationOutput() {
+    }
+
+    /**
+     * Writes the calibration results as a csv
+     * @param results The results of the calibration
+     * @param file The file to write
+     */
+    public static void writeCsvResults(List<CalibrationResult> results, File file) throws IOException {
+        String[] distributionTitles = IntStream.range(0, DISTRIBUTION_COLUMNS).mapToObj(
+                it -> "similarity" + (it * 100 / DISTRIBUTION_COLUMNS) + "-" + ((it + 1) * 100 / DISTRIBUTION_COLUMNS)).toArray(String[]::new);
+        String[] titles = Stream.concat(Stream.of(statisticTitles), Stream.of(distributionTitles)).toArray(String[]::new);
+
+        CsvPrinter<CalibrationResult> printer = new CsvPrinter<>(new HardcodedCsvDataMapper<>(titles.length, CsvCalibrationOutput::toRow, titles));
+        printer.addRows(results);
+        printer.printToFile(file);
+    }
+
+    private static Object[] toRow(CalibrationResult result) {
+        List<Integer> distribution = result.similarityDistribution();
+        int bucketsPerColumn = distribution.size() / DISTRIBUTION_COLUMNS;
+        Stream<Object> statistics = Stream.of(result.minimumTokenMatch(), result.comparedPairs(), result.meanSimilarity(), result.medianSimilarity(),
+                result.percentile90Similarity(), result.percentile99Similarity(), result.maximumSimilarity(), result.durationMillis());
+        Stream<Object> columns = IntStream.range(0, DISTRIBUTION_COLUMNS).mapToObj(
+                column -> distribution.subList(column * bucketsPerColumn, (column + 1) * bucketsPerColumn).stream().mapToInt(it -> it).sum());
+        return Stream.concat(statistics, columns).toArray();
+    }
+}
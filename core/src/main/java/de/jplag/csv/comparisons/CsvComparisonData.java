@@ -8,7 +8,9 @@ import de.jplag.csv.CsvValue;
  * @param secondSubmissionName The name of the second submission
  * @param averageSimilarity The average similarity
  * @param maxSimilarity The maximum similarity
+ * @param commentSimilarity The comment similarity, zero if comments were not analyzed
  */
 public record CsvComparisonData(@CsvValue(1) String firstSubmissionName, @CsvValue(2) String secondSubmissionName,
-        @CsvValue(3) double averageSimilarity, @CsvValue(4) double maxSimilarity) {
+        @CsvValue(3) double averageSimilarity, @CsvValue(4) double maxSimilarity,
+        @CsvValue(5) double commentSimilarity) {
 }
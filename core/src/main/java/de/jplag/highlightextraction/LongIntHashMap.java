@@ -0,0 +1,132 @@
+package de.jplag.highlightextraction;
+
+/**
+ * Open addressing hash map from primitive long keys to int values. Avoids boxing and per-entry objects for the large
+ * number of sequence hashes counted during frequency determination. Not thread-safe; per-thread instances can be
+ * combined via {@link #addAll(LongIntHashMap)}.
+ */
+final class LongIntHashMap {
+    private static final int INITIAL_CAPACITY = 1 << 4;
+    private static final double MAXIMUM_LOAD = 0.5;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] occupied;
+    private int size;
+
+    LongIntHashMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param key is the key to look up.
+     * @param defaultValue is returned if the key is not contained.
+     * @return the value of the key or the default value.
+     */
+    int getOrDefault(long key, int defaultValue) {
+        int slot = slotOf(key);
+        return occupied[slot] ? values[slot] : defaultValue;
+    }
+
+    /**
+     * @param key is the key to look up.
+     * @return whether the key is contained.
+     */
+    boolean containsKey(long key) {
+        return occupied[slotOf(key)];
+    }
+
+    /**
+     * Sets the value of a key, inserting the key if necessary.
+     * @param key is the key.
+     * @param value is the new value.
+     */
+    void put(long key, int value) {
+        int slot = slotOf(key);
+        if (!occupied[slot]) {
+            insert(slot, key, value);
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    /**
+     * Adds to the value of a key, inserting the key with the given delta if necessary.
+     * @param key is the key.
+     * @param delta is added to the current value.
+     */
+    void add(long key, int delta) {
+        int slot = slotOf(key);
+        if (!occupied[slot]) {
+            insert(slot, key, delta);
+        } else {
+            values[slot] += delta;
+        }
+    }
+
+    /**
+     * Adds all values of another map to this map.
+     * @param other is the map to merge into this one. It is not modified.
+     * @return this map.
+     */
+    LongIntHashMap addAll(LongIntHashMap other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.occupied[slot]) {
+                add(other.keys[slot], other.values[slot]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the number of contained keys.
+     */
+    int size() {
+        return size;
+    }
+
+    private void insert(int slot, long key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        occupied[slot] = true;
+        size++;
+        if (size > keys.length * MAXIMUM_LOAD) {
+            rehash();
+        }
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (occupied[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldOccupied = occupied;
+        allocate(oldKeys.length * 2);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldOccupied[slot]) {
+                int newSlot = slotOf(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+                occupied[newSlot] = true;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        occupied = new boolean[capacity];
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads structured keys over the table
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,178 @@
+package de.jplag.highlightextraction;
+
+import java.util.List;
+
+import de.jplag.JPlagComparison;
+import de.jplag.Match;
+import de.jplag.TokenType;
+import de.jplag.comparison.TokenSequenceMapper;
+
+/**
+ * Calculates frequencies of match subsequences across all comparisons like {@link FrequencyDetermination}, but on the
+ * integer token IDs of the {@link TokenSequenceMapper} instead of lists of token types. Sequences are identified by
+ * 64-bit polynomial hashes that are counted in primitive maps, which are built per thread and merged afterwards. For
+ * {@link FrequencyStrategies#SUB_MATCHES}, all matches are added to a suffix automaton instead of enumerating their
+ * subsequences, so building takes linear instead of cubic time per match. Frequencies are queried per sequence via
+ * {@link #frequencyOf(int[], int, int)}.
+ */
+public class MatchFrequencyEngine {
+    private static final long MODULUS = (1L << 61) - 1; // Mersenne prime, allows fast modular multiplication
+    private static final long BASE = 0x1B3F5D7A9C2E4F61L % MODULUS;
+
+    private final FrequencyStrategies strategy;
+    private final int strategyNumber;
+    private final TokenSequenceMapper tokenSequenceMapper;
+    private LongIntHashMap sequenceFrequencies;
+    private MatchSuffixAutomaton matchAutomaton;
+
+    /**
+     * Constructor.
+     * @param strategy The chosen strategy for frequency calculation.
+     * @param strategyNumber Parameter used by certain strategies to determine submatch length.
+     * @param tokenSequenceMapper provides the token IDs of the submissions of the comparisons.
+     */
+    public MatchFrequencyEngine(FrequencyStrategies strategy, int strategyNumber, TokenSequenceMapper tokenSequenceMapper) {
+        this.strategy = strategy;
+        this.strategyNumber = strategyNumber;
+        this.tokenSequenceMapper = tokenSequenceMapper;
+        this.sequenceFrequencies = new LongIntHashMap();
+    }
+
+    /**
+     * Counts the frequencies of all matches found in the given list of comparisons. The comparisons are processed in
+     * parallel. Replaces previously counted frequencies.
+     * @param comparisons contains information of matches between two submissions.
+     * @throws IllegalArgumentException if match indices are out of range.
+     */
+    public void buildFrequencies(List<JPlagComparison> comparisons) {
+        if (strategy == FrequencyStrategies.SUB_MATCHES) {
+            List<MatchSequence> matchSequences = comparisons.parallelStream().<MatchSequence>mapMulti((comparison, consumer) -> {
+                int[] tokens = tokenSequenceMapper.getTokenSequenceFor(comparison.firstSubmission());
+                for (Match match : comparison.matches()) {
+                    checkBounds(match, tokens);
+                    consumer.accept(new MatchSequence(tokens, match.startOfFirst(), match.lengthOfFirst()));
+                }
+            }).toList();
+            buildAutomaton(matchSequences);
+        } else {
+            sequenceFrequencies = comparisons.parallelStream().collect(LongIntHashMap::new, this::countMatches, LongIntHashMap::addAll);
+        }
+    }
+
+    /**
+     * Looks up the frequency of a token sequence according to the strategy.
+     * @param tokenSequence contains the token IDs of the sequence, see {@link TokenSequenceMapper}.
+     * @param start is the index of the first token of the sequence.
+     * @param length is the number of tokens in the sequence.
+     * @return the frequency, zero if the sequence is not counted by the strategy.
+     */
+    public int frequencyOf(int[] tokenSequence, int start, int length) {
+        if (length <= 0 || start < 0 || start + length > tokenSequence.length) {
+            throw new IllegalArgumentException("Sequence out of range: start " + start + ", length " + length);
+        }
+        return switch (strategy) {
+            case COMPLETE_MATCHES -> sequenceFrequencies.getOrDefault(hash(tokenSequence, start, length), 0);
+            case CONTAINED_MATCHES -> length < strategyNumber ? 0 : sequenceFrequencies.getOrDefault(hash(tokenSequence, start, length), 0);
+            case WINDOW_OF_MATCHES -> length != strategyNumber ? 0 : sequenceFrequencies.getOrDefault(hash(tokenSequence, start, length), 0);
+            case SUB_MATCHES -> length < strategyNumber || matchAutomaton == null ? 0 : matchAutomaton.occurrencesOf(tokenSequence, start, length);
+        };
+    }
+
+    /**
+     * Looks up the frequency of a token sequence according to the strategy.
+     * @param tokenTypes are the token types of the sequence.
+     * @return the frequency, zero if the sequence is not counted by the strategy.
+     */
+    public int frequencyOf(List<TokenType> tokenTypes) {
+        int[] tokenSequence = new int[tokenTypes.size()];
+        for (int i = 0; i < tokenSequence.length; i++) {
+            tokenSequence[i] = tokenSequenceMapper.getTokenIdFor(tokenTypes.get(i));
+            if (tokenSequence[i] < 0) {
+                return 0; // a token type that does not appear in any submission
+            }
+        }
+        return tokenSequence.length == 0 ? 0 : frequencyOf(tokenSequence, 0, tokenSequence.length);
+    }
+
+    private void countMatches(LongIntHashMap frequencies, JPlagComparison comparison) {
+        int[] tokens = tokenSequenceMapper.getTokenSequenceFor(comparison.firstSubmission());
+        for (Match match : comparison.matches()) {
+            checkBounds(match, tokens);
+            int start = match.startOfFirst();
+            int length = match.lengthOfFirst();
+            switch (strategy) {
+                case COMPLETE_MATCHES -> frequencies.add(hash(tokens, start, length), 1);
+                case CONTAINED_MATCHES -> {
+                    if (length >= strategyNumber) {
+                        frequencies.add(hash(tokens, start, length), 1);
+                    }
+                }
+                case WINDOW_OF_MATCHES -> countWindows(frequencies, tokens, start, length);
+                default -> throw new IllegalStateException("Strategy is not counted via hashes: " + strategy);
+            }
+        }
+    }
+
+    private void countWindows(LongIntHashMap frequencies, int[] tokens, int start, int length) {
+        if (strategyNumber <= 0 || length < strategyNumber) {
+            return;
+        }
+        long highestPower = 1; // BASE^(windowSize - 1), removes the leading token from the rolling hash
+        for (int i = 1; i < strategyNumber; i++) {
+            highestPower = multiplyModulo(highestPower, BASE);
+        }
+        long windowHash = hash(tokens, start, strategyNumber);
+        frequencies.add(windowHash, 1);
+        for (int windowStart = start + 1; windowStart + strategyNumber <= start + length; windowStart++) {
+            long withoutFirst = windowHash - multiplyModulo(symbolOf(tokens[windowStart - 1]), highestPower);
+            windowHash = addModulo(multiplyModulo(withoutFirst < 0 ? withoutFirst + MODULUS : withoutFirst, BASE),
+                    symbolOf(tokens[windowStart + strategyNumber - 1]));
+            frequencies.add(windowHash, 1);
+        }
+    }
+
+    private void buildAutomaton(List<MatchSequence> matchSequences) {
+        matchAutomaton = new MatchSuffixAutomaton(); // linear in the total match length, thus built sequentially
+        for (MatchSequence matchSequence : matchSequences) {
+            matchAutomaton.add(matchSequence.tokens(), matchSequence.start(), matchSequence.length());
+        }
+        matchAutomaton.countOccurrences();
+    }
+
+    /**
+     * Token IDs of a match in the first submission of a comparison.
+     */
+    private record MatchSequence(int[] tokens, int start, int length) {
+    }
+
+    private static void checkBounds(Match match, int[] tokens) {
+        if (match.startOfFirst() + match.lengthOfFirst() > tokens.length) {
+            throw new IllegalArgumentException("startIndexOfMatch + lengthOfMatch <= submissionTokenTypes.size()");
+        }
+    }
+
+    private static long hash(int[] tokens, int start, int length) {
+        long hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = addModulo(multiplyModulo(hash, BASE), symbolOf(tokens[i]));
+        }
+        return hash;
+    }
+
+    private static long symbolOf(int token) {
+        return token + 1L; // token zero must not vanish in the hash
+    }
+
+    private static long addModulo(long first, long second) {
+        long sum = first + second;
+        return sum >= MODULUS ? sum - MODULUS : sum;
+    }
+
+    private static long multiplyModulo(long first, long second) {
+        long high = Math.multiplyHigh(first, second);
+        long low = first * second;
+        long result = (low & MODULUS) + (low >>> 61) + (high << 3);
+        result = (result & MODULUS) + (result >>> 61);
+        return result >= MODULUS ? result - MODULUS : result;
+    }
+}
@@ -0,0 +1,170 @@
+package de.jplag.highlightextraction;
+
+import java.util.Arrays;
+
+/**
+ * Generalized suffix automaton over integer token sequences. After adding all sequences, it answers how often any token
+ * sequence occurs as a contiguous part of the added sequences in time linear to the length of the queried sequence.
+ * Building it takes time and memory linear in the total length of the added sequences, in contrast to enumerating all
+ * of their subsequences.
+ */
+final class MatchSuffixAutomaton {
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    private static final int NO_EDGE = -1;
+
+    private final LongIntHashMap transitions; // (state, token) -> state
+    private int[] lengths;
+    private int[] suffixLinks;
+    private int[] occurrences;
+    private int[] firstEdge;
+    private int[] edgeToken; // edges only store the token, the target is looked up in the transitions
+    private int[] nextEdge;
+    private int numberOfStates;
+    private int numberOfEdges;
+    private boolean finished;
+
+    MatchSuffixAutomaton() {
+        transitions = new LongIntHashMap();
+        lengths = new int[16];
+        suffixLinks = new int[16];
+        occurrences = new int[16];
+        firstEdge = new int[16];
+        edgeToken = new int[16];
+        nextEdge = new int[16];
+        newState(0, NONE);
+    }
+
+    /**
+     * Adds a token sequence to the automaton.
+     * @param tokens contains the sequence.
+     * @param start is the index of the first token of the sequence.
+     * @param length is the number of tokens in the sequence.
+     * @throws IllegalStateException if the occurrences were already counted.
+     */
+    void add(int[] tokens, int start, int length) {
+        if (finished) {
+            throw new IllegalStateException("Sequences cannot be added after counting the occurrences.");
+        }
+        int last = ROOT;
+        for (int i = start; i < start + length; i++) {
+            last = extend(last, tokens[i]);
+            occurrences[last]++;
+        }
+    }
+
+    /**
+     * Counts the occurrences of all states by propagating them along the suffix links. Must be called once before querying.
+     */
+    void countOccurrences() {
+        if (finished) {
+            return;
+        }
+        int maximumLength = 0;
+        for (int state = 0; state < numberOfStates; state++) {
+            maximumLength = Math.max(maximumLength, lengths[state]);
+        }
+        int[] statesPerLength = new int[maximumLength + 2];
+        for (int state = 0; state < numberOfStates; state++) {
+            statesPerLength[lengths[state] + 1]++;
+        }
+        for (int length = 1; length < statesPerLength.length; length++) {
+            statesPerLength[length] += statesPerLength[length - 1];
+        }
+        int[] statesByLength = new int[numberOfStates];
+        for (int state = 0; state < numberOfStates; state++) {
+            statesByLength[statesPerLength[lengths[state]]++] = state;
+        }
+        for (int i = numberOfStates - 1; i > 0; i--) {
+            int state = statesByLength[i];
+            occurrences[suffixLinks[state]] += occurrences[state];
+        }
+        finished = true;
+    }
+
+    /**
+     * @param tokens contains the queried sequence.
+     * @param start is the index of the first token of the sequence.
+     * @param length is the number of tokens in the sequence, must be positive.
+     * @return how often the sequence occurs in all added sequences, overlapping occurrences included.
+     * @throws IllegalStateException if the occurrences were not counted yet.
+     */
+    int occurrencesOf(int[] tokens, int start, int length) {
+        if (!finished) {
+            throw new IllegalStateException("Occurrences must be counted before querying.");
+        }
+        int state = ROOT;
+        for (int i = start; i < start + length; i++) {
+            state = transitions.getOrDefault(key(state, tokens[i]), NONE);
+            if (state == NONE) {
+                return 0;
+            }
+        }
+        return occurrences[state];
+    }
+
+    private int extend(int last, int token) {
+        int existing = transitions.getOrDefault(key(last, token), NONE);
+        if (existing != NONE) { // the sequence is already known from a previously added sequence
+            if (lengths[last] + 1 == lengths[existing]) {
+                return existing;
+            }
+            return split(last, token, existing);
+        }
+        int current = newState(lengths[last] + 1, NONE);
+        int state = last;
+        while (state != NONE && !transitions.containsKey(key(state, token))) {
+            addTransition(state, token, current);
+            state = suffixLinks[state];
+        }
+        if (state == NONE) {
+            suffixLinks[current] = ROOT;
+        } else {
+            int next = transitions.getOrDefault(key(state, token), NONE);
+            int suffixLink = lengths[state] + 1 == lengths[next] ? next : split(state, token, next); // split may grow the arrays
+            suffixLinks[current] = suffixLink;
+        }
+        return current;
+    }
+
+    private int split(int state, int token, int next) {
+        int clone = newState(lengths[state] + 1, suffixLinks[next]);
+        for (int edge = firstEdge[next]; edge != NO_EDGE; edge = nextEdge[edge]) {
+            addTransition(clone, edgeToken[edge], transitions.getOrDefault(key(next, edgeToken[edge]), NONE));
+        }
+        suffixLinks[next] = clone;
+        for (int current = state; current != NONE && transitions.getOrDefault(key(current, token), NONE) == next; current = suffixLinks[current]) {
+            transitions.put(key(current, token), clone);
+        }
+        return clone;
+    }
+
+    private int newState(int length, int suffixLink) {
+        if (numberOfStates == lengths.length) {
+            int capacity = lengths.length * 2;
+            lengths = Arrays.copyOf(lengths, capacity);
+            suffixLinks = Arrays.copyOf(suffixLinks, capacity);
+            occurrences = Arrays.copyOf(occurrences, capacity);
+            firstEdge = Arrays.copyOf(firstEdge, capacity);
+        }
+        lengths[numberOfStates] = length;
+        suffixLinks[numberOfStates] = suffixLink;
+        firstEdge[numberOfStates] = NO_EDGE;
+        return numberOfStates++;
+    }
+
+    private void addTransition(int state, int token, int target) {
+        if (numberOfEdges == edgeToken.length) {
+            edgeToken = Arrays.copyOf(edgeToken, numberOfEdges * 2);
+            nextEdge = Arrays.copyOf(nextEdge, numberOfEdges * 2);
+        }
+        transitions.put(key(state, token), target);
+        edgeToken[numberOfEdges] = token;
+        nextEdge[numberOfEdges] = firstEdge[state];
+        firstEdge[state] = numberOfEdges++;
+    }
+
+    private static long key(int state, int token) {
+        return ((long) state << 32) | (token & 0xFFFFFFFFL);
+    }
+}
@@ -10,6 +10,7 @@ public enum ProgressBarType {
     COMPARING("Comparing Submission Pairs", false),
     MATCH_MERGING("Merging Matched Subsequences ", false),
     TOKEN_SEQUENCE_NORMALIZATION("Normalizing Token Sequences", false),
+    CALIBRATING("Calibrating Minimum Token Match", false),
     CLUSTERING("Finding Clusters ", true);
 
     private final String defaultText;
@@ -66,7 +66,7 @@ public class MatchMerging {
         progressBar.step();
 
         if (matchesBeforeMerging - matchesAfterMerging >= options.mergingOptions().minimumRequiredMerges()) {
-            return new JPlagComparison(leftSubmission, rightSubmission, globalMatches, new ArrayList<>());
+            return new JPlagComparison(leftSubmission, rightSubmission, globalMatches, new ArrayList<>(), comparison.commentSimilarity());
         }
         return comparison;
     }
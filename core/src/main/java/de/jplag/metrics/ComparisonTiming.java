@@ -0,0 +1,10 @@
+package de.jplag.metrics;
+
+/**
+ * The time spent on the comparison of a single submission pair.
+ * @param firstSubmission is the name of the first submission.
+ * @param secondSubmission is the name of the second submission.
+ * @param durationMillis is the time spent on the comparison.
+ */
+public record ComparisonTiming(String firstSubmission, String secondSubmission, double durationMillis) {
+}
@@ -0,0 +1,10 @@
+package de.jplag.metrics;
+
+/**
+ * A bucket of a duration histogram.
+ * @param upperBoundMillis is the exclusive upper bound of the durations in this bucket. The lower bound is the upper
+ * bound of the previous bucket.
+ * @param count is the number of durations in this bucket.
+ */
+public record HistogramBucket(double upperBoundMillis, long count) {
+}
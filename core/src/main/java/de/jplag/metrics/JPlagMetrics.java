@@ -0,0 +1,369 @@
+package de.jplag.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Records metrics of the stages of a JPlag run: wall and CPU time, item counts, bytes read, and pruned pairs. In
+ * addition, it keeps a histogram of the submission parse times per language as well as the slowest submissions and
+ * comparisons. If cost accounting is enabled, the parse and comparison costs are also accumulated per submission.
+ * Listeners are notified whenever a stage is completed. This class is thread-safe.
+ */
+public class JPlagMetrics {
+    private static final int NUMBER_OF_SLOWEST_ENTRIES = 10;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final int NUMBER_OF_HISTOGRAM_BUCKETS = 40;
+    private static final long SMALLEST_HISTOGRAM_BUCKET_NANOS = 1_000; // 1 µs, each following bucket doubles the bound
+
+    private final Map<PipelineStage, StageAccumulator> stages = new EnumMap<>(PipelineStage.class);
+    private final List<JPlagMetricsListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, long[]> parseTimeHistograms = new TreeMap<>();
+    private final SlowestEntries<SubmissionTiming> slowestSubmissions = new SlowestEntries<>(SubmissionTiming::durationMillis);
+    private final SlowestEntries<ComparisonTiming> slowestComparisons = new SlowestEntries<>(ComparisonTiming::durationMillis);
+    private final Map<String, CostAccumulator> submissionCosts = new ConcurrentHashMap<>();
+    private volatile boolean costAccounting;
+
+    /**
+     * Creates empty metrics.
+     */
+    public JPlagMetrics() {
+        for (PipelineStage stage : PipelineStage.values()) {
+            stages.put(stage, new StageAccumulator());
+        }
+    }
+
+    /**
+     * @param listener is notified whenever a stage is completed.
+     */
+    public void addListener(JPlagMetricsListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Enables accumulating the parse and comparison costs per submission.
+     */
+    public void enableCostAccounting() {
+        costAccounting = true;
+    }
+
+    /**
+     * @return whether the costs are accumulated per submission.
+     */
+    public boolean isCostAccountingEnabled() {
+        return costAccounting;
+    }
+
+    /**
+     * Starts measuring the wall and CPU time of a stage.
+     * @param stage is the stage.
+     * @return the timer that completes the stage when closed.
+     */
+    public StageTimer startStage(PipelineStage stage) {
+        return new StageTimer(this, stage);
+    }
+
+    /**
+     * Adds the duration of a task to a stage whose work is done in concurrent tasks. The stage must be completed
+     * explicitly.
+     * @param stage is the stage.
+     * @param durationNanos is the duration of the task.
+     * @see #completeStage(PipelineStage)
+     */
+    public void addTaskTime(PipelineStage stage, long durationNanos) {
+        addTime(stage, durationNanos, -1);
+    }
+
+    /**
+     * @param stage is the stage.
+     * @param count is the number of processed items to add to the stage.
+     */
+    public void addItems(PipelineStage stage, long count) {
+        stages.get(stage).items.add(count);
+    }
+
+    /**
+     * @param stage is the stage.
+     * @param count is the number of read bytes to add to the stage.
+     */
+    public void addBytesRead(PipelineStage stage, long count) {
+        stages.get(stage).bytesRead.add(count);
+    }
+
+    /**
+     * @param stage is the stage.
+     * @param count is the number of pruned pairs to add to the stage.
+     */
+    public void addPairsPruned(PipelineStage stage, long count) {
+        stages.get(stage).pairsPruned.add(count);
+    }
+
+    /**
+     * Marks a stage as completed and notifies the listeners.
+     * @param stage is the stage.
+     */
+    public void completeStage(PipelineStage stage) {
+        stages.get(stage).completed.set(true);
+        StageMetrics metrics = getStage(stage);
+        listeners.forEach(listener -> listener.stageCompleted(metrics));
+    }
+
+    /**
+     * Records the parse time of a submission.
+     * @param language is the identifier of the language of the submission.
+     * @param submission is the name of the submission.
+     * @param durationNanos is the time spent parsing the submission.
+     */
+    public void recordParseTime(String language, String submission, long durationNanos) {
+        synchronized (parseTimeHistograms) {
+            parseTimeHistograms.computeIfAbsent(language, key -> new long[NUMBER_OF_HISTOGRAM_BUCKETS])[histogramBucket(durationNanos)]++;
+        }
+        double durationMillis = durationNanos / NANOS_PER_MILLI;
+        if (slowestSubmissions.isCandidate(durationMillis)) {
+            slowestSubmissions.add(new SubmissionTiming(submission, durationMillis));
+        }
+        if (costAccounting) {
+            submissionCosts.computeIfAbsent(submission, key -> new CostAccumulator()).parseNanos.add(durationNanos);
+        }
+    }
+
+    /**
+     * Records the duration of the comparison of a submission pair.
+     * @param firstSubmission is the name of the first submission.
+     * @param secondSubmission is the name of the second submission.
+     * @param durationNanos is the time spent comparing the submissions.
+     * @param candidateVerifications is the number of candidate matches that were verified token by token.
+     */
+    public void recordComparison(String firstSubmission, String secondSubmission, long durationNanos, long candidateVerifications) {
+        double durationMillis = durationNanos / NANOS_PER_MILLI;
+        if (slowestComparisons.isCandidate(durationMillis)) { // most pairs are faster than the slowest ones, they skip the lock
+            slowestComparisons.add(new ComparisonTiming(firstSubmission, secondSubmission, durationMillis));
+        }
+        if (costAccounting) {
+            for (String submission : List.of(firstSubmission, secondSubmission)) {
+                CostAccumulator cost = submissionCosts.computeIfAbsent(submission, key -> new CostAccumulator());
+                cost.comparisonNanos.add(durationNanos);
+                cost.comparisons.increment();
+                cost.candidateVerifications.add(candidateVerifications);
+            }
+        }
+    }
+
+    /**
+     * @param stage is the stage.
+     * @return the current metrics of the stage.
+     */
+    public StageMetrics getStage(PipelineStage stage) {
+        StageAccumulator accumulator = stages.get(stage);
+        double cpuTime = accumulator.cpuTimeKnown.get() ? accumulator.cpuNanos.sum() / NANOS_PER_MILLI : -1;
+        return new StageMetrics(stage, accumulator.wallNanos.sum() / NANOS_PER_MILLI, cpuTime, accumulator.items.sum(),
+                accumulator.bytesRead.sum(), accumulator.pairsPruned.sum());
+    }
+
+    /**
+     * @return the metrics of all completed stages in pipeline order.
+     */
+    public List<StageMetrics> getStages() {
+        List<StageMetrics> completedStages = new ArrayList<>();
+        for (PipelineStage stage : PipelineStage.values()) {
+            if (stages.get(stage).completed.get()) {
+                completedStages.add(getStage(stage));
+            }
+        }
+        return completedStages;
+    }
+
+    /**
+     * @return the histograms of the submission parse times per language identifier. Buckets without parse times are
+     * omitted.
+     */
+    public Map<String, List<HistogramBucket>> getParseTimeHistograms() {
+        Map<String, List<HistogramBucket>> histograms = new TreeMap<>();
+        synchronized (parseTimeHistograms) {
+            parseTimeHistograms.forEach((language, counts) -> {
+                List<HistogramBucket> buckets = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > 0) {
+                        buckets.add(new HistogramBucket((SMALLEST_HISTOGRAM_BUCKET_NANOS << i) / NANOS_PER_MILLI, counts[i]));
+                    }
+                }
+                histograms.put(language, buckets);
+            });
+        }
+        return histograms;
+    }
+
+    /**
+     * @return the submissions that took the longest to parse, slowest first.
+     */
+    public List<SubmissionTiming> getSlowestSubmissions() {
+        return slowestSubmissions.sortedDescending();
+    }
+
+    /**
+     * @return the submission pairs that took the longest to compare, slowest first.
+     */
+    public List<ComparisonTiming> getSlowestComparisons() {
+        return slowestComparisons.sortedDescending();
+    }
+
+    /**
+     * @return the submissions with the highest total parse and comparison time, most expensive first. Empty if cost
+     * accounting is disabled.
+     */
+    public List<SubmissionCost> getMostExpensiveSubmissions() {
+        return submissionCosts.entrySet().stream().map(entry -> entry.getValue().toCost(entry.getKey()))
+                .sorted(Comparator.comparingDouble(SubmissionCost::totalTimeMillis).reversed()).limit(NUMBER_OF_SLOWEST_ENTRIES).toList();
+    }
+
+    /**
+     * @return a human-readable summary of the completed stages and the slowest submissions and comparisons.
+     */
+    public String summary() {
+        StringBuilder builder = new StringBuilder("Pipeline metrics:");
+        for (StageMetrics stage : getStages()) {
+            builder.append(System.lineSeparator());
+            builder.append(String.format("  %-18s wall %10.1f ms", stage.stage().getDescription(), stage.wallTimeMillis()));
+            if (stage.cpuTimeMillis() >= 0) {
+                builder.append(String.format(", cpu %10.1f ms", stage.cpuTimeMillis()));
+            }
+            builder.append(", items ").append(stage.items());
+            if (stage.bytesRead() > 0) {
+                builder.append(", bytes read ").append(stage.bytesRead());
+            }
+            if (stage.pairsPruned() > 0) {
+                builder.append(", pairs pruned ").append(stage.pairsPruned());
+            }
+        }
+        List<SubmissionTiming> submissions = getSlowestSubmissions();
+        if (!submissions.isEmpty()) {
+            builder.append(System.lineSeparator()).append("Slowest submissions to parse:");
+            submissions.forEach(
+                    it -> builder.append(System.lineSeparator()).append(String.format("  %10.1f ms  %s", it.durationMillis(), it.submission())));
+        }
+        List<ComparisonTiming> comparisons = getSlowestComparisons();
+        if (!comparisons.isEmpty()) {
+            builder.append(System.lineSeparator()).append("Slowest comparisons:");
+            comparisons.forEach(it -> builder.append(System.lineSeparator())
+                    .append(String.format("  %10.1f ms  %s - %s", it.durationMillis(), it.firstSubmission(), it.secondSubmission())));
+        }
+        List<SubmissionCost> costs = getMostExpensiveSubmissions();
+        if (!costs.isEmpty()) {
+            builder.append(System.lineSeparator()).append(formatMostExpensiveSubmissions(costs));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @param costs are the costs of the submissions.
+     * @return a human-readable ranking of the given submission costs.
+     */
+    public static String formatMostExpensiveSubmissions(List<SubmissionCost> costs) {
+        StringBuilder builder = new StringBuilder("Most expensive submissions:");
+        for (SubmissionCost cost : costs) {
+            builder.append(System.lineSeparator()).append(String.format("  %10.1f ms (parse %.1f ms, compare %.1f ms in %d pairs, %d candidates)  %s",
+                    cost.totalTimeMillis(), cost.parseTimeMillis(), cost.comparisonTimeMillis(), cost.comparisons(), cost.candidateVerifications(),
+                    cost.submission()));
+        }
+        return builder.toString();
+    }
+
+    void addTime(PipelineStage stage, long wallNanos, long cpuNanos) {
+        StageAccumulator accumulator = stages.get(stage);
+        accumulator.wallNanos.add(wallNanos);
+        if (cpuNanos >= 0) {
+            accumulator.cpuNanos.add(cpuNanos);
+            accumulator.cpuTimeKnown.set(true);
+        }
+    }
+
+    /**
+     * @return the CPU time used by the whole process, or -1 if the platform does not provide it.
+     */
+    static long processCpuTime() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean sunBean) {
+            return sunBean.getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private static int histogramBucket(long durationNanos) {
+        long bound = SMALLEST_HISTOGRAM_BUCKET_NANOS;
+        int bucket = 0;
+        while (durationNanos >= bound && bucket < NUMBER_OF_HISTOGRAM_BUCKETS - 1) {
+            bound <<= 1;
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * Keeps the slowest entries. The duration of the fastest kept entry is published as threshold once the entries are
+     * complete, so faster entries are rejected without taking the lock.
+     */
+    private static final class SlowestEntries<T> {
+        private final ToDoubleFunction<T> duration;
+        private final PriorityQueue<T> entries; // the queue head is the fastest entry
+        private volatile double threshold = Double.NEGATIVE_INFINITY;
+
+        private SlowestEntries(ToDoubleFunction<T> duration) {
+            this.duration = duration;
+            this.entries = new PriorityQueue<>(Comparator.comparingDouble(duration));
+        }
+
+        private boolean isCandidate(double durationMillis) {
+            return durationMillis > threshold;
+        }
+
+        private synchronized void add(T entry) {
+            if (!isCandidate(duration.applyAsDouble(entry))) {
+                return; // the threshold was raised in the meantime
+            }
+            entries.add(entry);
+            if (entries.size() > NUMBER_OF_SLOWEST_ENTRIES) {
+                entries.poll();
+            }
+            if (entries.size() == NUMBER_OF_SLOWEST_ENTRIES) {
+                threshold = duration.applyAsDouble(entries.peek());
+            }
+        }
+
+        private synchronized List<T> sortedDescending() {
+            return entries.stream().sorted(Comparator.comparingDouble(duration).reversed()).toList();
+        }
+    }
+
+    private static final class CostAccumulator {
+        private final LongAdder parseNanos = new LongAdder();
+        private final LongAdder comparisonNanos = new LongAdder();
+        private final LongAdder comparisons = new LongAdder();
+        private final LongAdder candidateVerifications = new LongAdder();
+
+        private SubmissionCost toCost(String submission) {
+            return new SubmissionCost(submission, parseNanos.sum() / NANOS_PER_MILLI, comparisonNanos.sum() / NANOS_PER_MILLI, comparisons.sum(),
+                    candidateVerifications.sum());
+        }
+    }
+
+    private static final class StageAccumulator {
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder items = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder pairsPruned = new LongAdder();
+        private final AtomicBoolean cpuTimeKnown = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+    }
+}
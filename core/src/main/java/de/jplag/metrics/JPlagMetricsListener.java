@@ -0,0 +1,13 @@
+package de.jplag.metrics;
+
+/**
+ * Receives the metrics of each pipeline stage as soon as the stage is completed.
+ */
+@FunctionalInterface
+public interface JPlagMetricsListener {
+    /**
+     * Called when a stage is completed. May be called from any thread.
+     * @param metrics are the metrics of the completed stage.
+     */
+    void stageCompleted(StageMetrics metrics);
+}
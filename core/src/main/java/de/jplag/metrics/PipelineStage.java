@@ -0,0 +1,29 @@
+package de.jplag.metrics;
+
+/**
+ * The stages of a JPlag run, for which metrics are recorded.
+ */
+public enum PipelineStage {
+    LOADING("Loading"),
+    PARSING("Parsing"),
+    NORMALIZATION("Normalization"),
+    TOKEN_MAPPING("Token mapping"),
+    HASH_TABLE_BUILD("Hash table build"),
+    COMPARING("Comparing"),
+    MERGING("Match merging"),
+    CLUSTERING("Clustering"),
+    REPORT_WRITING("Report writing");
+
+    private final String description;
+
+    PipelineStage(String description) {
+        this.description = description;
+    }
+
+    /**
+     * @return the human-readable name of the stage.
+     */
+    public String getDescription() {
+        return description;
+    }
+}
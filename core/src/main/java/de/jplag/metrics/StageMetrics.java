@@ -0,0 +1,15 @@
+package de.jplag.metrics;
+
+/**
+ * Metrics of a single pipeline stage.
+ * @param stage is the stage.
+ * @param wallTimeMillis is the time spent in the stage. For stages whose work is done in concurrent tasks, e.g. building
+ * the hash tables, this is the sum of the task durations.
+ * @param cpuTimeMillis is the CPU time of the whole process during the stage, or -1 if it is not known.
+ * @param items is the number of items processed, e.g. submissions or comparisons.
+ * @param bytesRead is the number of bytes read from the submission files.
+ * @param pairsPruned is the number of submission pairs that were dropped, e.g. because they are below the similarity
+ * threshold.
+ */
+public record StageMetrics(PipelineStage stage, double wallTimeMillis, double cpuTimeMillis, long items, long bytesRead, long pairsPruned) {
+}
@@ -0,0 +1,63 @@
+package de.jplag.metrics;
+
+/**
+ * Measures the wall and CPU time of a pipeline stage from its start until the timer is closed. Closing the timer
+ * completes the stage.
+ * @see JPlagMetrics#startStage(PipelineStage)
+ */
+public final class StageTimer implements AutoCloseable {
+    private final JPlagMetrics metrics;
+    private final PipelineStage stage;
+    private final long startNanos;
+    private final long startCpuNanos;
+    private boolean closed;
+
+    StageTimer(JPlagMetrics metrics, PipelineStage stage) {
+        this.metrics = metrics;
+        this.stage = stage;
+        this.startCpuNanos = JPlagMetrics.processCpuTime();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * @param count is the number of processed items to add to the stage.
+     * @return this timer.
+     */
+    public StageTimer addItems(long count) {
+        metrics.addItems(stage, count);
+        return this;
+    }
+
+    /**
+     * @param count is the number of read bytes to add to the stage.
+     * @return this timer.
+     */
+    public StageTimer addBytesRead(long count) {
+        metrics.addBytesRead(stage, count);
+        return this;
+    }
+
+    /**
+     * @param count is the number of pruned pairs to add to the stage.
+     * @return this timer.
+     */
+    public StageTimer addPairsPruned(long count) {
+        metrics.addPairsPruned(stage, count);
+        return this;
+    }
+
+    /**
+     * Stops the timer and completes the stage. Closing the timer again has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long wallNanos = System.nanoTime() - startNanos;
+        long endCpuNanos = JPlagMetrics.processCpuTime();
+        metrics.addTime(stage, wallNanos, startCpuNanos < 0 || endCpuNanos < 0 ? -1 : endCpuNanos - startCpuNanos);
+        metrics.completeStage(stage);
+    }
+}
@@ -0,0 +1,20 @@
+package de.jplag.metrics;
+
+/**
+ * The accumulated cost of a single submission.
+ * @param submission is the name of the submission.
+ * @param parseTimeMillis is the time spent parsing the submission.
+ * @param comparisonTimeMillis is the time spent in the Greedy String Tiling of all pairs with the submission.
+ * @param comparisons is the number of pairs with the submission.
+ * @param candidateVerifications is the number of candidate matches that were verified token by token in all pairs with
+ * the submission.
+ */
+public record SubmissionCost(String submission, double parseTimeMillis, double comparisonTimeMillis, long comparisons, long candidateVerifications) {
+
+    /**
+     * @return the total time spent on the submission.
+     */
+    public double totalTimeMillis() {
+        return parseTimeMillis + comparisonTimeMillis;
+    }
+}
@@ -0,0 +1,9 @@
+package de.jplag.metrics;
+
+/**
+ * The time spent on a single submission.
+ * @param submission is the name of the submission.
+ * @param durationMillis is the time spent on the submission.
+ */
+public record SubmissionTiming(String submission, double durationMillis) {
+}
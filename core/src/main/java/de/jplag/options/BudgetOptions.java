@@ -0,0 +1,92 @@
+package de.jplag.options;
+
+/**
+ * Options for the cost accounting of submissions and the budgets that guard a run against pathological submissions,
+ * e.g. generated parsers or minified bundles.
+ * @param costAccounting controls whether the parse and comparison costs are accounted per submission, so that the most
+ * expensive submissions can be reported.
+ * @param tokenBudget is the maximum number of tokens of a submission, or {@link #UNLIMITED} (the default).
+ * @param truncateOverBudget controls whether submissions over the token budget are truncated to the budget instead of
+ * being skipped.
+ * @param parseTimeBudget is the maximum time in seconds that parsing a submission may take, or {@link #UNLIMITED} (the
+ * default). Parsing is cancelled at this deadline and the submission is skipped.
+ * @param fileSizeBudget is the maximum size in bytes of a single file of a submission, or {@link #UNLIMITED} (the
+ * default). Submissions with larger files are skipped without parsing them.
+ */
+public record BudgetOptions(boolean costAccounting, int tokenBudget, boolean truncateOverBudget, double parseTimeBudget, long fileSizeBudget) {
+
+    public static final int UNLIMITED = 0;
+
+    /**
+     * Creates budget options without cost accounting and without budgets.
+     */
+    public BudgetOptions() {
+        this(false, UNLIMITED, false, UNLIMITED, UNLIMITED);
+    }
+
+    /**
+     * @return whether the number of tokens of a submission is limited.
+     */
+    public boolean hasTokenBudget() {
+        return tokenBudget > UNLIMITED;
+    }
+
+    /**
+     * @return whether the parse time of a submission is limited.
+     */
+    public boolean hasParseTimeBudget() {
+        return parseTimeBudget > UNLIMITED;
+    }
+
+    /**
+     * @return whether the file size of a submission is limited.
+     */
+    public boolean hasFileSizeBudget() {
+        return fileSizeBudget > UNLIMITED;
+    }
+
+    /**
+     * Builder pattern method for enabling and disabling the cost accounting.
+     * @param costAccounting specifying if cost accounting is enabled or not.
+     * @return the options with the specified configuration.
+     */
+    public BudgetOptions withCostAccounting(boolean costAccounting) {
+        return new BudgetOptions(costAccounting, tokenBudget, truncateOverBudget, parseTimeBudget, fileSizeBudget);
+    }
+
+    /**
+     * Builder pattern method for setting the maximum number of tokens of a submission.
+     * @param tokenBudget containing the new value.
+     * @return the options with the specified configuration.
+     */
+    public BudgetOptions withTokenBudget(int tokenBudget) {
+        return new BudgetOptions(costAccounting, tokenBudget, truncateOverBudget, parseTimeBudget, fileSizeBudget);
+    }
+
+    /**
+     * Builder pattern method for truncating instead of skipping submissions over the token budget.
+     * @param truncateOverBudget containing the new value.
+     * @return the options with the specified configuration.
+     */
+    public BudgetOptions withTruncateOverBudget(boolean truncateOverBudget) {
+        return new BudgetOptions(costAccounting, tokenBudget, truncateOverBudget, parseTimeBudget, fileSizeBudget);
+    }
+
+    /**
+     * Builder pattern method for setting the maximum parse time of a submission in seconds.
+     * @param parseTimeBudget containing the new value.
+     * @return the options with the specified configuration.
+     */
+    public BudgetOptions withParseTimeBudget(double parseTimeBudget) {
+        return new BudgetOptions(costAccounting, tokenBudget, truncateOverBudget, parseTimeBudget, fileSizeBudget);
+    }
+
+    /**
+     * Builder pattern method for setting the maximum size of a single file of a submission in bytes.
+     * @param fileSizeBudget containing the new value.
+     * @return the options with the specified configuration.
+     */
+    public BudgetOptions withFileSizeBudget(long fileSizeBudget) {
+        return new BudgetOptions(costAccounting, tokenBudget, truncateOverBudget, parseTimeBudget, fileSizeBudget);
+    }
+}
@@ -48,7 +48,9 @@ import io.soabase.recordbuilder.core.RecordBuilder;
  * @param debugParser If true, submissions that cannot be parsed will be stored in a separate directory.
  * @param mergingOptions are the options related to the subsequence match merging mechanism that opposed obfuscation.
  * @param normalize enables additional normalization mechanisms. Only supported by some language modules.
- * @param analyzeComments If true, comments will be extracted from the submissions.
+ * @param analyzeComments If true, comments will be extracted from the submissions. Always enabled for the comment
+ * similarity metric.
+ * @param budgetOptions are the options for the cost accounting and the budgets of the submissions.
  */
 @RecordBuilder()
 public record JPlagOptions(@JsonSerialize(using = LanguageSerializer.class) Language language, Integer minimumTokenMatch,
@@ -56,8 +58,8 @@ public record JPlagOptions(@JsonSerialize(using = LanguageSerializer.class) Lang
         @JsonSerialize(contentUsing = FileSerializer.class) Set<File> oldSubmissionDirectories,
         @JsonSerialize(using = FileSerializer.class) File baseCodeSubmissionDirectory, String subdirectoryName, List<String> fileSuffixes,
         String exclusionFileName, SimilarityMetric similarityMetric, double similarityThreshold, int maximumNumberOfComparisons,
-        ClusteringOptions clusteringOptions, boolean debugParser, MergingOptions mergingOptions, boolean normalize, boolean analyzeComments)
-        implements JPlagOptionsBuilder.With {
+        ClusteringOptions clusteringOptions, boolean debugParser, MergingOptions mergingOptions, boolean normalize, boolean analyzeComments,
+        BudgetOptions budgetOptions) implements JPlagOptionsBuilder.With {
 
     public static final double DEFAULT_SIMILARITY_THRESHOLD = 0;
     public static final int DEFAULT_SHOWN_COMPARISONS = 2500;
@@ -79,13 +81,14 @@ public record JPlagOptions(@JsonSerialize(using = LanguageSerializer.class) Lang
 
     public JPlagOptions(Language language, Set<File> submissionDirectories, Set<File> oldSubmissionDirectories) {
         this(language, null, submissionDirectories, oldSubmissionDirectories, null, null, null, null, DEFAULT_SIMILARITY_METRIC,
-                DEFAULT_SIMILARITY_THRESHOLD, DEFAULT_SHOWN_COMPARISONS, new ClusteringOptions(), false, new MergingOptions(), false, false);
+                DEFAULT_SIMILARITY_THRESHOLD, DEFAULT_SHOWN_COMPARISONS, new ClusteringOptions(), false, new MergingOptions(), false, false,
+                new BudgetOptions());
     }
 
     public JPlagOptions(Language language, Integer minimumTokenMatch, Set<File> submissionDirectories, Set<File> oldSubmissionDirectories,
             File baseCodeSubmissionDirectory, String subdirectoryName, List<String> fileSuffixes, String exclusionFileName,
             SimilarityMetric similarityMetric, double similarityThreshold, int maximumNumberOfComparisons, ClusteringOptions clusteringOptions,
-            boolean debugParser, MergingOptions mergingOptions, boolean normalize, boolean analyzeComments) {
+            boolean debugParser, MergingOptions mergingOptions, boolean normalize, boolean analyzeComments, BudgetOptions budgetOptions) {
         this.language = language;
         this.debugParser = debugParser;
         this.fileSuffixes = fileSuffixes == null || fileSuffixes.isEmpty() ? null : Collections.unmodifiableList(fileSuffixes);
@@ -101,7 +104,8 @@ public record JPlagOptions(@JsonSerialize(using = LanguageSerializer.class) Lang
         this.clusteringOptions = clusteringOptions;
         this.mergingOptions = mergingOptions;
         this.normalize = normalize;
-        this.analyzeComments = analyzeComments;
+        this.analyzeComments = normalizeAnalyzeComments(analyzeComments, similarityMetric);
+        this.budgetOptions = budgetOptions == null ? new BudgetOptions() : budgetOptions;
     }
 
     public boolean hasBaseCode() {
@@ -155,6 +159,14 @@ public record JPlagOptions(@JsonSerialize(using = LanguageSerializer.class) Lang
         return similarityThreshold;
     }
 
+    private static boolean normalizeAnalyzeComments(boolean analyzeComments, SimilarityMetric similarityMetric) {
+        if (!analyzeComments && similarityMetric == SimilarityMetric.COMMENTS) {
+            logger.info("Comment analysis enabled, as the comment similarity metric requires it");
+            return true;
+        }
+        return analyzeComments;
+    }
+
     private Integer normalizeMaximumNumberOfComparisons(Integer maximumNumberOfComparisons) {
         return Math.max(maximumNumberOfComparisons, SHOW_ALL_COMPARISONS);
     }
@@ -195,7 +207,8 @@ public record JPlagOptions(@JsonSerialize(using = LanguageSerializer.class) Lang
             boolean debugParser, MergingOptions mergingOptions) throws BasecodeException {
         this(language, minimumTokenMatch, Set.of(submissionDirectory), oldSubmissionDirectories,
                 convertLegacyBaseCodeToFile(baseCodeSubmissionName, submissionDirectory), subdirectoryName, fileSuffixes, exclusionFileName,
-                similarityMetric, similarityThreshold, maximumNumberOfComparisons, clusteringOptions, debugParser, mergingOptions, false, false);
+                similarityMetric, similarityThreshold, maximumNumberOfComparisons, clusteringOptions, debugParser, mergingOptions, false, false,
+                new BudgetOptions());
     }
 
     /**
@@ -0,0 +1,228 @@
+package de.jplag.reporting;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import de.jplag.options.SimilarityMetric;
+import de.jplag.reporting.jsonfactory.ComparisonReportWriter;
+import de.jplag.reporting.reportobject.ReportObjectFactory;
+import de.jplag.reporting.reportobject.model.ComparisonReport;
+import de.jplag.reporting.reportobject.model.RunInformation;
+import de.jplag.reporting.reportobject.model.SubmissionMappings;
+import de.jplag.reporting.reportobject.model.TopComparison;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads a result archive written by the {@link ReportObjectFactory} and provides queries over it. The archive is opened
+ * via its central directory, and entries are only inflated when a query needs them. Comparison files are kept in a
+ * bounded cache, so iterating over many comparisons does not load the whole archive into memory.
+ */
+public class ReportReader implements AutoCloseable {
+    /**
+     * Default number of comparison files kept in memory.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    private static final String MISSING_ENTRY = "The report %s does not contain the entry %s";
+    private static final String UNKNOWN_SUBMISSION = "The report does not contain the submission %s";
+    private static final String UNEXPORTED_METRIC = "The metric %s is not contained in the report";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final File reportFile;
+    private final ZipFile archive;
+    private final Map<String, ComparisonReport> comparisonCache;
+    private final Map<SimilarityMetric, List<TopComparison>> sortedTopComparisons;
+
+    private SubmissionMappings submissionMappings;
+    private List<TopComparison> topComparisons;
+    private Map<String, List<Integer>> distributions;
+    private RunInformation runInformation;
+
+    /**
+     * Opens a result archive with the {@link #DEFAULT_CACHE_SIZE default cache size}.
+     * @param reportFile is the result archive, typically a <code>.jplag</code> file.
+     * @throws IOException if the file is not a readable archive.
+     */
+    public ReportReader(File reportFile) throws IOException {
+        this(reportFile, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Opens a result archive.
+     * @param reportFile is the result archive, typically a <code>.jplag</code> file.
+     * @param cacheSize is the maximum number of parsed comparison files kept in memory.
+     * @throws IOException if the file is not a readable archive.
+     */
+    public ReportReader(File reportFile, int cacheSize) throws IOException {
+        if (!reportFile.isFile()) {
+            throw new FileNotFoundException(reportFile.getAbsolutePath());
+        }
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive, but was " + cacheSize);
+        }
+        this.reportFile = reportFile;
+        this.archive = new ZipFile(reportFile);
+        this.comparisonCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ComparisonReport> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.sortedTopComparisons = new EnumMap<>(SimilarityMetric.class);
+    }
+
+    /**
+     * @return the run information stored in the report.
+     * @throws IOException if the entry cannot be read.
+     */
+    public synchronized RunInformation getRunInformation() throws IOException {
+        if (runInformation == null) {
+            runInformation = readEntry(ReportObjectFactory.RUN_INFORMATION_FILE_NAME, objectMapper.constructType(RunInformation.class));
+        }
+        return runInformation;
+    }
+
+    /**
+     * @return the ids of all submissions that are part of at least one exported comparison.
+     * @throws IOException if the submission mappings cannot be read.
+     */
+    public Set<String> getSubmissionIds() throws IOException {
+        return Collections.unmodifiableSet(getSubmissionMappings().submissionIds().keySet());
+    }
+
+    /**
+     * Returns the top comparisons of the report, ordered descending by the given metric. Only the metric values stored in
+     * the overview are read, no comparison file is inflated.
+     * @param metric is the metric to sort by. It must be one of the metrics exported to the report.
+     * @param limit is the maximum number of comparisons to return.
+     * @return the top comparisons, at most <code>limit</code>.
+     * @throws IOException if the top comparisons cannot be read.
+     */
+    public synchronized List<TopComparison> getTopComparisons(SimilarityMetric metric, int limit) throws IOException {
+        List<TopComparison> sorted = sortedTopComparisons.get(metric);
+        if (sorted == null) {
+            sorted = sortTopComparisons(metric);
+            sortedTopComparisons.put(metric, sorted);
+        }
+        return sorted.subList(0, Math.min(Math.max(limit, 0), sorted.size()));
+    }
+
+    /**
+     * Returns all exported comparisons a submission is part of. Each comparison file is read on demand and cached.
+     * @param submissionId is the id of the submission.
+     * @return the comparisons of the submission, ordered descending by average similarity.
+     * @throws IOException if a comparison file cannot be read.
+     * @throws IllegalArgumentException if the report does not contain the submission.
+     */
+    public List<ComparisonReport> getComparisonsOf(String submissionId) throws IOException {
+        Map<String, String> comparisonFiles = getSubmissionMappings().submissionIdsToComparisonFileName().get(submissionId);
+        if (comparisonFiles == null) {
+            if (getSubmissionIds().contains(submissionId)) {
+                return List.of();
+            }
+            throw new IllegalArgumentException(String.format(UNKNOWN_SUBMISSION, submissionId));
+        }
+        List<ComparisonReport> comparisons = new ArrayList<>(comparisonFiles.size());
+        for (String fileName : comparisonFiles.values()) {
+            comparisons.add(getComparisonByFileName(fileName));
+        }
+        comparisons.sort(Comparator.comparingDouble((ComparisonReport it) -> it.similarities().get(SimilarityMetric.AVG.name())).reversed());
+        return comparisons;
+    }
+
+    /**
+     * Returns the comparison of two submissions, if it was exported to the report.
+     * @param firstSubmissionId is the id of one submission.
+     * @param secondSubmissionId is the id of the other submission.
+     * @return the comparison or <code>null</code> if the report does not contain it.
+     * @throws IOException if the comparison file cannot be read.
+     */
+    public ComparisonReport getComparison(String firstSubmissionId, String secondSubmissionId) throws IOException {
+        Map<String, String> comparisonFiles = getSubmissionMappings().submissionIdsToComparisonFileName().get(firstSubmissionId);
+        if (comparisonFiles == null || !comparisonFiles.containsKey(secondSubmissionId)) {
+            return null;
+        }
+        return getComparisonByFileName(comparisonFiles.get(secondSubmissionId));
+    }
+
+    /**
+     * Returns the similarity histogram of the given metric. It has 100 buckets with the ranges 0: [0%, 1%), 1: [1%, 2%),
+     * ..., 99: [99%, 100%].
+     * @param metric is the metric of the histogram. It must be one of the metrics exported to the report.
+     * @return the number of comparisons per bucket.
+     * @throws IOException if the distribution cannot be read.
+     */
+    public synchronized int[] getDistribution(SimilarityMetric metric) throws IOException {
+        if (distributions == null) {
+            JavaType type = objectMapper.getTypeFactory().constructMapType(Map.class, objectMapper.constructType(String.class),
+                    objectMapper.getTypeFactory().constructCollectionType(List.class, Integer.class));
+            distributions = readEntry(ReportObjectFactory.DISTRIBUTION_FILE_NAME, type);
+        }
+        List<Integer> distribution = distributions.get(metric.name());
+        if (distribution == null) {
+            throw new IllegalArgumentException(String.format(UNEXPORTED_METRIC, metric.name()));
+        }
+        return distribution.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        comparisonCache.clear();
+        archive.close();
+    }
+
+    private synchronized ComparisonReport getComparisonByFileName(String fileName) throws IOException {
+        ComparisonReport comparison = comparisonCache.get(fileName);
+        if (comparison == null) {
+            comparison = readEntry(Path.of(ComparisonReportWriter.BASEPATH, fileName), objectMapper.constructType(ComparisonReport.class));
+            comparisonCache.put(fileName, comparison);
+        }
+        return comparison;
+    }
+
+    private synchronized SubmissionMappings getSubmissionMappings() throws IOException {
+        if (submissionMappings == null) {
+            submissionMappings = readEntry(ReportObjectFactory.SUBMISSION_MAPPINGS_FILE_NAME, objectMapper.constructType(SubmissionMappings.class));
+        }
+        return submissionMappings;
+    }
+
+    private List<TopComparison> sortTopComparisons(SimilarityMetric metric) throws IOException {
+        if (topComparisons == null) {
+            JavaType type = objectMapper.getTypeFactory().constructCollectionType(List.class, TopComparison.class);
+            topComparisons = readEntry(ReportObjectFactory.TOP_COMPARISONS_FILE_NAME, type);
+        }
+        if (!topComparisons.isEmpty() && !topComparisons.get(0).similarities().containsKey(metric.name())) {
+            throw new IllegalArgumentException(String.format(UNEXPORTED_METRIC, metric.name()));
+        }
+        List<TopComparison> sorted = new ArrayList<>(topComparisons);
+        sorted.sort(Comparator.comparingDouble((TopComparison it) -> it.similarities().get(metric.name())).reversed());
+        return Collections.unmodifiableList(sorted);
+    }
+
+    private <T> T readEntry(Path path, JavaType type) throws IOException {
+        String entryName = FilePathUtil.pathAsZipPath(path);
+        ZipEntry entry = archive.getEntry(entryName);
+        if (entry == null) {
+            throw new FileNotFoundException(String.format(MISSING_ENTRY, reportFile.getName(), entryName));
+        }
+        try (InputStream inputStream = archive.getInputStream(entry)) {
+            return objectMapper.readValue(inputStream, type);
+        }
+    }
+}
@@ -32,7 +32,7 @@ public class ComparisonReportWriter {
     private final Map<String, AtomicInteger> fileNameCollisions = new ConcurrentHashMap<>();
     public static final String BASEPATH = "comparisons";
     private static final SimilarityMetric[] EXPORTED_SIMILARITY_METRICS = new SimilarityMetric[] {SimilarityMetric.AVG, SimilarityMetric.MAX,
-            SimilarityMetric.LONGEST_MATCH, SimilarityMetric.MAXIMUM_LENGTH};
+            SimilarityMetric.LONGEST_MATCH, SimilarityMetric.MAXIMUM_LENGTH, SimilarityMetric.COMMENTS};
 
     public ComparisonReportWriter(Function<Submission, String> submissionToIdFunction, JPlagResultWriter resultWriter) {
         this.submissionToIdFunction = submissionToIdFunction;
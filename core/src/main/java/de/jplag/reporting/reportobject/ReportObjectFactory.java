@@ -10,6 +10,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -22,6 +23,9 @@ import de.jplag.JPlagComparison;
 import de.jplag.JPlagResult;
 import de.jplag.Language;
 import de.jplag.Submission;
+import de.jplag.metrics.JPlagMetrics;
+import de.jplag.metrics.PipelineStage;
+import de.jplag.metrics.StageTimer;
 import de.jplag.options.JPlagOptions;
 import de.jplag.reporting.FilePathUtil;
 import de.jplag.reporting.jsonfactory.BaseCodeReportWriter;
@@ -30,6 +34,7 @@ import de.jplag.reporting.reportobject.mapper.ClusteringResultMapper;
 import de.jplag.reporting.reportobject.mapper.MetricMapper;
 import de.jplag.reporting.reportobject.model.Cluster;
 import de.jplag.reporting.reportobject.model.FailedSubmission;
+import de.jplag.reporting.reportobject.model.PipelineMetrics;
 import de.jplag.reporting.reportobject.model.RunInformation;
 import de.jplag.reporting.reportobject.model.SubmissionFile;
 import de.jplag.reporting.reportobject.model.SubmissionFileIndex;
@@ -53,6 +58,7 @@ public class ReportObjectFactory {
     public static final Path SUBMISSION_MAPPINGS_FILE_NAME = Path.of("submissionMappings.json");
     public static final Path README_FILE_NAME = Path.of("README.txt");
     public static final Path OPTIONS_FILE_NAME = Path.of("options.json");
+    public static final Path METRICS_FILE_NAME = Path.of("metrics.json");
     private static final String[] README_CONTENT = new String[] {"This is a software plagiarism report generated by JPlag.",
             "To view the report first get the newest version of JPlag from https://github.com/jplag/JPlag/releases/latest.",
             "Start the jar using 'java -jar jarname'. This opens a locally hosted website where you can drag this report onto the page."};
@@ -91,22 +97,27 @@ public class ReportObjectFactory {
      */
     public void createAndSaveReport(JPlagResult result) {
         logger.info("Start writing report...");
-        buildSubmissionToIdMap(result);
+        JPlagMetrics metrics = result.getMetrics();
+        try (StageTimer timer = metrics.startStage(PipelineStage.REPORT_WRITING)) {
+            buildSubmissionToIdMap(result);
 
-        copySubmissionFilesToReport(result);
+            copySubmissionFilesToReport(result);
 
-        writeComparisons(result);
+            writeComparisons(result);
 
-        writeRunInformation(result);
-        writeDistribution(result);
-        writeTopComparisons(result);
-        writeCluster(result);
-        writeSubmissionMappings();
+            writeRunInformation(result);
+            writeDistribution(result);
+            writeTopComparisons(result);
+            writeCluster(result);
+            writeSubmissionMappings();
 
-        writeSubmissionIndexFile(result);
-        writeReadMeFile();
-        writeOptionsFiles(result.getOptions());
-        writeBaseCodeReport(result);
+            writeSubmissionIndexFile(result);
+            writeReadMeFile();
+            writeOptionsFiles(result.getOptions());
+            writeBaseCodeReport(result);
+            timer.addItems(result.getAllComparisons().size());
+        }
+        writeMetrics(metrics); // written last to include the report writing stage
 
         this.resultWriter.close();
     }
@@ -126,8 +137,12 @@ public class ReportObjectFactory {
                 Path filePath = FilePathUtil.getRelativeSubmissionPath(file, submission, submissionToIdFunction);
                 Path resultPath = SUBMISSIONS_ROOT_PATH.resolve(filePath);
 
-                File fileToCopy = getFileToCopy(language, file);
-                this.resultWriter.addFileContentEntry(resultPath, fileToCopy);
+                Optional<String> view = submission.getView(file);
+                if (view.isPresent()) {
+                    this.resultWriter.writeStringEntry(view.get(), resultPath);
+                } else {
+                    this.resultWriter.addFileContentEntry(resultPath, getFileToCopy(language, file));
+                }
             }
         }
     }
@@ -176,6 +191,12 @@ public class ReportObjectFactory {
         this.resultWriter.addJsonEntry(mappings, SUBMISSION_MAPPINGS_FILE_NAME);
     }
 
+    private void writeMetrics(JPlagMetrics metrics) {
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(metrics.getStages(), metrics.getParseTimeHistograms(), metrics.getSlowestSubmissions(),
+                metrics.getSlowestComparisons(), metrics.getMostExpensiveSubmissions());
+        this.resultWriter.addJsonEntry(pipelineMetrics, METRICS_FILE_NAME);
+    }
+
     private void writeReadMeFile() {
         this.resultWriter.writeStringEntry(String.join(System.lineSeparator(), README_CONTENT), README_FILE_NAME);
     }
@@ -17,7 +17,7 @@ import de.jplag.reporting.reportobject.model.TopComparison;
 public class MetricMapper {
     private final Function<Submission, String> submissionToIdFunction;
     private static final SimilarityMetric[] EXPORTED_COMPARISON_METRICS = new SimilarityMetric[] {SimilarityMetric.AVG, SimilarityMetric.MAX,
-            SimilarityMetric.LONGEST_MATCH, SimilarityMetric.MAXIMUM_LENGTH};
+            SimilarityMetric.LONGEST_MATCH, SimilarityMetric.MAXIMUM_LENGTH, SimilarityMetric.COMMENTS};
     private static final SimilarityMetric[] EXPORTED_DISTRIBUTION_METRICS = new SimilarityMetric[] {SimilarityMetric.AVG, SimilarityMetric.MAX};
 
     public MetricMapper(Function<Submission, String> submissionToIdFunction) {
@@ -0,0 +1,21 @@
+package de.jplag.reporting.reportobject.model;
+
+import java.util.List;
+import java.util.Map;
+
+import de.jplag.metrics.ComparisonTiming;
+import de.jplag.metrics.HistogramBucket;
+import de.jplag.metrics.StageMetrics;
+import de.jplag.metrics.SubmissionCost;
+import de.jplag.metrics.SubmissionTiming;
+
+public record PipelineMetrics(List<StageMetrics> stages,
+
+        Map<String, List<HistogramBucket>> parseTimeHistograms,
+
+        List<SubmissionTiming> slowestSubmissions,
+
+        List<ComparisonTiming> slowestComparisons,
+
+        List<SubmissionCost> mostExpensiveSubmissions) {
+}
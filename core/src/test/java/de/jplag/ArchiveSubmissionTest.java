@@ -0,0 +1,175 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.exceptions.RootDirectoryException;
+
+/**
+ * Tests that submissions and root directories can be given as zip and tar archives.
+ */
+class ArchiveSubmissionTest extends TestBase {
+
+    private static final String SAMPLE_NAME = "SimpleDuplicate";
+    private static final String FILE_NAME = "SimpleDuplicate.java";
+
+    @TempDir
+    private Path tempDirectory;
+
+    @Test
+    void testArchivedSubmissions() throws IOException, ExitException {
+        Path root = Files.createDirectory(tempDirectory.resolve("root"));
+        writeZip(root.resolve("A.zip"), "A/" + FILE_NAME, sampleFile("A"));
+        writeTar(root.resolve("B.tar.gz"), FILE_NAME, sampleFile("B"), true);
+
+        JPlagResult expected = runJPlagWithDefaultOptions(SAMPLE_NAME);
+        JPlagResult result = runJPlag(List.of(root.toString()), it -> it);
+
+        assertEquals(2, result.getSubmissions().numberOfSubmissions());
+        assertEquals(List.of("A", "B"), result.getSubmissions().getSubmissions().stream().map(Submission::getName).sorted().toList());
+        assertEquals(1, result.getAllComparisons().size());
+        assertEquals(expected.getAllComparisons().getFirst().similarity(), result.getAllComparisons().getFirst().similarity(), DELTA);
+    }
+
+    @Test
+    void testArchivedRootDirectory() throws IOException, ExitException {
+        Path archive = tempDirectory.resolve("root.tar");
+        try (OutputStream output = Files.newOutputStream(archive)) {
+            ByteArrayOutputStream tar = new ByteArrayOutputStream();
+            writeTarEntry(tar, "A/" + FILE_NAME, sampleFile("A"), '0');
+            writeTarEntry(tar, "B/" + FILE_NAME, sampleFile("B"), '0');
+            tar.write(new byte[1024]);
+            output.write(tar.toByteArray());
+        }
+
+        JPlagResult result = runJPlag(List.of(archive.toString()), it -> it);
+
+        assertEquals(List.of("A", "B"), result.getSubmissions().getSubmissions().stream().map(Submission::getName).sorted().toList());
+        assertEquals(1, result.getAllComparisons().size());
+    }
+
+    @Test
+    void testClosingTheResultDeletesExpandedArchives() throws IOException, ExitException {
+        Path root = Files.createDirectory(tempDirectory.resolve("root"));
+        writeZip(root.resolve("A.zip"), "A/" + FILE_NAME, sampleFile("A"));
+        writeZip(root.resolve("B.zip"), "B/" + FILE_NAME, sampleFile("B"));
+
+        JPlagResult result = runJPlag(List.of(root.toString()), it -> it);
+        List<File> expandedRoots = result.getSubmissions().getSubmissions().stream().map(Submission::getRoot).toList();
+        assertTrue(expandedRoots.stream().allMatch(File::exists));
+
+        result.close();
+        assertTrue(expandedRoots.stream().noneMatch(File::exists));
+    }
+
+    @Test
+    void testPaxPathIsUsed() throws IOException, ExitException {
+        Path archive = tempDirectory.resolve("root.tar");
+        String longDirectory = "a-directory-name-that-does-not-fit-into-the-name-field-of-a-tar-header-".repeat(2);
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeTarEntry(tar, "PaxHeaders/A", paxRecord("path", "A/" + longDirectory + "/" + FILE_NAME), 'x');
+        writeTarEntry(tar, "A/truncated", sampleFile("A"), '0');
+        writeTarEntry(tar, "B/" + FILE_NAME, sampleFile("B"), '0');
+        tar.write(new byte[1024]);
+        Files.write(archive, tar.toByteArray());
+
+        JPlagResult result = runJPlag(List.of(archive.toString()), it -> it);
+
+        assertEquals(1, result.getAllComparisons().size());
+        Submission submission = result.getSubmissions().getSubmissions().stream().filter(it -> it.getName().equals("A")).findFirst().orElseThrow();
+        assertEquals(List.of(FILE_NAME), submission.getFiles().stream().map(File::getName).toList());
+    }
+
+    @Test
+    void testGlobalPaxPathIsRejected() throws IOException {
+        Path archive = tempDirectory.resolve("root.tar");
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeTarEntry(tar, "PaxHeaders/global", paxRecord("path", "C/" + FILE_NAME), 'g');
+        writeTarEntry(tar, "A/" + FILE_NAME, sampleFile("A"), '0');
+        writeTarEntry(tar, "B/" + FILE_NAME, sampleFile("B"), '0');
+        tar.write(new byte[1024]);
+        Files.write(archive, tar.toByteArray());
+
+        assertThrows(RootDirectoryException.class, () -> runJPlag(List.of(archive.toString()), it -> it));
+    }
+
+    private static byte[] paxRecord(String key, String value) {
+        String record = " " + key + "=" + value + "\n";
+        int length = record.length() + String.valueOf(record.length()).length();
+        if (String.valueOf(length).length() > String.valueOf(record.length()).length()) {
+            length++;
+        }
+        return (length + record).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] sampleFile(String submission) throws IOException {
+        return Files.readAllBytes(Path.of(getBasePath(SAMPLE_NAME, submission, FILE_NAME)));
+    }
+
+    private static void writeZip(Path archive, String entryName, byte[] content) throws IOException {
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(archive))) {
+            output.putNextEntry(new ZipEntry(entryName));
+            output.write(content);
+            output.closeEntry();
+        }
+    }
+
+    private static void writeTar(Path archive, String entryName, byte[] content, boolean compressed) throws IOException {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeTarEntry(tar, entryName, content, '0');
+        tar.write(new byte[1024]); // two empty records mark the end of the archive
+        try (OutputStream output = compressed ? new GZIPOutputStream(Files.newOutputStream(archive)) : Files.newOutputStream(archive)) {
+            output.write(tar.toByteArray());
+        }
+    }
+
+    /**
+     * Writes a minimal ustar entry of the given type.
+     */
+    private static void writeTarEntry(ByteArrayOutputStream tar, String entryName, byte[] content, char type) throws IOException {
+        byte[] header = new byte[512];
+        putField(header, 0, 100, entryName);
+        putField(header, 100, 8, "0000644");
+        putField(header, 108, 8, "0000000");
+        putField(header, 116, 8, "0000000");
+        putField(header, 124, 12, String.format("%011o", content.length));
+        putField(header, 136, 12, String.format("%011o", 0));
+        header[156] = (byte) type;
+        putField(header, 257, 6, "ustar");
+        putField(header, 263, 2, "00");
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        int checksum = 0;
+        for (byte value : header) {
+            checksum += value & 0xFF;
+        }
+        putField(header, 148, 8, String.format("%06o", checksum));
+        tar.write(header);
+        tar.write(content);
+        int padding = (512 - content.length % 512) % 512;
+        tar.write(new byte[padding]);
+    }
+
+    private static void putField(byte[] header, int offset, int length, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, Math.min(bytes.length, length));
+    }
+}
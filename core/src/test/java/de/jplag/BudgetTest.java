@@ -0,0 +1,283 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.exceptions.LanguageException;
+import de.jplag.exceptions.SubmissionException;
+import de.jplag.metrics.SubmissionCost;
+import de.jplag.options.BudgetOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Tests the cost accounting, the token and file size budgets, and the parse deadlines of submissions.
+ */
+class BudgetTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+    private static final int NUMBER_OF_SUBMISSIONS = 5;
+    private static final String SLOW_SUBMISSION = "slow";
+    private static final int SLOW_METHODS = 1000;
+    private static final List<String> MEDIUM_SUBMISSIONS = List.of("medium0", "medium1");
+    private static final int MEDIUM_METHODS = 50;
+    private static final int NUMBER_OF_FAST_SUBMISSIONS = 10;
+    private static final String FAST_CLASS = """
+            class Fast {
+                private int count;
+
+                int next(int step) {
+                    for (int i = 0; i < step; i++) {
+                        count += %d;
+                    }
+                    return count;
+                }
+            }
+            """;
+
+    @Test
+    void testSubmissionsOverTokenBudgetAreSkipped() throws ExitException {
+        List<Submission> submissions = runJPlagWithDefaultOptions(SAMPLE_NAME).getSubmissions().getSubmissions();
+        int budget = submissions.stream().mapToInt(Submission::getNumberOfTokens).max().orElseThrow() - 1;
+        Set<String> expectedNames = submissions.stream().filter(it -> it.getNumberOfTokens() > budget).map(Submission::getName)
+                .collect(Collectors.toSet());
+
+        JPlagResult result = runJPlag(SAMPLE_NAME, it -> it.withBudgetOptions(new BudgetOptions().withTokenBudget(budget)));
+
+        List<Submission> invalidSubmissions = result.getSubmissions().getInvalidSubmissions();
+        assertEquals(expectedNames, invalidSubmissions.stream().map(Submission::getName).collect(Collectors.toSet()));
+        assertTrue(invalidSubmissions.stream().allMatch(it -> it.getState() == SubmissionState.OVER_BUDGET));
+        assertEquals(NUMBER_OF_SUBMISSIONS - expectedNames.size(), result.getNumberOfSubmissions());
+    }
+
+    @Test
+    void testSubmissionOverTokenBudgetIsTruncated() throws ExitException {
+        Submission largest = findLargestSubmission();
+        int budget = largest.getNumberOfTokens() - 1;
+
+        JPlagResult result = runJPlag(SAMPLE_NAME,
+                it -> it.withBudgetOptions(new BudgetOptions().withTokenBudget(budget).withTruncateOverBudget(true)));
+
+        assertEquals(NUMBER_OF_SUBMISSIONS, result.getNumberOfSubmissions());
+        Submission truncated = result.getSubmissions().getSubmissions().stream().filter(it -> it.getName().equals(largest.getName())).findFirst()
+                .orElseThrow();
+        assertEquals(budget, truncated.getNumberOfTokens());
+        assertEquals(SharedTokenType.FILE_END, truncated.getTokenList().getLast().getType());
+    }
+
+    @Test
+    void testSubmissionsOverFileSizeBudgetAreSkipped() throws ExitException {
+        List<Submission> submissions = runJPlagWithDefaultOptions(SAMPLE_NAME).getSubmissions().getSubmissions();
+        long budget = submissions.stream().flatMap(it -> it.getFiles().stream()).mapToLong(File::length).max().orElseThrow() - 1;
+        Set<String> expectedNames = submissions.stream().filter(it -> it.getFiles().stream().anyMatch(file -> file.length() > budget))
+                .map(Submission::getName).collect(Collectors.toSet());
+
+        JPlagResult result = runJPlag(SAMPLE_NAME, it -> it.withBudgetOptions(new BudgetOptions().withFileSizeBudget(budget)));
+
+        List<Submission> invalidSubmissions = result.getSubmissions().getInvalidSubmissions();
+        assertEquals(expectedNames, invalidSubmissions.stream().map(Submission::getName).collect(Collectors.toSet()));
+        assertTrue(invalidSubmissions.stream().allMatch(it -> it.getState() == SubmissionState.OVER_BUDGET));
+    }
+
+    @Test
+    void testParseDeadlineInterruptsParsingThread() {
+        ParseDeadline deadline = new ParseDeadline(0.01);
+        assertThrows(InterruptedException.class, () -> Thread.sleep(10_000));
+        deadline.close();
+
+        assertTrue(deadline.hasExpired());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void testClosedParseDeadlineDoesNotExpire() throws InterruptedException {
+        ParseDeadline deadline = new ParseDeadline(0.1);
+        deadline.close();
+        Thread.sleep(200);
+
+        assertFalse(deadline.hasExpired());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void testSubmissionsOverParseTimeBudgetAreSkipped() {
+        assertThrows(SubmissionException.class,
+                () -> runJPlag(SAMPLE_NAME, it -> it.withBudgetOptions(new BudgetOptions().withParseTimeBudget(Double.MIN_VALUE))));
+    }
+
+    @Test
+    void testParsersIgnoringTheDeadlineAreAbandoned() throws ExitException {
+        CountDownLatch release = new CountDownLatch(1);
+        File hungFile = new File("Hung.java");
+        Language language = new HangingLanguage(hungFile, release);
+        Submission hung = new Submission("hung", hungFile, true, List.of(hungFile), language);
+        JPlagOptions options = new JPlagOptions(language, Set.of(), Set.of()).withBudgetOptions(new BudgetOptions().withParseTimeBudget(0.1));
+
+        try (SubmissionSet submissionSet = new SubmissionSet(List.of(hung), null, options)) {
+            assertEquals(SubmissionState.TIMED_OUT, hung.getState());
+            assertEquals(List.of(hung), submissionSet.getInvalidSubmissions());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testOnlySlowSubmissionOfBatchTimesOut(@TempDir Path directory) throws IOException, ExitException {
+        for (String name : MEDIUM_SUBMISSIONS) {
+            writeSubmission(directory, name, largeClass(MEDIUM_METHODS));
+        }
+        JPlagOptions mediumOptions = getOptions(List.of(directory.toString()), it -> it);
+        long mediumParseNanos = 0;
+        for (int run = 0; run < 2; run++) { // the second run is measured, as the first one warms up javac
+            try (SubmissionSet submissionSet = new SubmissionSetBuilder(mediumOptions).buildSubmissionSet()) {
+                mediumParseNanos = submissionSet.getSubmissions().stream().mapToLong(Submission::getParseDuration).max().orElseThrow();
+            }
+        }
+
+        // the fast submissions wait in the queue of the javac batches behind the others, but only their own parsing counts:
+        writeSubmission(directory, SLOW_SUBMISSION, largeClass(SLOW_METHODS));
+        for (int i = 0; i < NUMBER_OF_FAST_SUBMISSIONS; i++) {
+            writeSubmission(directory, "fast" + i, FAST_CLASS.formatted(i));
+        }
+        double budget = 2 * mediumParseNanos / 1e9;
+        JPlagOptions options = getOptions(List.of(directory.toString()), it -> it.withBudgetOptions(new BudgetOptions().withParseTimeBudget(budget)));
+        try (SubmissionSet submissionSet = new SubmissionSetBuilder(options).buildSubmissionSet()) {
+            List<Submission> invalidSubmissions = submissionSet.getInvalidSubmissions();
+            assertEquals(List.of(SLOW_SUBMISSION), invalidSubmissions.stream().map(Submission::getName).toList(),
+                    invalidSubmissions.stream().map(it -> it.getName() + ": " + it.getState()).toList()::toString);
+            assertEquals(SubmissionState.TIMED_OUT, invalidSubmissions.getFirst().getState());
+            assertEquals(MEDIUM_SUBMISSIONS.size() + NUMBER_OF_FAST_SUBMISSIONS, submissionSet.numberOfSubmissions());
+        }
+    }
+
+    @Test
+    void testBlockedParserDoesNotPinItsCarrierThread() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        File hungFile = new File("Hung.java");
+        File regularFile = new File("Regular.java");
+        Language language = new HangingLanguage(hungFile, release);
+        Submission hung = new Submission("hung", hungFile, true, List.of(hungFile), language);
+        Submission regular = new Submission("regular", regularFile, true, List.of(regularFile), language);
+
+        try {
+            Thread hungThread = Thread.ofVirtual().start(() -> parseIfUnparsed(hung));
+            while (hungThread.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            // with a single carrier thread, the regular submission is only parsed if the hung one does not pin it:
+            Thread regularThread = Thread.ofVirtual().start(() -> parseIfUnparsed(regular));
+            assertTrue(regularThread.join(Duration.ofSeconds(10)));
+            assertEquals(SubmissionState.VALID, regular.getState());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testCostAccounting() throws ExitException {
+        JPlagResult result = runJPlag(SAMPLE_NAME, it -> it.withBudgetOptions(new BudgetOptions().withCostAccounting(true)));
+
+        List<SubmissionCost> costs = result.getMetrics().getMostExpensiveSubmissions();
+        assertEquals(NUMBER_OF_SUBMISSIONS, costs.size());
+        for (SubmissionCost cost : costs) {
+            assertEquals(NUMBER_OF_SUBMISSIONS - 1, cost.comparisons());
+            assertTrue(cost.parseTimeMillis() > 0);
+        }
+        assertTrue(costs.stream().anyMatch(it -> it.candidateVerifications() > 0));
+        assertTrue(costs.getFirst().totalTimeMillis() >= costs.getLast().totalTimeMillis());
+    }
+
+    @Test
+    void testNoCostAccountingByDefault() throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions(SAMPLE_NAME);
+        assertTrue(result.getMetrics().getMostExpensiveSubmissions().isEmpty());
+    }
+
+    /**
+     * Language whose parser does not stop at the deadline for the hung file, until it is released.
+     */
+    private record HangingLanguage(File hungFile, CountDownLatch release) implements Language {
+        @Override
+        public List<String> fileExtensions() {
+            return List.of(".java");
+        }
+
+        @Override
+        public String getName() {
+            return "hanging";
+        }
+
+        @Override
+        public String getIdentifier() {
+            return "hanging";
+        }
+
+        @Override
+        public int minimumTokenMatch() {
+            return 1;
+        }
+
+        @Override
+        public List<Token> parse(Set<File> files, boolean normalize) {
+            if (!files.contains(hungFile)) {
+                return List.of(Token.fileEnd(files.iterator().next()));
+            }
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException exception) {
+                    // ignores the deadline
+                }
+            }
+            return List.of(Token.fileEnd(hungFile));
+        }
+    }
+
+    private static void writeSubmission(Path directory, String name, String content) throws IOException {
+        Path submission = Files.createDirectory(directory.resolve(name));
+        Files.writeString(submission.resolve("Submission.java"), content);
+    }
+
+    /**
+     * @return a class that takes a while to parse, with the given number of methods of 100 statements each.
+     */
+    private static String largeClass(int methods) {
+        StringBuilder content = new StringBuilder("class Large {\n");
+        for (int method = 0; method < methods; method++) {
+            content.append("void method").append(method).append("() {\n");
+            for (int i = 1; i <= 100; i++) {
+                content.append("int v%d = %d * %d + v%d;\n".formatted(i, i, method, i - 1));
+            }
+            content.append("}\n");
+        }
+        return content.append("}\n").toString();
+    }
+
+    private static void parseIfUnparsed(Submission submission) {
+        try {
+            submission.parseIfUnparsed(false, false, 1, false, new BudgetOptions());
+        } catch (LanguageException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private Submission findLargestSubmission() throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions(SAMPLE_NAME);
+        return result.getSubmissions().getSubmissions().stream().max(Comparator.comparingInt(Submission::getNumberOfTokens)).orElseThrow();
+    }
+}
@@ -0,0 +1,75 @@
+package de.jplag.calibration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.Submission;
+import de.jplag.SubmissionSetBuilder;
+import de.jplag.TestBase;
+import de.jplag.comparison.SubmissionTuple;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.SimilarityMetric;
+
+/**
+ * Tests the calibration of the minimum token match.
+ */
+class MinimumMatchCalibrationTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+    private static final int NUMBER_OF_PAIRS = 10;
+    private static final List<Integer> VALUES = List.of(12, 6, 9, 6);
+
+    @Test
+    void testCalibrationMatchesRegularRuns() throws ExitException {
+        List<CalibrationResult> results = new MinimumMatchCalibration(getDefaultOptions(SAMPLE_NAME), NUMBER_OF_PAIRS).calibrate(VALUES);
+
+        assertEquals(List.of(12, 6, 9), results.stream().map(CalibrationResult::minimumTokenMatch).toList());
+        for (CalibrationResult calibration : results) {
+            JPlagResult result = runJPlag(SAMPLE_NAME, it -> it.withMinimumTokenMatch(calibration.minimumTokenMatch()));
+            double maximum = result.getAllComparisons().stream().mapToDouble(JPlagComparison::similarity).max().orElseThrow();
+
+            assertEquals(NUMBER_OF_PAIRS, calibration.comparedPairs());
+            assertEquals(result.calculateDistributionFor(SimilarityMetric.AVG), calibration.similarityDistribution());
+            assertEquals(maximum, calibration.maximumSimilarity(), DELTA);
+            assertTrue(calibration.medianSimilarity() <= calibration.percentile90Similarity());
+        }
+    }
+
+    @Test
+    void testSampleIsBoundedAndDeterministic() throws ExitException {
+        List<Submission> submissions = new SubmissionSetBuilder(getDefaultOptions(SAMPLE_NAME)).buildSubmissionSet().getSubmissions();
+        int sampleSize = NUMBER_OF_PAIRS - 2; // more than the strata of single submissions provide
+
+        List<SubmissionTuple> sample = new StratifiedPairSampler(1).sample(submissions, sampleSize);
+
+        assertEquals(sampleSize, sample.size());
+        assertEquals(sampleSize, new HashSet<>(sample).size());
+        assertEquals(names(sample), names(new StratifiedPairSampler(1).sample(submissions, sampleSize)));
+        assertEquals(NUMBER_OF_PAIRS, new StratifiedPairSampler(1).sample(submissions, NUMBER_OF_PAIRS + 1).size());
+    }
+
+    @Test
+    void testDefaultValuesRangeFromHalfToTwiceTheDefault() {
+        assertEquals(List.of(6, 9, 12, 15, 18, 21, 24), MinimumMatchCalibration.defaultValuesFor(12));
+        assertEquals(List.of(1, 2), MinimumMatchCalibration.defaultValuesFor(1));
+    }
+
+    @Test
+    void testInvalidValuesAreRejected() {
+        MinimumMatchCalibration calibration = new MinimumMatchCalibration(getDefaultOptions(SAMPLE_NAME), NUMBER_OF_PAIRS);
+        assertThrows(IllegalArgumentException.class, () -> calibration.calibrate(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> calibration.calibrate(List.of(0, 9)));
+    }
+
+    private static List<String> names(List<SubmissionTuple> sample) {
+        return sample.stream().map(it -> it.left().getName() + "|" + it.right().getName()).collect(Collectors.toList());
+    }
+}
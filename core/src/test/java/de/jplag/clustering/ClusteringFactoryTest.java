@@ -0,0 +1,36 @@
+package de.jplag.clustering;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ClusteringFactoryTest {
+    private static final int SPARSE_SUBMISSION_THRESHOLD = 10;
+
+    private final ClusteringOptions options = new ClusteringOptions().withSparseSubmissionThreshold(SPARSE_SUBMISSION_THRESHOLD);
+
+    @Test
+    void testLargeCohortIsClusteredSparsely() {
+        assertTrue(ClusteringFactory.useSparseClustering(SPARSE_SUBMISSION_THRESHOLD, options));
+        assertFalse(ClusteringFactory.useSparseClustering(SPARSE_SUBMISSION_THRESHOLD - 1, options));
+    }
+
+    @Test
+    void testExplicitDefaultAlgorithmIsRespected() {
+        ClusteringOptions explicitOptions = options.withAlgorithm(options.algorithm());
+        assertFalse(ClusteringFactory.useSparseClustering(SPARSE_SUBMISSION_THRESHOLD, explicitOptions));
+    }
+
+    @Test
+    void testExplicitDefaultPreprocessorIsRespected() {
+        ClusteringOptions explicitOptions = options.withPreprocessor(options.preprocessor());
+        assertFalse(ClusteringFactory.useSparseClustering(SPARSE_SUBMISSION_THRESHOLD, explicitOptions));
+    }
+
+    @Test
+    void testOtherOptionsDoNotPreventSparseClustering() {
+        ClusteringOptions otherOptions = options.withSpectralMaxRuns(10).withEnabled(true);
+        assertTrue(ClusteringFactory.useSparseClustering(SPARSE_SUBMISSION_THRESHOLD, otherOptions));
+    }
+}
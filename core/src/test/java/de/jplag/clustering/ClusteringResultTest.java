@@ -3,6 +3,7 @@ package de.jplag.clustering;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
@@ -105,6 +106,44 @@ class ClusteringResultTest {
         assertEquals(1.0, cluster.getAverageSimilarity(), 0.00001);
     }
 
+    @Test
+    void sparseMatchesDense() {
+        var similarity = new Array2DRowRealMatrix(6, 6);
+
+        setEntries(similarity, 0, 1, 0.5);
+        setEntries(similarity, 0, 2, 0.3);
+        setEntries(similarity, 0, 4, 0.4);
+        setEntries(similarity, 1, 4, 0.3);
+        setEntries(similarity, 2, 3, 0.7);
+        setEntries(similarity, 2, 5, 0.9);
+        setEntries(similarity, 3, 4, 0.5);
+
+        List<Collection<Integer>> clustering = List.of(List.of(0, 1, 4), List.of(2, 3, 5));
+        var dense = new ArrayList<>(ClusteringResult.fromIntegerCollections(clustering, similarity).getClusters());
+        var sparse = new ArrayList<>(ClusteringResult.fromIntegerCollections(clustering, toSparse(similarity)).getClusters());
+
+        for (int i = 0; i < dense.size(); i++) {
+            assertEquals(dense.get(i).getCommunityStrength(), sparse.get(i).getCommunityStrength(), 0.00001);
+            assertEquals(dense.get(i).getAverageSimilarity(), sparse.get(i).getAverageSimilarity(), 0.00001);
+        }
+    }
+
+    private static SparseSimilarityMatrix toSparse(RealMatrix matrix) {
+        int size = matrix.getRowDimension();
+        int[] first = new int[size * size];
+        int[] second = new int[size * size];
+        double[] weights = new double[size * size];
+        int edges = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                first[edges] = i;
+                second[edges] = j;
+                weights[edges++] = matrix.getEntry(i, j);
+            }
+        }
+        return SparseSimilarityMatrix.fromEdges(size, first, second, weights, edges);
+    }
+
     private static void setEntries(RealMatrix matrix, int i, int j, double similarity) {
         matrix.setEntry(i, j, similarity);
         matrix.setEntry(j, i, similarity);
@@ -0,0 +1,65 @@
+package de.jplag.clustering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ModularityEvaluatorTest {
+    private static final double DELTA = 0.00001;
+    private static final int SIZE = 12;
+
+    private RealMatrix similarity;
+    private ModularityEvaluator evaluator;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        similarity = new Array2DRowRealMatrix(SIZE, SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = i + 1; j < SIZE; j++) {
+                double value = random.nextDouble();
+                similarity.setEntry(i, j, value);
+                similarity.setEntry(j, i, value);
+            }
+        }
+        evaluator = new ModularityEvaluator(similarity);
+    }
+
+    @Test
+    void assignmentMatchesClusteringResult() {
+        List<Collection<Integer>> clustering = List.of(List.of(0, 1, 2, 3), List.of(4, 5, 6), List.of(7, 8, 9, 10)); // 11 is unassigned
+        ClusteringResult<Integer> expected = ClusteringResult.fromIntegerCollections(clustering, similarity);
+        ModularityEvaluator.Assignment assignment = evaluator.assign(clustering);
+
+        assertEquals(expected.getCommunityStrength(), assignment.getCommunityStrength(), DELTA);
+        List<Cluster<Integer>> clusters = new ArrayList<>(expected.getClusters());
+        for (int i = 0; i < clusters.size(); i++) {
+            assertEquals(clusters.get(i).getCommunityStrength(), assignment.getCommunityStrength(i), DELTA);
+            assertEquals(clusters.get(i).getAverageSimilarity(), assignment.getAverageSimilarity(i), DELTA);
+        }
+        assertEquals(expected.getWorth(similarity::getEntry), assignment.getWorth(), DELTA);
+    }
+
+    @Test
+    void movesMatchFreshAssignment() {
+        ModularityEvaluator.Assignment assignment = evaluator.assign(List.of(List.of(0, 1, 2, 3), List.of(4, 5, 6, 7), List.of(8, 9, 10)));
+        assignment.move(3, 1); // between clusters
+        assignment.move(11, 2); // unassigned to assigned
+        assignment.move(0, -1); // assigned to unassigned
+
+        ModularityEvaluator.Assignment expected = evaluator.assign(List.of(List.of(1, 2), List.of(3, 4, 5, 6, 7), List.of(8, 9, 10, 11)));
+        for (int i = 0; i < expected.numberOfClusters(); i++) {
+            assertEquals(expected.getCommunityStrength(i), assignment.getCommunityStrength(i), DELTA);
+            assertEquals(expected.getAverageSimilarity(i), assignment.getAverageSimilarity(i), DELTA);
+        }
+        assertEquals(expected.getWorth(), assignment.getWorth(), DELTA);
+    }
+}
@@ -1,8 +1,22 @@
 package de.jplag.clustering.algorithm;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import de.jplag.clustering.ClusteringOptions;
 
 class AgglomerativeClusteringTest {
 
@@ -14,4 +28,61 @@ class AgglomerativeClusteringTest {
             testData.assertValid(result);
         }
     }
+
+    @ParameterizedTest
+    @EnumSource(InterClusterSimilarity.class)
+    void testEquivalentToGreedyMerging(InterClusterSimilarity linkage) {
+        Random random = new Random(42);
+        for (int run = 0; run < 20; run++) {
+            int size = 2 + random.nextInt(30);
+            RealMatrix similarity = new Array2DRowRealMatrix(size, size);
+            for (int i = 0; i < size; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    double value = random.nextDouble();
+                    similarity.setEntry(i, j, value);
+                    similarity.setEntry(j, i, value);
+                }
+            }
+            ClusteringOptions options = new ClusteringOptions().withAgglomerativeInterClusterSimilarity(linkage).withAgglomerativeThreshold(0.5);
+
+            Collection<Collection<Integer>> result = new AgglomerativeClustering(options).cluster(similarity);
+
+            assertEquals(toSets(greedyClustering(similarity, options)), toSets(result));
+        }
+    }
+
+    /**
+     * Reference implementation that always merges the globally most similar pair of clusters.
+     */
+    private static List<List<Integer>> greedyClustering(RealMatrix similarity, ClusteringOptions options) {
+        List<List<Integer>> clusters = new ArrayList<>();
+        for (int i = 0; i < similarity.getRowDimension(); i++) {
+            clusters.add(new ArrayList<>(List.of(i)));
+        }
+        while (clusters.size() > 1) {
+            int bestLeft = 0;
+            int bestRight = 1;
+            double best = Double.NEGATIVE_INFINITY;
+            for (int left = 0; left < clusters.size(); left++) {
+                for (int right = left + 1; right < clusters.size(); right++) {
+                    double value = options.agglomerativeInterClusterSimilarity().clusterSimilarity(clusters.get(left), clusters.get(right),
+                            similarity);
+                    if (value > best) {
+                        best = value;
+                        bestLeft = left;
+                        bestRight = right;
+                    }
+                }
+            }
+            if (best < options.agglomerativeThreshold()) {
+                break;
+            }
+            clusters.get(bestLeft).addAll(clusters.remove(bestRight));
+        }
+        return clusters;
+    }
+
+    private static Set<Set<Integer>> toSets(Collection<? extends Collection<Integer>> clusters) {
+        return clusters.stream().map(HashSet::new).collect(Collectors.toSet());
+    }
 }
@@ -1,6 +1,9 @@
 package de.jplag.clustering.algorithm;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.RealVector;
@@ -23,4 +26,22 @@ class BayesianOptimizationTest {
         }).getParams().getEntry(0);
         assertEquals(maximumAt, maximumPoint, 1);
     }
+
+    @Test
+    void findParabolaMaxInBatches() {
+        RealVector minima = new ArrayRealVector(new double[] {-20});
+        RealVector maxima = new ArrayRealVector(new double[] {10});
+        RealVector lengthScale = new ArrayRealVector(new double[] {5});
+        double maximumAt = 1;
+        AtomicInteger evaluations = new AtomicInteger();
+        BayesianOptimizer optimizer = new BayesianOptimizer(minima, maxima, 4, 16, 1.0 / 12.0, lengthScale, 4);
+        double maximumPoint = optimizer.maximize(v -> {
+            evaluations.incrementAndGet();
+            double val = v.getEntry(0);
+            double result = -(val - maximumAt) * (val - maximumAt);
+            return new BayesianOptimizer.OptimizationResult<>(result, result);
+        }).getParams().getEntry(0);
+        assertEquals(maximumAt, maximumPoint, 1);
+        assertTrue(evaluations.get() <= 16);
+    }
 }
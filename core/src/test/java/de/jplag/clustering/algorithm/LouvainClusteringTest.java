@@ -0,0 +1,55 @@
+package de.jplag.clustering.algorithm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.clustering.ClusteringOptions;
+import de.jplag.clustering.SparseSimilarityMatrix;
+
+class LouvainClusteringTest {
+
+    @Test
+    void test() {
+        for (ClusteringData testData : ClusteringData.values()) {
+            LouvainClustering clustering = new LouvainClustering(testData.getOptions());
+            Collection<Collection<Integer>> result = clustering.cluster(testData.getSimilarity());
+            testData.assertValid(result);
+        }
+    }
+
+    @Test
+    void testSparseCliques() {
+        int cliqueSize = 10;
+        int maximalEdges = cliqueSize * cliqueSize;
+        int[] first = new int[maximalEdges];
+        int[] second = new int[maximalEdges];
+        double[] weights = new double[maximalEdges];
+        int edges = 0;
+        for (int offset : new int[] {0, cliqueSize}) {
+            for (int i = 0; i < cliqueSize; i++) {
+                for (int j = i + 1; j < cliqueSize; j++) {
+                    first[edges] = offset + i;
+                    second[edges] = offset + j;
+                    weights[edges++] = 0.8;
+                }
+            }
+        }
+        first[edges] = 0;
+        second[edges] = cliqueSize;
+        weights[edges++] = 0.3;
+        SparseSimilarityMatrix similarity = SparseSimilarityMatrix.fromEdges(2 * cliqueSize, first, second, weights, edges);
+
+        Collection<Collection<Integer>> result = new LouvainClustering(new ClusteringOptions()).cluster(similarity);
+
+        Set<Set<Integer>> expected = Set.of(IntStream.range(0, cliqueSize).boxed().collect(Collectors.toSet()),
+                IntStream.range(cliqueSize, 2 * cliqueSize).boxed().collect(Collectors.toSet()));
+        assertEquals(expected, result.stream().map(HashSet::new).collect(Collectors.toSet()));
+    }
+}
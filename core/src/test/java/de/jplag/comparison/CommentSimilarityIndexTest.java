@@ -0,0 +1,46 @@
+package de.jplag.comparison;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.SimilarityMetric;
+
+class CommentSimilarityIndexTest extends TestBase {
+
+    @Test
+    void testCommentSimilarityIsAddedToComparisons() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> it.withAnalyzeComments(true));
+
+        for (JPlagComparison comparison : result.getAllComparisons()) {
+            assertTrue(comparison.commentSimilarity() >= 0 && comparison.commentSimilarity() <= 1, comparison.toString());
+            assertEquals(comparison.commentSimilarity(), SimilarityMetric.COMMENTS.applyAsDouble(comparison), DELTA);
+        }
+        assertTrue(result.getAllComparisons().stream().anyMatch(it -> it.commentSimilarity() > 0));
+    }
+
+    @Test
+    void testNoCommentSimilarityWithoutCommentAnalysis() throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions("PartialPlagiarism");
+        assertTrue(result.getAllComparisons().stream().allMatch(it -> it.commentSimilarity() == 0));
+    }
+
+    @Test
+    void testCommentMetricThreshold() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism",
+                it -> it.withAnalyzeComments(true).withSimilarityMetric(SimilarityMetric.COMMENTS).withSimilarityThreshold(0.5));
+        assertTrue(result.getAllComparisons().stream().allMatch(it -> it.commentSimilarity() >= 0.5));
+    }
+
+    @Test
+    void testCommentMetricEnablesCommentAnalysis() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> it.withSimilarityMetric(SimilarityMetric.COMMENTS));
+        assertTrue(result.getOptions().analyzeComments());
+        assertTrue(result.getAllComparisons().stream().anyMatch(it -> it.commentSimilarity() > 0));
+    }
+}
@@ -0,0 +1,58 @@
+package de.jplag.highlightextraction.frequencydetermination;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import de.jplag.JPlagResult;
+import de.jplag.SubmissionSet;
+import de.jplag.SubmissionSetBuilder;
+import de.jplag.TestBase;
+import de.jplag.TokenType;
+import de.jplag.comparison.LongestCommonSubsequenceSearch;
+import de.jplag.comparison.TokenSequenceMapper;
+import de.jplag.exceptions.ExitException;
+import de.jplag.highlightextraction.FrequencyDetermination;
+import de.jplag.highlightextraction.FrequencyStrategies;
+import de.jplag.highlightextraction.MatchFrequencyEngine;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Validates that the {@link MatchFrequencyEngine} yields the same frequencies as the {@link FrequencyDetermination} for
+ * all strategies. As the examples use testCode from "PartialPlagiarism" sample-folder.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MatchFrequencyEngineTest extends TestBase {
+    private JPlagResult result;
+    private TokenSequenceMapper tokenSequenceMapper;
+
+    @BeforeAll
+    void prepareMatchResult() throws ExitException {
+        JPlagOptions options = getDefaultOptions("PartialPlagiarism");
+        SubmissionSet submissionSet = new SubmissionSetBuilder(options).buildSubmissionSet();
+        result = new LongestCommonSubsequenceSearch(options).compareSubmissions(submissionSet);
+        tokenSequenceMapper = new TokenSequenceMapper(submissionSet);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"COMPLETE_MATCHES, 1", "CONTAINED_MATCHES, 100", "SUB_MATCHES, 100", "WINDOW_OF_MATCHES, 20"})
+    void testSameFrequenciesAsFrequencyDetermination(FrequencyStrategies strategy, int strategyNumber) {
+        FrequencyDetermination frequencyDetermination = new FrequencyDetermination(strategy.getStrategy(), strategyNumber);
+        frequencyDetermination.buildFrequencyMap(result.getAllComparisons());
+        MatchFrequencyEngine engine = new MatchFrequencyEngine(strategy, strategyNumber, tokenSequenceMapper);
+        engine.buildFrequencies(result.getAllComparisons());
+
+        Map<List<TokenType>, Integer> expectedFrequencies = frequencyDetermination.getMatchFrequencyMap();
+        assertFalse(expectedFrequencies.isEmpty(), "Map should not be empty");
+        for (Map.Entry<List<TokenType>, Integer> entry : expectedFrequencies.entrySet()) {
+            assertEquals(entry.getValue(), engine.frequencyOf(entry.getKey()), "Frequency differs for " + entry.getKey());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package de.jplag.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.JPlag;
+import de.jplag.JPlagResult;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.reporting.reportobject.ReportObjectFactory;
+
+class JPlagMetricsTest extends TestBase {
+    private static final String SAMPLE_NAME = "NoDuplicate";
+    private static final int NUMBER_OF_SUBMISSIONS = 3;
+    private static final int NUMBER_OF_PAIRS = 3;
+
+    @TempDir
+    private Path tempDirectory;
+
+    @Test
+    void testStagesOfRun() throws ExitException {
+        JPlagMetrics metrics = new JPlagMetrics();
+        List<StageMetrics> completedStages = new CopyOnWriteArrayList<>();
+        metrics.addListener(completedStages::add);
+
+        JPlagResult result = JPlag.run(getOptions(SAMPLE_NAME, it -> it.withSimilarityThreshold(0.5)), metrics);
+
+        assertSame(metrics, result.getMetrics());
+        List<PipelineStage> stages = metrics.getStages().stream().map(StageMetrics::stage).toList();
+        assertEquals(List.of(PipelineStage.LOADING, PipelineStage.PARSING, PipelineStage.TOKEN_MAPPING, PipelineStage.HASH_TABLE_BUILD,
+                PipelineStage.COMPARING, PipelineStage.CLUSTERING), stages);
+        assertEquals(stages.size(), completedStages.size());
+
+        StageMetrics parsing = metrics.getStage(PipelineStage.PARSING);
+        assertEquals(NUMBER_OF_SUBMISSIONS, parsing.items());
+        assertTrue(parsing.bytesRead() > 0);
+        assertTrue(parsing.cpuTimeMillis() >= 0); // timed as a stage of its own, not summed up from the parse times
+        assertEquals(List.of(PipelineStage.LOADING, PipelineStage.PARSING), completedStages.subList(0, 2).stream().map(StageMetrics::stage).toList());
+        assertEquals(NUMBER_OF_SUBMISSIONS, completedStages.get(0).items());
+        assertEquals(NUMBER_OF_SUBMISSIONS, completedStages.get(1).items());
+        assertEquals(NUMBER_OF_SUBMISSIONS, metrics.getStage(PipelineStage.HASH_TABLE_BUILD).items());
+
+        StageMetrics comparing = metrics.getStage(PipelineStage.COMPARING);
+        assertEquals(NUMBER_OF_PAIRS, comparing.items());
+        assertEquals(NUMBER_OF_PAIRS - result.getAllComparisons().size(), comparing.pairsPruned());
+        assertTrue(comparing.pairsPruned() > 0);
+
+        assertEquals(NUMBER_OF_PAIRS, metrics.getSlowestComparisons().size());
+        assertEquals(NUMBER_OF_SUBMISSIONS, metrics.getSlowestSubmissions().size());
+        List<HistogramBucket> histogram = metrics.getParseTimeHistograms().get(result.getOptions().language().getIdentifier());
+        assertNotNull(histogram);
+        assertEquals(NUMBER_OF_SUBMISSIONS, histogram.stream().mapToLong(HistogramBucket::count).sum());
+    }
+
+    @Test
+    void testSlowestComparisonsAreBounded() {
+        JPlagMetrics metrics = new JPlagMetrics();
+        for (int i = 1; i <= 20; i++) {
+            metrics.recordComparison("A" + i, "B" + i, i * 1_000_000L, i);
+        }
+
+        List<ComparisonTiming> slowest = metrics.getSlowestComparisons();
+        assertEquals(10, slowest.size());
+        assertEquals(new ComparisonTiming("A20", "B20", 20.0), slowest.getFirst());
+        assertEquals(new ComparisonTiming("A11", "B11", 11.0), slowest.getLast());
+    }
+
+    @Test
+    void testSlowestComparisonsOfConcurrentRecords() {
+        JPlagMetrics metrics = new JPlagMetrics();
+        IntStream.rangeClosed(1, 10_000).parallel().forEach(i -> metrics.recordComparison("A" + i, "B" + i, i * 1_000L, i));
+
+        List<Double> durations = metrics.getSlowestComparisons().stream().map(ComparisonTiming::durationMillis).toList();
+        assertEquals(IntStream.iterate(10_000, i -> i - 1).limit(10).mapToObj(i -> i / 1_000.0).toList(), durations);
+    }
+
+    @Test
+    void testReportContainsMetrics() throws ExitException, IOException {
+        JPlagResult result = runJPlagWithDefaultOptions(SAMPLE_NAME);
+        File report = tempDirectory.resolve("result.jplag").toFile();
+
+        new ReportObjectFactory(report).createAndSaveReport(result);
+
+        assertEquals(NUMBER_OF_PAIRS, result.getMetrics().getStage(PipelineStage.REPORT_WRITING).items());
+        try (ZipFile zipFile = new ZipFile(report)) {
+            assertNotNull(zipFile.getEntry(ReportObjectFactory.METRICS_FILE_NAME.toString()));
+        }
+        assertTrue(result.getMetrics().summary().contains(PipelineStage.REPORT_WRITING.getDescription()));
+    }
+}
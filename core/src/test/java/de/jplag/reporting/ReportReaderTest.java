@@ -0,0 +1,95 @@
+package de.jplag.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.JPlagResult;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.SimilarityMetric;
+import de.jplag.reporting.reportobject.ReportObjectFactory;
+import de.jplag.reporting.reportobject.model.ComparisonReport;
+import de.jplag.reporting.reportobject.model.TopComparison;
+
+class ReportReaderTest extends TestBase {
+    private static final String SAMPLE = "PartialPlagiarism";
+
+    @TempDir
+    static File temporaryDirectory;
+
+    private static File reportFile;
+    private static JPlagResult result;
+
+    @BeforeAll
+    static void writeReport() throws ExitException, IOException {
+        result = new ReportReaderTest().runJPlagWithDefaultOptions(SAMPLE);
+        reportFile = new File(temporaryDirectory, "result.jplag");
+        new ReportObjectFactory(reportFile).createAndSaveReport(result);
+    }
+
+    @Test
+    void testTopComparisonsAreSortedAndLimited() throws IOException {
+        try (ReportReader reader = new ReportReader(reportFile)) {
+            List<TopComparison> top = reader.getTopComparisons(SimilarityMetric.MAX, 3);
+            assertEquals(3, top.size());
+            for (int i = 1; i < top.size(); i++) {
+                assertTrue(top.get(i - 1).similarities().get("MAX") >= top.get(i).similarities().get("MAX"));
+            }
+            assertEquals(result.getAllComparisons().size(), reader.getTopComparisons(SimilarityMetric.AVG, Integer.MAX_VALUE).size());
+        }
+    }
+
+    @Test
+    void testComparisonsOfSubmission() throws IOException {
+        try (ReportReader reader = new ReportReader(reportFile, 1)) {
+            int submissions = reader.getSubmissionIds().size();
+            for (String submissionId : reader.getSubmissionIds()) {
+                List<ComparisonReport> comparisons = reader.getComparisonsOf(submissionId);
+                assertEquals(submissions - 1, comparisons.size());
+                assertTrue(comparisons.stream()
+                        .allMatch(it -> it.firstSubmissionId().equals(submissionId) || it.secondSubmissionId().equals(submissionId)));
+            }
+            assertThrows(IllegalArgumentException.class, () -> reader.getComparisonsOf("unknown"));
+        }
+    }
+
+    @Test
+    void testCommentSimilarityIsExported() throws ExitException, IOException {
+        JPlagResult commentResult = runJPlag(SAMPLE, it -> it.withAnalyzeComments(true));
+        File commentReportFile = new File(temporaryDirectory, "comments.jplag");
+        new ReportObjectFactory(commentReportFile).createAndSaveReport(commentResult);
+
+        try (ReportReader reader = new ReportReader(commentReportFile)) {
+            List<TopComparison> top = reader.getTopComparisons(SimilarityMetric.COMMENTS, Integer.MAX_VALUE);
+            assertEquals(commentResult.getAllComparisons().size(), top.size());
+            assertTrue(top.getFirst().similarities().get(SimilarityMetric.COMMENTS.name()) > 0);
+            for (TopComparison comparison : top) {
+                ComparisonReport report = reader.getComparison(comparison.firstSubmission(), comparison.secondSubmission());
+                assertEquals(comparison.similarities().get(SimilarityMetric.COMMENTS.name()),
+                        report.similarities().get(SimilarityMetric.COMMENTS.name()));
+            }
+        }
+    }
+
+    @Test
+    void testDistributionMatchesResult() throws IOException {
+        try (ReportReader reader = new ReportReader(reportFile)) {
+            int[] distribution = reader.getDistribution(SimilarityMetric.AVG);
+            assertEquals(result.getAllComparisons().size(), Arrays.stream(distribution).sum());
+            assertTrue(Arrays.equals(result.getSimilarityDistribution(), distribution));
+            assertFalse(reader.getRunInformation().failedSubmissions().iterator().hasNext());
+            assertThrows(IllegalArgumentException.class, () -> reader.getDistribution(SimilarityMetric.LONGEST_MATCH));
+        }
+    }
+}
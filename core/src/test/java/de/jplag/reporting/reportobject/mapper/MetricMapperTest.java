@@ -56,8 +56,10 @@ class MetricMapperTest {
         List<TopComparison> result = metricMapper.getTopComparisons(jPlagResult);
 
         // then
-        Assertions.assertEquals(List.of(new TopComparison("1", "2", Map.of("AVG", .7, "MAX", .8, "LONGEST_MATCH", 9.0, "MAXIMUM_LENGTH", 30.0)),
-                new TopComparison("3", "4", Map.of("AVG", .3, "MAX", .9, "LONGEST_MATCH", 23.0, "MAXIMUM_LENGTH", 202.0))), result);
+        Assertions.assertEquals(
+                List.of(new TopComparison("1", "2", Map.of("AVG", .7, "MAX", .8, "LONGEST_MATCH", 9.0, "MAXIMUM_LENGTH", 30.0, "COMMENTS", 0.0)),
+                        new TopComparison("3", "4", Map.of("AVG", .3, "MAX", .9, "LONGEST_MATCH", 23.0, "MAXIMUM_LENGTH", 202.0, "COMMENTS", 0.0))),
+                result);
     }
 
     private int[] distribution(List<Integer> expectedDistribution) {
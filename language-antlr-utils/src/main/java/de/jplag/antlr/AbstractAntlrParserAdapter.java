@@ -61,7 +61,7 @@ public abstract class AbstractAntlrParserAdapter<T extends Parser> {
         try (Reader reader = FileUtils.openFileReader(file, true)) {
             CodePointCharStream stream = CharStreams.fromReader(reader, file.getAbsolutePath());  // Specify source to retain file in ANTLR errors.
             Lexer lexer = this.createLexer(stream);
-            CommonTokenStream tokenStream = new CommonTokenStream(lexer);
+            CommonTokenStream tokenStream = new InterruptibleTokenStream(lexer);
             T parser = this.createParser(tokenStream);
             parser.removeErrorListeners();
             parser.addErrorListener(new AntlrLoggerErrorListener());
@@ -0,0 +1,46 @@
+package de.jplag.antlr;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+/**
+ * Token stream that cancels lexing and parsing once the parsing thread is interrupted, e.g. because the parse deadline
+ * of the submission has expired. The parser looks ahead through this stream during its predictions, so even
+ * pathological inputs that make the prediction backtrack excessively are cancelled.
+ */
+public class InterruptibleTokenStream extends CommonTokenStream {
+    private static final int CHECK_INTERVAL = 1024; // number of lookaheads between two checks
+
+    private int lookaheadsUntilCheck = CHECK_INTERVAL;
+
+    /**
+     * Creates the token stream.
+     * @param tokenSource is the lexer.
+     */
+    public InterruptibleTokenStream(TokenSource tokenSource) {
+        super(tokenSource);
+    }
+
+    @Override
+    public int LA(int i) {
+        checkInterrupted();
+        return super.LA(i);
+    }
+
+    @Override
+    public Token LT(int k) {
+        checkInterrupted();
+        return super.LT(k);
+    }
+
+    private void checkInterrupted() {
+        if (--lookaheadsUntilCheck <= 0) {
+            lookaheadsUntilCheck = CHECK_INTERVAL;
+            if (Thread.currentThread().isInterrupted()) {
+                throw new ParseCancellationException("Parsing was interrupted");
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import de.jplag.commentextraction.CommentExtractorSettings;
 import de.jplag.options.LanguageOptions;
@@ -65,6 +66,21 @@ public interface Language {
      */
     List<Token> parse(Set<File> files, boolean normalize) throws ParsingException;
 
+    /**
+     * Parses a set of files and hands the view of each file to the given consumer instead of writing view files next to
+     * the input files. Override this method if the language uses views (see {@link #useViewFiles()}), the default
+     * implementation ignores the consumer and relies on the language writing view files.
+     * @param files are the files to parse.
+     * @param normalize True, if the tokens should be normalized
+     * @param viewConsumer receives each parsed file with the content of its view. Must be thread-safe if the language
+     * parses files concurrently.
+     * @return the list of parsed JPlag tokens.
+     * @throws ParsingException if an error during parsing the files occurred.
+     */
+    default List<Token> parse(Set<File> files, boolean normalize, BiConsumer<File, String> viewConsumer) throws ParsingException {
+        return parse(files, normalize);
+    }
+
     /**
      * Indicates whether the tokens returned by parse have semantic information added to them, i.e., whether the token
      * attribute semantics is null or not.
@@ -129,6 +145,28 @@ public interface Language {
         return submissions;
     }
 
+    /**
+     * Determines whether parsing other submissions may depend on the given submission. Only relevant if the language
+     * expects a submission order. These submissions are parsed one after another in the submission order, all other
+     * submissions are parsed in parallel afterwards.
+     * @param submission is the root file of the submission.
+     * @return defaults to true, so all submissions are parsed in order.
+     */
+    default boolean isPrerequisiteSubmission(File submission) {
+        return true;
+    }
+
+    /**
+     * Prepares the parsing of the submissions of a run. Only called if the language expects a submission order, once per
+     * run before any submission is parsed. Languages can use it to reset state of previous runs, e.g. to share the
+     * prerequisite submissions with the others.
+     * @param prerequisiteSubmissions are the root files of the prerequisite submissions in the submission order.
+     * @see #isPrerequisiteSubmission(File)
+     */
+    default void prepareParsing(List<File> prerequisiteSubmissions) {
+        // no preparation needed by default
+    }
+
     /**
      * @return True if this language supports token sequence normalization. This does not include other normalization
      * mechanisms that might be part of the language modules.
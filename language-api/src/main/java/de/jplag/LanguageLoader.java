@@ -1,8 +1,15 @@
 package de.jplag;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
 import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.TreeMap;
@@ -12,13 +19,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This class contains methods to load {@link Language Languages}.
+ * This class contains methods to load {@link Language Languages}. Language modules describe their languages in a
+ * {@value #DESCRIPTOR_FILE} file, which maps each identifier to the implementing class. This allows loading only the
+ * selected language, as loading all languages initializes every parser in the classpath.
  * @author Dominik Fuchss
  */
 public final class LanguageLoader {
     private static final Logger logger = LoggerFactory.getLogger(LanguageLoader.class);
 
+    static final String DESCRIPTOR_FILE = "META-INF/jplag/languages.properties";
+
     private static Map<String, Language> cachedLanguageInstances = null;
+    private static Map<String, String> cachedLanguageDescriptors = null;
+    private static final Map<String, Language> loadedLanguageInstances = new HashMap<>();
 
     private LanguageLoader() {
         throw new IllegalAccessError();
@@ -26,7 +39,7 @@ public final class LanguageLoader {
 
     /**
      * Get all languages that are currently in the classpath. The languages will be cached. Use {@link #clearCache()} to
-     * obtain new instances.
+     * obtain new instances. Languages that have already been loaded by {@link #getLanguage(String)} are reused.
      * @return the languages as unmodifiable map from identifier to language instance.
      */
     public static synchronized Map<String, Language> getAllAvailableLanguages() {
@@ -36,7 +49,9 @@ public final class LanguageLoader {
 
         Map<String, Language> languages = new TreeMap<>();
 
-        for (Language language : ServiceLoader.load(Language.class)) {
+        for (ServiceLoader.Provider<Language> provider : ServiceLoader.load(Language.class).stream().toList()) {
+            Language language = loadedLanguageInstances.values().stream().filter(it -> it.getClass() == provider.type()).findFirst()
+                    .orElseGet(provider::get);
             String languageIdentifier = language.getIdentifier();
             if (languages.containsKey(languageIdentifier)) {
                 logger.error("Multiple implementations for a language '{}' are present in the classpath! Skipping ..", languageIdentifier);
@@ -53,13 +68,22 @@ public final class LanguageLoader {
     }
 
     /**
-     * Load a language that is currently in the classpath by its short name.
+     * Load a language that is currently in the classpath by its short name. If the language module has a descriptor, only
+     * this language is loaded. Otherwise, all languages are loaded.
      * @param identifier the identifier of the language
      * @return the language or an empty optional if no language has been found.
      * @see Language#getIdentifier()
      */
-    public static Optional<Language> getLanguage(String identifier) {
-        var language = getAllAvailableLanguages().get(identifier);
+    public static synchronized Optional<Language> getLanguage(String identifier) {
+        Language language;
+        if (cachedLanguageInstances != null) {
+            language = cachedLanguageInstances.get(identifier);
+        } else {
+            language = loadedLanguageInstances.computeIfAbsent(identifier, LanguageLoader::loadDescribedLanguage);
+            if (language == null) {
+                language = getAllAvailableLanguages().get(identifier);
+            }
+        }
         if (language == null) {
             logger.warn("Attempt to load Language {} was not successful", identifier);
         }
@@ -67,11 +91,33 @@ public final class LanguageLoader {
     }
 
     /**
-     * Get an unmodifiable set of all available languages with their identifiers.
+     * Create a new instance of a language that is currently in the classpath. In contrast to {@link #getLanguage(String)},
+     * the instance is not shared, so its options and parser state only belong to the caller, e.g. a single run.
+     * @param identifier the identifier of the language
+     * @return the new language instance or an empty optional if no language has been found.
+     * @see Language#getIdentifier()
+     */
+    public static Optional<Language> createLanguage(String identifier) {
+        return getLanguage(identifier).map(language -> {
+            try {
+                return language.getClass().getConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Could not create a new instance of the language {}", identifier, e);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Get an unmodifiable set of all available languages with their identifiers. The identifiers are read from the
+     * language descriptors, so no language is loaded, unless there are no descriptors.
      * @return identifiers of all available languages
      * @see Language#getIdentifier()
      */
-    public static Set<String> getAllAvailableLanguageIdentifiers() {
+    public static synchronized Set<String> getAllAvailableLanguageIdentifiers() {
+        if (cachedLanguageInstances == null && !getLanguageDescriptors().isEmpty()) {
+            return new TreeSet<>(getLanguageDescriptors().keySet());
+        }
         return new TreeSet<>(getAllAvailableLanguages().keySet());
     }
 
@@ -80,5 +126,71 @@ public final class LanguageLoader {
      */
     public static synchronized void clearCache() {
         cachedLanguageInstances = null;
+        cachedLanguageDescriptors = null;
+        loadedLanguageInstances.clear();
+    }
+
+    /**
+     * Get the language descriptors of all language modules in the classpath. Identifiers that are described multiple
+     * times with different classes are skipped.
+     * @return the map from identifier to the name of the implementing class.
+     */
+    static synchronized Map<String, String> getLanguageDescriptors() {
+        if (cachedLanguageDescriptors != null) {
+            return cachedLanguageDescriptors;
+        }
+
+        Map<String, String> descriptors = new TreeMap<>();
+        Set<String> ambiguousIdentifiers = new HashSet<>();
+        try {
+            Enumeration<URL> descriptorFiles = getClassLoader().getResources(DESCRIPTOR_FILE);
+            while (descriptorFiles.hasMoreElements()) {
+                Properties properties = new Properties();
+                try (InputStream input = descriptorFiles.nextElement().openStream()) {
+                    properties.load(input);
+                }
+                for (String identifier : properties.stringPropertyNames()) {
+                    String className = properties.getProperty(identifier).strip();
+                    String previousClassName = descriptors.put(identifier, className);
+                    if (previousClassName != null && !previousClassName.equals(className)) {
+                        ambiguousIdentifiers.add(identifier);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read the language descriptors, loading all languages instead", e);
+            descriptors.clear();
+        }
+        ambiguousIdentifiers.forEach(descriptors::remove);
+
+        cachedLanguageDescriptors = Collections.unmodifiableMap(descriptors);
+        return cachedLanguageDescriptors;
+    }
+
+    /**
+     * @return the described language with the given identifier, or null if there is no valid descriptor for it.
+     */
+    private static Language loadDescribedLanguage(String identifier) {
+        String className = getLanguageDescriptors().get(identifier);
+        if (className == null) {
+            return null;
+        }
+        try {
+            Language language = Class.forName(className, true, getClassLoader()).asSubclass(Language.class).getConstructor().newInstance();
+            if (!identifier.equals(language.getIdentifier())) {
+                logger.warn("Language descriptor of {} does not match its identifier {}", className, language.getIdentifier());
+                return null;
+            }
+            logger.trace("Loading Language Module '{}'", language.getName());
+            return language;
+        } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+            logger.warn("Could not load the described language {}", className, e);
+            return null;
+        }
+    }
+
+    private static ClassLoader getClassLoader() {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        return contextClassLoader != null ? contextClassLoader : LanguageLoader.class.getClassLoader();
     }
 }
@@ -0,0 +1,57 @@
+package de.jplag;
+
+/**
+ * Clock of the parse time budget of the submission that is parsed by the current thread. Parsers that share their work
+ * between submissions, e.g. by queueing them for a batch, pause the clock while a submission waits, so only the time
+ * spent on its own files counts against its budget. The clock can be paused and resumed from any thread, e.g. by the
+ * thread that parses the queued files.
+ */
+public abstract class ParseClock {
+    private static final ThreadLocal<ParseClock> currentClock = new ThreadLocal<>();
+
+    private static final ParseClock UNBOUNDED = new ParseClock() {
+        @Override
+        public void pause() {
+            // no budget
+        }
+
+        @Override
+        public void resume() {
+            // no budget
+        }
+    };
+
+    /**
+     * @return the clock of the submission parsed by the current thread, or a clock without effect if there is none.
+     */
+    public static ParseClock current() {
+        ParseClock clock = currentClock.get();
+        return clock != null ? clock : UNBOUNDED;
+    }
+
+    /**
+     * Stops counting the parse time, until the clock is resumed. Pausing a paused clock has no effect.
+     */
+    public abstract void pause();
+
+    /**
+     * Continues counting the parse time. Resuming a running clock has no effect.
+     */
+    public abstract void resume();
+
+    /**
+     * Makes this clock the clock of the current thread, see {@link #current()}.
+     */
+    protected final void bindToCurrentThread() {
+        currentClock.set(this);
+    }
+
+    /**
+     * Removes this clock from the current thread, if it is its clock.
+     */
+    protected final void unbindFromCurrentThread() {
+        if (currentClock.get() == this) {
+            currentClock.remove();
+        }
+    }
+}
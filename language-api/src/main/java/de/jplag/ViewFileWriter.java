@@ -0,0 +1,38 @@
+package de.jplag;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.util.FileUtils;
+
+/**
+ * Writes the view of a parsed file into a view file next to it. This is the view consumer for callers that do not
+ * collect the views in memory, see {@link Language#parse(java.util.Set, boolean, BiConsumer)}.
+ */
+public class ViewFileWriter implements BiConsumer<File, String> {
+    private static final Logger logger = LoggerFactory.getLogger(ViewFileWriter.class);
+
+    private final String viewFileExtension;
+
+    /**
+     * Creates a view file writer.
+     * @param viewFileExtension is the extension that is appended to the path of a file to obtain the path of its view file.
+     */
+    public ViewFileWriter(String viewFileExtension) {
+        this.viewFileExtension = viewFileExtension;
+    }
+
+    @Override
+    public void accept(File file, String view) {
+        File viewFile = new File(file.getPath() + viewFileExtension);
+        try {
+            FileUtils.write(viewFile, view);
+        } catch (IOException exception) {
+            logger.error("Could not write view file {}", viewFile, exception);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,17 +11,22 @@ import org.slf4j.LoggerFactory;
 import de.jplag.util.FileUtils;
 
 /**
- * Extracts comments from submitted files, by reading and parsing the file content manually.
+ * Extracts comments from submitted files, by reading and parsing the file content manually. The content is processed in
+ * a single pass with a cursor, the delimiters are looked up in prefix trees and line and column are counted while
+ * advancing.
  */
 public class CommentExtractor {
     private static final Logger logger = LoggerFactory.getLogger(CommentExtractor.class);
-    private String remainingContent;
+    private static final char[] LINE_SEPARATOR = System.lineSeparator().toCharArray();
+
+    private final char[] content;
     private final List<Comment> comments;
-    private final CommentExtractorSettings settings;
-    private String lookBehind;
+    private final DelimiterTrie<Delimiter> delimiters;
+    private final DelimiterTrie<Delimiter> escapeSequences;
+    private final File file;
+    private int position;
     private int currentCol;
     private int currentLine;
-    private final File file;
 
     /**
      * Creates a new CommentExtractor, reading the contents from the specified file.
@@ -30,60 +34,79 @@ public class CommentExtractor {
      * @param settings Settings for the comment extractor
      */
     public CommentExtractor(File file, CommentExtractorSettings settings) {
-        this.settings = settings;
+        this(file, readFile(file), settings);
+    }
+
+    /**
+     * Creates a new CommentExtractor for content that was already read, e.g. for parsing.
+     * @param file File the content originates from
+     * @param content Content of the file, with lines separated by {@link System#lineSeparator()}
+     * @param settings Settings for the comment extractor
+     */
+    public CommentExtractor(File file, String content, CommentExtractorSettings settings) {
+        this.content = content.toCharArray();
         this.comments = new ArrayList<>();
-        this.lookBehind = "";
         this.file = file;
         this.currentCol = 1;
         this.currentLine = 1;
-        this.readFile();
+        this.escapeSequences = new DelimiterTrie<>();
+        this.delimiters = new DelimiterTrie<>();
+        // the insertion order defines the priority if multiple delimiters start at the same position
+        for (String escapeSequence : settings.escapeSequences()) {
+            escapeSequences.add(escapeSequence, new Delimiter(DelimiterType.ESCAPE_SEQUENCE, null));
+            delimiters.add(escapeSequence, new Delimiter(DelimiterType.ESCAPE_SEQUENCE, null));
+        }
+        for (EnvironmentDelimiter environment : settings.noCommentEnvironments()) {
+            delimiters.add(environment.begin(), new Delimiter(DelimiterType.NO_COMMENT_ENVIRONMENT, environment));
+        }
+        for (String lineComment : settings.lineCommentDelimiters()) {
+            delimiters.add(lineComment, new Delimiter(DelimiterType.LINE_COMMENT, null));
+        }
+        for (EnvironmentDelimiter blockComment : settings.blockCommentDelimiters()) {
+            delimiters.add(blockComment.begin(), new Delimiter(DelimiterType.BLOCK_COMMENT, blockComment));
+        }
     }
 
-    private void readFile() {
+    private static String readFile(File file) {
         try {
-            this.remainingContent = FileUtils.readFileContent(file);
+            return FileUtils.readFileContent(file);
         } catch (IOException e) {
             logger.warn("Could not extract comments from {}: {}", file.getAbsolutePath(), e.getMessage());
-            this.remainingContent = "";
+            return "";
         }
     }
 
-    private void match(String expected) throws UnexpectedStringException {
-        if (remainingContent.startsWith(expected)) {
-            this.advance(expected.length());
-        } else {
-            throw new UnexpectedStringException(
-                    "Matched incorrectly, expected: " + expected + ", received: " + remainingContent.substring(0, expected.length()));
+    /**
+     * Moves the cursor forward and updates line and column.
+     * @param length is the number of characters to advance, limited by the end of the content.
+     */
+    private void advance(int length) {
+        int end = Math.min(content.length, position + length);
+        while (position < end) {
+            position++;
+            if (endsWithLineSeparator(position)) {
+                currentLine++;
+                currentCol = 1;
+            } else {
+                currentCol++;
+            }
         }
     }
 
-    private String advance(int length) {
-        String advancedBy = remainingContent.substring(0, length);
-        remainingContent = remainingContent.substring(length);
-
-        if (!this.checkForLineBreaks(advancedBy)) {
-            this.currentCol += length;
-        }
-
-        return advancedBy;
+    private boolean endsWithLineSeparator(int end) {
+        return end >= LINE_SEPARATOR.length && startsWith(end - LINE_SEPARATOR.length, LINE_SEPARATOR);
     }
 
-    private boolean checkForLineBreaks(String advancedBy) {
-        String combined = lookBehind + advancedBy;
-        if (combined.contains(System.lineSeparator())) {
-            String[] lines = combined.split(System.lineSeparator(), -1);
-
-            // Fixing line & column positions
-            this.currentLine += lines.length - 1;
-            String lastLine = lines[lines.length - 1];
-            this.currentCol = lastLine.length() + 1;
-
-            lookBehind = lastLine.substring(Math.max(0, lastLine.length() - System.lineSeparator().length() + 1));
-            return true;
-        } else {
-            lookBehind = advancedBy.substring(Math.max(0, advancedBy.length() - System.lineSeparator().length() + 1));
+    private boolean startsWith(int start, char[] expected) {
+        if (start + expected.length > content.length) {
             return false;
         }
+        for (int i = 0; i < expected.length; i++) {
+            if (content[start + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -91,72 +114,41 @@ public class CommentExtractor {
      * @return All extracted comments from the input file
      */
     public List<Comment> extract() {
-        while (!remainingContent.isEmpty()) {
-            try {
-                this.parseAny();
-            } catch (UnexpectedStringException e) {
-                logger.warn("Comment extraction failed, due to unexpected string: {}", e.getMessage());
-                this.comments.clear();
-                break;
-            }
+        while (position < content.length) {
+            this.parseAny();
         }
         return comments;
     }
 
-    private void parseAny() throws UnexpectedStringException {
-        if (this.parseEscapedCharacter().isPresent()) {
+    private void parseAny() {
+        DelimiterTrie.Match<Delimiter> match = delimiters.find(content, position);
+        if (match == null) {
+            this.advance(1);
             return;
         }
-
-        for (EnvironmentDelimiter environment : this.settings.noCommentEnvironments()) {
-            if (remainingContent.startsWith(environment.begin())) {
-                this.parseNoCommentEnvironment(environment);
-                return;
-            }
-        }
-
-        for (String lineComment : this.settings.lineCommentDelimiters()) {
-            if (remainingContent.startsWith(lineComment)) {
-                this.match(lineComment);
+        Delimiter delimiter = match.value();
+        switch (delimiter.type()) {
+            case ESCAPE_SEQUENCE -> this.advance(match.length() + 1);
+            case NO_COMMENT_ENVIRONMENT -> this.parseEnvironment(delimiter.environment());
+            case LINE_COMMENT -> {
+                this.advance(match.length());
                 this.parseLineComment();
-                return;
-            }
-        }
-
-        for (EnvironmentDelimiter blockComment : this.settings.blockCommentDelimiters()) {
-            if (remainingContent.startsWith(blockComment.begin())) {
-                this.parseBlockComment(blockComment);
-                return;
-            }
-        }
-
-        this.advance(1);
-    }
-
-    private Optional<String> parseEscapedCharacter() {
-        for (String escapeSequence : this.settings.escapeSequences()) {
-            if (remainingContent.startsWith(escapeSequence)) {
-                return Optional.of(this.advance(escapeSequence.length() + 1));
             }
+            case BLOCK_COMMENT -> this.parseBlockComment(delimiter.environment());
         }
-        return Optional.empty();
-    }
-
-    private void parseNoCommentEnvironment(EnvironmentDelimiter environment) throws UnexpectedStringException {
-        this.parseEnvironment(environment);
     }
 
     private void parseLineComment() {
-        StringBuilder comment = new StringBuilder();
         int startLine = this.currentLine;
         int startCol = this.currentCol;
-        while (!this.remainingContent.startsWith(System.lineSeparator()) && !this.remainingContent.isEmpty()) {
-            comment.append(this.advance(1));
+        int start = position;
+        while (position < content.length && !startsWith(position, LINE_SEPARATOR)) {
+            this.advance(1);
         }
-        this.comments.add(new Comment(file, comment.toString(), startLine, startCol, CommentType.LINE));
+        this.comments.add(new Comment(file, new String(content, start, position - start), startLine, startCol, CommentType.LINE));
     }
 
-    private void parseBlockComment(EnvironmentDelimiter blockComment) throws UnexpectedStringException {
+    private void parseBlockComment(EnvironmentDelimiter blockComment) {
         int startLine = this.currentLine;
         int startCol = this.currentCol + blockComment.begin().length();
         String comment = this.parseEnvironment(blockComment);
@@ -164,24 +156,40 @@ public class CommentExtractor {
         this.comments.add(new Comment(file, comment, startLine, startCol, CommentType.BLOCK));
     }
 
-    private String parseEnvironment(EnvironmentDelimiter environment) throws UnexpectedStringException {
-        this.match(environment.begin());
-        StringBuilder environmentContent = new StringBuilder();
-
-        while (!this.remainingContent.isEmpty()) {
-            Optional<String> escaped = parseEscapedCharacter();
-            if (escaped.isPresent()) {
-                environmentContent.append(escaped.get());
+    /**
+     * Parses an environment including its delimiters. Escaped characters do not end the environment.
+     * @return the content of the environment without the delimiters
+     */
+    private String parseEnvironment(EnvironmentDelimiter environment) {
+        this.advance(environment.begin().length());
+        char[] end = environment.end().toCharArray();
+        int start = position;
+        while (position < content.length) {
+            DelimiterTrie.Match<Delimiter> escaped = escapeSequences.find(content, position);
+            if (escaped != null) {
+                this.advance(escaped.length() + 1);
+            } else if (startsWith(position, end)) {
+                String environmentContent = new String(content, start, position - start);
+                this.advance(end.length);
+                return environmentContent;
             } else {
-                if (this.remainingContent.startsWith(environment.end())) {
-                    this.match(environment.end());
-                    break;
-                }
-
-                environmentContent.append(this.advance(1));
+                this.advance(1);
             }
         }
+        return new String(content, start, position - start);
+    }
+
+    private enum DelimiterType {
+        ESCAPE_SEQUENCE,
+        NO_COMMENT_ENVIRONMENT,
+        LINE_COMMENT,
+        BLOCK_COMMENT
+    }
 
-        return environmentContent.toString();
+    /**
+     * @param type is the type of the delimiter.
+     * @param environment is the environment that is started by the delimiter, if any.
+     */
+    private record Delimiter(DelimiterType type, EnvironmentDelimiter environment) {
     }
-}
\ No newline at end of file
+}
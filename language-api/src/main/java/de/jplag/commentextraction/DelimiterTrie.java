@@ -0,0 +1,100 @@
+package de.jplag.commentextraction;
+
+import java.util.Arrays;
+
+/**
+ * Prefix tree over delimiters, used to find the delimiter starting at a position of the content in a single walk
+ * instead of testing each delimiter separately. Each delimiter has a priority, if multiple delimiters start at the same
+ * position, the one with the lowest priority value wins.
+ * @param <T> type of the values associated with the delimiters
+ */
+final class DelimiterTrie<T> {
+    private static final int NO_PRIORITY = Integer.MAX_VALUE;
+
+    private final Node<T> root = new Node<>();
+    private int nextPriority;
+
+    /**
+     * Adds a delimiter with a lower priority than all previously added delimiters. Empty delimiters are ignored.
+     * @param delimiter is the delimiter.
+     * @param value is returned if the delimiter is found.
+     */
+    void add(String delimiter, T value) {
+        int priority = nextPriority++;
+        if (delimiter.isEmpty()) {
+            return;
+        }
+        Node<T> node = root;
+        for (int i = 0; i < delimiter.length(); i++) {
+            node = node.getOrCreateChild(delimiter.charAt(i));
+        }
+        if (priority < node.priority) {
+            node.priority = priority;
+            node.value = value;
+            node.delimiterLength = delimiter.length();
+        }
+    }
+
+    /**
+     * Finds the delimiter with the highest priority that starts at a position.
+     * @param content is the content to search in.
+     * @param position is the start of the delimiter.
+     * @return the match, or null if no delimiter starts at the position.
+     */
+    Match<T> find(char[] content, int position) {
+        Node<T> best = null;
+        Node<T> node = root;
+        for (int i = position; i < content.length; i++) {
+            node = node.getChild(content[i]);
+            if (node == null) {
+                break;
+            }
+            if (node.priority != NO_PRIORITY && (best == null || node.priority < best.priority)) {
+                best = node;
+            }
+        }
+        return best == null ? null : new Match<>(best.value, best.delimiterLength);
+    }
+
+    /**
+     * Delimiter found in the content.
+     * @param value is the value associated with the delimiter.
+     * @param length is the length of the delimiter.
+     */
+    record Match<T>(T value, int length) {
+    }
+
+    private static final class Node<T> {
+        private char[] keys = new char[0];
+        private Node<T>[] children = newArray(0);
+        private int priority = NO_PRIORITY;
+        private T value;
+        private int delimiterLength;
+
+        private Node<T> getChild(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node<T> getOrCreateChild(char key) {
+            Node<T> child = getChild(key);
+            if (child == null) {
+                child = new Node<>();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] newArray(int length) {
+            return new Node[length];
+        }
+    }
+}
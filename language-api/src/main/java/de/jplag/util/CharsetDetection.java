@@ -0,0 +1,173 @@
+package de.jplag.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ibm.icu.text.CharsetDetector;
+import com.ibm.icu.text.CharsetMatch;
+
+/**
+ * Charset detection for file contents that are already read into memory. Pure ASCII and valid UTF-8 contents are
+ * recognized by a fast byte scan, only other contents are passed to the ICU {@link CharsetDetector}, which only sees a
+ * sample of the beginning of the content. Detected charsets are cached per file, so repeated reads of the same file
+ * skip the detection. The cache is bounded in size and can be cleared via {@link FileUtils#clearCharsetCache()}.
+ */
+final class CharsetDetection {
+    /**
+     * Number of bytes passed to the ICU detector. Matches the amount the detector reads from streams.
+     */
+    private static final int SAMPLE_SIZE = 8000;
+    private static final int MAXIMUM_CACHE_SIZE = 100_000; // files, the cache is cleared once it is exceeded
+
+    private static final Map<FileKey, Charset> cache = new ConcurrentHashMap<>();
+
+    private CharsetDetection() {
+    }
+
+    /**
+     * Classification of a content by the fast byte scan.
+     */
+    enum ContentType {
+        /** Only ASCII characters, readable with any ASCII compatible charset. */
+        ASCII,
+        /** Valid UTF-8 with at least one multibyte character. */
+        UTF_8,
+        /** Anything else, including null bytes which indicate UTF-16 or UTF-32. */
+        UNKNOWN
+    }
+
+    /**
+     * Reads a file completely.
+     * @param file is the file to read.
+     * @return the content of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    static byte[] read(File file) throws IOException {
+        return Files.readAllBytes(file.toPath());
+    }
+
+    /**
+     * Detects the charset of a file, using the cache if the file was not modified since its last detection.
+     * @param file is the file the content was read from.
+     * @param content is the content of the file.
+     * @return the most probable charset.
+     */
+    static Charset detect(File file, byte[] content) {
+        if (cache.size() >= MAXIMUM_CACHE_SIZE) {
+            cache.clear();
+        }
+        return cache.computeIfAbsent(FileKey.of(file), key -> detect(content));
+    }
+
+    /**
+     * Detects the charset of a content.
+     * @param content is the content.
+     * @return the most probable charset.
+     */
+    static Charset detect(byte[] content) {
+        if (scan(content) != ContentType.UNKNOWN) {
+            return StandardCharsets.UTF_8; // also correct for pure ASCII
+        }
+        CharsetDetector charsetDetector = new CharsetDetector();
+        charsetDetector.setText(sample(content));
+        return Charset.forName(charsetDetector.detect().getName());
+    }
+
+    /**
+     * Runs the ICU detector with all detectable charsets on a sample of the content.
+     * @param content is the content.
+     * @return the matches ordered by confidence.
+     */
+    static CharsetMatch[] detectAll(byte[] content) {
+        CharsetDetector charsetDetector = new CharsetDetector();
+        charsetDetector.setText(sample(content));
+        return charsetDetector.detectAll();
+    }
+
+    /**
+     * Classifies a content by a single scan over its bytes.
+     * @param content is the content.
+     * @return whether the content is pure ASCII, valid UTF-8 or unknown.
+     */
+    static ContentType scan(byte[] content) {
+        boolean ascii = true;
+        int index = 0;
+        while (index < content.length) {
+            int value = content[index] & 0xFF;
+            if (value < 0x80) {
+                if (value == 0) {
+                    return ContentType.UNKNOWN;
+                }
+                index++;
+                continue;
+            }
+            ascii = false;
+            // ranges of well-formed UTF-8 byte sequences, see table 3-7 of the Unicode standard
+            int continuationBytes;
+            int secondMinimum = 0x80;
+            int secondMaximum = 0xBF;
+            if (value >= 0xC2 && value <= 0xDF) {
+                continuationBytes = 1;
+            } else if (value == 0xE0) {
+                continuationBytes = 2;
+                secondMinimum = 0xA0;
+            } else if (value == 0xED) {
+                continuationBytes = 2;
+                secondMaximum = 0x9F;
+            } else if (value >= 0xE1 && value <= 0xEF) {
+                continuationBytes = 2;
+            } else if (value == 0xF0) {
+                continuationBytes = 3;
+                secondMinimum = 0x90;
+            } else if (value >= 0xF1 && value <= 0xF3) {
+                continuationBytes = 3;
+            } else if (value == 0xF4) {
+                continuationBytes = 3;
+                secondMaximum = 0x8F;
+            } else {
+                return ContentType.UNKNOWN;
+            }
+            if (index + continuationBytes >= content.length) {
+                return ContentType.UNKNOWN;
+            }
+            int second = content[index + 1] & 0xFF;
+            if (second < secondMinimum || second > secondMaximum) {
+                return ContentType.UNKNOWN;
+            }
+            for (int offset = 2; offset <= continuationBytes; offset++) {
+                int continuation = content[index + offset] & 0xFF;
+                if (continuation < 0x80 || continuation > 0xBF) {
+                    return ContentType.UNKNOWN;
+                }
+            }
+            index += continuationBytes + 1;
+        }
+        return ascii ? ContentType.ASCII : ContentType.UTF_8;
+    }
+
+    /**
+     * Removes all cached charsets.
+     */
+    static void clearCache() {
+        cache.clear();
+    }
+
+    private static byte[] sample(byte[] content) {
+        return content.length <= SAMPLE_SIZE ? content : Arrays.copyOf(content, SAMPLE_SIZE);
+    }
+
+    /**
+     * Identifies a version of a file for the cache.
+     */
+    private record FileKey(String path, long lastModified, long length) {
+        static FileKey of(File file) {
+            return new FileKey(file.getAbsolutePath(), file.lastModified(), file.length());
+        }
+    }
+}
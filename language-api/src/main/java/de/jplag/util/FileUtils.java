@@ -1,14 +1,12 @@
 package de.jplag.util;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -49,9 +47,9 @@ public final class FileUtils {
      * @throws IOException If the file does not exist for is not readable
      */
     public static BufferedReader openFileReader(File file, boolean isSubmissionFile) throws IOException {
-        InputStream stream = new BufferedInputStream(new FileInputStream(file));
-        Charset charset = isSubmissionFile && overrideSubmissionCharset != null ? overrideSubmissionCharset : detectCharset(stream);
-        BufferedReader reader = new BufferedReader(new FileReader(file, charset));
+        byte[] content = CharsetDetection.read(file); // read once, detection and decoding both work on the buffer
+        Charset charset = isSubmissionFile && overrideSubmissionCharset != null ? overrideSubmissionCharset : CharsetDetection.detect(file, content);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content), charset));
         removeBom(reader, charset);
         return reader;
     }
@@ -115,9 +113,7 @@ public final class FileUtils {
      * @throws IOException If an IO error occurs
      */
     public static Charset detectCharset(File file) throws IOException {
-        try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
-            return detectCharset(stream);
-        }
+        return CharsetDetection.detect(file, CharsetDetection.read(file));
     }
 
     /**
@@ -140,20 +136,26 @@ public final class FileUtils {
      * @return The most probable charset
      */
     public static Charset detectCharsetFromMultiple(Collection<File> files) throws ParsingException {
-        Map<String, List<Integer>> charsetValues = new HashMap<>();
-
-        List<CharsetMatch[]> matchData = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>(files.size());
+        boolean allUtf8 = true;
         for (File file : files) {
-            try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
-                matchData.add(detectAllCharsets(stream));
+            try {
+                byte[] content = CharsetDetection.read(file);
+                contents.add(content);
+                allUtf8 &= CharsetDetection.scan(content) != CharsetDetection.ContentType.UNKNOWN;
             } catch (IOException e) {
                 throw new ParsingException(file, e);
             }
         }
+        if (allUtf8) {
+            return StandardCharsets.UTF_8; // fast path, no confidence values required
+        }
 
-        for (CharsetMatch[] matches : matchData) {
-            Set<String> remaining = new HashSet<>(Set.of(CharsetDetector.getAllDetectableCharsets()));
-            for (CharsetMatch match : matches) {
+        Map<String, List<Integer>> charsetValues = new HashMap<>();
+        Set<String> detectableCharsets = Set.of(CharsetDetector.getAllDetectableCharsets());
+        for (byte[] content : contents) {
+            Set<String> remaining = new HashSet<>(detectableCharsets);
+            for (CharsetMatch match : CharsetDetection.detectAll(content)) {
                 charsetValues.putIfAbsent(match.getName(), new ArrayList<>());
                 charsetValues.get(match.getName()).add(match.getConfidence());
                 remaining.remove(match.getName());
@@ -180,23 +182,6 @@ public final class FileUtils {
         return mostProbable.get();
     }
 
-    private static Charset detectCharset(InputStream stream) throws IOException {
-        CharsetDetector charsetDetector = new CharsetDetector();
-
-        charsetDetector.setText(stream);
-
-        CharsetMatch match = charsetDetector.detect();
-        return Charset.forName(match.getName());
-    }
-
-    private static CharsetMatch[] detectAllCharsets(InputStream stream) throws IOException {
-        CharsetDetector charsetDetector = new CharsetDetector();
-
-        charsetDetector.setText(stream);
-
-        return charsetDetector.detectAll();
-    }
-
     /**
      * Opens a file writer, using the default charset for JPlag.
      * @param file The file to write
@@ -243,4 +228,12 @@ public final class FileUtils {
     public static void setOverrideSubmissionCharset(Charset overrideSubmissionCharset) {
         FileUtils.overrideSubmissionCharset = overrideSubmissionCharset;
     }
+
+    /**
+     * Clears the cached charsets of previously read files. Files that were modified since their detection are detected
+     * again anyway.
+     */
+    public static void clearCharsetCache() {
+        CharsetDetection.clearCache();
+    }
 }
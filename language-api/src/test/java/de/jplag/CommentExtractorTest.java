@@ -46,4 +46,18 @@ class CommentExtractorTest {
         assertEquals(new Comment(input, multilineComment, 4, 3, CommentType.BLOCK), comments.get(1));
     }
 
+    @Test
+    @DisplayName("Tests the comment extractor on already read content with escapes and overlapping delimiters")
+    void testCommentExtractorOnContent() {
+        CommentExtractorSettings settings = new CommentExtractorSettings(List.of(new EnvironmentDelimiter("\""), new EnvironmentDelimiter("'")),
+                List.of("//", "#"), List.of(new EnvironmentDelimiter("/*", "*/")), List.of("\\"));
+        String content = String.join(System.lineSeparator(), "a = \"// \\\" # no comment\"; # first", "/* second \\*/ still */ b // third",
+                "c /* unterminated");
+        File input = new File("Content.txt");
+
+        List<Comment> comments = new CommentExtractor(input, content, settings).extract();
+
+        assertEquals(List.of(new Comment(input, " first", 1, 28, CommentType.LINE), new Comment(input, " second \\*/ still ", 2, 3, CommentType.BLOCK),
+                new Comment(input, " third", 2, 28, CommentType.LINE), new Comment(input, " unterminated", 3, 5, CommentType.BLOCK)), comments);
+    }
 }
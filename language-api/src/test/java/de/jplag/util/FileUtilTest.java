@@ -42,6 +42,22 @@ public class FileUtilTest {
         Assertions.assertEquals(StandardCharsets.ISO_8859_1, encoding);
     }
 
+    @Test
+    void testDetectFromUtf8FileSet() throws ParsingException {
+        Set<File> files = Set.of(TEST_FILE_SET_LOCATION.resolve("ascii1").toFile(), TEST_FILE_LOCATION.resolve("UTF-8").toFile());
+        Assertions.assertEquals(StandardCharsets.UTF_8, FileUtils.detectCharsetFromMultiple(files));
+    }
+
+    @Test
+    void testContentScan() {
+        Assertions.assertEquals(CharsetDetection.ContentType.ASCII, CharsetDetection.scan("plain".getBytes(StandardCharsets.US_ASCII)));
+        Assertions.assertEquals(CharsetDetection.ContentType.UTF_8, CharsetDetection.scan("äöü \uD83D\uDE00".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(CharsetDetection.ContentType.UNKNOWN, CharsetDetection.scan("äöü".getBytes(StandardCharsets.ISO_8859_1)));
+        Assertions.assertEquals(CharsetDetection.ContentType.UNKNOWN, CharsetDetection.scan("plain".getBytes(StandardCharsets.UTF_16LE)));
+        Assertions.assertEquals(CharsetDetection.ContentType.UNKNOWN, CharsetDetection.scan(new byte[] {(byte) 0xC0, (byte) 0xAF})); // overlong
+        Assertions.assertEquals(CharsetDetection.ContentType.UNKNOWN, CharsetDetection.scan(new byte[] {(byte) 0xE2, (byte) 0x82})); // truncated
+    }
+
     public static File[] searchTestFiles() {
         return TEST_FILE_LOCATION.toFile().listFiles();
     }
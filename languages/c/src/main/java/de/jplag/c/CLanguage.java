@@ -9,9 +9,13 @@ import org.kohsuke.MetaInfServices;
 import de.jplag.Language;
 import de.jplag.ParsingException;
 import de.jplag.Token;
+import de.jplag.c.experimental.GCCSourceAnalysis;
+import de.jplag.c.experimental.NoOpSourceAnalysis;
+import de.jplag.c.experimental.SourceAnalysis;
 
 @MetaInfServices(Language.class)
 public class CLanguage implements Language {
+    private final CLanguageOptions options = new CLanguageOptions();
 
     @Override
     public List<String> fileExtensions() {
@@ -33,8 +37,14 @@ public class CLanguage implements Language {
         return 12;
     }
 
+    @Override
+    public CLanguageOptions getOptions() {
+        return options;
+    }
+
     @Override
     public List<Token> parse(Set<File> files, boolean normalize) throws ParsingException {
-        return new Scanner().scan(files);
+        SourceAnalysis sourceAnalysis = options.removeUnusedVariables() ? new GCCSourceAnalysis() : new NoOpSourceAnalysis();
+        return new Scanner(sourceAnalysis).scan(files);
     }
 }
@@ -0,0 +1,21 @@
+package de.jplag.c;
+
+import de.jplag.options.LanguageOption;
+import de.jplag.options.LanguageOptions;
+import de.jplag.options.OptionType;
+
+/**
+ * Language specific options for the C language.
+ */
+public class CLanguageOptions extends LanguageOptions {
+
+    /**
+     * Whether the declarations of unused variables are removed, see {@link de.jplag.c.experimental.GCCSourceAnalysis}.
+     */
+    private final LanguageOption<Boolean> removeUnusedVariables = createDefaultOption(OptionType.bool(), "removeUnusedVariables",
+            "Experimental: If set, JPlag uses gcc to ignore the declarations of unused variables", false);
+
+    public boolean removeUnusedVariables() {
+        return this.removeUnusedVariables.getValue();
+    }
+}
@@ -10,15 +10,39 @@ import org.slf4j.LoggerFactory;
 
 import de.jplag.ParsingException;
 import de.jplag.Token;
+import de.jplag.c.experimental.NoOpSourceAnalysis;
+import de.jplag.c.experimental.SourceAnalysis;
 
 public class Scanner {
     static final Logger logger = LoggerFactory.getLogger(Scanner.class);
 
+    private final SourceAnalysis sourceAnalysis;
     private File currentFile;
     private List<Token> tokens;
 
+    /**
+     * Creates a scanner that keeps all tokens.
+     */
+    public Scanner() {
+        this(new NoOpSourceAnalysis());
+    }
+
+    /**
+     * Creates a scanner.
+     * @param sourceAnalysis decides which tokens are ignored.
+     */
+    public Scanner(SourceAnalysis sourceAnalysis) {
+        this.sourceAnalysis = sourceAnalysis;
+    }
+
     public List<Token> scan(Set<File> files) throws ParsingException {
         tokens = new ArrayList<>();
+        try {
+            sourceAnalysis.findUnusedVariableLines(files);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParsingException(null, "Interrupted while analyzing the source code.", e);
+        }
         for (File file : files) {
             this.currentFile = file;
             logger.trace("Scanning file {}", currentFile);
@@ -35,6 +59,9 @@ public class Scanner {
     }
 
     public void add(CTokenType type, de.jplag.c.Token token) {
+        if (sourceAnalysis.isTokenIgnored(token, currentFile)) {
+            return;
+        }
         int length = token.endColumn - token.beginColumn + 1;
         tokens.add(new Token(type, currentFile, token.beginLine, token.beginColumn, token.endLine, token.endColumn, length));
     }
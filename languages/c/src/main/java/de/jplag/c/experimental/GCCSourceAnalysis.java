@@ -1,28 +1,51 @@
 package de.jplag.c.experimental;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Uses GCC to find unused variables and saves their location. The scanner can then check if a token belongs to an
- * unused variable
+ * unused variable. Several files are checked per GCC invocation, the number of concurrent GCC processes is bounded, and
+ * the results are cached by file content, up to a bounded number of files. If GCC is not available or takes too long,
+ * no tokens are ignored. This class is thread-safe, but the ignored lines of all analyzed files are kept until the
+ * instance is discarded, thus the scanner uses one instance per submission.
  */
 public class GCCSourceAnalysis implements SourceAnalysis {
 
-    public static final String COMPILE_COMMAND = "gcc -Wall -fsyntax-only %s";
-    private Map<String, List<Integer>> linesToDelete = new HashMap<>();
+    public static final List<String> COMPILE_COMMAND = List.of("gcc", "-Wall", "-fsyntax-only");
+    private static final String UNUSED_VARIABLE_WARNING = "unused variable";
+    private static final int FILES_PER_INVOCATION = 32;
+    private static final long TIMEOUT_SECONDS = 30;
+    private static final int MAXIMUM_CACHED_FILES = 10_000; // the cache is cleared once it is exceeded
 
+    private static final Semaphore processPermits = new Semaphore(Runtime.getRuntime().availableProcessors());
+    private static final Map<String, BitSet> cachedLinesByContentHash = new ConcurrentHashMap<>();
+
+    private final Map<File, BitSet> linesToDelete = new ConcurrentHashMap<>();
     private final Logger logger;
+    private static volatile boolean gccAvailable = true; // gcc is not searched again for each submission
 
     public GCCSourceAnalysis() {
         this.logger = LoggerFactory.getLogger(this.getClass());
@@ -30,52 +53,163 @@ public class GCCSourceAnalysis implements SourceAnalysis {
 
     @Override
     public boolean isTokenIgnored(de.jplag.c.Token token, File file) {
-        String fileName = file.getName();
-        if (linesToDelete.containsKey(fileName)) {
-            var ignoredLineNumbers = linesToDelete.get(fileName);
-            return ignoredLineNumbers.contains(token.beginLine);
-        }
-        return false;
+        BitSet ignoredLineNumbers = linesToDelete.get(file.getAbsoluteFile());
+        return ignoredLineNumbers != null && token.beginLine >= 0 && ignoredLineNumbers.get(token.beginLine);
     }
 
     @Override
     public void findUnusedVariableLines(Set<File> files) throws InterruptedException {
-        linesToDelete = new HashMap<>();
-
+        List<AnalyzedFile> uncachedFiles = new ArrayList<>();
         for (File file : files) {
+            File absoluteFile = file.getAbsoluteFile();
             try {
-                Runtime runtime = Runtime.getRuntime();
-                Process gcc = runtime.exec(new String[] {COMPILE_COMMAND.formatted(file.getAbsolutePath())});
-                gcc.waitFor();
+                String contentHash = hashContent(absoluteFile);
+                BitSet cachedLines = cachedLinesByContentHash.get(contentHash);
+                if (cachedLines != null) {
+                    linesToDelete.put(absoluteFile, cachedLines);
+                } else {
+                    uncachedFiles.add(new AnalyzedFile(absoluteFile, contentHash));
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to read file {}", absoluteFile);
+            }
+        }
+        if (uncachedFiles.isEmpty() || !gccAvailable) {
+            return;
+        }
 
-                // gcc prints compiler warnings to the error stream, not the standard stream
-                BufferedReader stdError = new BufferedReader(new InputStreamReader(gcc.getErrorStream()));
+        List<Future<?>> invocations = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int start = 0; start < uncachedFiles.size(); start += FILES_PER_INVOCATION) {
+                List<AnalyzedFile> batch = uncachedFiles.subList(start, Math.min(start + FILES_PER_INVOCATION, uncachedFiles.size()));
+                invocations.add(executor.submit(() -> {
+                    processPermits.acquire();
+                    try {
+                        compile(batch);
+                    } finally {
+                        processPermits.release();
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> invocation : invocations) {
+            try {
+                invocation.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InterruptedException interruptedException) {
+                    throw interruptedException;
+                }
+                logger.warn("Failed to analyze files with gcc", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Runs GCC once for all given files and records the unused variable lines of each file.
+     */
+    private void compile(List<AnalyzedFile> files) throws InterruptedException {
+        List<String> command = new ArrayList<>(COMPILE_COMMAND);
+        files.forEach(it -> command.add(it.file().getPath()));
+        Path output = null;
+        try {
+            // gcc prints compiler warnings to the error stream, it is redirected to a file so that gcc never blocks on it
+            output = Files.createTempFile("jplag-gcc", ".log");
+            Process gcc = startProcess(new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(output.toFile()));
+            if (gcc == null) {
+                return;
+            }
+            if (!waitFor(gcc)) {
+                gcc.destroyForcibly();
+                logger.warn("Compiling {} files with gcc timed out, unused variables are not removed", files.size());
+                return;
+            }
 
-                String line;
-                while ((line = stdError.readLine()) != null) {
-                    processOutputLine(line);
+            Map<String, BitSet> linesByPath = new HashMap<>();
+            files.forEach(it -> linesByPath.put(it.file().getPath(), new BitSet()));
+            for (String line : Files.readAllLines(output, StandardCharsets.UTF_8)) {
+                processOutputLine(line, linesByPath);
+            }
+            if (cachedLinesByContentHash.size() + files.size() > MAXIMUM_CACHED_FILES) {
+                cachedLinesByContentHash.clear();
+            }
+            for (AnalyzedFile file : files) {
+                BitSet lines = linesByPath.get(file.file().getPath());
+                cachedLinesByContentHash.put(file.contentHash(), lines);
+                linesToDelete.put(file.file(), lines);
+            }
+        } catch (IOException e) {
+            // error during compilation, skip these files
+            logger.warn("Failed to compile files with gcc: {}", e.getMessage());
+        } finally {
+            if (output != null) {
+                try {
+                    Files.deleteIfExists(output);
+                } catch (IOException e) {
+                    logger.debug("Failed to delete {}", output);
                 }
-            } catch (IOException e) {
-                // error during compilation, skip this submission
-                logger.warn("Failed to compile file {}", file.getAbsolutePath());
             }
         }
     }
 
-    private void processOutputLine(String line) {
+    /**
+     * @return the started process, or null if gcc could not be started. In that case, gcc is not invoked again.
+     */
+    private Process startProcess(ProcessBuilder builder) {
+        try {
+            return builder.start();
+        } catch (IOException e) {
+            if (gccAvailable) {
+                gccAvailable = false;
+                logger.warn("gcc is not available, unused variables are not removed: {}", e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return whether gcc terminated in time. If the waiting thread is interrupted, gcc is killed.
+     */
+    private static boolean waitFor(Process gcc) throws InterruptedException {
+        try {
+            return gcc.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            gcc.destroyForcibly();
+            throw e;
+        }
+    }
+
+    private void processOutputLine(String line, Map<String, BitSet> linesByPath) {
         // example output:
-        // sourceFile.c:151:8: warning: unused variable 't' [-Wunused-variable]
-        if (!line.contains("unused variable")) {
+        // /path/to/sourceFile.c:151:8: warning: unused variable 't' [-Wunused-variable]
+        if (!line.contains(UNUSED_VARIABLE_WARNING)) {
             return;
         }
 
-        // contains [sourceFile, line, column, (warning|error), description]
-        var lineSplit = line.split(":");
-
-        String fileName = new File(lineSplit[0]).getName();
+        // the path may contain colons itself, so match the known paths instead of splitting
+        for (Map.Entry<String, BitSet> entry : linesByPath.entrySet()) {
+            String prefix = entry.getKey() + ":";
+            if (line.startsWith(prefix)) {
+                int end = line.indexOf(':', prefix.length());
+                try {
+                    entry.getValue().set(Integer.parseInt(line.substring(prefix.length(), end)));
+                } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                    logger.debug("Unexpected gcc output: {}", line);
+                }
+                return;
+            }
+        }
+    }
 
-        int lineNumber = Integer.parseInt(lineSplit[1]);
+    private static String hashContent(File file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(Files.readAllBytes(file.toPath())));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every Java platform supports SHA-256
+        }
+    }
 
-        linesToDelete.computeIfAbsent(fileName, key -> new ArrayList<>()).add(lineNumber);
+    private record AnalyzedFile(File file, String contentHash) {
     }
 }
@@ -0,0 +1,20 @@
+package de.jplag.c.experimental;
+
+import java.io.File;
+import java.util.Set;
+
+/**
+ * Source analysis that ignores no tokens, used if the removal of unused variables is disabled.
+ */
+public class NoOpSourceAnalysis implements SourceAnalysis {
+
+    @Override
+    public boolean isTokenIgnored(de.jplag.c.Token token, File file) {
+        return false;
+    }
+
+    @Override
+    public void findUnusedVariableLines(Set<File> files) {
+        // nothing to analyze
+    }
+}
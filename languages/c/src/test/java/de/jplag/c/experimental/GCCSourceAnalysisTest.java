@@ -0,0 +1,103 @@
+package de.jplag.c.experimental;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.ParsingException;
+import de.jplag.SharedTokenType;
+import de.jplag.Token;
+import de.jplag.c.CLanguage;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Tests the removal of unused variables via gcc. Skipped if gcc is not installed.
+ */
+class GCCSourceAnalysisTest {
+    private static final int UNUSED_VARIABLE_LINE = 2;
+    private static final String SOURCE = """
+            int main() {
+                int unused = 1;
+                int used = 2;
+                return used;
+            }
+            """;
+
+    @TempDir
+    private Path tempDirectory;
+
+    @BeforeAll
+    static void checkGcc() {
+        assumeTrue(isGccAvailable(), "gcc is not installed");
+    }
+
+    @Test
+    void testUnusedVariablesAreRemovedIfEnabled() throws IOException, ParsingException {
+        File file = writeSource("unused.c");
+        CLanguage language = new CLanguage();
+        assertTrue(tokensOf(language, file).stream().anyMatch(it -> it.getStartLine() == UNUSED_VARIABLE_LINE));
+
+        enableRemovalOfUnusedVariables(language);
+        List<Token> tokens = tokensOf(language, file);
+        assertFalse(tokens.stream().anyMatch(it -> it.getStartLine() == UNUSED_VARIABLE_LINE));
+        assertTrue(tokens.stream().anyMatch(it -> it.getStartLine() == UNUSED_VARIABLE_LINE + 1));
+    }
+
+    @Test
+    void testIgnoredLinesAreNotSharedBetweenInstances() throws IOException, InterruptedException {
+        File file = writeSource("unused.c");
+        GCCSourceAnalysis analysis = new GCCSourceAnalysis();
+        analysis.findUnusedVariableLines(Set.of(file));
+        assertTrue(analysis.isTokenIgnored(tokenInLine(UNUSED_VARIABLE_LINE), file));
+
+        // a cached result is used for a copy of the same content, but only by the instance that analyzed it
+        File copy = Files.writeString(Files.createDirectory(tempDirectory.resolve("copy")).resolve("unused.c"), SOURCE).toFile();
+        GCCSourceAnalysis otherAnalysis = new GCCSourceAnalysis();
+        assertFalse(otherAnalysis.isTokenIgnored(tokenInLine(UNUSED_VARIABLE_LINE), file));
+        otherAnalysis.findUnusedVariableLines(Set.of(copy));
+        assertTrue(otherAnalysis.isTokenIgnored(tokenInLine(UNUSED_VARIABLE_LINE), copy));
+        assertFalse(otherAnalysis.isTokenIgnored(tokenInLine(UNUSED_VARIABLE_LINE), file));
+    }
+
+    private File writeSource(String name) throws IOException {
+        return Files.writeString(tempDirectory.resolve(name), SOURCE).toFile();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void enableRemovalOfUnusedVariables(CLanguage language) {
+        ((LanguageOption<Boolean>) language.getOptions().getOptionsAsList().getFirst()).setValue(true);
+    }
+
+    private static List<Token> tokensOf(CLanguage language, File file) throws ParsingException {
+        return language.parse(Set.of(file), false).stream().filter(it -> it.getType() != SharedTokenType.FILE_END).toList();
+    }
+
+    private static de.jplag.c.Token tokenInLine(int line) {
+        de.jplag.c.Token token = new de.jplag.c.Token();
+        token.beginLine = line;
+        return token;
+    }
+
+    private static boolean isGccAvailable() {
+        try {
+            return new ProcessBuilder("gcc", "--version").redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start()
+                    .waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package de.jplag.emf.dynamic;
 import java.io.File;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import de.jplag.ParsingException;
 import de.jplag.Token;
@@ -35,4 +36,9 @@ public class DynamicEmfLanguage extends EmfLanguage { // currently not included
     public List<Token> parse(Set<File> files, boolean normalize) throws ParsingException {
         return new DynamicEcoreParser().parse(files, normalize);
     }
+
+    @Override
+    public List<Token> parse(Set<File> files, boolean normalize, BiConsumer<File, String> viewConsumer) throws ParsingException {
+        return new DynamicEcoreParser().parse(files, normalize, viewConsumer);
+    }
 }
@@ -11,7 +11,7 @@ import de.jplag.emf.dynamic.DynamicMetamodelTokenType;
 import de.jplag.emf.parser.ModelingElementTokenizer;
 
 /**
- * Tokenizes any {@link EObject} via its {@link EClass}. Tracks all known tokens.
+ * Tokenizes any {@link EObject} via its {@link EClass}. Tracks all known tokens. This class is thread-safe.
  */
 public class DynamicElementTokenizer implements ModelingElementTokenizer {
 
@@ -20,12 +20,16 @@ public class DynamicElementTokenizer implements ModelingElementTokenizer {
     @Override
     public TokenType element2Token(EObject modelElement) {
         DynamicMetamodelTokenType token = new DynamicMetamodelTokenType(modelElement);
-        knownTokenTypes.add(token);
+        synchronized (knownTokenTypes) {
+            knownTokenTypes.add(token);
+        }
         return token;
     }
 
     @Override
     public SequencedSet<TokenType> allTokenTypes() {
-        return new LinkedHashSet<>(knownTokenTypes);
+        synchronized (knownTokenTypes) {
+            return new LinkedHashSet<>(knownTokenTypes);
+        }
     }
 }
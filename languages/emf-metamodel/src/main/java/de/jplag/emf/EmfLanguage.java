@@ -3,6 +3,7 @@ package de.jplag.emf;
 import java.io.File;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import org.eclipse.emf.ecore.EcorePackage;
 import org.kohsuke.MetaInfServices;
@@ -52,6 +53,11 @@ public class EmfLanguage implements Language {
         return new EcoreParser().parse(files, normalize);
     }
 
+    @Override
+    public List<Token> parse(Set<File> files, boolean normalize, BiConsumer<File, String> viewConsumer) throws ParsingException {
+        return new EcoreParser().parse(files, normalize, viewConsumer);
+    }
+
     @Override
     public boolean useViewFiles() {
         return true;
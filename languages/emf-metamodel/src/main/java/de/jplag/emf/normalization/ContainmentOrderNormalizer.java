@@ -1,14 +1,12 @@
 package de.jplag.emf.normalization;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.eclipse.emf.ecore.EObject;
 
@@ -21,26 +19,59 @@ import de.jplag.emf.parser.ModelingElementTokenizer;
  */
 public class ContainmentOrderNormalizer implements Comparator<EObject> {
 
-    private final List<EObject> modelElementsToSort;
-    private final Map<TokenType, List<EObject>> paths;
-    private final ModelingElementTokenizer tokenizer;
-    private final TokenVectorGenerator tokenVectorGenerator;
+    private static final int UNRANKED = -1;
+
+    private final Map<EObject, Integer> indices;
+    private final TokenType[] types;
+    private final String[] typeNames;
+    private final int[] ranks;
 
     /**
      * Creates the normalizing comparator.
      * @param modelElementsToSort are all model elements to sort with the comparator (required for normalization process).
      */
     public ContainmentOrderNormalizer(List<EObject> modelElementsToSort, ModelingElementTokenizer tokenizer) {
-        this.modelElementsToSort = modelElementsToSort;
-        this.tokenizer = tokenizer;
-        paths = new HashMap<>();
-        tokenVectorGenerator = new TokenVectorGenerator(tokenizer);
+        this(modelElementsToSort, tokenizer, new TokenVectorGenerator(tokenizer));
+    }
+
+    /**
+     * Creates the normalizing comparator.
+     * @param modelElementsToSort are all model elements to sort with the comparator (required for normalization process).
+     * @param tokenVectorGenerator generates the token distributions of the subtrees, may be shared between comparators to
+     * reuse the distributions of nested subtrees.
+     */
+    public ContainmentOrderNormalizer(List<EObject> modelElementsToSort, ModelingElementTokenizer tokenizer,
+            TokenVectorGenerator tokenVectorGenerator) {
+        int size = modelElementsToSort.size();
+        indices = new IdentityHashMap<>(size);
+        types = new TokenType[size];
+        typeNames = new String[size];
+        ranks = new int[size];
+        Arrays.fill(ranks, UNRANKED);
+
+        Map<TokenType, List<Integer>> elementsByType = new LinkedHashMap<>();
+        for (int index = 0; index < size; index++) {
+            EObject element = modelElementsToSort.get(index);
+            indices.putIfAbsent(element, index);
+            types[index] = tokenizer.element2Token(element);
+            if (types[index] != null) {
+                typeNames[index] = types[index].toString();
+                elementsByType.computeIfAbsent(types[index], it -> new ArrayList<>()).add(index);
+            }
+        }
+        for (List<Integer> elementsOfType : elementsByType.values()) {
+            if (elementsOfType.size() > 1) {
+                rankByPath(modelElementsToSort, elementsOfType, tokenVectorGenerator);
+            }
+        }
     }
 
     @Override
     public int compare(EObject first, EObject second) {
-        TokenType firstType = tokenizer.element2Token(first);
-        TokenType secondType = tokenizer.element2Token(second);
+        int firstIndex = indices.get(first);
+        int secondIndex = indices.get(second);
+        TokenType firstType = types[firstIndex];
+        TokenType secondType = types[secondIndex];
 
         // 0. comparison if token types are absent for one or more elements.
         if (firstType == null && secondType == null) {
@@ -54,80 +85,63 @@ public class ContainmentOrderNormalizer implements Comparator<EObject> {
         }
 
         // 1. comparison by token type
-        int comparisonByType = firstType.toString().compareTo(secondType.toString());
+        int comparisonByType = typeNames[firstIndex].compareTo(typeNames[secondIndex]);
         if (comparisonByType != 0) {
             return comparisonByType;
         }
 
         // 2. compare by position of the nearest neighbor path of the token distribution vectors of the elements subtrees.
-        List<EObject> path = paths.computeIfAbsent(firstType, this::calculatePath);
-        return path.indexOf(first) - path.indexOf(second);
+        return ranks[firstIndex] - ranks[secondIndex];
     }
 
-    private List<EObject> calculatePath(List<EObject> elements, EObject start, double[][] distances) {
-        List<EObject> path = new ArrayList<>();
-        Set<EObject> remaining = new HashSet<>(elements);
-        EObject current = start;
-        remaining.remove(current);
-        path.add(current);
-        while (!remaining.isEmpty()) {
-            double shortestDistance = Double.MAX_VALUE;
-            EObject next = null;
-            for (EObject potentialNext : remaining) {
-                double distance = distances[elements.indexOf(current)][elements.indexOf(potentialNext)];
-                if (distance < shortestDistance) {
-                    shortestDistance = distance;
-                    next = potentialNext;
-                } else if (distance == shortestDistance && modelElementsToSort.indexOf(potentialNext) < modelElementsToSort.indexOf(next)) {
-                    next = potentialNext; // Sort according to original order if equal
-                }
-            }
-            current = next;
-            remaining.remove(current);
-            path.add(current);
-        }
-        return path;
-    }
-
-    private List<EObject> calculatePath(TokenType type) {
-        List<EObject> elements = modelElementsToSort.stream().filter(it -> type.equals(tokenizer.element2Token(it))).toList();
-
-        // Generate token type distributions for the subtrees of the elements to sort:
-        Map<EObject, TokenOccurenceVector> subtreeVectors = new HashMap<>();
-        elements.forEach(it -> subtreeVectors.put(it, tokenVectorGenerator.generateOccurenceVector(it.eAllContents())));
-
-        // Calculate distance matrix:
-        double[][] distances = new double[elements.size()][elements.size()];
-        for (int from = 0; from < distances.length; from++) {
-            for (int to = 0; to < distances.length; to++) {
-                distances[from][to] = euclideanDistance(subtreeVectors.get(elements.get(from)), subtreeVectors.get(elements.get(to)));
+    /**
+     * Ranks the elements of one token type by their position on a nearest neighbor path through the token distribution
+     * vectors of their subtrees. The path starts with the element that has the most tokens in its subtree. On equal
+     * distances, the element that comes first in the original order is chosen.
+     * @param elementIndices are the indices of the elements, in their original order.
+     */
+    private void rankByPath(List<EObject> modelElementsToSort, List<Integer> elementIndices, TokenVectorGenerator tokenVectorGenerator) {
+        int size = elementIndices.size();
+        double[][] vectors = new double[size][];
+        int current = 0;
+        int maximumTokens = -1;
+        for (int i = 0; i < size; i++) {
+            EObject element = modelElementsToSort.get(elementIndices.get(i));
+            vectors[i] = tokenVectorGenerator.generateSubtreeVector(element);
+            int tokens = tokenVectorGenerator.countSubtreeTokens(element);
+            if (tokens > maximumTokens) { // the first element with the most tokens
+                maximumTokens = tokens;
+                current = i;
             }
         }
 
-        // Start with element that has the most tokens in the subtree:
-        var max = Collections.max(elements, (first, second) -> Integer.compare(countSubtreeTokens(first), countSubtreeTokens(second)));
-        return calculatePath(elements, max, distances);
-    }
-
-    private int countSubtreeTokens(EObject modelElement) {
-        int count = 0;
-        Iterator<EObject> iterator = modelElement.eAllContents();
-        while (iterator.hasNext()) {
-            if (tokenizer.element2Token(iterator.next()) != null) {
-                count++;
+        boolean[] visited = new boolean[size];
+        for (int rank = 0; rank < size; rank++) {
+            visited[current] = true;
+            ranks[elementIndices.get(current)] = rank;
+            int next = -1;
+            double shortestDistance = Double.MAX_VALUE;
+            for (int candidate = 0; candidate < size; candidate++) {
+                if (!visited[candidate]) {
+                    double distance = euclideanDistance(vectors[current], vectors[candidate]);
+                    if (next == -1 || distance < shortestDistance) {
+                        shortestDistance = distance;
+                        next = candidate;
+                    }
+                }
             }
+            current = next;
         }
-        return count;
     }
 
     /**
      * Calculates the euclidean distance for two token occurrence vectors. As they are zero-padded, they are virtually of
      * the same length.
      */
-    private static double euclideanDistance(TokenOccurenceVector first, TokenOccurenceVector second) {
+    private static double euclideanDistance(double[] first, double[] second) {
         double sum = 0;
-        for (int i = 0; i < first.size(); i++) {
-            double diff = first.get(i) - second.get(i);
+        for (int i = 0; i < Math.max(first.length, second.length); i++) {
+            double diff = (i < first.length ? first[i] : 0.0) - (i < second.length ? second[i] : 0.0);
             sum += diff * diff;
         }
         return Math.sqrt(sum);
@@ -16,12 +16,14 @@ import de.jplag.emf.util.AbstractMetamodelVisitor;
 public class ModelSorter extends AbstractMetamodelVisitor {
 
     private final ModelingElementTokenizer tokenizer;
+    private final TokenVectorGenerator tokenVectorGenerator;
 
     /**
      * Creates a model sorter.
      */
     private ModelSorter(ModelingElementTokenizer tokenizer) {
         this.tokenizer = tokenizer; // private constructor to hide visitor functionality.
+        this.tokenVectorGenerator = new TokenVectorGenerator(tokenizer); // shared to reuse the vectors of nested subtrees
     }
 
     /**
@@ -30,7 +32,8 @@ public class ModelSorter extends AbstractMetamodelVisitor {
      * @param tokenizer provides the tokenization rules for the sorting.
      */
     public static void sort(Resource modelResource, ModelingElementTokenizer tokenizer) {
-        modelResource.getContents().forEach(new ModelSorter(tokenizer)::visit);
+        ModelSorter sorter = new ModelSorter(tokenizer);
+        modelResource.getContents().forEach(sorter::visit);
     }
 
     @Override
@@ -42,7 +45,7 @@ public class ModelSorter extends AbstractMetamodelVisitor {
                     @SuppressWarnings("unchecked") // There is no cleaner way
                     List<EObject> containmentList = (List<EObject>) containment;
                     List<EObject> sortedContent = new ArrayList<>(containmentList);
-                    sortedContent.sort(new ContainmentOrderNormalizer(sortedContent, tokenizer));
+                    sortedContent.sort(new ContainmentOrderNormalizer(sortedContent, tokenizer, tokenVectorGenerator));
                     containmentList.clear();
                     containmentList.addAll(sortedContent);
                 }
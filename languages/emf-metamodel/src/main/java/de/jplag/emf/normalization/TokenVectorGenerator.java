@@ -1,9 +1,7 @@
 package de.jplag.emf.normalization;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,45 +11,85 @@ import de.jplag.TokenType;
 import de.jplag.emf.parser.ModelingElementTokenizer;
 
 /**
- * Utility class for the generation of token occurrence histograms for model subtrees.
+ * Utility class for the generation of token occurrence histograms for model subtrees. The histograms of subtrees are
+ * cached, so that nested subtrees are only traversed once. As the histograms do not depend on the order of the
+ * elements, the cache stays valid while containment lists are sorted.
  */
 public class TokenVectorGenerator {
 
     private final ModelingElementTokenizer tokenizer;
+    private final Map<TokenType, Integer> tokenTypeIndices;
+    private final Map<EObject, int[]> subtreeHistograms;
 
     public TokenVectorGenerator(ModelingElementTokenizer tokenizer) {
         this.tokenizer = tokenizer;
+        this.tokenTypeIndices = new HashMap<>();
+        this.subtreeHistograms = new IdentityHashMap<>();
     }
 
     /**
-     * Generate a token occurrence vector for a subtree of a model.
-     * @param modelElements is a visitor for the subtree.
-     * @return a zero padded token occurrence vector, where each entry represents the number of tokens in the subtree. The
-     * order is determined by {@link ModelingElementTokenizer#allTokenTypes()}.
+     * Generate a token occurrence vector for the subtree of a model element, i.e. for the {@link EObject#eAllContents()
+     * contents} of the element. Each entry is the number of tokens of one type in the subtree, normalized by the magnitude
+     * of the vector. The order of the entries is the same for all vectors of this generator.
+     * @param modelElement is the root of the subtree, which is not part of the subtree itself.
+     * @return the normalized token occurrence vector, which is virtually padded with zeroes.
      */
-    public TokenOccurenceVector generateOccurenceVector(Iterator<EObject> modelElements) {
-        Map<TokenType, Integer> tokenTypeHistogram = new HashMap<>();
-
-        while (modelElements.hasNext()) {
-            tokenizer.element2OptionalToken(modelElements.next()).ifPresent(it -> tokenTypeHistogram.merge(it, 1, Integer::sum));
+    public double[] generateSubtreeVector(EObject modelElement) {
+        int[] histogram = subtreeHistogram(modelElement);
+        int squaredMagnitude = 0;
+        for (int occurrences : histogram) {
+            squaredMagnitude += occurrences * occurrences;
         }
-        List<Integer> occurenceVector = new ArrayList<>();
-        for (TokenType type : tokenizer.allTokenTypes()) {
-            occurenceVector.add(tokenTypeHistogram.getOrDefault(type, 0));
+        double magnitude = Math.sqrt(squaredMagnitude);
+        double[] vector = new double[histogram.length];
+        if (magnitude != 0) {
+            for (int i = 0; i < histogram.length; i++) {
+                vector[i] = histogram[i] / magnitude;
+            }
         }
-        return new TokenOccurenceVector(normalize(occurenceVector));
+        return vector;
     }
 
-    public static List<Double> normalize(List<Integer> vector) {
-        double magnitude = Math.sqrt(vector.stream().mapToInt(it -> it * it).sum());
-        if (magnitude == 0) {
-            return Collections.nCopies(vector.size(), 0.0);
+    /**
+     * Counts the model elements in the subtree of a model element that are represented by a token.
+     * @param modelElement is the root of the subtree, which is not part of the subtree itself.
+     * @return the number of tokens in the subtree.
+     */
+    public int countSubtreeTokens(EObject modelElement) {
+        int count = 0;
+        for (int occurrences : subtreeHistogram(modelElement)) {
+            count += occurrences;
+        }
+        return count;
+    }
+
+    /**
+     * Computes the token histogram of a subtree from the cached histograms of its children. Token types get their index
+     * when they are first encountered, as tokenizers may discover their token types during tokenization.
+     */
+    private int[] subtreeHistogram(EObject modelElement) {
+        int[] histogram = subtreeHistograms.get(modelElement);
+        if (histogram != null) {
+            return histogram;
+        }
+        List<EObject> children = modelElement.eContents();
+        int[] childTokenIndices = new int[children.size()];
+        int[][] childHistograms = new int[children.size()][];
+        for (int i = 0; i < children.size(); i++) {
+            TokenType type = tokenizer.element2Token(children.get(i));
+            childTokenIndices[i] = type == null ? -1 : tokenTypeIndices.computeIfAbsent(type, it -> tokenTypeIndices.size());
+            childHistograms[i] = subtreeHistogram(children.get(i));
         }
-        List<Double> normalizedVector = new ArrayList<>();
-        for (int element : vector) {
-            double normalizedValue = element / magnitude;
-            normalizedVector.add(normalizedValue);
+        histogram = new int[tokenTypeIndices.size()];
+        for (int i = 0; i < children.size(); i++) {
+            if (childTokenIndices[i] >= 0) {
+                histogram[childTokenIndices[i]]++;
+            }
+            for (int type = 0; type < childHistograms[i].length; type++) {
+                histogram[type] += childHistograms[i][type];
+            }
         }
-        return normalizedVector;
+        subtreeHistograms.put(modelElement, histogram);
+        return histogram;
     }
 }
@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -12,6 +13,7 @@ import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.TokenTrace;
 import de.jplag.TokenType;
+import de.jplag.ViewFileWriter;
 import de.jplag.emf.EmfLanguage;
 import de.jplag.emf.MetamodelToken;
 import de.jplag.emf.normalization.ModelSorter;
@@ -28,13 +30,25 @@ public class EcoreParser {
     protected File currentFile;
     protected AbstractModelView treeView;
     protected AbstractMetamodelVisitor visitor;
+    protected BiConsumer<File, String> viewConsumer;
 
     /**
-     * Parses all tokens from a set of files.
+     * Parses all tokens from a set of files and writes a view file next to each file.
      * @param files is the set of files.
      * @return the list of parsed tokens.
      */
     public List<Token> parse(Set<File> files, boolean normalize) throws ParsingException {
+        return parse(files, normalize, new ViewFileWriter(getCorrespondingViewFileExtension()));
+    }
+
+    /**
+     * Parses all tokens from a set of files.
+     * @param files is the set of files.
+     * @param viewConsumer receives the view of each parsed file.
+     * @return the list of parsed tokens.
+     */
+    public List<Token> parse(Set<File> files, boolean normalize, BiConsumer<File, String> viewConsumer) throws ParsingException {
+        this.viewConsumer = viewConsumer;
         tokens = new ArrayList<>();
         for (File file : files) {
             parseModelFile(file, normalize);
@@ -48,7 +62,7 @@ public class EcoreParser {
      */
     protected void parseModelFile(File file, boolean normalize) throws ParsingException {
         currentFile = file;
-        Resource model = EMFUtil.loadModelResource(file);
+        Resource model = loadModelResource(file);
         if (model == null) {
             throw new ParsingException(file, "failed to load model");
         }
@@ -61,7 +75,16 @@ public class EcoreParser {
             visitor.visit(root);
         }
         tokens.add(Token.fileEnd(currentFile));
-        treeView.writeToFile(getCorrespondingViewFileExtension());
+        viewConsumer.accept(file, treeView.getContent());
+    }
+
+    /**
+     * Loads the resource of a (meta)model file. Can be overriden in subclasses to load with a different resource set.
+     * @param file is the (meta)model file.
+     * @return the loaded resource or null if it could not be loaded.
+     */
+    protected Resource loadModelResource(File file) {
+        return EMFUtil.loadModelResource(file);
     }
 
     /**
@@ -1,9 +1,6 @@
 package de.jplag.emf.util;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 
 import org.eclipse.emf.ecore.EObject;
 import org.slf4j.Logger;
@@ -11,6 +8,7 @@ import org.slf4j.LoggerFactory;
 
 import de.jplag.TokenTrace;
 import de.jplag.TokenType;
+import de.jplag.ViewFileWriter;
 
 /**
  * Textual representation of a model for the depiction of matches in submissions.
@@ -35,20 +33,19 @@ public abstract class AbstractModelView {
      */
     public abstract TokenTrace getTokenTrace(EObject modelElement, TokenType tokenType);
 
+    /**
+     * @return the textual content of the tree view.
+     */
+    public String getContent() {
+        return viewBuilder.toString();
+    }
+
     /**
      * Writes the tree view into a file.
      * @param suffix is the suffix of the file to be written.
      */
     public void writeToFile(String suffix) {
-        File treeViewFile = new File(file + suffix);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(treeViewFile));) {
-            if (!treeViewFile.createNewFile()) {
-                logger.warn("Overwriting tree view file: {}", treeViewFile);
-            }
-            writer.append(viewBuilder.toString());
-        } catch (IOException exception) {
-            logger.error("Could not write tree view file!", exception);
-        }
+        new ViewFileWriter(suffix).accept(file, getContent());
     }
 
 }
\ No newline at end of file
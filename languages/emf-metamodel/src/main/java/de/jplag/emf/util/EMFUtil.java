@@ -61,7 +61,16 @@ public final class EMFUtil {
      * @return the resource of the loaded (meta)model or null if it could not be loaded.
      */
     public static Resource loadModelResource(File file) {
-        final ResourceSet resourceSet = new ResourceSetImpl();
+        return loadModelResource(file, new ResourceSetImpl());
+    }
+
+    /**
+     * Loads a model or metamodel from a absolute file path into a given resource set.
+     * @param file is file path to the (meta)model.
+     * @param resourceSet is the resource set that determines the factories and packages for loading.
+     * @return the resource of the loaded (meta)model or null if it could not be loaded.
+     */
+    public static Resource loadModelResource(File file, ResourceSet resourceSet) {
         try {
             return resourceSet.getResource(URI.createFileURI(file.getAbsolutePath()), true);
         } catch (WrappedException exception) {
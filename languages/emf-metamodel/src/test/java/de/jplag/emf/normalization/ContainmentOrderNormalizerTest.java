@@ -0,0 +1,210 @@
+package de.jplag.emf.normalization;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import de.jplag.TokenType;
+import de.jplag.emf.AbstractEmfTest;
+import de.jplag.emf.parser.MetamodelElementTokenizer;
+import de.jplag.emf.parser.ModelingElementTokenizer;
+
+/**
+ * Compares the containment order normalization with the original implementation, which computed the token occurrence
+ * vectors of each subtree by traversing it and ordered their entries by {@link ModelingElementTokenizer#allTokenTypes()}.
+ */
+class ContainmentOrderNormalizerTest extends AbstractEmfTest {
+    private static final double EPSILON = 1e-12;
+
+    private final ModelingElementTokenizer tokenizer = new MetamodelElementTokenizer();
+
+    static String[] testSubjects() {
+        return TEST_SUBJECTS;
+    }
+
+    @ParameterizedTest
+    @MethodSource("testSubjects")
+    @DisplayName("Test that the subtree vectors contain the same values as the original vectors")
+    void testSubtreeVectorsMatchOriginalVectors(String testSubject) {
+        Resource resource = loadAndVerifyModel(new File(baseDirectory, testSubject));
+        TokenVectorGenerator generator = new TokenVectorGenerator(tokenizer);
+        List<EObject> elements = allElements(resource);
+        for (EObject element : elements) {
+            List<Double> originalVector = originalOccurenceVector(element.eAllContents());
+            double[] vector = generator.generateSubtreeVector(element);
+            assertArrayEquals(nonZeroValues(originalVector.stream().mapToDouble(Double::doubleValue).toArray()), nonZeroValues(vector), EPSILON);
+            assertEquals(originalCountSubtreeTokens(element), generator.countSubtreeTokens(element));
+        }
+        for (EObject first : elements) {
+            for (EObject second : elements) {
+                double originalDistance = originalDistance(originalOccurenceVector(first.eAllContents()),
+                        originalOccurenceVector(second.eAllContents()));
+                double distance = distance(generator.generateSubtreeVector(first), generator.generateSubtreeVector(second));
+                assertEquals(originalDistance, distance, EPSILON);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("testSubjects")
+    @DisplayName("Test that the containment lists are sorted in the original order")
+    void testSortingMatchesOriginalOrder(String testSubject) {
+        Resource resource = loadAndVerifyModel(new File(baseDirectory, testSubject));
+        TokenVectorGenerator generator = new TokenVectorGenerator(tokenizer);
+        boolean sortedAnyList = false;
+        for (EObject element : allElements(resource)) {
+            List<EObject> contents = new ArrayList<>(element.eContents());
+            if (contents.size() > 1) {
+                List<EObject> expected = new ArrayList<>(contents);
+                expected.sort(new OriginalContainmentOrderNormalizer(contents));
+                List<EObject> actual = new ArrayList<>(contents);
+                actual.sort(new ContainmentOrderNormalizer(contents, tokenizer, generator));
+                assertEquals(expected, actual);
+                sortedAnyList = true;
+            }
+        }
+        assertTrue(sortedAnyList);
+    }
+
+    private static List<EObject> allElements(Resource resource) {
+        List<EObject> elements = new ArrayList<>();
+        resource.getAllContents().forEachRemaining(elements::add);
+        return elements;
+    }
+
+    private static double[] nonZeroValues(double[] vector) {
+        return Arrays.stream(vector).filter(it -> it != 0).sorted().toArray();
+    }
+
+    private static double distance(double[] first, double[] second) {
+        double sum = 0;
+        for (int i = 0; i < Math.max(first.length, second.length); i++) {
+            double diff = (i < first.length ? first[i] : 0.0) - (i < second.length ? second[i] : 0.0);
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum);
+    }
+
+    // The original implementation:
+
+    private List<Double> originalOccurenceVector(Iterator<EObject> modelElements) {
+        Map<TokenType, Integer> tokenTypeHistogram = new HashMap<>();
+        while (modelElements.hasNext()) {
+            tokenizer.element2OptionalToken(modelElements.next()).ifPresent(it -> tokenTypeHistogram.merge(it, 1, Integer::sum));
+        }
+        List<Integer> occurenceVector = new ArrayList<>();
+        for (TokenType type : tokenizer.allTokenTypes()) {
+            occurenceVector.add(tokenTypeHistogram.getOrDefault(type, 0));
+        }
+        double magnitude = Math.sqrt(occurenceVector.stream().mapToInt(it -> it * it).sum());
+        if (magnitude == 0) {
+            return Collections.nCopies(occurenceVector.size(), 0.0);
+        }
+        return occurenceVector.stream().map(it -> it / magnitude).toList();
+    }
+
+    private static double originalDistance(List<Double> first, List<Double> second) {
+        double sum = 0;
+        for (int i = 0; i < first.size(); i++) {
+            double diff = first.get(i) - (i < second.size() ? second.get(i) : 0.0);
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum);
+    }
+
+    private int originalCountSubtreeTokens(EObject modelElement) {
+        int count = 0;
+        Iterator<EObject> iterator = modelElement.eAllContents();
+        while (iterator.hasNext()) {
+            if (tokenizer.element2Token(iterator.next()) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private class OriginalContainmentOrderNormalizer implements Comparator<EObject> {
+        private final List<EObject> modelElementsToSort;
+        private final Map<TokenType, List<EObject>> paths = new HashMap<>();
+
+        OriginalContainmentOrderNormalizer(List<EObject> modelElementsToSort) {
+            this.modelElementsToSort = modelElementsToSort;
+        }
+
+        @Override
+        public int compare(EObject first, EObject second) {
+            TokenType firstType = tokenizer.element2Token(first);
+            TokenType secondType = tokenizer.element2Token(second);
+            if (firstType == null && secondType == null) {
+                return 0;
+            }
+            if (firstType == null) {
+                return -1;
+            }
+            if (secondType == null) {
+                return 1;
+            }
+            int comparisonByType = firstType.toString().compareTo(secondType.toString());
+            if (comparisonByType != 0) {
+                return comparisonByType;
+            }
+            List<EObject> path = paths.computeIfAbsent(firstType, this::calculatePath);
+            return path.indexOf(first) - path.indexOf(second);
+        }
+
+        private List<EObject> calculatePath(TokenType type) {
+            List<EObject> elements = modelElementsToSort.stream().filter(it -> type.equals(tokenizer.element2Token(it))).toList();
+            Map<EObject, List<Double>> subtreeVectors = new HashMap<>();
+            elements.forEach(it -> subtreeVectors.put(it, originalOccurenceVector(it.eAllContents())));
+            double[][] distances = new double[elements.size()][elements.size()];
+            for (int from = 0; from < distances.length; from++) {
+                for (int to = 0; to < distances.length; to++) {
+                    distances[from][to] = originalDistance(subtreeVectors.get(elements.get(from)), subtreeVectors.get(elements.get(to)));
+                }
+            }
+            EObject start = Collections.max(elements,
+                    (first, second) -> Integer.compare(originalCountSubtreeTokens(first), originalCountSubtreeTokens(second)));
+
+            List<EObject> path = new ArrayList<>();
+            Set<EObject> remaining = new HashSet<>(elements);
+            EObject current = start;
+            remaining.remove(current);
+            path.add(current);
+            while (!remaining.isEmpty()) {
+                double shortestDistance = Double.MAX_VALUE;
+                EObject next = null;
+                for (EObject potentialNext : remaining) {
+                    double distance = distances[elements.indexOf(current)][elements.indexOf(potentialNext)];
+                    if (distance < shortestDistance) {
+                        shortestDistance = distance;
+                        next = potentialNext;
+                    } else if (distance == shortestDistance && modelElementsToSort.indexOf(potentialNext) < modelElementsToSort.indexOf(next)) {
+                        next = potentialNext;
+                    }
+                }
+                current = next;
+                remaining.remove(current);
+                path.add(current);
+            }
+            return path;
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package de.jplag.emf.model;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 import org.kohsuke.MetaInfServices;
 
@@ -12,6 +18,7 @@ import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.emf.dynamic.DynamicEmfLanguage;
 import de.jplag.emf.model.parser.DynamicModelParser;
+import de.jplag.emf.model.parser.MetamodelRegistry;
 
 /**
  * Language for EMF metamodels from the Eclipse Modeling Framework (EMF). This language is based on a dynamically
@@ -21,6 +28,8 @@ import de.jplag.emf.model.parser.DynamicModelParser;
 @MetaInfServices(Language.class)
 public class EmfModelLanguage extends DynamicEmfLanguage {
 
+    private volatile MetamodelRegistry metamodelRegistry = new MetamodelRegistry();
+
     @Override
     public List<String> fileExtensions() {
         return List.of();
@@ -46,18 +55,64 @@ public class EmfModelLanguage extends DynamicEmfLanguage {
         return true;
     }
 
+    /**
+     * Orders the metamodel submissions first.
+     */
     @Override
     public List<File> customizeSubmissionOrder(List<File> sub) {
         return sub.stream().sorted(Comparator.comparing(file -> file.getName().endsWith(FILE_ENDING) ? 0 : 1)).toList();
     }
 
+    /**
+     * Metamodel submissions, i.e. metamodel files and directories that only contain metamodels, are parsed before the model
+     * submissions, which are then parsed in parallel. Only the metamodels of these submissions are visible to all
+     * submissions.
+     */
+    @Override
+    public boolean isPrerequisiteSubmission(File submission) {
+        return isMetamodelSubmission(submission);
+    }
+
+    /**
+     * Starts a new metamodel registry for the run, so the metamodels of previous runs are neither visible nor kept. The
+     * metamodels of the metamodel submissions are shared with all submissions of the run.
+     */
+    @Override
+    public void prepareParsing(List<File> prerequisiteSubmissions) {
+        MetamodelRegistry registry = new MetamodelRegistry();
+        prerequisiteSubmissions.forEach(registry::addSharingSubmission);
+        metamodelRegistry = registry;
+    }
+
     @Override
     public List<Token> parse(Set<File> files, boolean normalize) throws ParsingException {
-        return new DynamicModelParser().parse(files, normalize);
+        return new DynamicModelParser(metamodelRegistry).parse(files, normalize);
+    }
+
+    @Override
+    public List<Token> parse(Set<File> files, boolean normalize, BiConsumer<File, String> viewConsumer) throws ParsingException {
+        return new DynamicModelParser(metamodelRegistry).parse(files, normalize, viewConsumer);
     }
 
     @Override
     public boolean supportsMultiLanguage() {
         return false;
     }
+
+    private static boolean isMetamodelSubmission(File submission) {
+        if (submission.isFile()) {
+            return isMetamodel(submission.toPath());
+        }
+        try (Stream<Path> files = Files.walk(submission.toPath())) {
+            List<Path> relevantFiles = files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().endsWith(VIEW_FILE_EXTENSION)).toList();
+            return !relevantFiles.isEmpty() && relevantFiles.stream().allMatch(EmfModelLanguage::isMetamodel);
+        } catch (IOException | UncheckedIOException exception) {
+            return false; // parsed like a model submission, which reports the error
+        }
+    }
+
+    private static boolean isMetamodel(Path file) {
+        return file.getFileName().toString().endsWith(FILE_ENDING);
+    }
 }
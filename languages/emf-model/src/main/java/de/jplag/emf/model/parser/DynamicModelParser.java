@@ -1,16 +1,21 @@
 package de.jplag.emf.model.parser;
 
 import java.io.File;
-import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
-import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.jplag.ParsingException;
+import de.jplag.Token;
 import de.jplag.emf.EmfLanguage;
 import de.jplag.emf.dynamic.parser.DynamicEcoreParser;
 import de.jplag.emf.util.AbstractModelView;
@@ -18,41 +23,64 @@ import de.jplag.emf.util.EMFUtil;
 import de.jplag.emf.util.GenericEmfTreeView;
 
 /**
- * Parser for EMF metamodels based on dynamically created tokens.
+ * Parser for EMF metamodels based on dynamically created tokens. The metamodels are resolved via the given
+ * {@link MetamodelRegistry} instead of the global EMF registries, so multiple parsers can be used concurrently.
  */
 public class DynamicModelParser extends DynamicEcoreParser {
     private static final Logger logger = LoggerFactory.getLogger(DynamicModelParser.class);
 
     private static final String VIEW_FILE_WARNING = "Skipping view file {} as submission!";
     private static final String METAPACKAGE_WARNING = "Loading model instance {} without any metamodel!";
-    private static final String METAPACKAGE_ERROR = "Error, not a metapackage: ";
-    private static final String METAMODEL_LOADING_ERROR = "Could not load metamodel file!";
 
-    private static final List<EPackage> metapackages = new ArrayList<>();
     private static final String ALL_EXTENSIONS = "*";
 
+    private final MetamodelRegistry metamodelRegistry;
+    private final EPackage.Registry packageRegistry;
+    private boolean hasMetamodel;
+    private boolean sharesMetamodels;
+
     /**
      * Creates the parser.
+     * @param metamodelRegistry provides the metamodels of the parsed models.
      */
-    public DynamicModelParser() {
-        EMFUtil.registerModelExtension(ALL_EXTENSIONS);
+    public DynamicModelParser(MetamodelRegistry metamodelRegistry) {
+        this.metamodelRegistry = metamodelRegistry;
+        this.packageRegistry = metamodelRegistry.createSubmissionRegistry();
+    }
+
+    @Override
+    public List<Token> parse(Set<File> files, boolean normalize, BiConsumer<File, String> viewConsumer) throws ParsingException {
+        // the metamodels are parsed first, so that the models of the same files can be resolved
+        Set<File> metamodelsFirst = new LinkedHashSet<>();
+        files.stream().filter(DynamicModelParser::isMetamodel).forEach(metamodelsFirst::add);
+        // only metamodel submissions that were parsed as prerequisites may share their metamodels with other submissions
+        sharesMetamodels = metamodelsFirst.size() == files.size() && metamodelRegistry.isSharingSubmission(files);
+        metamodelsFirst.addAll(files);
+        return super.parse(metamodelsFirst, normalize, viewConsumer);
     }
 
     @Override
     protected void parseModelFile(File file, boolean normalize) throws ParsingException {
-        // implicit assumption: Metamodel gets parsed first!
-        if (file.getName().endsWith(EmfLanguage.FILE_ENDING)) {
+        if (isMetamodel(file)) {
             parseMetamodelFile(file);
         } else if (file.getName().endsWith(EmfLanguage.VIEW_FILE_EXTENSION)) {
             logger.warn(VIEW_FILE_WARNING, file.getName());
         } else {
-            if (metapackages.isEmpty()) {
+            if (!hasMetamodel && !metamodelRegistry.hasSharedMetamodels()) {
                 logger.warn(METAPACKAGE_WARNING, file.getName());
             }
             super.parseModelFile(file, normalize);
         }
     }
 
+    @Override
+    protected Resource loadModelResource(File file) {
+        ResourceSet resourceSet = new ResourceSetImpl();
+        resourceSet.setPackageRegistry(packageRegistry);
+        resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(ALL_EXTENSIONS, new XMIResourceFactoryImpl());
+        return EMFUtil.loadModelResource(file, resourceSet);
+    }
+
     @Override
     protected String getCorrespondingViewFileExtension() {
         return EmfLanguage.VIEW_FILE_EXTENSION;
@@ -64,18 +92,15 @@ public class DynamicModelParser extends DynamicEcoreParser {
     }
 
     private void parseMetamodelFile(File file) throws ParsingException {
-        metapackages.clear();
-        Resource modelResource = EMFUtil.loadModelResource(file);
-        if (modelResource == null) {
-            throw new ParsingException(file, METAMODEL_LOADING_ERROR);
-        }
-        for (EObject object : modelResource.getContents()) {
-            if (object instanceof EPackage ePackage) {
-                metapackages.add(ePackage);
-            } else {
-                logger.error(METAPACKAGE_ERROR, object);
-            }
+        List<EPackage> metapackages = metamodelRegistry.loadMetamodel(file);
+        metapackages.forEach(it -> packageRegistry.put(it.getNsURI(), it));
+        if (sharesMetamodels) {
+            metamodelRegistry.share(metapackages);
         }
-        EMFUtil.registerEPackageURIs(metapackages);
+        hasMetamodel = true;
+    }
+
+    private static boolean isMetamodel(File file) {
+        return file.getName().endsWith(EmfLanguage.FILE_ENDING);
     }
 }
@@ -0,0 +1,184 @@
+package de.jplag.emf.model.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EFactory;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.ParsingException;
+import de.jplag.emf.util.EMFUtil;
+
+/**
+ * Thread-safe registry for the metamodels of EMF model submissions, replacing the global EMF package registry. Each
+ * metamodel is loaded once per distinct file content, so models of different submissions that conform to the same
+ * metamodel share its classes and thus its token types. Metamodels are visible to the models of the same submission,
+ * and the metamodels of the submissions registered as {@link #addSharingSubmission(File) sharing} are visible to all
+ * submissions. A registry is meant for a single run, as it keeps all loaded metamodels.
+ */
+public class MetamodelRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MetamodelRegistry.class);
+
+    private static final String METAPACKAGE_ERROR = "Error, not a metapackage: {}";
+    private static final String METAMODEL_LOADING_ERROR = "Could not load metamodel file!";
+
+    private final Map<String, List<EPackage>> metapackagesByContentHash = new ConcurrentHashMap<>();
+    private final SharedPackageRegistry sharedPackages = new SharedPackageRegistry();
+    private final Set<Path> sharingSubmissions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Loads the packages of a metamodel, or returns the packages of an already loaded metamodel with the same content.
+     * @param file is the metamodel file.
+     * @return the packages of the metamodel.
+     * @throws ParsingException if the metamodel could not be loaded.
+     */
+    public List<EPackage> loadMetamodel(File file) throws ParsingException {
+        String contentHash = hashContent(file);
+        List<EPackage> metapackages = metapackagesByContentHash.get(contentHash);
+        if (metapackages == null) {
+            // concurrent loads of the same metamodel are possible, but only the first one is kept
+            metapackages = metapackagesByContentHash.putIfAbsent(contentHash, loadMetapackages(file));
+            if (metapackages == null) {
+                metapackages = metapackagesByContentHash.get(contentHash);
+            }
+        }
+        return metapackages;
+    }
+
+    /**
+     * Registers a submission whose metamodels are visible to all submissions. It must be parsed before the submissions that
+     * depend on its metamodels.
+     * @param submissionRoot is the root file or directory of the submission.
+     */
+    public void addSharingSubmission(File submissionRoot) {
+        sharingSubmissions.add(normalizedPath(submissionRoot));
+    }
+
+    /**
+     * @param files are the files of a submission.
+     * @return whether the files belong to a submission that was registered as sharing.
+     */
+    public boolean isSharingSubmission(Set<File> files) {
+        return !files.isEmpty() && files.stream().map(MetamodelRegistry::normalizedPath)
+                .allMatch(file -> sharingSubmissions.stream().anyMatch(file::startsWith));
+    }
+
+    /**
+     * Makes the packages of a metamodel visible to all submissions.
+     * @param metapackages are the packages to share.
+     */
+    public void share(Collection<EPackage> metapackages) {
+        metapackages.forEach(it -> sharedPackages.put(it.getNsURI(), it));
+    }
+
+    /**
+     * @return whether any metamodel is visible to all submissions.
+     */
+    public boolean hasSharedMetamodels() {
+        return !sharedPackages.isEmpty();
+    }
+
+    /**
+     * Creates a package registry for a single submission, which falls back to the shared metamodels.
+     * @return the package registry, it must not be shared between threads.
+     */
+    public EPackage.Registry createSubmissionRegistry() {
+        return new EPackageRegistryImpl(sharedPackages);
+    }
+
+    private static List<EPackage> loadMetapackages(File file) throws ParsingException {
+        Resource modelResource = EMFUtil.loadModelResource(file);
+        if (modelResource == null) {
+            throw new ParsingException(file, METAMODEL_LOADING_ERROR);
+        }
+        EcoreUtil.resolveAll(modelResource);
+        List<EPackage> metapackages = new ArrayList<>();
+        for (EObject object : modelResource.getContents()) {
+            if (object instanceof EPackage ePackage) {
+                prepareForConcurrentUse(ePackage);
+                metapackages.add(ePackage);
+            } else {
+                logger.error(METAPACKAGE_ERROR, object);
+            }
+        }
+        return List.copyOf(metapackages);
+    }
+
+    /**
+     * EMF computes the name lookup and the derived features of a package lazily. They are computed here, before the package
+     * is shared between threads.
+     */
+    private static void prepareForConcurrentUse(EPackage ePackage) {
+        for (EClassifier classifier : ePackage.getEClassifiers()) {
+            ePackage.getEClassifier(classifier.getName());
+            if (classifier instanceof EClass eClass) {
+                eClass.getEAllStructuralFeatures();
+                eClass.getEAllContainments();
+                eClass.getEAllSuperTypes();
+                eClass.getEAllAttributes();
+                eClass.getEAllReferences();
+                eClass.getEIDAttribute();
+            }
+        }
+        ePackage.getESubpackages().forEach(MetamodelRegistry::prepareForConcurrentUse);
+    }
+
+    private static Path normalizedPath(File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    private static String hashContent(File file) throws ParsingException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(Files.readAllBytes(file.toPath())));
+        } catch (IOException exception) {
+            throw new ParsingException(file, exception.getMessage(), exception);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception); // every Java platform supports SHA-256
+        }
+    }
+
+    /**
+     * Thread-safe package registry that falls back to the global registry, e.g. for the Ecore package itself.
+     */
+    private static final class SharedPackageRegistry extends ConcurrentHashMap<String, Object> implements EPackage.Registry {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public EPackage getEPackage(String nsURI) {
+            Object value = get(nsURI);
+            if (value instanceof EPackage ePackage) {
+                return ePackage;
+            }
+            return EPackage.Registry.INSTANCE.getEPackage(nsURI);
+        }
+
+        @Override
+        public EFactory getEFactory(String nsURI) {
+            Object value = get(nsURI);
+            if (value instanceof EPackage ePackage) {
+                return ePackage.getEFactoryInstance();
+            }
+            return EPackage.Registry.INSTANCE.getEFactory(nsURI);
+        }
+    }
+}
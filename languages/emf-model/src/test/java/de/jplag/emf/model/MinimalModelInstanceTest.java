@@ -1,27 +1,38 @@
 package de.jplag.emf.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.TokenPrinter;
+import de.jplag.TokenType;
 import de.jplag.emf.EmfLanguage;
 import de.jplag.testutils.FileUtil;
 
@@ -59,6 +70,64 @@ class MinimalModelInstanceTest {
 
     }
 
+    @Test
+    @DisplayName("Test concurrently parsed model submissions with a shared metamodel submission")
+    void testConcurrentSubmissions() throws Exception {
+        File metamodel = new File(baseDirectory, TEST_SUBJECTS[0]);
+        assertTrue(language.isPrerequisiteSubmission(metamodel));
+        language.prepareParsing(List.of(metamodel));
+        assertEquals(0, language.parse(Set.of(metamodel), true).size()); // metamodels are only registered
+
+        List<Future<List<Token>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String modelName : List.of(TEST_SUBJECTS[1], TEST_SUBJECTS[2], TEST_SUBJECTS[1], TEST_SUBJECTS[2])) {
+                File model = new File(baseDirectory, modelName);
+                assertFalse(language.isPrerequisiteSubmission(model));
+                results.add(executor.submit(() -> language.parse(Set.of(model), true)));
+            }
+        }
+        assertEquals(3, results.get(0).get().size());
+        assertEquals(4, results.get(1).get().size());
+        for (int i = 2; i < results.size(); i++) {
+            List<TokenType> expectedTypes = results.get(i % 2).get().stream().map(Token::getType).toList();
+            assertEquals(expectedTypes, results.get(i).get().stream().map(Token::getType).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that submissions with the same metamodel share its token types")
+    void testMetamodelInSubmissions() throws ParsingException {
+        File metamodel = new File(baseDirectory, TEST_SUBJECTS[0]);
+        File model = new File(baseDirectory, TEST_SUBJECTS[1]);
+        List<Token> firstTokens = language.parse(Set.of(model, metamodel), true);
+        List<Token> secondTokens = language.parse(Set.of(metamodel, model), true);
+        assertEquals(3, firstTokens.size());
+        assertEquals(firstTokens.stream().map(Token::getType).toList(), secondTokens.stream().map(Token::getType).toList());
+    }
+
+    @Test
+    @DisplayName("Test that only prerequisite metamodel directories share their metamodels within a run")
+    void testMetamodelDirectories(@TempDir Path directory) throws IOException, ParsingException {
+        File metamodelDirectory = Files.createDirectory(directory.resolve("metamodels")).toFile();
+        File metamodel = Files.copy(BASE_PATH.resolve(TEST_SUBJECTS[0]), metamodelDirectory.toPath().resolve(TEST_SUBJECTS[0])).toFile();
+        File mixedDirectory = Files.createDirectory(directory.resolve("mixed")).toFile();
+        Files.copy(BASE_PATH.resolve(TEST_SUBJECTS[0]), mixedDirectory.toPath().resolve(TEST_SUBJECTS[0]));
+        Files.copy(BASE_PATH.resolve(TEST_SUBJECTS[1]), mixedDirectory.toPath().resolve(TEST_SUBJECTS[1]));
+        File model = new File(baseDirectory, TEST_SUBJECTS[1]);
+
+        assertFalse(language.isPrerequisiteSubmission(mixedDirectory));
+        assertTrue(language.isPrerequisiteSubmission(metamodelDirectory));
+        language.parse(Set.of(metamodel), true); // the predicate does not register it, so it is not shared yet
+        assertThrows(ParsingException.class, () -> language.parse(Set.of(model), true));
+
+        language.prepareParsing(List.of(metamodelDirectory));
+        language.parse(Set.of(metamodel), true);
+        assertEquals(3, language.parse(Set.of(model), true).size());
+
+        language.prepareParsing(List.of()); // a new run does not see the metamodels of the previous one
+        assertThrows(ParsingException.class, () -> language.parse(Set.of(model), true));
+    }
+
     @AfterEach
     public void tearDown() {
         FileUtil.clearFiles(new File(BASE_PATH.toString()), EmfLanguage.VIEW_FILE_EXTENSION);
@@ -0,0 +1,392 @@
+package de.jplag.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.ParseClock;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.source.util.Trees;
+
+/**
+ * Parses the files of several submissions with a shared javac task. Setting up a task is expensive (mainly because of
+ * the release option), while parsing a small file is cheap. Submissions that are parsed while a batch is running are
+ * queued and parsed together in the next batch, so a submission that is parsed on its own is not delayed. The
+ * compilation units and diagnostics are handed back to the submission they belong to as soon as its files are parsed.
+ * If javac fails for a whole batch, each unfinished submission of the batch is parsed on its own, so the failure only
+ * affects the submission that caused it. The batches run on a pool of worker threads, one per available core, each with
+ * its own javac task, so submissions are still parsed in parallel. The queued submissions are split between the workers.
+ * As the batches run on dedicated threads, a submission whose parsing thread is interrupted, e.g. because its parse
+ * deadline has expired, stops waiting without affecting the other submissions of its batch. As javac ignores interrupts,
+ * a batch that is still running at the deadline of one of its submissions is abandoned: its worker is replaced, and the
+ * unfinished submissions of the batch are parsed again, so a hung batch does not block all following submissions. The
+ * {@link ParseClock} of a submission is paused while it waits, and only runs while javac parses its own files, so
+ * waiting for other submissions does not count against its parse time budget.
+ */
+final class JavacBatchParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(JavacBatchParser.class);
+
+    private static final String NO_ANNOTATION_PROCESSING = "-proc:none";
+    private static final String PREVIEW_FLAG = "--enable-preview";
+    private static final String RELEASE_VERSION_OPTION = "--release=";
+    private static final int MAXIMUM_BATCH_SIZE = 2000; // number of files
+
+    private static final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+    private final Queue<Request> pendingRequests = new ConcurrentLinkedQueue<>();
+    private final List<String> options;
+    private final List<BatchWorker> workers = new ArrayList<>(); // guarded by this
+
+    JavacBatchParser() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param numberOfWorkers is the number of batches that are parsed at the same time.
+     */
+    JavacBatchParser(int numberOfWorkers) {
+        // We need to disable annotation processing, see https://stackoverflow.com/q/72737445
+        String releaseVersion = RELEASE_VERSION_OPTION + Runtime.version().feature(); // required for preview flag
+        this.options = List.of(NO_ANNOTATION_PROCESSING, PREVIEW_FLAG, releaseVersion);
+        for (int i = 0; i < numberOfWorkers; i++) {
+            workers.add(new BatchWorker());
+        }
+    }
+
+    /**
+     * Compilation units of the files of one submission.
+     * @param compilationUnits are the parsed files in the order of the given files.
+     * @param positions are the source positions for the compilation units.
+     * @param diagnostics are the diagnostics of the files of the submission.
+     */
+    record Result(List<CompilationUnitTree> compilationUnits, SourcePositions positions, List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+    }
+
+    /**
+     * Parses the files of one submission, possibly together with the files of other submissions. Blocks until the files
+     * are parsed.
+     * @param files are the files of the submission.
+     * @param charset is the charset of the files.
+     * @return the compilation units and diagnostics of the files.
+     * @throws IOException if javac fails to read the files.
+     */
+    Result parse(Set<File> files, Charset charset) throws IOException {
+        ParseClock clock = ParseClock.current();
+        clock.pause(); // resumed by the batch thread while it parses the files
+        Request request = new Request(List.copyOf(files), charset, clock, new CompletableFuture<>());
+        pendingRequests.add(request);
+        scheduleBatch();
+        try {
+            return request.result().get();
+        } catch (InterruptedException exception) {
+            request.result().cancel(false); // the request is skipped, if its batch has not started yet
+            abandonBatchOf(request);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Parsing was interrupted");
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(exception.getCause());
+        } finally {
+            clock.resume();
+        }
+    }
+
+    /**
+     * Starts an idle worker, if there is one. Otherwise, the pending requests are parsed by the next worker that finishes
+     * its batch.
+     */
+    private synchronized void scheduleBatch() {
+        for (BatchWorker current : workers) {
+            if (!current.active) {
+                current.active = true;
+                current.executor.execute(() -> parsePendingRequests(current));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Abandons the running batch if it contains the given request, whose submission stopped waiting for it. The worker is
+     * replaced, and the other unfinished requests of the batch are parsed again. The abandoned thread is not interrupted,
+     * as javac would ignore it or fail the other requests; it ends after its current batch, if ever.
+     */
+    private synchronized void abandonBatchOf(Request request) {
+        int index = findWorkerOf(request);
+        if (index < 0) {
+            return;
+        }
+        BatchWorker abandonedWorker = workers.get(index);
+        List<Request> batch = abandonedWorker.runningBatch;
+        logger.warn("Abandoning a javac batch of {} submissions that did not finish in time", batch.size());
+        abandonedWorker.abandoned = true;
+        abandonedWorker.executor.shutdown();
+        workers.set(index, new BatchWorker());
+        for (Request pendingRequest : batch) {
+            if (!pendingRequest.result().isDone()) {
+                pendingRequest.clock().pause();
+                pendingRequests.add(pendingRequest);
+            }
+        }
+        scheduleBatch();
+    }
+
+    /**
+     * @return the index of the worker whose running batch contains the request, or -1 if there is none.
+     */
+    private int findWorkerOf(Request request) {
+        for (int i = 0; i < workers.size(); i++) {
+            List<Request> batch = workers.get(i).runningBatch;
+            if (batch != null && batch.stream().anyMatch(it -> it == request)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses all pending requests, if there are any. Requests that were added while the previous batch was running are
+     * parsed together. Stops once the worker is abandoned.
+     */
+    private void parsePendingRequests(BatchWorker current) {
+        List<Request> requests;
+        while ((requests = nextBatch(current)) != null) {
+            try {
+                parseBatch(requests, current);
+            } catch (Error error) { // e.g. a stack overflow in javac, the waiting submissions must not wait forever
+                requests.forEach(request -> request.result().completeExceptionally(error));
+            }
+        }
+    }
+
+    /**
+     * @return the requests of the next batch of the given worker, or null if there are none or the worker was abandoned.
+     */
+    private synchronized List<Request> nextBatch(BatchWorker current) {
+        current.runningBatch = null;
+        if (current.abandoned || pendingRequests.isEmpty()) {
+            current.active = false;
+            return null;
+        }
+        current.runningBatch = drainPendingRequests();
+        if (!pendingRequests.isEmpty()) {
+            scheduleBatch(); // the rest is shared with the idle workers
+        }
+        return current.runningBatch;
+    }
+
+    /**
+     * Takes the pending requests for the next batch. Each batch takes its share of the pending requests, so the other
+     * workers get the rest. Cancelled requests are dropped. Requests for files that are already part of the batch are left
+     * for the next batch, as javac parses each file only once per task.
+     */
+    private List<Request> drainPendingRequests() {
+        List<Request> requests = new ArrayList<>();
+        List<Request> deferredRequests = new ArrayList<>();
+        Set<File> batchFiles = new HashSet<>();
+        int share = (pendingRequests.size() + workers.size() - 1) / workers.size();
+        int numberOfFiles = 0;
+        while (numberOfFiles < MAXIMUM_BATCH_SIZE && requests.size() < share && !pendingRequests.isEmpty()) {
+            Request request = pendingRequests.poll();
+            if (request.result().isDone()) {
+                continue;
+            }
+            if (request.files().stream().anyMatch(batchFiles::contains)) {
+                deferredRequests.add(request);
+                continue;
+            }
+            batchFiles.addAll(request.files());
+            requests.add(request);
+            numberOfFiles += request.files().size();
+        }
+        pendingRequests.addAll(deferredRequests);
+        return requests;
+    }
+
+    private void parseBatch(List<Request> requests, BatchWorker current) {
+        Map<Charset, List<Request>> requestsByCharset = new LinkedHashMap<>();
+        for (Request request : requests) {
+            requestsByCharset.computeIfAbsent(request.charset(), it -> new ArrayList<>()).add(request);
+        }
+        for (Map.Entry<Charset, List<Request>> entry : requestsByCharset.entrySet()) {
+            try {
+                parseTogether(entry.getValue(), entry.getKey(), current);
+            } catch (IOException | RuntimeException exception) {
+                if (entry.getValue().size() == 1) {
+                    entry.getValue().getFirst().result().completeExceptionally(exception);
+                } else {
+                    logger.debug("Batched parsing failed, parsing the submissions separately", exception);
+                    parseSeparately(entry.getValue(), entry.getKey(), current);
+                }
+            }
+        }
+    }
+
+    private void parseSeparately(List<Request> requests, Charset charset, BatchWorker current) {
+        for (Request request : requests) {
+            if (request.result().isDone()) {
+                continue; // its files were parsed before the batch failed
+            }
+            try {
+                parseTogether(List.of(request), charset, current);
+            } catch (IOException | RuntimeException exception) {
+                request.result().completeExceptionally(exception);
+            }
+        }
+    }
+
+    /**
+     * Parses the files of all requests in a single javac task. Each request is completed as soon as its files are parsed,
+     * so it is not parsed again if the batch is abandoned afterward. The clock of each request runs while javac parses its
+     * files.
+     */
+    private void parseTogether(List<Request> requests, Charset charset, BatchWorker current) throws IOException {
+        DiagnosticCollector<JavaFileObject> listener = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(listener, null, charset)) {
+            Map<JavaFileObject, Request> owners = new IdentityHashMap<>();
+            List<JavaFileObject> javaFiles = new ArrayList<>();
+            for (Request request : requests) {
+                for (JavaFileObject javaFile : fileManager.getJavaFileObjectsFromFiles(request.files())) {
+                    owners.put(javaFile, request);
+                    javaFiles.add(javaFile);
+                }
+            }
+
+            JavacTask task = (JavacTask) compiler.getTask(null, fileManager, listener, options, null, javaFiles);
+            SourcePositions positions = new FixedSourcePositions(Trees.instance(task).getSourcePositions());
+            task.addTaskListener(new ParseProgressListener(owners, listener, positions, current));
+            Map<Request, List<CompilationUnitTree>> compilationUnits = new IdentityHashMap<>();
+            for (CompilationUnitTree ast : task.parse()) {
+                compilationUnits.computeIfAbsent(owners.get(ast.getSourceFile()), it -> new ArrayList<>()).add(ast);
+            }
+            for (Request request : requests) { // only requests whose files javac did not report as parsed
+                request.result().complete(new Result(compilationUnits.getOrDefault(request, List.of()), positions,
+                        diagnosticsOf(request, owners, listener)));
+            }
+        }
+    }
+
+    /**
+     * @return the diagnostics of the files of the request, and the diagnostics without a file (e.g. about the options),
+     * which concern all submissions.
+     */
+    private static List<Diagnostic<? extends JavaFileObject>> diagnosticsOf(Request request, Map<JavaFileObject, Request> owners,
+            DiagnosticCollector<JavaFileObject> listener) {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : listener.getDiagnostics()) {
+            Request owner = owners.get(diagnostic.getSource());
+            if (owner == null || owner == request) {
+                diagnostics.add(diagnostic);
+            }
+        }
+        return diagnostics;
+    }
+
+    /**
+     * Resumes the clock of a request when javac starts parsing its files, and pauses it after its last file. Clocks of an
+     * abandoned worker are left alone, as its requests are queued again.
+     */
+    private synchronized void updateClock(BatchWorker current, Request request, boolean parsing) {
+        if (!current.abandoned) {
+            if (parsing) {
+                request.clock().resume();
+            } else {
+                request.clock().pause();
+            }
+        }
+    }
+
+    private record Request(List<File> files, Charset charset, ParseClock clock, CompletableFuture<Result> result) {
+    }
+
+    /**
+     * Tracks which request javac is parsing, and completes each request once its last file is parsed. The files of a
+     * request are passed to javac consecutively, which parses them in that order.
+     */
+    private final class ParseProgressListener implements TaskListener {
+        private final Map<JavaFileObject, Request> owners;
+        private final DiagnosticCollector<JavaFileObject> diagnostics;
+        private final SourcePositions positions;
+        private final BatchWorker current;
+        private final Map<Request, Integer> remainingFiles = new IdentityHashMap<>();
+        private final Map<Request, List<CompilationUnitTree>> compilationUnits = new IdentityHashMap<>();
+
+        private ParseProgressListener(Map<JavaFileObject, Request> owners, DiagnosticCollector<JavaFileObject> diagnostics,
+                SourcePositions positions, BatchWorker current) {
+            this.owners = owners;
+            this.diagnostics = diagnostics;
+            this.positions = positions;
+            this.current = current;
+            owners.values().forEach(request -> remainingFiles.merge(request, 1, Integer::sum));
+        }
+
+        @Override
+        public void started(TaskEvent event) {
+            Request request = owners.get(event.getSourceFile());
+            if (event.getKind() == TaskEvent.Kind.PARSE && request != null) {
+                updateClock(current, request, true);
+            }
+        }
+
+        @Override
+        public void finished(TaskEvent event) {
+            Request request = owners.get(event.getSourceFile());
+            if (event.getKind() != TaskEvent.Kind.PARSE || request == null) {
+                return;
+            }
+            compilationUnits.computeIfAbsent(request, it -> new ArrayList<>()).add(event.getCompilationUnit());
+            if (remainingFiles.merge(request, -1, Integer::sum) == 0) {
+                updateClock(current, request, false);
+                request.result().complete(new Result(compilationUnits.get(request), positions, diagnosticsOf(request, owners, diagnostics)));
+            }
+        }
+    }
+
+    /**
+     * A thread that parses batches, and the batch it is currently parsing.
+     */
+    private static final class BatchWorker {
+        private final ExecutorService executor = Executors
+                .newSingleThreadExecutor(Thread.ofPlatform().name("jplag-javac-batch").daemon().factory());
+        private List<Request> runningBatch; // guarded by the parser
+        private boolean active; // guarded by the parser, whether the thread parses batches
+        private boolean abandoned; // guarded by the parser
+    }
+}
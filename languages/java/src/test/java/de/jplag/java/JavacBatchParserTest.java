@@ -0,0 +1,122 @@
+package de.jplag.java;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.ParsingException;
+import de.jplag.Token;
+
+/**
+ * Tests that submissions parsed concurrently in shared javac tasks yield the same tokens as separately parsed ones.
+ */
+class JavacBatchParserTest {
+
+    private static final Path RESOURCES = Path.of("src", "test", "resources", "de", "jplag", "java");
+    private static final List<String> FILE_NAMES = List.of("CLI.java", "Try.java", "TryWithResource.java", "PatternMatching.java");
+    private static final int NUMBER_OF_SUBMISSIONS = 40;
+    private static final int NUMBER_OF_WORKERS = 4;
+
+    @TempDir
+    private Path tempDirectory;
+
+    @Test
+    void testConcurrentSubmissionsYieldSameTokens() throws Exception {
+        List<Set<File>> submissions = createSubmissions(NUMBER_OF_SUBMISSIONS, -1);
+        List<String> expected = describe(new JavaLanguage().parse(submissions.getFirst(), false));
+
+        List<Future<List<Token>>> results = parseConcurrently(submissions);
+
+        for (Future<List<Token>> result : results) {
+            assertEquals(expected, describe(result.get()));
+        }
+    }
+
+    @Test
+    void testWorkersParseTheirOwnSubmissions() throws Exception {
+        List<Set<File>> submissions = createSubmissions(NUMBER_OF_SUBMISSIONS, -1);
+        JavacBatchParser parser = new JavacBatchParser(NUMBER_OF_WORKERS);
+
+        List<Future<JavacBatchParser.Result>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Set<File> submission : submissions) {
+                results.add(executor.submit(() -> parser.parse(submission, StandardCharsets.UTF_8)));
+            }
+        }
+
+        for (int i = 0; i < submissions.size(); i++) {
+            JavacBatchParser.Result result = results.get(i).get();
+            Set<File> parsedFiles = result.compilationUnits().stream().map(it -> new File(it.getSourceFile().toUri())).collect(Collectors.toSet());
+            assertEquals(submissions.get(i), parsedFiles);
+            assertTrue(result.diagnostics().isEmpty());
+        }
+    }
+
+    @Test
+    void testErrorsOnlyAffectTheirSubmission() throws Exception {
+        int brokenSubmission = NUMBER_OF_SUBMISSIONS / 2;
+        List<Set<File>> submissions = createSubmissions(NUMBER_OF_SUBMISSIONS, brokenSubmission);
+
+        List<Future<List<Token>>> results = parseConcurrently(submissions);
+
+        for (int i = 0; i < results.size(); i++) {
+            if (i == brokenSubmission) {
+                Future<List<Token>> result = results.get(i);
+                ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+                assertTrue(exception.getCause() instanceof ParsingException);
+            } else {
+                assertTrue(results.get(i).get().size() > FILE_NAMES.size());
+            }
+        }
+    }
+
+    private List<Future<List<Token>>> parseConcurrently(List<Set<File>> submissions) {
+        JavaLanguage language = new JavaLanguage();
+        List<Future<List<Token>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Set<File> submission : submissions) {
+                results.add(executor.submit(() -> language.parse(submission, false)));
+            }
+        }
+        return results;
+    }
+
+    private List<Set<File>> createSubmissions(int numberOfSubmissions, int brokenSubmission) throws IOException {
+        List<Set<File>> submissions = new ArrayList<>();
+        for (int i = 0; i < numberOfSubmissions; i++) {
+            Path directory = Files.createDirectory(tempDirectory.resolve("submission" + i));
+            List<File> files = new ArrayList<>();
+            for (String fileName : FILE_NAMES) {
+                files.add(Files.copy(RESOURCES.resolve(fileName), directory.resolve(fileName)).toFile());
+            }
+            if (i == brokenSubmission) {
+                files.add(Files.writeString(directory.resolve("Broken.java"), "class Broken { void method( }").toFile());
+            }
+            submissions.add(new TreeSet<>(files));
+        }
+        return submissions;
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        return tokens.stream().map(it -> String.join(":", it.getFile().getName(), it.getType().getDescription(), String.valueOf(it.getStartLine()),
+                String.valueOf(it.getStartColumn()), String.valueOf(it.getEndLine()), String.valueOf(it.getEndColumn()))).toList();
+    }
+}
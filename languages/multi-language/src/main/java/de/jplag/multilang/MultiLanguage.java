@@ -20,6 +20,7 @@ public class MultiLanguage implements Language {
     private static final String WARNING = "This module only allows parsing of multiple languages. No comparisons will be made between languages";
     private final MultiLanguageOptions options;
     private boolean printedWarning;
+    private volatile MultiLanguageParser parser;
 
     public MultiLanguage() {
         this.options = new MultiLanguageOptions();
@@ -50,8 +51,7 @@ public class MultiLanguage implements Language {
     @Override
     public List<Token> parse(Set<File> files, boolean normalize) throws ParsingException {
         this.printWarning();
-        MultiLanguageParser parser = new MultiLanguageParser(this.options);
-        return parser.parseFiles(files, normalize);
+        return this.getParser().parseFiles(files, normalize);
     }
 
     @Override
@@ -64,6 +64,24 @@ public class MultiLanguage implements Language {
         return false;
     }
 
+    /**
+     * The parser and its extension map are created on first use, when the language options are final, and then shared
+     * by all submissions.
+     */
+    private MultiLanguageParser getParser() {
+        MultiLanguageParser result = this.parser;
+        if (result == null) {
+            synchronized (this) {
+                result = this.parser;
+                if (result == null) {
+                    result = new MultiLanguageParser(this.options);
+                    this.parser = result;
+                }
+            }
+        }
+        return result;
+    }
+
     private void printWarning() {
         if (!this.printedWarning) {
             this.printedWarning = true;
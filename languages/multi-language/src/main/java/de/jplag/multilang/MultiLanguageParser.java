@@ -4,15 +4,25 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import de.jplag.Language;
 import de.jplag.ParsingException;
 import de.jplag.Token;
 
+/**
+ * Parses the files of a submission with the language registered for their file extension. The extension map is built
+ * once per parser, so a parser should be reused across submissions.
+ */
 public class MultiLanguageParser {
     private static final String ERROR_MULTIPLE_LANGUAGES = "The suffix %s appears for multiple languages (%s, %s) with same priority setting. This is not permitted as it causes ambiguities for the multi-language module.";
 
@@ -25,14 +35,56 @@ public class MultiLanguageParser {
         this.registerLanguageMaps(options.getLanguages());
     }
 
+    /**
+     * Parses the given files. The files are grouped by language and each language parses its files in one batch, with
+     * the languages running concurrently. The tokens of the languages are concatenated in the order in which the languages
+     * first appear in the given files.
+     * @param files are the files to parse.
+     * @param normalize specifies whether the token streams should be normalized.
+     * @return the tokens of all files.
+     * @throws ParsingException if any language fails to parse its files.
+     */
     public List<Token> parseFiles(Set<File> files, boolean normalize) throws ParsingException {
-        List<Token> results = new ArrayList<>();
+        Map<Language, Set<File>> filesByLanguage = new LinkedHashMap<>();
         for (File file : files) {
-            Optional<Language> language = findLanguageForFile(file);
-            if (language.isPresent()) {
-                results.addAll(language.get().parse(Set.of(file), normalize));
+            findLanguageForFile(file).ifPresent(language -> filesByLanguage.computeIfAbsent(language, it -> new LinkedHashSet<>()).add(file));
+        }
+        if (filesByLanguage.size() <= 1) {
+            List<Token> results = new ArrayList<>();
+            for (Map.Entry<Language, Set<File>> entry : filesByLanguage.entrySet()) {
+                results.addAll(entry.getKey().parse(entry.getValue(), normalize));
+            }
+            return results;
+        }
+
+        List<Future<List<Token>>> futures = new ArrayList<>(filesByLanguage.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<Language, Set<File>> entry : filesByLanguage.entrySet()) {
+                futures.add(executor.submit(() -> entry.getKey().parse(entry.getValue(), normalize)));
             }
         }
+
+        List<Token> results = new ArrayList<>();
+        List<ParsingException> exceptions = new ArrayList<>();
+        for (Future<List<Token>> future : futures) {
+            try {
+                results.addAll(future.get());
+            } catch (ExecutionException exception) {
+                if (exception.getCause() instanceof ParsingException parsingException) {
+                    exceptions.add(parsingException);
+                } else if (exception.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                } else {
+                    throw new IllegalStateException(exception.getCause());
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(exception);
+            }
+        }
+        if (!exceptions.isEmpty()) {
+            throw ParsingException.wrappingExceptions(exceptions);
+        }
         return results;
     }
 
@@ -62,7 +114,11 @@ public class MultiLanguageParser {
 
     private Optional<Language> findLanguageForFile(File file) {
         String name = file.getName();
-        String extension = name.substring(name.lastIndexOf('.')).toLowerCase();
+        int extensionStart = name.lastIndexOf('.');
+        if (extensionStart < 0) {
+            return Optional.empty();
+        }
+        String extension = name.substring(extensionStart).toLowerCase();
 
         if (this.languageMapPriority.containsKey(extension)) {
             return Optional.of(this.languageMapPriority.get(extension));
@@ -6,6 +6,8 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -28,6 +30,7 @@ class MultilangTest {
     private static File javaCode;
     private static File cppCode;
 
+    private static final List<TokenType> JAVA_TOKENS = List.of(JavaTokenType.J_CLASS_BEGIN, JavaTokenType.J_CLASS_END, FILE_END);
     private static final List<TokenType> expectedTokens = List.of(CPPTokenType.FUNCTION_BEGIN, CPPTokenType.RETURN, CPPTokenType.FUNCTION_END,
             FILE_END, JavaTokenType.J_CLASS_BEGIN, JavaTokenType.J_CLASS_END, FILE_END);
 
@@ -53,6 +56,35 @@ class MultilangTest {
         Assertions.assertEquals(expectedTokens, tokens.stream().map(Token::getType).toList());
     }
 
+    @Test
+    void testFilesAreGroupedByLanguage() throws IOException, ParsingException {
+        File secondCppCode = new File(testDataDirectory, "SecondCppCode.cpp");
+        File readme = new File(testDataDirectory, "README");
+        Files.copy(cppCode.toPath(), secondCppCode.toPath());
+        Files.writeString(readme.toPath(), "not source code");
+        try {
+            MultiLanguage languageModule = new MultiLanguage();
+            ((MultiLanguageOptions) languageModule.getOptions()).getLanguageNames().setValue("java,cpp");
+
+            Set<File> sources = new TreeSet<>(List.of(javaCode, cppCode, secondCppCode, readme));
+            List<Token> tokens = languageModule.parse(sources, false);
+
+            List<TokenType> cppTokens = List.of(CPPTokenType.FUNCTION_BEGIN, CPPTokenType.RETURN, CPPTokenType.FUNCTION_END, FILE_END);
+            List<TokenType> expected = new ArrayList<>(cppTokens);
+            expected.addAll(JAVA_TOKENS);
+            expected.addAll(cppTokens);
+            expected.sort(Comparator.comparing(TokenType::getDescription));
+            List<TokenType> actual = new ArrayList<>(tokens.stream().map(Token::getType).toList());
+            actual.sort(Comparator.comparing(TokenType::getDescription));
+            Assertions.assertEquals(expected, actual);
+            Assertions.assertEquals(tokens.stream().map(Token::getType).toList(),
+                    languageModule.parse(sources, false).stream().map(Token::getType).toList());
+        } finally {
+            secondCppCode.delete();
+            readme.delete();
+        }
+    }
+
     @Test
     void testInvalidLanguage() {
         MultiLanguage languageModule = new MultiLanguage();
@@ -3,6 +3,7 @@ package de.jplag.scxml;
 import java.io.File;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import org.kohsuke.MetaInfServices;
 
@@ -44,6 +45,11 @@ public class ScxmlLanguage implements Language {
         return new ScxmlParserAdapter().parse(files);
     }
 
+    @Override
+    public List<Token> parse(Set<File> files, boolean normalize, BiConsumer<File, String> viewConsumer) throws ParsingException {
+        return new ScxmlParserAdapter().parse(files, viewConsumer);
+    }
+
     @Override
     public boolean useViewFiles() {
         return true;
@@ -1,20 +1,19 @@
 package de.jplag.scxml.parser;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.function.Function;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.xml.sax.SAXException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import de.jplag.ParsingException;
 import de.jplag.scxml.parser.model.State;
@@ -22,11 +21,11 @@ import de.jplag.scxml.parser.model.Statechart;
 import de.jplag.scxml.parser.model.Transition;
 import de.jplag.scxml.parser.model.executable_content.Action;
 import de.jplag.scxml.parser.model.executable_content.ExecutableContent;
-import de.jplag.scxml.parser.util.NodeUtil;
+import de.jplag.scxml.parser.model.executable_content.If;
 
 /**
- * An SCXML parser implementation based on a Simple API for XML (SAX) parser. Constructs a Statechart object during the
- * parse.
+ * An SCXML parser implementation based on the Streaming API for XML (StAX). Constructs a Statechart object in a single
+ * pass over the document without building a DOM.
  */
 public class ScxmlParser {
 
@@ -44,96 +43,223 @@ public class ScxmlParser {
     private static final String EVENT_ATTRIBUTE = "event";
     private static final String CONDITION_ATTRIBUTE = "cond";
 
-    private final DocumentBuilder builder;
-    private final List<String> initialStateTargets = new ArrayList<>();
+    private static final XMLInputFactory inputFactory = createInputFactory();
 
-    /**
-     * Constructs a new ScxmlParser used to parse SCXML documents.
-     * @throws ParserConfigurationException when the document builder for parsing the XML files cannot be constructed
-     */
-    public ScxmlParser() throws ParserConfigurationException {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        builder = factory.newDocumentBuilder();
-    }
+    private final Set<String> initialStateTargets = new HashSet<>();
+    private XMLStreamReader reader;
 
     /**
-     * Parses the given SCXML file using Javax and constructs a Statechart object. Two passes through the document are
-     * performed: In the first pass, all {@literal <initial>} elements within states are iterated over to resolve initial
-     * states. In the second pass, the whole document is visited. This is necessary because an initial state may occur in
-     * the document prior to the transitions pointing to it.
+     * Parses the given SCXML file and constructs a Statechart object. A single pass through the document is performed.
+     * As an initial state may occur in the document prior to the {@literal <initial>} element pointing to it, the states
+     * are first collected and only constructed after the whole document has been read.
      * @param file the SCXML file to parse
      * @return the statechart constructed from the input statechart file
      * @throws ParsingException when the statechart could not be parsed
      */
     public Statechart parse(File file) throws ParsingException {
-        try {
-            Document document = builder.parse(file);
-            Element element = document.getDocumentElement();
-            resolveInitialStates(element);
-            return visitRoot(element);
-        } catch (SAXException | IOException | IllegalArgumentException e) {
+        initialStateTargets.clear();
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+            reader = inputFactory.createXMLStreamReader(file.toURI().toString(), input);
+            try {
+                while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    // skip the prolog
+                }
+                return readRoot();
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | IOException | IllegalArgumentException e) {
             throw new ParsingException(file, "failed to parse statechart: " + e.getMessage());
         }
     }
 
-    private void resolveInitialStates(Node root) {
-        List<Node> initialElements = NodeUtil.getNodesRecursive(root, INITIAL_ELEMENT);
-        List<Transition> transitions = initialElements.stream().map(this::visitInitialTransition).toList();
-        initialStateTargets.addAll(transitions.stream().map(Transition::target).toList());
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
     }
 
-    private <T> List<T> visitChildElements(Node root, Set<String> childNames, Function<Node, T> visitorFunction) {
-        return new ArrayList<>(NodeUtil.getChildNodes(root, childNames).stream().map(visitorFunction).toList());
-    }
-
-    private Statechart visitRoot(Node node) {
-        String name = NodeUtil.getAttribute(node, NAME_ATTRIBUTE);
+    private Statechart readRoot() throws XMLStreamException {
+        String name = attribute(NAME_ATTRIBUTE);
         assert name != null : "statechart element must have name attribute";
 
-        List<State> states = visitChildElements(node, Set.of(STATE_ELEMENT, PARALLEL_STATE_ELEMENT), this::visitState);
-        return new Statechart(name, states);
+        List<StateData> states = new ArrayList<>();
+        readChildElements(elementName -> {
+            if (STATE_ELEMENT.equals(elementName) || PARALLEL_STATE_ELEMENT.equals(elementName)) {
+                states.add(readState(elementName));
+                return true;
+            }
+            return false;
+        });
+        return new Statechart(name, buildStates(states));
     }
 
-    private State visitState(Node node) {
-        String id = NodeUtil.getAttribute(node, ID_ATTRIBUTE);
+    private StateData readState(String elementName) throws XMLStreamException {
+        String id = attribute(ID_ATTRIBUTE);
         assert id != null : "state element must have id attribute";
 
-        boolean initial = initialStateTargets.contains(id) || NodeUtil.getAttribute(node, INITIAL_ATTRIBUTE) != null;
-        boolean parallel = PARALLEL_STATE_ELEMENT.equals(node.getNodeName());
+        boolean parallel = PARALLEL_STATE_ELEMENT.equals(elementName);
+        StateData state = new StateData(id, attribute(INITIAL_ATTRIBUTE) != null, parallel);
+        int initialElements = readChildElements(childName -> {
+            switch (childName) {
+                case ONENTRY_ELEMENT -> state.actions.add(new Action(Action.Type.ON_ENTRY, readExecutableContents()));
+                case ONEXIT_ELEMENT -> state.actions.add(new Action(Action.Type.ON_EXIT, readExecutableContents()));
+                case TRANSITION_ELEMENT -> state.transitions.add(readTransition());
+                case STATE_ELEMENT, PARALLEL_STATE_ELEMENT -> state.substates.add(readState(childName));
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        });
+        assert !(parallel && initialElements > 0) : "parallel state " + id + " must not have initial element";
+        return state;
+    }
+
+    private void readInitial() throws XMLStreamException {
+        List<Transition> transitions = new ArrayList<>();
+        readChildElements(elementName -> {
+            if (TRANSITION_ELEMENT.equals(elementName) && transitions.isEmpty()) {
+                transitions.add(readTransition());
+                return true;
+            }
+            return false;
+        });
+        assert !transitions.isEmpty() : "initial element must contain transition child";
+        if (!transitions.isEmpty()) {
+            Transition transition = transitions.get(0);
+            assert transition.isInitial() : "transition is not an initial transition";
+            initialStateTargets.add(transition.target());
+        }
+    }
+
+    private Transition readTransition() throws XMLStreamException {
+        String target = attribute(TARGET_ATTRIBUTE);
+        String event = attribute(EVENT_ATTRIBUTE);
+        String condition = attribute(CONDITION_ATTRIBUTE);
+        // Set timed attribute to false initially, may be updated later in the State class
+        return new Transition(target, event, condition, readExecutableContents(), false);
+    }
+
+    private List<ExecutableContent> readExecutableContents() throws XMLStreamException {
+        List<ExecutableContent> contents = new ArrayList<>();
+        readChildElements(elementName -> {
+            if (ExecutableContent.ALLOWED_XML_ELEMENTS.contains(elementName)) {
+                contents.add(readExecutableContent(elementName));
+                return true;
+            }
+            return false;
+        });
+        return contents;
+    }
+
+    private ExecutableContent readExecutableContent(String elementName) throws XMLStreamException {
+        if (ExecutableContent.IF_ELEMENT.equals(elementName)) {
+            return readIf();
+        }
+        ExecutableContent content = ExecutableContent.fromElement(elementName, this::attribute);
+        skipElement();
+        return content;
+    }
+
+    private If readIf() throws XMLStreamException {
+        String condition = attribute(CONDITION_ATTRIBUTE);
+        If.BranchCollector collector = new If.BranchCollector();
+        readChildElements(elementName -> {
+            if (If.BranchCollector.isBranch(elementName)) {
+                collector.startBranch(elementName);
+            } else if (ExecutableContent.ALLOWED_XML_ELEMENTS.contains(elementName)) {
+                collector.addContent(readExecutableContent(elementName));
+                return true;
+            }
+            return false;
+        });
+        return collector.build(condition);
+    }
 
-        Node child = NodeUtil.getFirstChild(node, INITIAL_ELEMENT);
-        assert !(parallel && child != null) : "parallel state " + id + " must not have initial element";
+    /**
+     * Reads the child elements of the current element until its end tag. {@literal <initial>} elements are resolved
+     * wherever they occur, all other elements are passed to the handler.
+     * @param handler reads a child element, starting at its start tag. Returns false if it did not read the element, which
+     * is then skipped.
+     * @return the number of {@literal <initial>} child elements
+     */
+    private int readChildElements(ChildElementHandler handler) throws XMLStreamException {
+        int initialElements = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String elementName = elementName();
+                if (INITIAL_ELEMENT.equals(elementName)) {
+                    readInitial();
+                    initialElements++;
+                } else if (!handler.readElement(elementName)) {
+                    skipElement();
+                }
+            }
+        }
+        return initialElements;
+    }
 
-        List<Action> actions = visitChildElements(node, Set.of(ONENTRY_ELEMENT, ONEXIT_ELEMENT), this::visitAction);
-        List<Transition> transitions = visitChildElements(node, Set.of(TRANSITION_ELEMENT), this::visitTransition);
-        List<State> states = visitChildElements(node, Set.of(STATE_ELEMENT, PARALLEL_STATE_ELEMENT), this::visitState);
-        return new State(id, transitions, states, actions, initial, parallel);
+    private void skipElement() throws XMLStreamException {
+        readChildElements(elementName -> false);
     }
 
-    private Action visitAction(Node node) throws IllegalArgumentException {
-        if (node == null) {
-            return null;
+    /**
+     * @return the qualified name of the current element, as it appears in the document
+     */
+    private String elementName() {
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    /**
+     * @return the value of the attribute with the given qualified name of the current element, or {@code null} if the
+     * element has no such attribute
+     */
+    private String attribute(String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = reader.getAttributePrefix(i);
+            String localName = reader.getAttributeLocalName(i);
+            if (prefix == null || prefix.isEmpty() ? localName.equals(name) : name.equals(prefix + ":" + localName)) {
+                return reader.getAttributeValue(i);
+            }
         }
-        Action.Type type = ONENTRY_ELEMENT.equals(node.getNodeName()) ? Action.Type.ON_ENTRY : Action.Type.ON_EXIT;
-        return new Action(type, visitExecutableContents(node));
+        return null;
     }
 
-    private List<ExecutableContent> visitExecutableContents(Node node) throws IllegalArgumentException {
-        return visitChildElements(node, ExecutableContent.ALLOWED_XML_ELEMENTS, ExecutableContent::fromNode);
+    private List<State> buildStates(List<StateData> states) {
+        List<State> result = new ArrayList<>(states.size());
+        for (StateData state : states) {
+            boolean initial = initialStateTargets.contains(state.id) || state.hasInitialAttribute;
+            result.add(new State(state.id, state.transitions, buildStates(state.substates), state.actions, initial, state.parallel));
+        }
+        return result;
     }
 
-    private Transition visitInitialTransition(Node node) {
-        List<Node> transitionNodes = NodeUtil.getChildNodes(node, TRANSITION_ELEMENT);
-        assert !transitionNodes.isEmpty() : "initial element must contain transition child";
-        Transition transition = visitTransition(transitionNodes.get(0));
-        assert transition.isInitial() : "transition is not an initial transition";
-        return transition;
+    @FunctionalInterface
+    private interface ChildElementHandler {
+        boolean readElement(String elementName) throws XMLStreamException;
     }
 
-    private Transition visitTransition(Node node) throws IllegalArgumentException {
-        return new Transition(NodeUtil.getAttribute(node, TARGET_ATTRIBUTE), NodeUtil.getAttribute(node, EVENT_ATTRIBUTE),
-                NodeUtil.getAttribute(node, CONDITION_ATTRIBUTE), visitExecutableContents(node),
-                // Set timed attribute to false initially, may be updated later in the State class
-                false);
+    /**
+     * A state whose initial flag is not resolved yet.
+     */
+    private static final class StateData {
+        private final String id;
+        private final boolean hasInitialAttribute;
+        private final boolean parallel;
+        private final List<Action> actions = new ArrayList<>();
+        private final List<Transition> transitions = new ArrayList<>();
+        private final List<StateData> substates = new ArrayList<>();
+
+        private StateData(String id, boolean hasInitialAttribute, boolean parallel) {
+            this.id = id;
+            this.hasInitialAttribute = hasInitialAttribute;
+            this.parallel = parallel;
+        }
     }
 }
@@ -4,12 +4,12 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.function.BiConsumer;
 
 import de.jplag.ParsingException;
 import de.jplag.Token;
 import de.jplag.TokenTrace;
+import de.jplag.ViewFileWriter;
 import de.jplag.scxml.ScxmlLanguage;
 import de.jplag.scxml.ScxmlToken;
 import de.jplag.scxml.ScxmlTokenType;
@@ -40,17 +40,34 @@ public class ScxmlParserAdapter {
     protected AbstractScxmlVisitor visitor;
     protected ScxmlView view;
 
+    /**
+     * Receives the view of each parsed statechart file.
+     */
+    protected BiConsumer<File, String> viewConsumer;
+
     public ScxmlParserAdapter() {
         this.visitor = new HandcraftedScxmlTokenGenerator(this);
     }
 
     /**
-     * Extracts all tokens from a set of files.
+     * Extracts all tokens from a set of files and writes a view file next to each file.
      * @param files the set of files
      * @throws ParsingException if the statechart could not be parsed
      * @return the list of parsed tokens
      */
     public List<Token> parse(Set<File> files) throws ParsingException {
+        return parse(files, new ViewFileWriter(ScxmlLanguage.VIEW_FILE_EXTENSION));
+    }
+
+    /**
+     * Extracts all tokens from a set of files.
+     * @param files the set of files
+     * @param viewConsumer receives the view of each parsed file
+     * @throws ParsingException if the statechart could not be parsed
+     * @return the list of parsed tokens
+     */
+    public List<Token> parse(Set<File> files, BiConsumer<File, String> viewConsumer) throws ParsingException {
+        this.viewConsumer = viewConsumer;
         tokens = new ArrayList<>();
         for (File file : files) {
             parseStatechartFile(file);
@@ -65,18 +82,12 @@ public class ScxmlParserAdapter {
      */
     protected void parseStatechartFile(File file) throws ParsingException {
         currentStatechartFile = file;
-        Statechart statechart;
         view = new ScxmlView(file);
-
-        try {
-            statechart = new ScxmlParser().parse(file);
-        } catch (ParserConfigurationException e) {
-            throw new ParsingException(file, "failed to construct XML document builder:\n" + e.getMessage());
-        }
+        Statechart statechart = new ScxmlParser().parse(file);
 
         visitor.visit(statechart);
         tokens.add(Token.fileEnd(currentStatechartFile));
-        view.writeToFile(ScxmlLanguage.VIEW_FILE_EXTENSION);
+        viewConsumer.accept(file, view.getContent());
     }
 
     /**
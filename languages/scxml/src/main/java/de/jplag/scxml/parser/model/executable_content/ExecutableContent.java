@@ -7,6 +7,7 @@ import static de.jplag.scxml.parser.model.executable_content.SimpleExecutableCon
 import static de.jplag.scxml.parser.model.executable_content.SimpleExecutableContent.Type.SCRIPT;
 
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 import org.w3c.dom.Node;
 
@@ -98,17 +99,30 @@ public interface ExecutableContent extends StatechartElement {
      * @throws IllegalArgumentException if the node name is not allowed or the executable content could not be created
      */
     static ExecutableContent fromNode(Node node) throws IllegalArgumentException {
-        return switch (node.getNodeName()) {
-            case IF_ELEMENT -> If.fromNode(node);
+        if (IF_ELEMENT.equals(node.getNodeName())) {
+            return If.fromNode(node);
+        }
+        return fromElement(node.getNodeName(), name -> NodeUtil.getAttribute(node, name));
+    }
+
+    /**
+     * Constructs a concrete instance of ExecutableContent that is not an {@literal <if>} element, based on the element name
+     * and its attributes. Used by parsers that do not operate on a DOM.
+     * @param elementName the name of the element
+     * @param attributes maps attribute names to their values, or to {@code null} if the attribute is not present
+     * @return the constructed ExecutableContent
+     * @throws IllegalArgumentException if the element name is not allowed or is an {@literal <if>} element
+     */
+    static ExecutableContent fromElement(String elementName, UnaryOperator<String> attributes) throws IllegalArgumentException {
+        return switch (elementName) {
             case RAISE_ELEMENT -> new SimpleExecutableContent(RAISE);
             case ASSIGN_ELEMENT -> new SimpleExecutableContent(ASSIGNMENT);
             case SCRIPT_ELEMENT -> new SimpleExecutableContent(SCRIPT);
             case FOREACH_ELEMENT -> new SimpleExecutableContent(FOREACH);
             case LOG_ELEMENT -> new SimpleExecutableContent(LOG);
-            case SEND_ELEMENT -> new Send(NodeUtil.getAttribute(node, EVENT_ATTRIBUTE), NodeUtil.getAttribute(node, DELAY_ATTRIBUTE));
-            case CANCEL_ELEMENT -> new Cancel(NodeUtil.getAttribute(node, SEND_ID_ATTRIBUTE));
-            default -> throw new IllegalArgumentException(
-                    "ExecutableContent.fromNode: invalid node " + node.getNodeName() + node.getParentNode().getNodeName());
+            case SEND_ELEMENT -> new Send(attributes.apply(EVENT_ATTRIBUTE), attributes.apply(DELAY_ATTRIBUTE));
+            case CANCEL_ELEMENT -> new Cancel(attributes.apply(SEND_ID_ATTRIBUTE));
+            default -> throw new IllegalArgumentException("ExecutableContent.fromElement: invalid element " + elementName);
         };
     }
 }
@@ -39,14 +39,6 @@ public record If(String cond, List<ExecutableContent> contents, List<ElseIf> els
         this(cond, new ArrayList<>(List.of(contents)), new ArrayList<>(), null);
     }
 
-    private static void addBranch(String branch, List<ExecutableContent> contents, List<ElseIf> elseIfs, List<Else> elses) {
-        if (ELSEIF_ELEMENT.equals(branch)) {
-            elseIfs.add(new ElseIf(contents));
-        } else if (ELSE_ELEMENT.equals(branch)) {
-            elses.add(new Else(contents));
-        }
-    }
-
     /**
      * Constructs an If statechart element from a given node with optional ElseIf or Else branches. The W3C SCXML
      * specification defines a valid {@literal <if>} element as follows:
@@ -74,44 +66,90 @@ public record If(String cond, List<ExecutableContent> contents, List<ElseIf> els
      */
     public static If fromNode(Node node) throws IllegalArgumentException {
         NodeList childNodes = node.getChildNodes();
-        List<ElseIf> elseIfs = new ArrayList<>();
-        List<Else> elses = new ArrayList<>();
-
-        String curBranch = IF_ELEMENT;
-        List<ExecutableContent> curContents = new ArrayList<>();
-        List<ExecutableContent> ifContents = new ArrayList<>();
-
+        BranchCollector collector = new BranchCollector();
         for (int i = 0; i < childNodes.getLength(); i++) {
             Node childNode = childNodes.item(i);
             String nodeName = childNode.getNodeName();
-            if (ELSEIF_ELEMENT.equals(nodeName) || ELSE_ELEMENT.equals(nodeName)) {
-                if (IF_ELEMENT.equals(curBranch)) {
-                    ifContents = new ArrayList<>(curContents);
-                }
-
-                addBranch(curBranch, curContents, elseIfs, elses);
-                curBranch = nodeName;
-                curContents.clear();
+            if (BranchCollector.isBranch(nodeName)) {
+                collector.startBranch(nodeName);
             } else if (ALLOWED_CONTENTS.contains(nodeName)) {
-                curContents.add(ExecutableContent.fromNode(childNode));
+                collector.addContent(ExecutableContent.fromNode(childNode));
             }
         }
-
-        if (IF_ELEMENT.equals(curBranch)) {
-            ifContents = curContents;
-        } else {
-            // Close the last branch, if there is any
-            addBranch(curBranch, curContents, elseIfs, elses);
-        }
-
-        if (elses.size() > 1) {
-            throw new IllegalArgumentException("<if> element may only contain at most one else branch");
-        }
-        return new If(NodeUtil.getAttribute(node, COND_ATTRIBUTE), ifContents, elseIfs, elses.isEmpty() ? null : elses.get(0));
+        return collector.build(NodeUtil.getAttribute(node, COND_ATTRIBUTE));
     }
 
     @Override
     public String toString() {
         return "If {";
     }
+
+    /**
+     * Collects the branches of an {@literal <if>} element from its child elements in document order, see
+     * {@link If#fromNode(Node)}. Used by parsers that do not operate on a DOM.
+     */
+    public static final class BranchCollector {
+        private final List<ElseIf> elseIfs = new ArrayList<>();
+        private final List<Else> elses = new ArrayList<>();
+        private final List<ExecutableContent> curContents = new ArrayList<>();
+        private List<ExecutableContent> ifContents = new ArrayList<>();
+        private String curBranch = IF_ELEMENT;
+
+        /**
+         * @param elementName the name of a child element of the {@literal <if>} element
+         * @return whether the element starts a new branch, i.e. it is an {@literal <elseif>} or {@literal <else>} element
+         */
+        public static boolean isBranch(String elementName) {
+            return ELSEIF_ELEMENT.equals(elementName) || ELSE_ELEMENT.equals(elementName);
+        }
+
+        /**
+         * Closes the current branch and starts a new one.
+         * @param elementName the name of the {@literal <elseif>} or {@literal <else>} element
+         */
+        public void startBranch(String elementName) {
+            if (IF_ELEMENT.equals(curBranch)) {
+                ifContents = new ArrayList<>(curContents);
+            }
+            addBranch(curBranch, curContents);
+            curBranch = elementName;
+            curContents.clear();
+        }
+
+        /**
+         * Adds executable content to the current branch.
+         * @param content the executable content
+         */
+        public void addContent(ExecutableContent content) {
+            curContents.add(content);
+        }
+
+        /**
+         * Closes the last branch and creates the If statechart element.
+         * @param cond the cond attribute of the {@literal <if>} element
+         * @return the If statechart element
+         * @throws IllegalArgumentException when more than one {@literal <else>} statement is present
+         */
+        public If build(String cond) throws IllegalArgumentException {
+            if (IF_ELEMENT.equals(curBranch)) {
+                ifContents = curContents;
+            } else {
+                // Close the last branch, if there is any
+                addBranch(curBranch, curContents);
+            }
+
+            if (elses.size() > 1) {
+                throw new IllegalArgumentException("<if> element may only contain at most one else branch");
+            }
+            return new If(cond, ifContents, elseIfs, elses.isEmpty() ? null : elses.get(0));
+        }
+
+        private void addBranch(String branch, List<ExecutableContent> contents) {
+            if (ELSEIF_ELEMENT.equals(branch)) {
+                elseIfs.add(new ElseIf(contents));
+            } else if (ELSE_ELEMENT.equals(branch)) {
+                elses.add(new Else(contents));
+            }
+        }
+    }
 }
@@ -1,15 +1,10 @@
 package de.jplag.scxml.util;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.Objects;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import de.jplag.TokenTrace;
+import de.jplag.ViewFileWriter;
 import de.jplag.scxml.ScxmlTokenType;
 import de.jplag.scxml.parser.model.StatechartElement;
 
@@ -24,7 +19,6 @@ public class ScxmlView {
     private static final String END_TOKEN_SYMBOL = "}";
     private final File file;
     private final StringBuilder builder;
-    private final Logger logger;
     private int line;
 
     /**
@@ -35,24 +29,22 @@ public class ScxmlView {
     public ScxmlView(File file) {
         this.file = file;
         this.builder = new StringBuilder();
-        this.logger = LoggerFactory.getLogger(this.getClass());
         this.line = 1;
     }
 
+    /**
+     * @return the current view file contents
+     */
+    public String getContent() {
+        return builder.toString();
+    }
+
     /**
      * Writes the current view file contents to the file specified in the constructor.
      * @param fileExtension the extension to use for the name of the view file
      */
     public void writeToFile(String fileExtension) {
-        File viewFile = new File(file.toString() + fileExtension);
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(viewFile))) {
-            if (!viewFile.createNewFile()) {
-                logger.warn("Overwriting statechart view file: {}", viewFile);
-            }
-            writer.append(builder.toString());
-        } catch (IOException exception) {
-            logger.error("Could not write statechart view file!", exception);
-        }
+        new ViewFileWriter(fileExtension).accept(file, getContent());
     }
 
     /**
@@ -6,6 +6,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +15,7 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.xml.sax.SAXException;
 
 import de.jplag.ParsingException;
@@ -118,6 +120,24 @@ class ScxmlParserTest {
         assertThat(actual).usingRecursiveComparison().isEqualTo(expected);
     }
 
+    @Test
+    void canResolveInitialStateDefinedAfterTarget(@TempDir Path tempDirectory) throws ParsingException, IOException {
+        File testFile = tempDirectory.resolve("late_initial.scxml").toFile();
+        Files.writeString(testFile.toPath(), """
+                <scxml xmlns="http://www.w3.org/2005/07/scxml" version="1.0" name="Statechart">
+                  <state id="main_region">
+                    <state id="Start"/>
+                    <initial><transition target="Start"/></initial>
+                  </state>
+                </scxml>
+                """);
+        Statechart actual = new ScxmlParser().parse(testFile);
+
+        State mainRegion = new StateBuilder("main_region").addSubstates(new StateBuilder("Start").setInitial().build()).build();
+        Statechart expected = new Statechart("Statechart", List.of(mainRegion));
+        assertThat(actual).usingRecursiveComparison().isEqualTo(expected);
+    }
+
     @AfterEach
     void tearDown() {
         FileUtil.clearFiles(new File(BASE_PATH.toString()), ScxmlLanguage.VIEW_FILE_EXTENSION);
@@ -15,13 +15,16 @@ import static de.jplag.scxml.ScxmlTokenType.TRANSITION;
 import static de.jplag.scxml.ScxmlTokenType.TRANSITION_END;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.jupiter.api.AfterEach;
@@ -109,6 +112,18 @@ class ScxmlTokenGeneratorTest {
         assertEquals(Files.readAllLines(expectedViewFile.toPath()), Files.readAllLines(viewFile.toPath()));
     }
 
+    @Test
+    void testViewInMemory() throws ParsingException, IOException {
+        File testFile = new File(baseDirectory, TestSubjects.COMPLEX.fileName);
+        Map<File, String> views = new HashMap<>();
+        new ScxmlLanguage().parse(Set.of(testFile), false, views::put);
+
+        File viewFile = new File(testFile.getPath() + ScxmlLanguage.VIEW_FILE_EXTENSION);
+        File expectedViewFile = new File(baseDirectory, TestSubjects.COMPLEX_VIEW_FILE.fileName);
+        assertFalse(viewFile.exists());
+        assertEquals(Files.readAllLines(expectedViewFile.toPath()), views.get(testFile).lines().toList());
+    }
+
     @AfterEach
     void tearDown() {
         FileUtil.clearFiles(new File(BASE_PATH.toString()), ScxmlLanguage.VIEW_FILE_EXTENSION);
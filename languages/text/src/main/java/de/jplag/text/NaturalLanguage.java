@@ -18,6 +18,8 @@ import de.jplag.Token;
 @MetaInfServices(Language.class)
 public class NaturalLanguage implements Language {
 
+    private final NaturalLanguageOptions options = new NaturalLanguageOptions();
+
     @Override
     public List<String> fileExtensions() {
         return List.of(".txt", ".asc", ".tex", ".md", ".rtf", ".csv", ".wiki", ".json", ".yaml", ".yml", ".xml");
@@ -40,7 +42,12 @@ public class NaturalLanguage implements Language {
 
     @Override
     public List<Token> parse(Set<File> files, boolean normalize) throws ParsingException {
-        return new ParserAdapter().parse(files);
+        return new ParserAdapter(options.useFastTokenizer()).parse(files);
+    }
+
+    @Override
+    public NaturalLanguageOptions getOptions() {
+        return options;
     }
 
     @Override
@@ -0,0 +1,22 @@
+package de.jplag.text;
+
+import de.jplag.options.LanguageOption;
+import de.jplag.options.LanguageOptions;
+import de.jplag.options.OptionType;
+
+/**
+ * Language specific options for the text language.
+ */
+public class NaturalLanguageOptions extends LanguageOptions {
+
+    /**
+     * Whether words are found with a pattern instead of the CoreNLP tokenizer.
+     */
+    private final LanguageOption<Boolean> useFastTokenizer = createDefaultOption(OptionType.bool(), "useFastTokenizer",
+            "If set JPlag finds words with a Unicode pattern instead of the CoreNLP tokenizer, which is faster but splits contractions differently",
+            false);
+
+    public boolean useFastTokenizer() {
+        return this.useFastTokenizer.getValue();
+    }
+}
@@ -2,10 +2,12 @@ package de.jplag.text;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Properties;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,17 +17,32 @@ import de.jplag.Token;
 import de.jplag.util.FileUtils;
 
 import edu.stanford.nlp.ling.CoreLabel;
-import edu.stanford.nlp.pipeline.CoreDocument;
-import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import edu.stanford.nlp.process.CoreLabelTokenFactory;
+import edu.stanford.nlp.process.PTBTokenizer;
+import edu.stanford.nlp.process.Tokenizer;
+import edu.stanford.nlp.process.TokenizerFactory;
 
+/**
+ * Extracts a token for each word of the text files. Words are either found with the CoreNLP tokenizer, or with a simple
+ * pattern that only matches letters and digits. The tokenizer is shared, so creating an adapter is cheap.
+ */
 public class ParserAdapter {
     private static final Logger logger = LoggerFactory.getLogger(ParserAdapter.class);
 
     private static final char LF = '\n';
     private static final char CR = '\r';
-    private static final String ANNOTATORS_KEY = "annotators";
-    private static final String ANNOTATORS_VALUE = "tokenize";
-    private final StanfordCoreNLP pipeline;
+    /**
+     * The same tokenizer as the tokenize annotator of a CoreNLP pipeline uses for English, without the pipeline setup. The
+     * factory is thread-safe, each file gets its own tokenizer.
+     */
+    private static final TokenizerFactory<CoreLabel> tokenizerFactory = PTBTokenizer.factory(new CoreLabelTokenFactory(), "invertible");
+    /**
+     * Letters and digits, joined by apostrophes, or by periods and commas between digits.
+     */
+    private static final Pattern WORD_PATTERN = Pattern
+            .compile("[\\p{L}\\p{M}\\p{N}]+(?:(?:['’]|(?<=\\p{N})[.,](?=\\p{N}))[\\p{L}\\p{M}\\p{N}]+)*");
+
+    private final boolean useFastTokenizer;
 
     private List<Token> tokens;
     private File currentFile;
@@ -36,9 +53,14 @@ public class ParserAdapter {
     private int currentLineBreakIndex;
 
     public ParserAdapter() {
-        Properties properties = new Properties();
-        properties.put(ANNOTATORS_KEY, ANNOTATORS_VALUE);
-        this.pipeline = new StanfordCoreNLP(properties);
+        this(false);
+    }
+
+    /**
+     * @param useFastTokenizer specifies if words are found with a pattern instead of the CoreNLP tokenizer.
+     */
+    public ParserAdapter(boolean useFastTokenizer) {
+        this.useFastTokenizer = useFastTokenizer;
     }
 
     public List<Token> parse(Set<File> files) throws ParsingException {
@@ -57,12 +79,22 @@ public class ParserAdapter {
         this.currentLineBreakIndex = -1;
         String content = readFile(file);
         int lastTokenEnd = 0;
-        CoreDocument coreDocument = pipeline.processToCoreDocument(content);
-        for (CoreLabel token : coreDocument.tokens()) {
-            advanceLineBreaks(content, lastTokenEnd, token.beginPosition());
-            lastTokenEnd = token.endPosition();
-            if (isWord(token)) {
-                addToken(token);
+        if (useFastTokenizer) {
+            Matcher matcher = WORD_PATTERN.matcher(content);
+            while (matcher.find()) {
+                advanceLineBreaks(content, lastTokenEnd, matcher.start());
+                lastTokenEnd = matcher.end();
+                addToken(matcher.group(), matcher.start(), matcher.end());
+            }
+        } else {
+            Tokenizer<CoreLabel> tokenizer = tokenizerFactory.getTokenizer(new StringReader(content));
+            while (tokenizer.hasNext()) {
+                CoreLabel token = tokenizer.next();
+                advanceLineBreaks(content, lastTokenEnd, token.beginPosition());
+                lastTokenEnd = token.endPosition();
+                if (isWord(token)) {
+                    addToken(token.originalText(), token.beginPosition(), token.endPosition());
+                }
             }
         }
     }
@@ -94,11 +126,10 @@ public class ParserAdapter {
         return text.chars().anyMatch(it -> Character.isAlphabetic(it) || Character.isDigit(it));
     }
 
-    private void addToken(CoreLabel label) {
-        String text = label.originalText();
-        int startColumn = label.beginPosition() - currentLineBreakIndex;
-        int endColumn = label.endPosition() - currentLineBreakIndex;
-        int length = label.endPosition() - label.beginPosition();
+    private void addToken(String text, int beginPosition, int endPosition) {
+        int startColumn = beginPosition - currentLineBreakIndex;
+        int endColumn = endPosition - currentLineBreakIndex;
+        int length = endPosition - beginPosition;
         // As a token can not stretch multiple lines, the startLine is equal to the end line
         tokens.add(new Token(new TextTokenType(text), currentFile, currentLine, startColumn, currentLine, endColumn, length));
     }
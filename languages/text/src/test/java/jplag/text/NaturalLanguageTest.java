@@ -13,6 +13,7 @@ import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.slf4j.Logger;
@@ -23,6 +24,7 @@ import de.jplag.Token;
 import de.jplag.TokenPrinter;
 import de.jplag.TokenType;
 import de.jplag.text.NaturalLanguage;
+import de.jplag.text.ParserAdapter;
 
 class NaturalLanguageTest {
     private final Logger logger = LoggerFactory.getLogger(NaturalLanguageTest.class);
@@ -33,6 +35,9 @@ class NaturalLanguageTest {
     private de.jplag.Language language;
     private File baseDirectory;
 
+    @TempDir
+    private Path tempDirectory;
+
     @BeforeEach
     public void setUp() {
         language = new NaturalLanguage();
@@ -54,8 +59,7 @@ class NaturalLanguageTest {
     @ParameterizedTest
     @ValueSource(strings = {"\n", "\r", "\r\n",})
     void testLineBreakInputs(String input) throws IOException, ParsingException {
-        File testFile = File.createTempFile("input", "txt");
-        Files.writeString(testFile.toPath(), input);
+        File testFile = writeInput(input);
         List<Token> result = language.parse(Set.of(testFile), false);
         assertEquals(1, result.size());
     }
@@ -63,10 +67,40 @@ class NaturalLanguageTest {
     @ParameterizedTest
     @ValueSource(strings = {"\ntoken", "\rtoken", "\r\ntoken",})
     void testTokenAfterLineBreak(String input) throws IOException, ParsingException {
-        File testFile = File.createTempFile("input", "txt");
-        Files.writeString(testFile.toPath(), input);
+        File testFile = writeInput(input);
         List<Token> result = language.parse(Set.of(testFile), false);
         assertEquals(2, result.get(0).getStartLine());
     }
 
+    @Test
+    void testFastTokenizerPositions() throws ParsingException, IOException {
+        File testFile = new File(BASE_PATH.toFile(), TEST_SUBJECT);
+        List<String> lines = Files.readAllLines(testFile.toPath());
+        List<Token> result = new ParserAdapter(true).parse(Set.of(testFile));
+
+        assertTrue(result.size() > 1);
+        for (Token token : result.subList(0, result.size() - 1)) {
+            String line = lines.get(token.getStartLine() - 1);
+            String text = line.substring(token.getStartColumn() - 1, token.getEndColumn() - 1);
+            assertEquals(text.toLowerCase(), token.getType().getDescription());
+        }
+    }
+
+    @Test
+    void testTokenizersAgreeOnSimpleText() throws IOException, ParsingException {
+        File testFile = writeInput("The quick brown fox,\r\njumps over 3.14 lazy dogs.\n\n  Naïve café (again)!");
+        List<String> expected = describe(new ParserAdapter(false).parse(Set.of(testFile)));
+        assertEquals(13, expected.size()); // including the file end token
+        assertEquals(expected, describe(new ParserAdapter(true).parse(Set.of(testFile))));
+    }
+
+    private File writeInput(String content) throws IOException {
+        return Files.writeString(tempDirectory.resolve("input.txt"), content).toFile();
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        return tokens.stream()
+                .map(it -> it.getType().getDescription() + "@" + it.getStartLine() + ":" + it.getStartColumn() + ":" + it.getEndColumn()).toList();
+    }
+
 }
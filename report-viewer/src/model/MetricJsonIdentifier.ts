@@ -2,5 +2,6 @@ export enum MetricJsonIdentifier {
   AVERAGE_SIMILARITY = 'AVG',
   MAXIMUM_SIMILARITY = 'MAX',
   LONGEST_MATCH = 'LONGEST_MATCH',
-  MAXIMUM_LENGTH = 'MAXIMUM_LENGTH'
+  MAXIMUM_LENGTH = 'MAXIMUM_LENGTH',
+  COMMENT_SIMILARITY = 'COMMENTS'
 }
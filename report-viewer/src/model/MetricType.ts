@@ -130,12 +130,20 @@ export namespace MetricTypes {
     MetricJsonIdentifier.MAXIMUM_LENGTH,
     Column.maximumLength
   )
+  export const COMMENT_SIMILARITY = new PercentageMetricType(
+    'COM',
+    'Comment Similarity',
+    'The similarity of the comments of the two files.\nIt measures the proportion of shared word sequences in the comments.\nZero if comments were not analyzed.',
+    MetricJsonIdentifier.COMMENT_SIMILARITY,
+    Column.commentSimilarity
+  )
 
   export const METRIC_LIST: MetricType[] = [
     AVERAGE_SIMILARITY,
     MAXIMUM_SIMILARITY,
     LONGEST_MATCH,
-    MAXIMUM_LENGTH
+    MAXIMUM_LENGTH,
+    COMMENT_SIMILARITY
   ]
 
   export const METRIC_MAP: Record<MetricJsonIdentifier, MetricType> = {} as Record<
@@ -149,6 +157,7 @@ export namespace MetricTypes {
     MetricJsonIdentifier.AVERAGE_SIMILARITY,
     MetricJsonIdentifier.MAXIMUM_SIMILARITY,
     MetricJsonIdentifier.LONGEST_MATCH,
-    MetricJsonIdentifier.MAXIMUM_LENGTH
+    MetricJsonIdentifier.MAXIMUM_LENGTH,
+    MetricJsonIdentifier.COMMENT_SIMILARITY
   ]
 }
@@ -5,6 +5,8 @@ export enum SubmissionState {
   NOTHING_TO_PARSE = 'NOTHING_TO_PARSE',
   CANNOT_PARSE = 'CANNOT_PARSE',
   TOO_SMALL = 'TOO_SMALL',
+  OVER_BUDGET = 'OVER_BUDGET',
+  TIMED_OUT = 'TIMED_OUT',
   UNPARSED = 'UNPARSED'
 }
 
@@ -15,6 +15,7 @@ export type ColumnId =
   | 'cluster'
   | 'longestMatch'
   | 'maximumLength'
+  | 'commentSimilarity'
 
 export interface ColumnSorting {
   id: ColumnId
@@ -63,6 +64,11 @@ export namespace Column {
     value: (c: ComparisonListElement) =>
       buildComparisonValues(c, MetricJsonIdentifier.MAXIMUM_LENGTH)
   }
+  export const commentSimilarity: ColumnSorting = {
+    id: 'commentSimilarity',
+    value: (c: ComparisonListElement) =>
+      buildComparisonValues(c, MetricJsonIdentifier.COMMENT_SIMILARITY)
+  }
 
   export const cluster: ColumnSorting = {
     id: 'cluster',
@@ -82,6 +88,7 @@ export namespace Column {
     maximumSimilarity,
     longestMatch,
     maximumLength,
+    commentSimilarity,
     cluster
   }
 
@@ -89,7 +96,8 @@ export namespace Column {
     MetricJsonIdentifier.AVERAGE_SIMILARITY,
     MetricJsonIdentifier.MAXIMUM_SIMILARITY,
     MetricJsonIdentifier.LONGEST_MATCH,
-    MetricJsonIdentifier.MAXIMUM_LENGTH
+    MetricJsonIdentifier.MAXIMUM_LENGTH,
+    MetricJsonIdentifier.COMMENT_SIMILARITY
   ]
 
   function buildComparisonValues(c: ComparisonListElement, metric: MetricJsonIdentifier): number[] {
@@ -117,6 +125,8 @@ export namespace Column {
         return Column.longestMatch
       case MetricJsonIdentifier.MAXIMUM_LENGTH:
         return Column.maximumLength
+      case MetricJsonIdentifier.COMMENT_SIMILARITY:
+        return Column.commentSimilarity
       default:
         throw new Error(`Unknown metric: ${metric}`)
     }
@@ -65,6 +65,7 @@ describe('Test JSON to Comparison', () => {
     expect(result.similarities[MetricJsonIdentifier.MAXIMUM_SIMILARITY]).toBe(0.5)
     expect(result.similarities[MetricJsonIdentifier.LONGEST_MATCH]).toBe(139)
     expect(result.similarities[MetricJsonIdentifier.MAXIMUM_LENGTH]).toBe(462)
+    expect(result.similarities[MetricJsonIdentifier.COMMENT_SIMILARITY]).toBe(0.25)
 
     expect(result.filesOfFirstSubmission).toBeDefined()
     expect(result.filesOfSecondSubmission).toBeDefined()